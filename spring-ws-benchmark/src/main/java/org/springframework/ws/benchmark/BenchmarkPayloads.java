@@ -0,0 +1,121 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.springframework.ws.transport.TransportConstants;
+import org.springframework.ws.transport.TransportInputStream;
+
+/**
+ * Helper methods for creating the SOAP request messages used by the benchmarks.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+abstract class BenchmarkPayloads {
+
+	/** The namespace of the benchmark payloads, as defined in {@code echo.xsd}. */
+	static final String NAMESPACE_URI = "http://springframework.org/spring-ws/benchmark";
+
+	/** The local name of the benchmark payload root element. */
+	static final String LOCAL_NAME = "echoRequest";
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final String ENVELOPE_START =
+			"<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'>" +
+					"<soapenv:Header/><soapenv:Body>" + "<tns:" + LOCAL_NAME + " xmlns:tns='" + NAMESPACE_URI + "'>";
+
+	private static final String ENVELOPE_END = "</tns:" + LOCAL_NAME + "></soapenv:Body></soapenv:Envelope>";
+
+	private static final String ITEM_TEXT = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do";
+
+	private BenchmarkPayloads() {
+	}
+
+	/**
+	 * Creates a SOAP 1.1 envelope of (roughly) the given size, in bytes. The payload consists of a number of
+	 * {@code item} elements, and is valid according to {@code echo.xsd}.
+	 *
+	 * @param size the desired size of the envelope in bytes
+	 * @return the envelope, as UTF-8 encoded bytes
+	 */
+	static byte[] createEnvelope(int size) {
+		StringBuilder builder = new StringBuilder(size + ITEM_TEXT.length() * 2);
+		builder.append(ENVELOPE_START);
+		for (int i = 0; builder.length() + ENVELOPE_END.length() < size; i++) {
+			builder.append("<tns:item id='").append(i).append("'>").append(ITEM_TEXT).append("</tns:item>");
+		}
+		builder.append(ENVELOPE_END);
+		return builder.toString().getBytes(UTF_8);
+	}
+
+	/**
+	 * Returns a {@code TransportInputStream} for the given envelope, with a {@code Content-Type} header of
+	 * {@code text/xml}, similar to a SOAP 1.1 request received over HTTP.
+	 */
+	static TransportInputStream createTransportInputStream(byte[] envelope) {
+		return new ByteArrayTransportInputStream(envelope);
+	}
+
+	private static class ByteArrayTransportInputStream extends TransportInputStream {
+
+		private final byte[] envelope;
+
+		private ByteArrayTransportInputStream(byte[] envelope) {
+			this.envelope = envelope;
+		}
+
+		@Override
+		protected InputStream createInputStream() throws IOException {
+			return new ByteArrayInputStream(envelope);
+		}
+
+		@Override
+		public Iterator<String> getHeaderNames() throws IOException {
+			return Collections.singletonList(TransportConstants.HEADER_CONTENT_TYPE).iterator();
+		}
+
+		@Override
+		public Iterator<String> getHeaders(String name) throws IOException {
+			if (TransportConstants.HEADER_CONTENT_TYPE.equalsIgnoreCase(name)) {
+				return Collections.singletonList("text/xml; charset=utf-8").iterator();
+			}
+			return Collections.<String>emptyList().iterator();
+		}
+	}
+
+	/** {@code OutputStream} that discards all written bytes, used to write out response messages. */
+	static class NullOutputStream extends OutputStream {
+
+		@Override
+		public void write(int b) throws IOException {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+		}
+	}
+
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.xml.namespace.QName;
+import javax.xml.transform.Source;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.EndpointAdapter;
+import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.server.EndpointMapping;
+import org.springframework.ws.server.MessageDispatcher;
+import org.springframework.ws.server.endpoint.PayloadEndpoint;
+import org.springframework.ws.server.endpoint.adapter.PayloadEndpointAdapter;
+import org.springframework.ws.server.endpoint.interceptor.PayloadLoggingInterceptor;
+import org.springframework.ws.server.endpoint.mapping.PayloadRootQNameEndpointMapping;
+import org.springframework.ws.soap.SoapMessageFactory;
+import org.springframework.ws.soap.axiom.AxiomSoapMessageFactory;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+import org.springframework.ws.soap.stroap.StroapMessageFactory;
+import org.springframework.ws.soap.security.wss4j.Wss4jSecurityInterceptor;
+import org.springframework.ws.soap.security.wss4j.callback.SimplePasswordValidationCallbackHandler;
+import org.springframework.ws.soap.server.SoapMessageDispatcher;
+import org.springframework.ws.soap.server.endpoint.interceptor.PayloadValidatingInterceptor;
+
+/**
+ * JMH benchmark that drives {@link MessageDispatcher#receive(MessageContext)} end-to-end: a request is parsed from
+ * bytes, routed through a {@link PayloadRootQNameEndpointMapping}, passed through the configured interceptor chain to
+ * an echoing {@link PayloadEndpoint}, and the response is written out again.
+ *
+ * <p>The benchmark is parameterized by message factory, payload size, and interceptor chain. Run it with
+ * {@code gradle :spring-ws-benchmark:jmh}, optionally passing JMH options with {@code -Pjmh.args="..."}; for
+ * instance {@code -Pjmh.args="-p payloadSize=1024 -p interceptors=none,security"}.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MessageDispatcherBenchmark {
+
+	private static final String USERNAME = "Bert";
+
+	private static final String PASSWORD = "Ernie";
+
+	/**
+	 * The message factory to use: {@code saaj}, {@code axiom}, {@code axiom-dom}, {@code axiom-noncaching},
+	 * {@code stroap}, or {@code stroap-noncaching}. The {@code axiom-dom} factory keeps the security interceptor from
+	 * copying the message into a separate DOM tree. The non-caching factories are not part of the defaults, as a
+	 * non-caching payload can only be read once, which fails with interceptors that read it. They can be combined with
+	 * the {@code none} and {@code validating} chains, since the latter validates as a stream.
+	 */
+	@Param({"saaj", "axiom", "axiom-dom", "stroap"})
+	public String messageFactory;
+
+	/** The size of the request envelope, in bytes. */
+	@Param({"1024", "102400", "1048576", "10485760", "52428800"})
+	public int payloadSize;
+
+	/**
+	 * The interceptors in the chain: {@code none}, {@code validating}, {@code logging}, {@code security}, or
+	 * {@code all}.
+	 */
+	@Param({"none", "validating", "logging", "security", "all"})
+	public String interceptors;
+
+	private SoapMessageFactory soapMessageFactory;
+
+	private MessageDispatcher messageDispatcher;
+
+	private byte[] envelope;
+
+	@Setup
+	public void setUp() throws Exception {
+		soapMessageFactory = createMessageFactory();
+
+		PayloadRootQNameEndpointMapping endpointMapping = new PayloadRootQNameEndpointMapping();
+		Map<String, Object> endpointMap = new HashMap<String, Object>();
+		endpointMap.put(new QName(BenchmarkPayloads.NAMESPACE_URI, BenchmarkPayloads.LOCAL_NAME).toString(),
+				new EchoPayloadEndpoint());
+		endpointMapping.setEndpointMap(endpointMap);
+		endpointMapping.setInterceptors(createInterceptors());
+		StaticApplicationContext applicationContext = new StaticApplicationContext();
+		applicationContext.refresh();
+		endpointMapping.setApplicationContext(applicationContext);
+
+		messageDispatcher = new SoapMessageDispatcher();
+		messageDispatcher.setEndpointMappings(Collections.<EndpointMapping>singletonList(endpointMapping));
+		messageDispatcher.setEndpointAdapters(
+				Collections.<EndpointAdapter>singletonList(new PayloadEndpointAdapter()));
+
+		envelope = BenchmarkPayloads.createEnvelope(payloadSize);
+		if (usesInterceptor("security")) {
+			envelope = secureEnvelope(envelope);
+		}
+	}
+
+	@Benchmark
+	public void receive(Blackhole blackhole) throws Exception {
+		WebServiceMessage request =
+				soapMessageFactory.createWebServiceMessage(BenchmarkPayloads.createTransportInputStream(envelope));
+		MessageContext messageContext = new DefaultMessageContext(request, soapMessageFactory);
+		messageDispatcher.receive(messageContext);
+		if (messageContext.hasResponse()) {
+			messageContext.getResponse().writeTo(new BenchmarkPayloads.NullOutputStream());
+		}
+		blackhole.consume(messageContext);
+	}
+
+	private SoapMessageFactory createMessageFactory() throws Exception {
+		if ("saaj".equals(messageFactory)) {
+			SaajSoapMessageFactory saajMessageFactory = new SaajSoapMessageFactory();
+			saajMessageFactory.afterPropertiesSet();
+			return saajMessageFactory;
+		}
+		else if ("axiom".equals(messageFactory) || "axiom-dom".equals(messageFactory) ||
+				"axiom-noncaching".equals(messageFactory)) {
+			AxiomSoapMessageFactory axiomMessageFactory = new AxiomSoapMessageFactory();
+			axiomMessageFactory.setPayloadCaching(!"axiom-noncaching".equals(messageFactory));
+			axiomMessageFactory.setDomCompatible("axiom-dom".equals(messageFactory));
+			axiomMessageFactory.afterPropertiesSet();
+			return axiomMessageFactory;
+		}
+		else if ("stroap".equals(messageFactory) || "stroap-noncaching".equals(messageFactory)) {
+			StroapMessageFactory stroapMessageFactory = new StroapMessageFactory();
+			stroapMessageFactory.setPayloadCaching(!"stroap-noncaching".equals(messageFactory));
+			return stroapMessageFactory;
+		}
+		else {
+			throw new IllegalArgumentException("Unknown message factory [" + messageFactory + "]");
+		}
+	}
+
+	private EndpointInterceptor[] createInterceptors() throws Exception {
+		List<EndpointInterceptor> result = new ArrayList<EndpointInterceptor>();
+		if (usesInterceptor("security")) {
+			Wss4jSecurityInterceptor securityInterceptor = new Wss4jSecurityInterceptor();
+			securityInterceptor.setValidationActions("UsernameToken");
+			SimplePasswordValidationCallbackHandler callbackHandler = new SimplePasswordValidationCallbackHandler();
+			callbackHandler.setUsersMap(Collections.singletonMap(USERNAME, PASSWORD));
+			securityInterceptor.setValidationCallbackHandler(callbackHandler);
+			securityInterceptor.setSecurementActions("Timestamp");
+			securityInterceptor.afterPropertiesSet();
+			result.add(securityInterceptor);
+		}
+		if (usesInterceptor("logging")) {
+			result.add(new DiscardingPayloadLoggingInterceptor());
+		}
+		if (usesInterceptor("validating")) {
+			PayloadValidatingInterceptor validatingInterceptor = new PayloadValidatingInterceptor();
+			validatingInterceptor.setSchema(new ClassPathResource("echo.xsd", MessageDispatcherBenchmark.class));
+			validatingInterceptor.setValidateRequest(true);
+			validatingInterceptor.setValidateResponse(true);
+			validatingInterceptor.setStreamingValidation(true);
+			validatingInterceptor.afterPropertiesSet();
+			result.add(validatingInterceptor);
+		}
+		return result.toArray(new EndpointInterceptor[result.size()]);
+	}
+
+	private boolean usesInterceptor(String name) {
+		return "all".equals(interceptors) || name.equals(interceptors);
+	}
+
+	/** Adds a plain text UsernameToken to the given envelope, the same way a client-side interceptor would. */
+	private byte[] secureEnvelope(byte[] envelope) throws Exception {
+		Wss4jSecurityInterceptor clientInterceptor = new Wss4jSecurityInterceptor();
+		clientInterceptor.setSecurementActions("UsernameToken");
+		clientInterceptor.setSecurementUsername(USERNAME);
+		clientInterceptor.setSecurementPassword(PASSWORD);
+		clientInterceptor.setSecurementPasswordType("PasswordText");
+		clientInterceptor.afterPropertiesSet();
+
+		WebServiceMessage request =
+				soapMessageFactory.createWebServiceMessage(BenchmarkPayloads.createTransportInputStream(envelope));
+		clientInterceptor.handleRequest(new DefaultMessageContext(request, soapMessageFactory));
+		ByteArrayOutputStream os = new ByteArrayOutputStream(envelope.length + 1024);
+		request.writeTo(os);
+		return os.toByteArray();
+	}
+
+	/** Endpoint that returns the request payload as response. */
+	private static class EchoPayloadEndpoint implements PayloadEndpoint {
+
+		@Override
+		public Source invoke(Source request) throws Exception {
+			return request;
+		}
+	}
+
+	/**
+	 * {@code PayloadLoggingInterceptor} that always logs, but discards the resulting log message, so that the cost of
+	 * logging is measured independently of the logging framework and its configuration.
+	 */
+	private static class DiscardingPayloadLoggingInterceptor extends PayloadLoggingInterceptor {
+
+		@Override
+		protected boolean isLogEnabled() {
+			return true;
+		}
+
+		@Override
+		protected void logMessage(String message) {
+		}
+	}
+
+}
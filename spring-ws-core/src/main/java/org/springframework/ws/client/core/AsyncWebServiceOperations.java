@@ -0,0 +1,146 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.client.core;
+
+import org.springframework.oxm.XmlMappingException;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.ws.client.WebServiceClientException;
+
+/**
+ * Specifies a basic set of asynchronous Web service operations. Implemented by {@link WebServiceTemplate}.
+ *
+ * <p>In contrast to the {@link WebServiceOperations}, these methods do not wait for the response. The request message
+ * is created, and the {@link org.springframework.ws.client.support.interceptor.ClientInterceptor#handleRequest
+ * handleRequest} interceptor methods are invoked, on the calling thread; after which the message is handed to an
+ * {@link org.springframework.ws.transport.AsyncWebServiceMessageSender AsyncWebServiceMessageSender}. The response is
+ * processed when it arrives: the response-side interceptor methods, fault resolution, and result extraction all run
+ * on the thread that completes the returned future.
+ *
+ * <p>Exceptions that occur while processing the response are reported through the returned future, wrapped in an
+ * {@link java.util.concurrent.ExecutionException ExecutionException}.
+ *
+ * @author Arjen Poutsma
+ * @see WebServiceTemplate
+ * @see WebServiceOperations
+ * @since 2.3.0
+ */
+public interface AsyncWebServiceOperations {
+
+	/**
+	 * Asynchronously sends a web service message that can be manipulated with the given callback, reading the result
+	 * with a {@code WebServiceMessageExtractor}.
+	 *
+	 * <p>This will only work with a default uri specified!
+	 *
+	 * @param requestCallback	the requestCallback to be used for manipulating the request message
+	 * @param responseExtractor object that will extract results
+	 * @return a future for the result object, as returned by the {@code WebServiceMessageExtractor}
+	 * @throws WebServiceClientException if there is a problem creating or sending the message
+	 */
+	<T> ListenableFuture<T> sendAndReceiveAsync(WebServiceMessageCallback requestCallback,
+			WebServiceMessageExtractor<T> responseExtractor) throws WebServiceClientException;
+
+	/**
+	 * Asynchronously sends a web service message that can be manipulated with the given callback, reading the result
+	 * with a {@code WebServiceMessageExtractor}.
+	 *
+	 * @param uri				the URI to send the message to
+	 * @param requestCallback	the requestCallback to be used for manipulating the request message
+	 * @param responseExtractor object that will extract results
+	 * @return a future for the result object, as returned by the {@code WebServiceMessageExtractor}
+	 * @throws WebServiceClientException if there is a problem creating or sending the message
+	 */
+	<T> ListenableFuture<T> sendAndReceiveAsync(String uri,
+			WebServiceMessageCallback requestCallback,
+			WebServiceMessageExtractor<T> responseExtractor) throws WebServiceClientException;
+
+	//-----------------------------------------------------------------------------------------------------------------
+	// Convenience methods for sending and receiving marshalled messages
+	//-----------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Asynchronously sends a web service message that contains the given payload, marshalled by the configured
+	 * {@code Marshaller}. The returned future completes with the unmarshalled payload of the response message, if any.
+	 *
+	 * <p>This will only work with a default uri specified!
+	 *
+	 * @param requestPayload the object to marshal into the request message payload
+	 * @return a future for the unmarshalled payload of the response message, which completes with {@code null} if no
+	 *		   response is given
+	 * @throws XmlMappingException		 if there is a problem marshalling
+	 * @throws WebServiceClientException if there is a problem creating or sending the message
+	 * @see WebServiceTemplate#setMarshaller(org.springframework.oxm.Marshaller)
+	 * @see WebServiceTemplate#setUnmarshaller(org.springframework.oxm.Unmarshaller)
+	 */
+	ListenableFuture<Object> marshalSendAndReceiveAsync(Object requestPayload)
+			throws XmlMappingException, WebServiceClientException;
+
+	/**
+	 * Asynchronously sends a web service message that contains the given payload, marshalled by the configured
+	 * {@code Marshaller}. The returned future completes with the unmarshalled payload of the response message, if any.
+	 *
+	 * @param uri			 the URI to send the message to
+	 * @param requestPayload the object to marshal into the request message payload
+	 * @return a future for the unmarshalled payload of the response message, which completes with {@code null} if no
+	 *		   response is given
+	 * @throws XmlMappingException		 if there is a problem marshalling
+	 * @throws WebServiceClientException if there is a problem creating or sending the message
+	 * @see WebServiceTemplate#setMarshaller(org.springframework.oxm.Marshaller)
+	 * @see WebServiceTemplate#setUnmarshaller(org.springframework.oxm.Unmarshaller)
+	 */
+	ListenableFuture<Object> marshalSendAndReceiveAsync(String uri, Object requestPayload)
+			throws XmlMappingException, WebServiceClientException;
+
+	/**
+	 * Asynchronously sends a web service message that contains the given payload, marshalled by the configured
+	 * {@code Marshaller}. The returned future completes with the unmarshalled payload of the response message, if any.
+	 * The given callback allows changing of the request message after the payload has been marshalled to it.
+	 *
+	 * <p>This will only work with a default uri specified!
+	 *
+	 * @param requestPayload  the object to marshal into the request message payload
+	 * @param requestCallback callback to change message, can be {@code null}
+	 * @return a future for the unmarshalled payload of the response message, which completes with {@code null} if no
+	 *		   response is given
+	 * @throws XmlMappingException		 if there is a problem marshalling
+	 * @throws WebServiceClientException if there is a problem creating or sending the message
+	 * @see WebServiceTemplate#setMarshaller(org.springframework.oxm.Marshaller)
+	 * @see WebServiceTemplate#setUnmarshaller(org.springframework.oxm.Unmarshaller)
+	 */
+	ListenableFuture<Object> marshalSendAndReceiveAsync(Object requestPayload,
+			WebServiceMessageCallback requestCallback) throws XmlMappingException, WebServiceClientException;
+
+	/**
+	 * Asynchronously sends a web service message that contains the given payload, marshalled by the configured
+	 * {@code Marshaller}. The returned future completes with the unmarshalled payload of the response message, if any.
+	 * The given callback allows changing of the request message after the payload has been marshalled to it.
+	 *
+	 * @param uri			  the URI to send the message to
+	 * @param requestPayload  the object to marshal into the request message payload
+	 * @param requestCallback callback to change message, can be {@code null}
+	 * @return a future for the unmarshalled payload of the response message, which completes with {@code null} if no
+	 *		   response is given
+	 * @throws XmlMappingException		 if there is a problem marshalling
+	 * @throws WebServiceClientException if there is a problem creating or sending the message
+	 * @see WebServiceTemplate#setMarshaller(org.springframework.oxm.Marshaller)
+	 * @see WebServiceTemplate#setUnmarshaller(org.springframework.oxm.Unmarshaller)
+	 */
+	ListenableFuture<Object> marshalSendAndReceiveAsync(String uri,
+			Object requestPayload,
+			WebServiceMessageCallback requestCallback) throws XmlMappingException, WebServiceClientException;
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.util.List;
+import java.util.concurrent.Callable;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
@@ -34,6 +35,9 @@ import org.springframework.oxm.Marshaller;
 import org.springframework.oxm.Unmarshaller;
 import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.util.concurrent.ListenableFutureTask;
 import org.springframework.ws.FaultAwareWebServiceMessage;
 import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.WebServiceMessageFactory;
@@ -49,6 +53,8 @@ import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.soap.client.core.SoapFaultMessageResolver;
 import org.springframework.ws.support.DefaultStrategiesHelper;
 import org.springframework.ws.support.MarshallingUtils;
+import org.springframework.ws.transport.AbstractWebServiceConnection;
+import org.springframework.ws.transport.AsyncWebServiceMessageSender;
 import org.springframework.ws.transport.FaultAwareWebServiceConnection;
 import org.springframework.ws.transport.TransportException;
 import org.springframework.ws.transport.WebServiceConnection;
@@ -95,10 +101,15 @@ import org.springframework.ws.transport.support.TransportUtils;
  * {@link WebServiceMessageCallback#doWithMessage(WebServiceMessage) doWithMessage} on the response callback.</li> </ul>
  * <li>Call to {@link WebServiceConnection#close() close} on the connection.</li> </ol>
  *
+ * <p>The {@linkplain AsyncWebServiceOperations asynchronous} methods follow the same algorithm, but hand the request
+ * to the first registered {@link AsyncWebServiceMessageSender} that supports the URI instead of creating a connection.
+ * They return immediately after the request has been handed off; all steps after sending the request run on the
+ * thread that completes the send.
+ *
  * @author Arjen Poutsma
  * @since 1.0.0
  */
-public class WebServiceTemplate extends WebServiceAccessor implements WebServiceOperations {
+public class WebServiceTemplate extends WebServiceAccessor implements WebServiceOperations, AsyncWebServiceOperations {
 
 	/** Log category to use for message tracing. */
 	public static final String MESSAGE_TRACING_LOG_CATEGORY = "org.springframework.ws.client.MessageTracing";
@@ -125,6 +136,8 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
 
 	private DestinationProvider destinationProvider;
 
+	private int messageTracingBufferSize = 0;
+
 	/** Creates a new {@code WebServiceTemplate} using default settings. */
 	public WebServiceTemplate() {
 		initDefaultStrategies();
@@ -309,6 +322,22 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
 		this.checkConnectionForFault = checkConnectionForFault;
 	}
 
+	/**
+	 * Sets the size of the buffers used for transport-level message tracing. When larger than 0, and the {@link
+	 * #MESSAGE_TRACING_LOG_CATEGORY} logger is at "trace" level, the traced messages are the bytes actually sent and
+	 * received over the {@linkplain AbstractWebServiceConnection connection}, limited to the last {@code
+	 * messageTracingBufferSize} bytes, rather than a copy obtained by writing each message a second time. The traced
+	 * bytes are also logged when sending or receiving fails.
+	 *
+	 * <p>Default is {@code 0}: messages are traced by writing them to a byte array. Asynchronous invocations always use
+	 * this default.
+	 *
+	 * @see AbstractWebServiceConnection#setTraceBufferSize(int)
+	 */
+	public void setMessageTracingBufferSize(int messageTracingBufferSize) {
+		this.messageTracingBufferSize = messageTracingBufferSize;
+	}
+
 	/**
 	 * Returns the client interceptors to apply to all web service invocations made by this template.
 	 *
@@ -387,32 +416,32 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
 	public Object marshalSendAndReceive(String uri,
 										final Object requestPayload,
 										final WebServiceMessageCallback requestCallback) {
-		return sendAndReceive(uri, new WebServiceMessageCallback() {
+		return sendAndReceive(uri, new MarshallingMessageCallback(requestPayload, requestCallback),
+				new UnmarshallingMessageExtractor());
+	}
 
-			public void doWithMessage(WebServiceMessage request) throws IOException, TransformerException {
-				if (requestPayload != null) {
-					Marshaller marshaller = getMarshaller();
-					if (marshaller == null) {
-						throw new IllegalStateException(
-								"No marshaller registered. Check configuration of WebServiceTemplate.");
-					}
-					MarshallingUtils.marshal(marshaller, requestPayload, request);
-					if (requestCallback != null) {
-						requestCallback.doWithMessage(request);
-					}
-				}
-			}
-		}, new WebServiceMessageExtractor<Object>() {
+	@Override
+	public ListenableFuture<Object> marshalSendAndReceiveAsync(Object requestPayload) {
+		return marshalSendAndReceiveAsync(requestPayload, null);
+	}
 
-			public Object extractData(WebServiceMessage response) throws IOException {
-				Unmarshaller unmarshaller = getUnmarshaller();
-				if (unmarshaller == null) {
-					throw new IllegalStateException(
-							"No unmarshaller registered. Check configuration of WebServiceTemplate.");
-				}
-				return MarshallingUtils.unmarshal(unmarshaller, response);
-			}
-		});
+	@Override
+	public ListenableFuture<Object> marshalSendAndReceiveAsync(String uri, Object requestPayload) {
+		return marshalSendAndReceiveAsync(uri, requestPayload, null);
+	}
+
+	@Override
+	public ListenableFuture<Object> marshalSendAndReceiveAsync(Object requestPayload,
+			WebServiceMessageCallback requestCallback) {
+		return marshalSendAndReceiveAsync(getDefaultUri(), requestPayload, requestCallback);
+	}
+
+	@Override
+	public ListenableFuture<Object> marshalSendAndReceiveAsync(String uri,
+			Object requestPayload,
+			WebServiceMessageCallback requestCallback) {
+		return sendAndReceiveAsync(uri, new MarshallingMessageCallback(requestPayload, requestCallback),
+				new UnmarshallingMessageExtractor());
 	}
 
 	//
@@ -549,15 +578,18 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
 		WebServiceConnection connection = null;
 		try {
 			connection = createConnection(URI.create(uriString));
+			enableTransportTracing(connection);
 			TransportContextHolder.setTransportContext(new DefaultTransportContext(connection));
 			MessageContext messageContext = new DefaultMessageContext(getMessageFactory());
 
 			return doSendAndReceive(messageContext, connection, requestCallback, responseExtractor);
 		}
 		catch (TransportException ex) {
+			dumpTransportTrace(connection);
 			throw new WebServiceTransportException("Could not use transport: " + ex.getMessage(), ex);
 		}
 		catch (IOException ex) {
+			dumpTransportTrace(connection);
 			throw new WebServiceIOException("I/O error: " + ex.getMessage(), ex);
 		}
 		finally {
@@ -566,6 +598,111 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
 		}
 	}
 
+	//
+	// Asynchronous WebServiceMessage-handling methods
+	//
+
+	@Override
+	public <T> ListenableFuture<T> sendAndReceiveAsync(WebServiceMessageCallback requestCallback,
+			WebServiceMessageExtractor<T> responseExtractor) {
+		return sendAndReceiveAsync(getDefaultUri(), requestCallback, responseExtractor);
+	}
+
+	@Override
+	public <T> ListenableFuture<T> sendAndReceiveAsync(String uriString,
+			WebServiceMessageCallback requestCallback,
+			WebServiceMessageExtractor<T> responseExtractor) {
+		Assert.notNull(responseExtractor, "'responseExtractor' must not be null");
+		Assert.hasLength(uriString, "'uri' must not be empty");
+		URI uri = URI.create(uriString);
+		AsyncWebServiceMessageSender messageSender = getAsyncMessageSender(uri);
+		MessageContext messageContext = new DefaultMessageContext(getMessageFactory());
+		int interceptorIndex = -1;
+		try {
+			if (requestCallback != null) {
+				requestCallback.doWithMessage(messageContext.getRequest());
+			}
+			// Apply handleRequest of registered interceptors
+			boolean intercepted = false;
+			if (interceptors != null) {
+				for (int i = 0; i < interceptors.length; i++) {
+					interceptorIndex = i;
+					if (!interceptors[i].handleRequest(messageContext)) {
+						intercepted = true;
+						break;
+					}
+				}
+			}
+			AsyncResponseHandler<T> responseHandler =
+					new AsyncResponseHandler<T>(interceptorIndex, messageContext, responseExtractor);
+			// no send/receive if an interceptor has set a response or if the chain
+			// has been interrupted
+			if (!messageContext.hasResponse() && !intercepted) {
+				traceRequest(messageContext.getRequest());
+				ListenableFuture<WebServiceConnection> connectionFuture =
+						messageSender.sendAsync(uri, messageContext.getRequest());
+				return responseHandler.handleWhenComplete(connectionFuture);
+			}
+			return responseHandler.handleNow();
+		}
+		catch (TransformerException ex) {
+			throw handleAsyncException(interceptorIndex, messageContext, ex);
+		}
+		catch (RuntimeException ex) {
+			throw handleAsyncException(interceptorIndex, messageContext, ex);
+		}
+		catch (IOException ex) {
+			throw handleAsyncException(interceptorIndex, messageContext, ex);
+		}
+	}
+
+	/**
+	 * Returns the {@link AsyncWebServiceMessageSender} to use for the given URI, or throws an exception when it cannot
+	 * be resolved.
+	 *
+	 * <p>Default implementation iterates over all configured {@linkplain #setMessageSenders(WebServiceMessageSender[])
+	 * message senders}, and returns the first that is an {@code AsyncWebServiceMessageSender} and {@linkplain
+	 * WebServiceMessageSender#supports(URI) supports} the URI.
+	 *
+	 * @param uri the URI to send messages to
+	 * @return the asynchronous message sender
+	 * @throws IllegalArgumentException when the uri cannot be resolved
+	 */
+	protected AsyncWebServiceMessageSender getAsyncMessageSender(URI uri) {
+		Assert.notEmpty(getMessageSenders(), "Property 'messageSenders' is required");
+		for (WebServiceMessageSender messageSender : getMessageSenders()) {
+			if (messageSender instanceof AsyncWebServiceMessageSender && messageSender.supports(uri)) {
+				return (AsyncWebServiceMessageSender) messageSender;
+			}
+		}
+		throw new IllegalArgumentException("Could not resolve [" + uri + "] to an AsyncWebServiceMessageSender");
+	}
+
+	/**
+	 * Triggers after-completion for the given exception, which occurred while sending or receiving asynchronously, and
+	 * converts it into an unchecked exception.
+	 */
+	private RuntimeException handleAsyncException(int interceptorIndex, MessageContext messageContext, Exception ex) {
+		triggerAfterCompletion(interceptorIndex, messageContext, ex);
+		if (ex instanceof RuntimeException) {
+			return (RuntimeException) ex;
+		}
+		else if (ex instanceof TransformerException) {
+			return new WebServiceTransformerException("Transformation error: " + ex.getMessage(),
+					(TransformerException) ex);
+		}
+		else if (ex instanceof TransportException) {
+			return new WebServiceTransportException("Could not use transport: " + ex.getMessage(),
+					(TransportException) ex);
+		}
+		else if (ex instanceof IOException) {
+			return new WebServiceIOException("I/O error: " + ex.getMessage(), (IOException) ex);
+		}
+		else {
+			return new WebServiceIOException("I/O error: " + ex.getMessage(), new IOException(ex));
+		}
+	}
+
 	/**
 	 * Sends and receives a {@link MessageContext}. Sends the {@link MessageContext#getRequest() request message}, and
 	 * received to the {@link MessageContext#getResponse() repsonse message}. Invocates the defined {@link
@@ -604,14 +741,59 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
 			// has been interrupted
 			if (!messageContext.hasResponse() && !intercepted) {
 				sendRequest(connection, messageContext.getRequest());
-				if (hasError(connection, messageContext.getRequest())) {
-					triggerAfterCompletion(interceptorIndex, messageContext, null);
-					return (T) handleError(connection, messageContext.getRequest());
-				}
-				WebServiceMessage response = connection.receive(getMessageFactory());
-				messageContext.setResponse(response);
+				return receiveResponse(interceptorIndex, messageContext, connection, responseExtractor);
 			}
-			logResponse(messageContext);
+			return handleResponse(interceptorIndex, messageContext, connection, responseExtractor);
+		}
+		catch (TransformerException ex) {
+			triggerAfterCompletion(interceptorIndex, messageContext, ex);
+			throw new WebServiceTransformerException("Transformation error: " + ex.getMessage(), ex);
+		}
+		catch (RuntimeException ex) {
+			// Trigger after-completion for thrown exception.
+			triggerAfterCompletion(interceptorIndex, messageContext, ex);
+			throw ex;
+		}
+		catch (IOException ex) {
+			// Trigger after-completion for thrown exception.
+			triggerAfterCompletion(interceptorIndex, messageContext, ex);
+			throw ex;
+		}
+	}
+
+	/**
+	 * Receives the response message from the given connection, after the request has been sent, and handles it.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T receiveResponse(int interceptorIndex,
+								  MessageContext messageContext,
+								  WebServiceConnection connection,
+								  WebServiceMessageExtractor<T> responseExtractor)
+			throws IOException, TransformerException {
+		if (hasError(connection, messageContext.getRequest())) {
+			triggerAfterCompletion(interceptorIndex, messageContext, null);
+			return (T) handleError(connection, messageContext.getRequest());
+		}
+		WebServiceMessage response = connection.receive(getMessageFactory());
+		messageContext.setResponse(response);
+		return handleResponse(interceptorIndex, messageContext, connection, responseExtractor);
+	}
+
+	/**
+	 * Handles the response message in the given message context, if any, by invoking the interceptors, and either
+	 * resolving the fault or extracting the result.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T handleResponse(int interceptorIndex,
+								 MessageContext messageContext,
+								 WebServiceConnection connection,
+								 WebServiceMessageExtractor<T> responseExtractor)
+			throws IOException, TransformerException {
+		AbstractWebServiceConnection tracingConnection = getTracingConnection(connection);
+		if (tracingConnection == null) {
+			logResponse(messageContext, null);
+		}
+		try {
 			if (messageContext.hasResponse()) {
 				if (!hasFault(connection, messageContext.getResponse())) {
 					triggerHandleResponse(interceptorIndex, messageContext);
@@ -621,7 +803,7 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
 				else {
 					triggerHandleFault(interceptorIndex, messageContext);
 					triggerAfterCompletion(interceptorIndex, messageContext, null);
-					return (T)handleFault(connection, messageContext);
+					return (T) handleFault(connection, messageContext);
 				}
 			}
 			else {
@@ -629,24 +811,62 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
 				return null;
 			}
 		}
-		catch (TransformerException ex) {
-			triggerAfterCompletion(interceptorIndex, messageContext, ex);
-			throw new WebServiceTransformerException("Transformation error: " + ex.getMessage(), ex);
-		}
-		catch (RuntimeException ex) {
-			// Trigger after-completion for thrown exception.
-			triggerAfterCompletion(interceptorIndex, messageContext, ex);
-			throw ex;
-		}
-		catch (IOException ex) {
-			// Trigger after-completion for thrown exception.
-			triggerAfterCompletion(interceptorIndex, messageContext, ex);
-			throw ex;
+		finally {
+			// the response might be read lazily, so it has only been received completely after it has been handled
+			if (tracingConnection != null) {
+				logResponse(messageContext, tracingConnection);
+			}
 		}
 	}
 
 	/** Sends the request in the given message context over the connection. */
 	private void sendRequest(WebServiceConnection connection, WebServiceMessage request) throws IOException {
+		AbstractWebServiceConnection tracingConnection = getTracingConnection(connection);
+		if (tracingConnection == null) {
+			traceRequest(request);
+			connection.send(request);
+		}
+		else {
+			connection.send(request);
+			if (sentMessageTracingLogger.isTraceEnabled()) {
+				sentMessageTracingLogger.trace("Sent request [" + tracingConnection.getSentTrace() + "]");
+			}
+			else if (sentMessageTracingLogger.isDebugEnabled()) {
+				sentMessageTracingLogger.debug("Sent request [" + request + "]");
+			}
+		}
+	}
+
+	/**
+	 * Enables transport-level tracing on the given connection, if a {@linkplain #setMessageTracingBufferSize(int)
+	 * buffer size} has been set and a message tracing logger is at "trace" level.
+	 */
+	private void enableTransportTracing(WebServiceConnection connection) {
+		if (messageTracingBufferSize > 0 && connection instanceof AbstractWebServiceConnection &&
+				(sentMessageTracingLogger.isTraceEnabled() || receivedMessageTracingLogger.isTraceEnabled())) {
+			((AbstractWebServiceConnection) connection).setTraceBufferSize(messageTracingBufferSize);
+		}
+	}
+
+	/** Returns the given connection if it traces its bytes, or {@code null} otherwise. */
+	private AbstractWebServiceConnection getTracingConnection(WebServiceConnection connection) {
+		if (connection instanceof AbstractWebServiceConnection &&
+				((AbstractWebServiceConnection) connection).isTracing()) {
+			return (AbstractWebServiceConnection) connection;
+		}
+		return null;
+	}
+
+	/** Logs the bytes sent and received over the given connection, if it traces them, after a failure. */
+	private void dumpTransportTrace(WebServiceConnection connection) {
+		AbstractWebServiceConnection tracingConnection = getTracingConnection(connection);
+		if (tracingConnection != null && receivedMessageTracingLogger.isTraceEnabled()) {
+			receivedMessageTracingLogger.trace("Failed with received bytes [" + tracingConnection.getReceivedTrace() +
+					"] for sent bytes [" + tracingConnection.getSentTrace() + "]");
+		}
+	}
+
+	private void traceRequest(WebServiceMessage request) throws IOException {
 		if (sentMessageTracingLogger.isTraceEnabled()) {
 			ByteArrayOutputStream os = new ByteArrayOutputStream();
 			request.writeTo(os);
@@ -655,7 +875,6 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
 		else if (sentMessageTracingLogger.isDebugEnabled()) {
 			sentMessageTracingLogger.debug("Sent request [" + request + "]");
 		}
-		connection.send(request);
 	}
 
 	/**
@@ -696,12 +915,18 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
 		if (logger.isDebugEnabled()) {
 			logger.debug("Received error for request [" + request + "]");
 		}
+		dumpTransportTrace(connection);
 		throw new WebServiceTransportException(connection.getErrorMessage());
 	}
 
-	private void logResponse(MessageContext messageContext) throws IOException {
+	private void logResponse(MessageContext messageContext, AbstractWebServiceConnection tracingConnection)
+			throws IOException {
 		if (messageContext.hasResponse()) {
-			if (receivedMessageTracingLogger.isTraceEnabled()) {
+			if (tracingConnection != null && receivedMessageTracingLogger.isTraceEnabled()) {
+				receivedMessageTracingLogger.trace("Received response [" + tracingConnection.getReceivedTrace() +
+						"] for request [" + tracingConnection.getSentTrace() + "]");
+			}
+			else if (receivedMessageTracingLogger.isTraceEnabled()) {
 				ByteArrayOutputStream requestStream = new ByteArrayOutputStream();
 				messageContext.getRequest().writeTo(requestStream);
 				ByteArrayOutputStream responseStream = new ByteArrayOutputStream();
@@ -835,6 +1060,157 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
 		}
 	}
 
+	/** Callback that marshals the given payload into the request message. */
+	private class MarshallingMessageCallback implements WebServiceMessageCallback {
+
+		private final Object requestPayload;
+
+		private final WebServiceMessageCallback requestCallback;
+
+		private MarshallingMessageCallback(Object requestPayload, WebServiceMessageCallback requestCallback) {
+			this.requestPayload = requestPayload;
+			this.requestCallback = requestCallback;
+		}
+
+		@Override
+		public void doWithMessage(WebServiceMessage request) throws IOException, TransformerException {
+			if (requestPayload != null) {
+				Marshaller marshaller = getMarshaller();
+				if (marshaller == null) {
+					throw new IllegalStateException(
+							"No marshaller registered. Check configuration of WebServiceTemplate.");
+				}
+				MarshallingUtils.marshal(marshaller, requestPayload, request);
+				if (requestCallback != null) {
+					requestCallback.doWithMessage(request);
+				}
+			}
+		}
+	}
+
+	/** Extractor that unmarshals the payload of the response message. */
+	private class UnmarshallingMessageExtractor implements WebServiceMessageExtractor<Object> {
+
+		@Override
+		public Object extractData(WebServiceMessage response) throws IOException {
+			Unmarshaller unmarshaller = getUnmarshaller();
+			if (unmarshaller == null) {
+				throw new IllegalStateException(
+						"No unmarshaller registered. Check configuration of WebServiceTemplate.");
+			}
+			return MarshallingUtils.unmarshal(unmarshaller, response);
+		}
+	}
+
+	/**
+	 * Handles the response of an asynchronous send, on the thread that completes the send. Invokes the response-side
+	 * interceptors, and either resolves the fault or extracts the result, completing the future returned to the
+	 * caller.
+	 */
+	private class AsyncResponseHandler<T> implements Callable<T>, ListenableFutureCallback<WebServiceConnection> {
+
+		private final int interceptorIndex;
+
+		private final MessageContext messageContext;
+
+		private final WebServiceMessageExtractor<T> responseExtractor;
+
+		private ResponseFuture<T> responseFuture;
+
+		private WebServiceConnection connection;
+
+		private Throwable failure;
+
+		private AsyncResponseHandler(int interceptorIndex,
+									 MessageContext messageContext,
+									 WebServiceMessageExtractor<T> responseExtractor) {
+			this.interceptorIndex = interceptorIndex;
+			this.messageContext = messageContext;
+			this.responseExtractor = responseExtractor;
+		}
+
+		/** Handles the response once the given future completes. */
+		public ListenableFuture<T> handleWhenComplete(ListenableFuture<WebServiceConnection> connectionFuture) {
+			responseFuture = new ResponseFuture<T>(this, connectionFuture);
+			connectionFuture.addCallback(this);
+			return responseFuture;
+		}
+
+		/** Handles the response that was set by an interceptor, if any, on the calling thread. */
+		public ListenableFuture<T> handleNow() {
+			responseFuture = new ResponseFuture<T>(this, null);
+			responseFuture.run();
+			return responseFuture;
+		}
+
+		@Override
+		public void onSuccess(WebServiceConnection connection) {
+			this.connection = connection;
+			responseFuture.run();
+			if (responseFuture.isCancelled()) {
+				TransportUtils.closeConnection(connection);
+			}
+		}
+
+		@Override
+		public void onFailure(Throwable failure) {
+			this.failure = failure;
+			responseFuture.run();
+		}
+
+		@Override
+		public T call() throws Exception {
+			if (failure instanceof Error) {
+				triggerAfterCompletion(interceptorIndex, messageContext, null);
+				throw (Error) failure;
+			}
+			else if (failure != null) {
+				throw handleAsyncException(interceptorIndex, messageContext, (Exception) failure);
+			}
+			TransportContext previousTransportContext = TransportContextHolder.getTransportContext();
+			try {
+				if (connection != null) {
+					TransportContextHolder.setTransportContext(new DefaultTransportContext(connection));
+					return receiveResponse(interceptorIndex, messageContext, connection, responseExtractor);
+				}
+				return handleResponse(interceptorIndex, messageContext, null, responseExtractor);
+			}
+			catch (TransformerException ex) {
+				throw handleAsyncException(interceptorIndex, messageContext, ex);
+			}
+			catch (RuntimeException ex) {
+				throw handleAsyncException(interceptorIndex, messageContext, ex);
+			}
+			catch (IOException ex) {
+				throw handleAsyncException(interceptorIndex, messageContext, ex);
+			}
+			finally {
+				TransportUtils.closeConnection(connection);
+				TransportContextHolder.setTransportContext(previousTransportContext);
+			}
+		}
+	}
+
+	/** Future for the result of an asynchronous send, that cancels the send itself when cancelled. */
+	private static class ResponseFuture<T> extends ListenableFutureTask<T> {
+
+		private final ListenableFuture<WebServiceConnection> connectionFuture;
+
+		private ResponseFuture(Callable<T> callable, ListenableFuture<WebServiceConnection> connectionFuture) {
+			super(callable);
+			this.connectionFuture = connectionFuture;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+			if (cancelled && connectionFuture != null) {
+				connectionFuture.cancel(mayInterruptIfRunning);
+			}
+			return cancelled;
+		}
+	}
+
 	/** Adapter to enable use of a WebServiceMessageCallback inside a WebServiceMessageExtractor. */
 	private static class WebServiceMessageCallbackMessageExtractor implements WebServiceMessageExtractor<Boolean> {
 
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.mime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.Assert;
+
+/**
+ * Stores attachment content in memory or on disk, within a global memory budget.
+ *
+ * <p>Content no larger than the {@link #setSpillThreshold(int) spillThreshold} is kept in memory, as long as the total
+ * amount of memory used by all content of this store stays within the {@link #setMemoryBudget(long) memoryBudget}.
+ * Memory is reserved before the content is read, so the budget also holds when attachments are stored concurrently.
+ * All other content is spilled to a temporary file in the {@link #setSpillDirectory(File) spillDirectory}, using a
+ * {@link FileChannel}, so that it never has to fit in the heap.
+ *
+ * <p>The memory and spill file of stored content are released when the returned {@link StoredDataSource} is
+ * {@linkplain StoredDataSource#dispose() disposed}, or when it is garbage collected. Spill files that are left when
+ * this store is {@linkplain #destroy() destroyed} are deleted.
+ *
+ * <p>Message factories that read attachments themselves, such as the {@code AxiomSoapMessageFactory}, only use the
+ * {@linkplain #getInMemoryThreshold() in-memory threshold} and spill directory of this store. The memory of the
+ * attachments they keep in memory is not reserved, so the budget does not hold for them.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+public class AttachmentStore implements DisposableBean {
+
+	/** Default memory budget: 16 megabytes. */
+	public static final long DEFAULT_MEMORY_BUDGET = 16 * 1024 * 1024;
+
+	/** Default spill threshold: 64 kilobytes. */
+	public static final int DEFAULT_SPILL_THRESHOLD = 64 * 1024;
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private static final Log logger = LogFactory.getLog(AttachmentStore.class);
+
+	private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+
+	private int spillThreshold = DEFAULT_SPILL_THRESHOLD;
+
+	private File spillDirectory = new File(System.getProperty("java.io.tmpdir"));
+
+	private final AtomicLong memoryUsage = new AtomicLong();
+
+	private final ReferenceQueue<StoredDataSource> referenceQueue = new ReferenceQueue<StoredDataSource>();
+
+	private final Set<ContentReference> references =
+			Collections.newSetFromMap(new ConcurrentHashMap<ContentReference, Boolean>());
+
+	/**
+	 * Sets the maximum number of bytes of content this store keeps in memory, over all attachments. Defaults to 16
+	 * megabytes.
+	 */
+	public void setMemoryBudget(long memoryBudget) {
+		Assert.isTrue(memoryBudget >= 0, "'memoryBudget' must not be negative");
+		this.memoryBudget = memoryBudget;
+	}
+
+	/**
+	 * Sets the maximum size of a single attachment that is kept in memory, in bytes. Larger attachments are spilled to
+	 * disk. Defaults to 64 kilobytes.
+	 */
+	public void setSpillThreshold(int spillThreshold) {
+		Assert.isTrue(spillThreshold >= 0, "'spillThreshold' must not be negative");
+		this.spillThreshold = spillThreshold;
+	}
+
+	/** Returns the directory where attachments are spilled to. */
+	public File getSpillDirectory() {
+		return spillDirectory;
+	}
+
+	/**
+	 * Sets the directory where attachments are spilled to.
+	 *
+	 * <p>The parameter should be an existing, writable directory. This property defaults to the temporary directory of
+	 * the operating system (i.e. the value of the {@code java.io.tmpdir} system property).
+	 */
+	public void setSpillDirectory(File spillDirectory) {
+		Assert.notNull(spillDirectory, "'spillDirectory' must not be null");
+		Assert.isTrue(spillDirectory.isDirectory(), "'spillDirectory' must be a directory");
+		Assert.isTrue(spillDirectory.canWrite(), "'spillDirectory' must be writable");
+		this.spillDirectory = spillDirectory;
+	}
+
+	/** Returns the number of bytes of content currently kept in memory. */
+	public long getMemoryUsage() {
+		releaseCollected();
+		return memoryUsage.get();
+	}
+
+	/**
+	 * Returns the maximum number of bytes of the next attachment that can be kept in memory: the {@linkplain
+	 * #setSpillThreshold(int) spill threshold}, or the remaining memory budget if that is smaller. Does not reserve
+	 * any memory.
+	 */
+	public int getInMemoryThreshold() {
+		long remaining = memoryBudget - getMemoryUsage();
+		return (int) Math.max(0, Math.min(spillThreshold, remaining));
+	}
+
+	/**
+	 * Stores the content of the given stream. Does not close the stream.
+	 *
+	 * @param inputStream the content to store
+	 * @param contentType the content type of the content
+	 * @return a data source for the stored content
+	 * @throws IOException in case of I/O errors
+	 */
+	public StoredDataSource store(InputStream inputStream, String contentType) throws IOException {
+		Assert.notNull(inputStream, "'inputStream' must not be null");
+		long reserved = reserveMemory();
+		byte[] content;
+		try {
+			ByteArrayOutputStream memoryContent = new ByteArrayOutputStream((int) Math.min(reserved, BUFFER_SIZE));
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int bytesRead;
+			while ((bytesRead = inputStream.read(buffer)) != -1) {
+				if (memoryContent.size() + bytesRead > reserved) {
+					memoryUsage.addAndGet(-reserved);
+					reserved = 0;
+					return spill(memoryContent, buffer, bytesRead, inputStream, contentType);
+				}
+				memoryContent.write(buffer, 0, bytesRead);
+			}
+			content = memoryContent.toByteArray();
+		}
+		catch (IOException ex) {
+			memoryUsage.addAndGet(-reserved);
+			throw ex;
+		}
+		catch (RuntimeException ex) {
+			memoryUsage.addAndGet(-reserved);
+			throw ex;
+		}
+		// release the part of the reservation that is not used
+		memoryUsage.addAndGet(content.length - reserved);
+		StoredDataSource dataSource = new StoredDataSource(this, content, contentType);
+		register(dataSource, content.length, null);
+		return dataSource;
+	}
+
+	/**
+	 * Reserves memory for the next attachment: the {@linkplain #setSpillThreshold(int) spill threshold}, or the
+	 * remaining memory budget if that is smaller. The reservation is made atomically, so that concurrently stored
+	 * attachments cannot exceed the memory budget together.
+	 *
+	 * @return the number of bytes reserved
+	 */
+	private long reserveMemory() {
+		releaseCollected();
+		while (true) {
+			long usage = memoryUsage.get();
+			long reserved = Math.max(0, Math.min(spillThreshold, memoryBudget - usage));
+			if (reserved == 0 || memoryUsage.compareAndSet(usage, usage + reserved)) {
+				return reserved;
+			}
+		}
+	}
+
+	private StoredDataSource spill(ByteArrayOutputStream memoryContent, byte[] buffer, int bufferLength,
+			InputStream inputStream, String contentType) throws IOException {
+		File file = File.createTempFile("attachment", ".bin", spillDirectory);
+		try {
+			FileOutputStream outputStream = new FileOutputStream(file);
+			long size;
+			try {
+				FileChannel channel = outputStream.getChannel();
+				writeFully(channel, ByteBuffer.wrap(memoryContent.toByteArray()));
+				writeFully(channel, ByteBuffer.wrap(buffer, 0, bufferLength));
+				ReadableByteChannel source = Channels.newChannel(inputStream);
+				long position = channel.position();
+				long transferred;
+				while ((transferred = channel.transferFrom(source, position, Long.MAX_VALUE)) > 0) {
+					position += transferred;
+				}
+				size = position;
+			}
+			finally {
+				outputStream.close();
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Spilled attachment of " + size + " bytes to [" + file + "]");
+			}
+			StoredDataSource dataSource = new StoredDataSource(this, file, size, contentType);
+			register(dataSource, 0, file);
+			return dataSource;
+		}
+		catch (IOException ex) {
+			deleteFile(file);
+			throw ex;
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private void register(StoredDataSource dataSource, long memorySize, File file) {
+		releaseCollected();
+		ContentReference reference = new ContentReference(dataSource, referenceQueue, memorySize, file);
+		references.add(reference);
+		dataSource.setReference(reference);
+	}
+
+	/** Releases the content of the given data source. */
+	void release(StoredDataSource dataSource) {
+		release((ContentReference) dataSource.getReference());
+	}
+
+	private void release(ContentReference reference) {
+		if (reference != null && references.remove(reference)) {
+			memoryUsage.addAndGet(-reference.memorySize);
+			if (reference.file != null) {
+				deleteFile(reference.file);
+			}
+		}
+	}
+
+	/** Releases the content of data sources that have been garbage collected. */
+	private void releaseCollected() {
+		Reference<?> reference;
+		while ((reference = referenceQueue.poll()) != null) {
+			release((ContentReference) reference);
+		}
+	}
+
+	/** Deletes the spill files that are left. */
+	@Override
+	public void destroy() {
+		for (ContentReference reference : references) {
+			release(reference);
+		}
+	}
+
+	private static void deleteFile(File file) {
+		if (!file.delete() && file.exists() && logger.isWarnEnabled()) {
+			logger.warn("Could not delete spilled attachment [" + file + "]");
+		}
+	}
+
+	/**
+	 * Keeps track of the memory and spill file of a data source, also after it has been garbage collected.
+	 */
+	private static class ContentReference extends PhantomReference<StoredDataSource> {
+
+		private final long memorySize;
+
+		private final File file;
+
+		private ContentReference(StoredDataSource dataSource, ReferenceQueue<StoredDataSource> queue, long memorySize,
+				File file) {
+			super(dataSource, queue);
+			this.memorySize = memorySize;
+			this.file = file;
+		}
+	}
+
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.mime;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import javax.activation.DataHandler;
+import javax.activation.DataSource;
+
+/**
+ * Read-only {@code DataSource} for attachment content held by an {@link AttachmentStore}, either in memory or in a
+ * spill file on disk.
+ *
+ * <p>Spilled content is written out with {@link FileChannel#transferTo(long, long, WritableByteChannel)}, which avoids
+ * copying it through the heap, and lets the operating system copy it directly when the target is a file or socket.
+ * The {@link DataHandler} returned by {@link #createDataHandler()} uses this when the attachment is written.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ * @see AttachmentStore#store(InputStream, String)
+ */
+public class StoredDataSource implements DataSource {
+
+	private final AttachmentStore store;
+
+	private final byte[] content;
+
+	private final File file;
+
+	private final long size;
+
+	private final String contentType;
+
+	private Object reference;
+
+	StoredDataSource(AttachmentStore store, byte[] content, String contentType) {
+		this.store = store;
+		this.content = content;
+		this.file = null;
+		this.size = content.length;
+		this.contentType = contentType;
+	}
+
+	StoredDataSource(AttachmentStore store, File file, long size, String contentType) {
+		this.store = store;
+		this.content = null;
+		this.file = file;
+		this.size = size;
+		this.contentType = contentType;
+	}
+
+	/** Returns the reference the {@link AttachmentStore} uses to keep track of this data source. */
+	Object getReference() {
+		return reference;
+	}
+
+	void setReference(Object reference) {
+		this.reference = reference;
+	}
+
+	/** Indicates whether the content has been spilled to disk. */
+	public boolean isSpilled() {
+		return file != null;
+	}
+
+	/** Returns the spill file, or {@code null} if the content is held in memory. */
+	public File getFile() {
+		return file;
+	}
+
+	/** Returns the size of the content in bytes. */
+	public long getSize() {
+		return size;
+	}
+
+	@Override
+	public InputStream getInputStream() throws IOException {
+		return file != null ? new FileInputStream(file) : new ByteArrayInputStream(content);
+	}
+
+	@Override
+	public OutputStream getOutputStream() {
+		throw new UnsupportedOperationException("Read-only javax.activation.DataSource");
+	}
+
+	@Override
+	public String getContentType() {
+		return contentType;
+	}
+
+	@Override
+	public String getName() {
+		return file != null ? file.getName() : null;
+	}
+
+	/**
+	 * Transfers the content to the given channel.
+	 *
+	 * @param target the channel to write to
+	 * @return the number of bytes written
+	 * @throws IOException in case of I/O errors
+	 */
+	public long transferTo(WritableByteChannel target) throws IOException {
+		if (file != null) {
+			FileInputStream inputStream = new FileInputStream(file);
+			try {
+				FileChannel channel = inputStream.getChannel();
+				long position = 0;
+				while (position < size) {
+					position += channel.transferTo(position, size - position, target);
+				}
+				return position;
+			}
+			finally {
+				inputStream.close();
+			}
+		}
+		else {
+			ByteBuffer buffer = ByteBuffer.wrap(content);
+			while (buffer.hasRemaining()) {
+				target.write(buffer);
+			}
+			return size;
+		}
+	}
+
+	/**
+	 * Writes the content to the given stream. Spilled content is {@linkplain #transferTo(WritableByteChannel)
+	 * transferred} to a channel for the stream.
+	 *
+	 * @param outputStream the stream to write to
+	 * @throws IOException in case of I/O errors
+	 */
+	public void writeTo(OutputStream outputStream) throws IOException {
+		if (file != null) {
+			transferTo(Channels.newChannel(outputStream));
+		}
+		else {
+			outputStream.write(content);
+		}
+	}
+
+	/** Creates a {@code DataHandler} for this data source, that {@linkplain #writeTo(OutputStream) writes} it. */
+	public DataHandler createDataHandler() {
+		return new StoredDataHandler(this);
+	}
+
+	/**
+	 * Releases the memory or deletes the spill file of this data source. Otherwise, this happens when it is garbage
+	 * collected.
+	 */
+	public void dispose() {
+		store.release(this);
+	}
+
+	private static class StoredDataHandler extends DataHandler {
+
+		private final StoredDataSource dataSource;
+
+		private StoredDataHandler(StoredDataSource dataSource) {
+			super(dataSource);
+			this.dataSource = dataSource;
+		}
+
+		@Override
+		public void writeTo(OutputStream outputStream) throws IOException {
+			dataSource.writeTo(outputStream);
+		}
+	}
+
+}
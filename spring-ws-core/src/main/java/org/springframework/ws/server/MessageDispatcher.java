@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -33,6 +34,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.core.OrderComparator;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.servlet.DispatcherServlet;
 import org.springframework.ws.FaultAwareWebServiceMessage;
@@ -43,9 +45,14 @@ import org.springframework.ws.server.endpoint.MessageEndpoint;
 import org.springframework.ws.server.endpoint.PayloadEndpoint;
 import org.springframework.ws.server.endpoint.adapter.MessageEndpointAdapter;
 import org.springframework.ws.server.endpoint.adapter.PayloadEndpointAdapter;
+import org.springframework.ws.server.endpoint.support.PayloadRootUtils;
 import org.springframework.ws.soap.server.SoapMessageDispatcher;
 import org.springframework.ws.support.DefaultStrategiesHelper;
+import org.springframework.ws.transport.AbstractWebServiceConnection;
 import org.springframework.ws.transport.WebServiceMessageReceiver;
+import org.springframework.ws.transport.context.TransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+import org.springframework.xml.transform.TransformerHelper;
 
 /**
  * Central dispatcher for use within Spring-WS, dispatching Web service messages to registered endpoints.
@@ -69,6 +76,15 @@ import org.springframework.ws.transport.WebServiceMessageReceiver;
  * property.</li>
  * </ul>
  *
+ * <p>The endpoint adapter that supports a given endpoint is resolved once, and cached for subsequent requests.
+ * Additionally, the endpoint mapping that maps a request can be cached by setting the
+ * {@link #setEndpointMappingCaching(boolean) endpointMappingCaching} property.
+ *
+ * <p>When the {@link #MESSAGE_TRACING_LOG_CATEGORY} logger is at "trace" level, messages are traced by writing them to
+ * a byte array. If the connection of the current {@link TransportContext} traces the bytes it receives and sends
+ * itself, as enabled by the {@code messageTracingBufferSize} property of the transport, this dispatcher does not
+ * trace the messages.
+ *
  * @author Arjen Poutsma
  * @see EndpointMapping
  * @see EndpointAdapter
@@ -113,6 +129,19 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
 	/** List of EndpointMappings used in this dispatcher. */
 	private List<EndpointMapping> endpointMappings;
 
+	/** Cache of EndpointAdapters, keyed by the endpoint they support. */
+	private final Map<Object, EndpointAdapter> endpointAdapterCache =
+			new ConcurrentReferenceHashMap<Object, EndpointAdapter>();
+
+	/** Cache of EndpointMappings, keyed by the result of {@link #getEndpointMappingCacheKey(MessageContext)}. */
+	private final Map<Object, EndpointMapping> endpointMappingCache = new ConcurrentHashMap<Object, EndpointMapping>();
+
+	private boolean endpointMappingCaching = false;
+
+	private int endpointMappingCacheLimit = 1024;
+
+	private final TransformerHelper transformerHelper = new TransformerHelper();
+
 	/** Initializes a new instance of the {@code MessageDispatcher}. */
 	public MessageDispatcher() {
 		defaultStrategiesHelper = new DefaultStrategiesHelper(getClass());
@@ -126,6 +155,7 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
 	/** Sets the {@code EndpointAdapter}s to use by this {@code MessageDispatcher}. */
 	public void setEndpointAdapters(List<EndpointAdapter> endpointAdapters) {
 		this.endpointAdapters = endpointAdapters;
+		this.endpointAdapterCache.clear();
 	}
 
 	/** Returns the {@code EndpointExceptionResolver}s to use by this {@code MessageDispatcher}. */
@@ -146,6 +176,32 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
 	/** Sets the {@code EndpointMapping}s to use by this {@code MessageDispatcher}. */
 	public void setEndpointMappings(List<EndpointMapping> endpointMappings) {
 		this.endpointMappings = endpointMappings;
+		this.endpointMappingCache.clear();
+	}
+
+	/**
+	 * Indicates whether the endpoint mapping that maps a request should be cached, so that subsequent requests with
+	 * the same {@linkplain #getEndpointMappingCacheKey(MessageContext) cache key} are first offered to that mapping,
+	 * rather than to all endpoint mappings in order. If the cached mapping does not map the request, all mappings are
+	 * tried as usual.
+	 *
+	 * <p>Note that this setting should only be enabled if the endpoint mappings can be determined by the cache key
+	 * (i.e. the payload root element name, and the SOAP action for a {@link SoapMessageDispatcher}), which is typically
+	 * the case for {@code @PayloadRoot} and {@code @SoapAction} mappings. Default is {@code false}.
+	 */
+	public void setEndpointMappingCaching(boolean endpointMappingCaching) {
+		this.endpointMappingCaching = endpointMappingCaching;
+		this.endpointMappingCache.clear();
+	}
+
+	/**
+	 * Sets the maximum number of keys for which the endpoint mapping is cached. Keys for requests beyond this limit are
+	 * not cached. Default is 1024.
+	 *
+	 * @see #setEndpointMappingCaching(boolean)
+	 */
+	public void setEndpointMappingCacheLimit(int endpointMappingCacheLimit) {
+		this.endpointMappingCacheLimit = endpointMappingCacheLimit;
 	}
 
 	@Override
@@ -162,13 +218,18 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
 
 	@Override
 	public void receive(MessageContext messageContext) throws Exception {
+		// When the transport traces the bytes received and sent, it logs them itself
+		boolean transportTracing = isTransportTracing();
 		// Let's keep a reference to the request content as it came in, it might be changed by interceptors in dispatch()
 		String requestContent = "";
-		if (receivedMessageTracingLogger.isTraceEnabled() || sentMessageTracingLogger.isTraceEnabled()) {
-			requestContent = getMessageContent(messageContext.getRequest());			
+		if (!transportTracing &&
+				(receivedMessageTracingLogger.isTraceEnabled() || sentMessageTracingLogger.isTraceEnabled())) {
+			requestContent = getMessageContent(messageContext.getRequest());
 		}
 		if (receivedMessageTracingLogger.isTraceEnabled()) {
-			receivedMessageTracingLogger.trace("Received request [" + requestContent + "]");
+			if (!transportTracing) {
+				receivedMessageTracingLogger.trace("Received request [" + requestContent + "]");
+			}
 		}
 		else if (receivedMessageTracingLogger.isDebugEnabled()) {
 			receivedMessageTracingLogger.debug("Received request [" + messageContext.getRequest() + "]");
@@ -177,9 +238,11 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
 		if (messageContext.hasResponse()) {
 			WebServiceMessage response = messageContext.getResponse();
 			if (sentMessageTracingLogger.isTraceEnabled()) {
-				String responseContent = getMessageContent(response);
-				sentMessageTracingLogger.trace("Sent response [" + responseContent + "] for request [" +
-								requestContent + "]");
+				if (!transportTracing) {
+					String responseContent = getMessageContent(response);
+					sentMessageTracingLogger.trace("Sent response [" + responseContent + "] for request [" +
+							requestContent + "]");
+				}
 			}
 			else if (sentMessageTracingLogger.isDebugEnabled()) {
 				sentMessageTracingLogger.debug("Sent response [" + response + "] for request [" +
@@ -193,6 +256,15 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
 		}
 	}
 
+	/** Indicates whether the current connection traces the bytes it receives and sends. */
+	private boolean isTransportTracing() {
+		TransportContext transportContext = TransportContextHolder.getTransportContext();
+		if (transportContext != null && transportContext.getConnection() instanceof AbstractWebServiceConnection) {
+			return ((AbstractWebServiceConnection) transportContext.getConnection()).isTracing();
+		}
+		return false;
+	}
+
 	private String getMessageContent(WebServiceMessage message) throws IOException {
 		ByteArrayOutputStream bos = new ByteArrayOutputStream();
 		message.writeTo(bos);
@@ -263,11 +335,30 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
 	}
 
 	/**
-	 * Returns the endpoint for this request. All endpoint mappings are tried, in order.
+	 * Returns the endpoint for this request. All endpoint mappings are tried, in order. If
+	 * {@linkplain #setEndpointMappingCaching(boolean) endpoint mapping caching} is enabled, the endpoint mapping that
+	 * previously mapped a request with the same cache key is tried first.
 	 *
 	 * @return the {@code EndpointInvocationChain}, or {@code null} if no endpoint could be found.
 	 */
 	protected EndpointInvocationChain getEndpoint(MessageContext messageContext) throws Exception {
+		Object cacheKey = null;
+		if (endpointMappingCaching) {
+			cacheKey = getEndpointMappingCacheKey(messageContext);
+			if (cacheKey != null) {
+				EndpointMapping endpointMapping = endpointMappingCache.get(cacheKey);
+				if (endpointMapping != null) {
+					EndpointInvocationChain endpoint = endpointMapping.getEndpoint(messageContext);
+					if (endpoint != null) {
+						if (logger.isDebugEnabled()) {
+							logger.debug("Cached endpoint mapping [" + endpointMapping + "] maps request to endpoint [" +
+									endpoint.getEndpoint() + "]");
+						}
+						return endpoint;
+					}
+				}
+			}
+		}
 		for (EndpointMapping endpointMapping : getEndpointMappings()) {
 			EndpointInvocationChain endpoint = endpointMapping.getEndpoint(messageContext);
 			if (endpoint != null) {
@@ -275,6 +366,9 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
 					logger.debug("Endpoint mapping [" + endpointMapping + "] maps request to endpoint [" +
 							endpoint.getEndpoint() + "]");
 				}
+				if (cacheKey != null && endpointMappingCache.size() < endpointMappingCacheLimit) {
+					endpointMappingCache.put(cacheKey, endpointMapping);
+				}
 				return endpoint;
 			}
 			else if (logger.isDebugEnabled()) {
@@ -285,12 +379,36 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
 	}
 
 	/**
-	 * Returns the {@code EndpointAdapter} for the given endpoint.
+	 * Returns the key under which the endpoint mapping for the given message context is cached, when
+	 * {@linkplain #setEndpointMappingCaching(boolean) endpoint mapping caching} is enabled.
+	 *
+	 * <p>Default implementation returns the qualified name of the request payload root element. Subclasses can override
+	 * this method to take other message properties into account.
+	 *
+	 * @param messageContext the message context
+	 * @return the cache key, or {@code null} if the mapping for this request should not be cached
+	 */
+	protected Object getEndpointMappingCacheKey(MessageContext messageContext) throws Exception {
+		return PayloadRootUtils.getPayloadRootQName(messageContext.getRequest().getPayloadSource(), transformerHelper);
+	}
+
+	/**
+	 * Returns the {@code EndpointAdapter} for the given endpoint. The adapter is resolved once for each endpoint, and
+	 * cached for subsequent invocations.
 	 *
 	 * @param endpoint the endpoint to find an adapter for
 	 * @return the adapter
 	 */
 	protected EndpointAdapter getEndpointAdapter(Object endpoint) {
+		EndpointAdapter endpointAdapter = endpointAdapterCache.get(endpoint);
+		if (endpointAdapter == null) {
+			endpointAdapter = resolveEndpointAdapter(endpoint);
+			endpointAdapterCache.put(endpoint, endpointAdapter);
+		}
+		return endpointAdapter;
+	}
+
+	private EndpointAdapter resolveEndpointAdapter(Object endpoint) {
 		for (EndpointAdapter endpointAdapter : getEndpointAdapters()) {
 			if (logger.isDebugEnabled()) {
 				logger.debug("Testing endpoint adapter [" + endpointAdapter + "]");
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,17 +16,24 @@
 
 package org.springframework.ws.server.endpoint;
 
-import java.io.StringWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Source;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.stream.StreamResult;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ObjectUtils;
 import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.EndpointInterceptor;
@@ -37,10 +44,25 @@ import org.springframework.xml.transform.TransformerObjectSupport;
  * {@code WebServiceMessage}. By default, both request and response messages are logged, but this behaviour can be
  * changed using the {@code logRequest} and {@code logResponse} properties.
  *
+ * <p>To reduce the overhead of logging in production, only one in every {@linkplain #setSampleRate(int) N messages}
+ * can be logged, and the logged message can be {@linkplain #setMaxLength(int) truncated}, which stops the
+ * transformation of the message as soon as the limit has been reached. Finally, the log statements themselves can be
+ * written {@linkplain #setLogQueueCapacity(int) asynchronously}, from a bounded queue.
+ *
  * @author Arjen Poutsma
  * @since 1.0.0
  */
-public abstract class AbstractLoggingInterceptor extends TransformerObjectSupport implements EndpointInterceptor {
+public abstract class AbstractLoggingInterceptor extends TransformerObjectSupport
+		implements EndpointInterceptor, DisposableBean {
+
+	private static final String TRUNCATED_SUFFIX = "...";
+
+	private static final Properties NON_INDENTING_OUTPUT_PROPERTIES = new Properties();
+
+	static {
+		NON_INDENTING_OUTPUT_PROPERTIES.setProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+		NON_INDENTING_OUTPUT_PROPERTIES.setProperty(OutputKeys.INDENT, "no");
+	}
 
 	/**
 	 * The default {@code Log} instance used to write trace messages. This instance is mapped to the implementing
@@ -52,6 +74,25 @@ public abstract class AbstractLoggingInterceptor extends TransformerObjectSuppor
 
 	private boolean logResponse = true;
 
+	private int sampleRate = 1;
+
+	private final AtomicLong sampleCounter = new AtomicLong();
+
+	private final String sampledAttribute =
+			ClassUtils.getQualifiedName(getClass()) + "." + ObjectUtils.getIdentityHexString(this);
+
+	private int maxLength = -1;
+
+	private int logQueueCapacity = 0;
+
+	private BlockingQueue<String> logQueue;
+
+	private Thread logThread;
+
+	private boolean destroyed;
+
+	private final AtomicLong droppedMessageCount = new AtomicLong();
+
 	/** Indicates whether the request should be logged. Default is {@code true}. */
 	public final void setLogRequest(boolean logRequest) {
 		this.logRequest = logRequest;
@@ -62,6 +103,42 @@ public abstract class AbstractLoggingInterceptor extends TransformerObjectSuppor
 		this.logResponse = logResponse;
 	}
 
+	/**
+	 * Sets the sample rate: only one in every {@code sampleRate} messages is logged. Messages that are not sampled are
+	 * not transformed at all. The decision is made once per request, so that a request is logged together with its
+	 * response or fault. Default is {@code 1}: every message is logged.
+	 */
+	public void setSampleRate(int sampleRate) {
+		Assert.isTrue(sampleRate > 0, "'sampleRate' must be larger than 0");
+		this.sampleRate = sampleRate;
+	}
+
+	/**
+	 * Sets the maximum number of characters that is logged for a message. Transformation of the message stops as soon
+	 * as this limit has been reached, and the logged message is suffixed with {@code ...}. Default is {@code -1}: no
+	 * limit.
+	 */
+	public void setMaxLength(int maxLength) {
+		Assert.isTrue(maxLength > 0, "'maxLength' must be larger than 0");
+		this.maxLength = maxLength;
+	}
+
+	/**
+	 * Sets the capacity of the asynchronous log queue. When larger than 0, messages are still transformed in the
+	 * calling thread, but {@link #logMessage(String)} is invoked from a separate daemon thread, so that slow appenders do
+	 * not delay the processing of the message. When the queue is full, messages are dropped and their count is logged
+	 * later on. Default is {@code 0}: messages are logged synchronously.
+	 */
+	public void setLogQueueCapacity(int logQueueCapacity) {
+		Assert.isTrue(logQueueCapacity > 0, "'logQueueCapacity' must be larger than 0");
+		this.logQueueCapacity = logQueueCapacity;
+	}
+
+	/** Returns the number of messages dropped because the asynchronous log queue was full. */
+	public long getDroppedMessageCount() {
+		return droppedMessageCount.get();
+	}
+
 	/**
 	 * Set the name of the logger to use. The name will be passed to the underlying logger implementation through
 	 * Commons Logging, getting interpreted as log category according to the logger's configuration.
@@ -86,7 +163,11 @@ public abstract class AbstractLoggingInterceptor extends TransformerObjectSuppor
 	 */
 	@Override
 	public final boolean handleRequest(MessageContext messageContext, Object endpoint) throws TransformerException {
-		if (logRequest && isLogEnabled()) {
+		boolean sampled = sampleRate == 1 || sampleCounter.getAndIncrement() % sampleRate == 0;
+		if (sampleRate > 1) {
+			messageContext.setProperty(sampledAttribute, sampled);
+		}
+		if (logRequest && isLogEnabled() && sampled) {
 			logMessageSource("Request: ", getSource(messageContext.getRequest()));
 		}
 		return true;
@@ -102,7 +183,7 @@ public abstract class AbstractLoggingInterceptor extends TransformerObjectSuppor
 	 */
 	@Override
 	public boolean handleResponse(MessageContext messageContext, Object endpoint) throws Exception {
-		if (logResponse && isLogEnabled()) {
+		if (logResponse && isLogEnabled() && isSampled(messageContext)) {
 			logMessageSource("Response: ", getSource(messageContext.getResponse()));
 		}
 		return true;
@@ -119,6 +200,20 @@ public abstract class AbstractLoggingInterceptor extends TransformerObjectSuppor
 	public void afterCompletion(MessageContext messageContext, Object endpoint, Exception ex) {
 	}
 
+	/**
+	 * Stops the asynchronous log thread, if any. Messages that are still queued are not logged, and messages logged
+	 * afterwards are logged synchronously.
+	 */
+	@Override
+	public synchronized void destroy() {
+		destroyed = true;
+		if (logThread != null) {
+			logThread.interrupt();
+			logThread = null;
+			logQueue = null;
+		}
+	}
+
 	/**
 	 * Determine whether the {@link #logger} field is enabled.
 	 *
@@ -129,18 +224,26 @@ public abstract class AbstractLoggingInterceptor extends TransformerObjectSuppor
 		return logger.isDebugEnabled();
 	}
 
-	private Transformer createNonIndentingTransformer() throws TransformerConfigurationException {
-		Transformer transformer = createTransformer();
-		transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-		transformer.setOutputProperty(OutputKeys.INDENT, "no");
-		return transformer;
+	/**
+	 * Indicates whether the message exchange of the given context has been sampled for logging, as decided in {@link
+	 * #handleRequest(MessageContext, Object)}. Subclasses that log additional messages, such as faults, should check
+	 * this as well.
+	 *
+	 * @param messageContext the message context
+	 * @return {@code true} if the messages of the context should be logged; {@code false} otherwise
+	 * @see #setSampleRate(int)
+	 */
+	protected boolean isSampled(MessageContext messageContext) {
+		Boolean sampled = (Boolean) messageContext.getProperty(sampledAttribute);
+		return sampled == null || sampled;
 	}
 
 	/**
 	 * Logs the given {@link Source source} to the {@link #logger}, using the message as a prefix.
 	 *
-	 * <p>By default, this message creates a string representation of the given source, and delegates to {@link
-	 * #logMessage(String)}.
+	 * <p>By default, this message creates a string representation of the given source, truncated to the {@linkplain
+	 * #setMaxLength(int) maximum length}, and delegates to {@link #logMessage(String)}, possibly from the {@linkplain
+	 * #setLogQueueCapacity(int) asynchronous log queue}.
 	 *
 	 * @param logMessage the log message
 	 * @param source	 the source to be logged
@@ -148,12 +251,70 @@ public abstract class AbstractLoggingInterceptor extends TransformerObjectSuppor
 	 */
 	protected void logMessageSource(String logMessage, Source source) throws TransformerException {
 		if (source != null) {
-			Transformer transformer = createNonIndentingTransformer();
-			StringWriter writer = new StringWriter();
-			transformer.transform(source, new StreamResult(writer));
-			String message = logMessage + writer.toString();
+			TruncatingWriter writer = new TruncatingWriter(logMessage, maxLength);
+			try {
+				transform(source, new StreamResult(writer), NON_INDENTING_OUTPUT_PROPERTIES);
+			}
+			catch (TransformerException ex) {
+				if (!writer.isTruncated()) {
+					throw ex;
+				}
+			}
+			catch (RuntimeException ex) {
+				if (!writer.isTruncated()) {
+					throw ex;
+				}
+			}
+			String message = writer.isTruncated() ? writer.toString() + TRUNCATED_SUFFIX : writer.toString();
+			if (logQueueCapacity > 0) {
+				enqueueMessage(message);
+			}
+			else {
+				logMessage(message);
+			}
+		}
+	}
+
+	private void enqueueMessage(String message) {
+		BlockingQueue<String> queue = getLogQueue();
+		if (queue == null) {
 			logMessage(message);
 		}
+		else if (!queue.offer(message)) {
+			droppedMessageCount.incrementAndGet();
+		}
+	}
+
+	/** Returns the asynchronous log queue, starting the log thread if necessary, or {@code null} if destroyed. */
+	private synchronized BlockingQueue<String> getLogQueue() {
+		if (logQueue == null && !destroyed) {
+			final BlockingQueue<String> queue = new ArrayBlockingQueue<String>(logQueueCapacity);
+			logThread = new Thread(getClass().getSimpleName() + "-log") {
+
+				@Override
+				public void run() {
+					long reportedDropCount = 0;
+					try {
+						while (!isInterrupted()) {
+							String message = queue.take();
+							long dropCount = droppedMessageCount.get();
+							if (dropCount != reportedDropCount) {
+								logMessage("Log queue full: dropped " + (dropCount - reportedDropCount) + " messages");
+								reportedDropCount = dropCount;
+							}
+							logMessage(message);
+						}
+					}
+					catch (InterruptedException ex) {
+						// destroyed
+					}
+				}
+			};
+			logThread.setDaemon(true);
+			logThread.start();
+			logQueue = queue;
+		}
+		return logQueue;
 	}
 
 	/**
@@ -175,4 +336,53 @@ public abstract class AbstractLoggingInterceptor extends TransformerObjectSuppor
 	 * @return the source of the message
 	 */
 	protected abstract Source getSource(WebServiceMessage message);
+
+	/**
+	 * {@code Writer} that collects its output in a {@code StringBuilder}, and aborts the write with an {@code
+	 * IOException} when the maximum length has been reached.
+	 */
+	private static class TruncatingWriter extends Writer {
+
+		private final StringBuilder builder;
+
+		private final int limit;
+
+		private boolean truncated;
+
+		private TruncatingWriter(String prefix, int maxLength) {
+			this.builder = new StringBuilder(prefix);
+			this.limit = maxLength >= 0 ? prefix.length() + maxLength : Integer.MAX_VALUE;
+		}
+
+		public boolean isTruncated() {
+			return truncated;
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException {
+			if (truncated) {
+				throw new IOException("Maximum log length reached");
+			}
+			int remaining = limit - builder.length();
+			if (len > remaining) {
+				builder.append(cbuf, off, remaining);
+				truncated = true;
+				throw new IOException("Maximum log length reached");
+			}
+			builder.append(cbuf, off, len);
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public String toString() {
+			return builder.toString();
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,14 +16,22 @@
 
 package org.springframework.ws.server.endpoint.adapter;
 
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.BeanClassLoaderAware;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
 import org.springframework.ws.context.MessageContext;
@@ -45,6 +53,17 @@ import org.springframework.ws.server.endpoint.adapter.method.jaxb.XmlRootElement
  * Default extension of {@link AbstractMethodEndpointAdapter} with support for pluggable {@linkplain
  * MethodArgumentResolver argument resolvers} and {@linkplain MethodReturnValueHandler return value handlers}.
  *
+ * <p>The argument resolvers and return value handler for a given {@link MethodEndpoint} are determined when
+ * {@linkplain #supports(Object) support} for it is tested, and are reused for subsequent invocations of that endpoint.
+ *
+ * <p>Endpoint methods can return a {@link Future}, such as a {@code ListenableFuture} or {@code CompletableFuture}, to
+ * produce their response on another thread. The adapter waits for the future to complete, and handles its result with
+ * the return value handler that supports the type argument of the future: a method returning {@code
+ * Future<MyResponse>} is handled just like one returning {@code MyResponse}. If the future fails, its cause is thrown
+ * as if the endpoint method itself threw it. Combined with {@linkplain
+ * org.springframework.ws.transport.http.MessageDispatcherServlet#setAsyncDispatch(boolean) async dispatch}, the servlet
+ * container thread is released while waiting.
+ *
  * @author Arjen Poutsma
  * @since 2.0
  */
@@ -77,6 +96,12 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
 
 	private ClassLoader classLoader;
 
+	private long deferredResultTimeout = -1;
+
+	/** Invocation plans, keyed by the method endpoint they were created for. */
+	private final Map<MethodEndpoint, InvocationPlan> invocationPlans =
+			new ConcurrentHashMap<MethodEndpoint, InvocationPlan>();
+
 	/**
 	 * Returns the list of {@code MethodArgumentResolver}s to use.
 	 */
@@ -89,6 +114,7 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
 	 */
 	public void setMethodArgumentResolvers(List<MethodArgumentResolver> methodArgumentResolvers) {
 		this.methodArgumentResolvers = methodArgumentResolvers;
+		this.invocationPlans.clear();
 	}
 
 	/**
@@ -120,6 +146,7 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
 	 */
 	public void setMethodReturnValueHandlers(List<MethodReturnValueHandler> methodReturnValueHandlers) {
 		this.methodReturnValueHandlers = methodReturnValueHandlers;
+		this.invocationPlans.clear();
 	}
 
 	/**
@@ -139,6 +166,15 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
 		this.customMethodReturnValueHandlers = customMethodReturnValueHandlers;
 	}
 
+	/**
+	 * Sets the time in milliseconds to wait for the result of endpoint methods that return a {@link Future}. Defaults to
+	 * {@code -1}, which waits indefinitely. When the timeout expires, the future is cancelled, and a {@link
+	 * TimeoutException} is thrown.
+	 */
+	public void setDeferredResultTimeout(long deferredResultTimeout) {
+		this.deferredResultTimeout = deferredResultTimeout;
+	}
+
 	private ClassLoader getClassLoader() {
 		return this.classLoader != null ? this.classLoader : DefaultMethodEndpointAdapter.class.getClassLoader();
 	}
@@ -244,40 +280,76 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
 
 	@Override
 	protected boolean supportsInternal(MethodEndpoint methodEndpoint) {
-		return supportsParameters(methodEndpoint.getMethodParameters()) &&
-				supportsReturnType(methodEndpoint.getReturnType());
+		InvocationPlan invocationPlan = createInvocationPlan(methodEndpoint);
+		if (invocationPlan != null) {
+			invocationPlans.put(methodEndpoint, invocationPlan);
+			return true;
+		}
+		else {
+			return false;
+		}
 	}
 
-	private boolean supportsParameters(MethodParameter[] methodParameters) {
-		for (MethodParameter methodParameter : methodParameters) {
-			boolean supported = false;
-			for (MethodArgumentResolver methodArgumentResolver : methodArgumentResolvers) {
-				if (logger.isTraceEnabled()) {
-					logger.trace("Testing if argument resolver [" + methodArgumentResolver + "] supports [" +
-							methodParameter.getGenericParameterType() + "]");
-				}
-				if (methodArgumentResolver.supportsParameter(methodParameter)) {
-					supported = true;
-					break;
-				}
+	/**
+	 * Creates an invocation plan for the given method endpoint, or {@code null} if any of its parameters or its return
+	 * type is not supported.
+	 */
+	private InvocationPlan createInvocationPlan(MethodEndpoint methodEndpoint) {
+		MethodParameter[] methodParameters = methodEndpoint.getMethodParameters();
+		MethodArgumentResolver[] argumentResolvers = new MethodArgumentResolver[methodParameters.length];
+		for (int i = 0; i < methodParameters.length; i++) {
+			argumentResolvers[i] = getMethodArgumentResolver(methodParameters[i]);
+			if (argumentResolvers[i] == null) {
+				return null;
 			}
-			if (!supported) {
-				return false;
+		}
+		MethodParameter returnType = getReturnType(methodEndpoint);
+		MethodReturnValueHandler returnValueHandler = null;
+		if (!isVoid(returnType)) {
+			returnValueHandler = getMethodReturnValueHandler(returnType);
+			if (returnValueHandler == null) {
+				return null;
 			}
 		}
-		return true;
+		return new InvocationPlan(methodParameters, argumentResolvers, returnType, returnValueHandler);
 	}
 
-	private boolean supportsReturnType(MethodParameter methodReturnType) {
-		if (Void.TYPE.equals(methodReturnType.getParameterType())) {
-			return true;
+	/**
+	 * Returns the return type of the given endpoint, or the result type of the future it returns.
+	 */
+	private static MethodParameter getReturnType(MethodEndpoint methodEndpoint) {
+		MethodParameter returnType = methodEndpoint.getReturnType();
+		if (Future.class.isAssignableFrom(returnType.getParameterType())) {
+			return new FutureResultMethodParameter(returnType);
 		}
+		return returnType;
+	}
+
+	private static boolean isVoid(MethodParameter returnType) {
+		Class<?> parameterType = returnType.getParameterType();
+		return Void.TYPE.equals(parameterType) || Void.class.equals(parameterType);
+	}
+
+	private MethodArgumentResolver getMethodArgumentResolver(MethodParameter methodParameter) {
+		for (MethodArgumentResolver methodArgumentResolver : methodArgumentResolvers) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Testing if argument resolver [" + methodArgumentResolver + "] supports [" +
+						methodParameter.getGenericParameterType() + "]");
+			}
+			if (methodArgumentResolver.supportsParameter(methodParameter)) {
+				return methodArgumentResolver;
+			}
+		}
+		return null;
+	}
+
+	private MethodReturnValueHandler getMethodReturnValueHandler(MethodParameter methodReturnType) {
 		for (MethodReturnValueHandler methodReturnValueHandler : methodReturnValueHandlers) {
 			if (methodReturnValueHandler.supportsReturnType(methodReturnType)) {
-				return true;
+				return methodReturnValueHandler;
 			}
 		}
-		return false;
+		return null;
 	}
 
 	@Override
@@ -295,11 +367,53 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
 		}
 
 		Class<?> returnType = methodEndpoint.getMethod().getReturnType();
+		if (Future.class.isAssignableFrom(returnType)) {
+			returnValue = getFutureResult((Future<?>) returnValue);
+			if (logger.isTraceEnabled()) {
+				logger.trace("Future returned by [" + methodEndpoint + "] completed with [" + returnValue + "]");
+			}
+			if (returnValue == null && isVoid(getReturnType(methodEndpoint))) {
+				return;
+			}
+		}
 		if (!Void.TYPE.equals(returnType)) {
 			handleMethodReturnValue(messageContext, returnValue, methodEndpoint);
 		}
 	}
 
+	/**
+	 * Waits for the given future to complete, and returns its result. Rethrows the cause of a failed future.
+	 */
+	private Object getFutureResult(Future<?> future) throws Exception {
+		if (future == null) {
+			return null;
+		}
+		try {
+			if (deferredResultTimeout >= 0) {
+				try {
+					return future.get(deferredResultTimeout, TimeUnit.MILLISECONDS);
+				}
+				catch (TimeoutException ex) {
+					future.cancel(true);
+					throw ex;
+				}
+			}
+			else {
+				return future.get();
+			}
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw ex;
+		}
+	}
+
 	/**
 	 * Returns the argument array for the given method endpoint.
 	 *
@@ -313,14 +427,21 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
 	 */
 	protected Object[] getMethodArguments(MessageContext messageContext, MethodEndpoint methodEndpoint)
 			throws Exception {
+		InvocationPlan invocationPlan = invocationPlans.get(methodEndpoint);
+		if (invocationPlan != null) {
+			MethodParameter[] parameters = invocationPlan.methodParameters;
+			Object[] args = new Object[parameters.length];
+			for (int i = 0; i < parameters.length; i++) {
+				args[i] = invocationPlan.argumentResolvers[i].resolveArgument(messageContext, parameters[i]);
+			}
+			return args;
+		}
 		MethodParameter[] parameters = methodEndpoint.getMethodParameters();
 		Object[] args = new Object[parameters.length];
 		for (int i = 0; i < parameters.length; i++) {
-			for (MethodArgumentResolver methodArgumentResolver : methodArgumentResolvers) {
-				if (methodArgumentResolver.supportsParameter(parameters[i])) {
-					args[i] = methodArgumentResolver.resolveArgument(messageContext, parameters[i]);
-					break;
-				}
+			MethodArgumentResolver methodArgumentResolver = getMethodArgumentResolver(parameters[i]);
+			if (methodArgumentResolver != null) {
+				args[i] = methodArgumentResolver.resolveArgument(messageContext, parameters[i]);
 			}
 		}
 		return args;
@@ -340,14 +461,74 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
 	protected void handleMethodReturnValue(MessageContext messageContext,
 										   Object returnValue,
 										   MethodEndpoint methodEndpoint) throws Exception {
-		MethodParameter returnType = methodEndpoint.getReturnType();
-		for (MethodReturnValueHandler methodReturnValueHandler : methodReturnValueHandlers) {
-			if (methodReturnValueHandler.supportsReturnType(returnType)) {
-				methodReturnValueHandler.handleReturnValue(messageContext, returnType, returnValue);
-				return;
-			}
+		InvocationPlan invocationPlan = invocationPlans.get(methodEndpoint);
+		MethodParameter returnType;
+		MethodReturnValueHandler methodReturnValueHandler;
+		if (invocationPlan != null) {
+			returnType = invocationPlan.returnType;
+			methodReturnValueHandler = invocationPlan.returnValueHandler;
+		}
+		else {
+			returnType = getReturnType(methodEndpoint);
+			methodReturnValueHandler = getMethodReturnValueHandler(returnType);
+		}
+		if (methodReturnValueHandler != null) {
+			methodReturnValueHandler.handleReturnValue(messageContext, returnType, returnValue);
+			return;
 		}
 		throw new IllegalStateException(
 				"Return value [" + returnValue + "] not resolved by any MethodReturnValueHandler");
 	}
+
+	/**
+	 * Immutable holder for the resolved argument resolvers and return value handler of a method endpoint.
+	 */
+	private static final class InvocationPlan {
+
+		private final MethodParameter[] methodParameters;
+
+		private final MethodArgumentResolver[] argumentResolvers;
+
+		private final MethodParameter returnType;
+
+		private final MethodReturnValueHandler returnValueHandler;
+
+		private InvocationPlan(MethodParameter[] methodParameters,
+							   MethodArgumentResolver[] argumentResolvers,
+							   MethodParameter returnType,
+							   MethodReturnValueHandler returnValueHandler) {
+			this.methodParameters = methodParameters;
+			this.argumentResolvers = argumentResolvers;
+			this.returnType = returnType;
+			this.returnValueHandler = returnValueHandler;
+		}
+	}
+
+	/**
+	 * Return type of an endpoint method that returns a {@link Future}, exposing the type of the result of that future,
+	 * so that it can be handled by the regular return value handlers.
+	 */
+	private static final class FutureResultMethodParameter extends MethodParameter {
+
+		private final Class<?> resultType;
+
+		private final Type genericResultType;
+
+		private FutureResultMethodParameter(MethodParameter returnType) {
+			super(returnType);
+			ResolvableType type = ResolvableType.forMethodParameter(returnType).as(Future.class).getGeneric(0);
+			this.resultType = type.resolve(Object.class);
+			this.genericResultType = type.getType();
+		}
+
+		@Override
+		public Class<?> getParameterType() {
+			return resultType;
+		}
+
+		@Override
+		public Type getGenericParameterType() {
+			return genericResultType;
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,11 @@
 
 package org.springframework.ws.server.endpoint.adapter.method;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.namespace.NamespaceContext;
 import javax.xml.namespace.QName;
 import javax.xml.transform.Source;
 import javax.xml.transform.TransformerException;
@@ -38,6 +43,9 @@ import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.endpoint.annotation.XPathParam;
 import org.springframework.ws.server.endpoint.support.NamespaceUtils;
 import org.springframework.xml.transform.TransformerHelper;
+import org.springframework.xml.xpath.StreamingXPathExpression;
+import org.springframework.xml.xpath.StreamingXPathExpressionFactory;
+import org.springframework.xml.xpath.XPathParseException;
 
 /**
  * Implementation of {@link MethodArgumentResolver} that supports the {@link XPathParam @XPathParam} annotation.
@@ -47,6 +55,10 @@ import org.springframework.xml.transform.TransformerHelper;
  * boolean}, {@link Double double}, {@link String}, {@link Node}, or {@link NodeList}), or a type that is {@linkplain
  * ConversionService#canConvert(Class, Class) supported} by the {@link ConversionService}.
  *
+ * <p>Expressions that do not result in a node or node list, and that lie within the subset supported by the {@link
+ * StreamingXPathExpressionFactory}, are evaluated directly on the payload source, without transforming the payload into
+ * a DOM tree first.
+ *
  * @author Arjen Poutsma
  * @since 2.0
  */
@@ -58,6 +70,14 @@ public class XPathParamMethodArgumentResolver implements MethodArgumentResolver
 
 	private ConversionService conversionService = new DefaultConversionService();
 
+	/** Streaming expressions, keyed by the parameter they were compiled for. */
+	private final Map<MethodParameter, StreamingXPathExpression> streamingExpressions =
+			new ConcurrentHashMap<MethodParameter, StreamingXPathExpression>();
+
+	/** Parameters whose expression cannot be evaluated as a stream. */
+	private final Set<MethodParameter> nonStreamingParameters =
+			Collections.newSetFromMap(new ConcurrentHashMap<MethodParameter, Boolean>());
+
 	/**
 	 * Sets the conversion service to use.
 	 *
@@ -100,15 +120,60 @@ public class XPathParamMethodArgumentResolver implements MethodArgumentResolver
 			useConversionService = true;
 		}
 
-		XPath xpath = createXPath();
-		xpath.setNamespaceContext(NamespaceUtils.getNamespaceContext(parameter.getMethod()));
+		Object result;
+		StreamingXPathExpression streamingExpression = getStreamingExpression(parameter, evaluationReturnType);
+		Source payloadSource = messageContext.getRequest().getPayloadSource();
+		if (streamingExpression != null && payloadSource != null) {
+			result = evaluate(streamingExpression, payloadSource, evaluationReturnType);
+		}
+		else {
+			XPath xpath = createXPath();
+			xpath.setNamespaceContext(NamespaceUtils.getNamespaceContext(parameter.getMethod()));
 
-		Element rootElement = getRootElement(messageContext.getRequest().getPayloadSource());
-		String expression = parameter.getParameterAnnotation(XPathParam.class).value();
-		Object result = xpath.evaluate(expression, rootElement, evaluationReturnType);
+			Element rootElement = getRootElement(payloadSource);
+			String expression = parameter.getParameterAnnotation(XPathParam.class).value();
+			result = xpath.evaluate(expression, rootElement, evaluationReturnType);
+		}
 		return useConversionService ? conversionService.convert(result, parameterType) : result;
 	}
 
+	/**
+	 * Returns the streaming expression for the given parameter, or {@code null} if its expression has to be evaluated
+	 * on a DOM tree.
+	 */
+	private StreamingXPathExpression getStreamingExpression(MethodParameter parameter, QName evaluationReturnType) {
+		if (XPathConstants.NODE.equals(evaluationReturnType) || XPathConstants.NODESET.equals(evaluationReturnType) ||
+				nonStreamingParameters.contains(parameter)) {
+			return null;
+		}
+		StreamingXPathExpression streamingExpression = streamingExpressions.get(parameter);
+		if (streamingExpression == null) {
+			String expression = parameter.getParameterAnnotation(XPathParam.class).value();
+			NamespaceContext namespaceContext = NamespaceUtils.getNamespaceContext(parameter.getMethod());
+			try {
+				streamingExpression = StreamingXPathExpressionFactory.createXPathExpression(expression,
+						namespaceContext);
+				streamingExpressions.put(parameter, streamingExpression);
+			}
+			catch (XPathParseException ex) {
+				nonStreamingParameters.add(parameter);
+			}
+		}
+		return streamingExpression;
+	}
+
+	private Object evaluate(StreamingXPathExpression expression, Source source, QName evaluationReturnType) {
+		if (XPathConstants.BOOLEAN.equals(evaluationReturnType)) {
+			return expression.evaluateAsBoolean(source);
+		}
+		else if (XPathConstants.NUMBER.equals(evaluationReturnType)) {
+			return expression.evaluateAsNumber(source);
+		}
+		else {
+			return expression.evaluateAsString(source);
+		}
+	}
+
 	private QName getReturnType(Class<?> parameterType) {
 		if (Boolean.class.equals(parameterType) || Boolean.TYPE.equals(parameterType)) {
 			return XPathConstants.BOOLEAN;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -56,6 +56,7 @@ import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.endpoint.adapter.method.AbstractPayloadMethodProcessor;
 import org.springframework.ws.stream.StreamingPayload;
 import org.springframework.ws.stream.StreamingWebServiceMessage;
+import org.springframework.xml.support.BoundedObjectPool;
 import org.springframework.xml.transform.TraxUtils;
 
 /**
@@ -66,13 +67,76 @@ import org.springframework.xml.transform.TraxUtils;
  * {@linkplain #unmarshalFromRequestPayload(org.springframework.ws.context.MessageContext, Class) unmarshalling}
  * methods.
  *
+ * <p>Marshallers and unmarshallers are not thread-safe, but are expensive to create. Therefore, they are kept in a
+ * bounded pool per class after use, and reused for subsequent requests. The size of these pools can be set using the
+ * {@link #setPoolSize(int) poolSize} property.
+ *
  * @author Arjen Poutsma
  * @since 2.0
  */
 public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloadMethodProcessor {
 
+	/** The default maximum number of idle marshallers and unmarshallers pooled per class. */
+	public static final int DEFAULT_POOL_SIZE = 8;
+
 	private final ConcurrentMap<Class<?>, JAXBContext> jaxbContexts = new ConcurrentHashMap<Class<?>, JAXBContext>();
 
+	private final ConcurrentMap<Class<?>, BoundedObjectPool<Marshaller>> marshallerPools =
+			new ConcurrentHashMap<Class<?>, BoundedObjectPool<Marshaller>>();
+
+	private final ConcurrentMap<Class<?>, BoundedObjectPool<Unmarshaller>> unmarshallerPools =
+			new ConcurrentHashMap<Class<?>, BoundedObjectPool<Unmarshaller>>();
+
+	private int poolSize = DEFAULT_POOL_SIZE;
+
+	/**
+	 * Sets the maximum number of idle marshallers, and the maximum number of idle unmarshallers, that are pooled for
+	 * each class. Setting this property to {@code 0} disables pooling, so that a new (un)marshaller is created for each
+	 * request. Defaults to {@link #DEFAULT_POOL_SIZE}.
+	 */
+	public void setPoolSize(int poolSize) {
+		Assert.isTrue(poolSize >= 0, "'poolSize' must not be negative");
+		this.poolSize = poolSize;
+		this.marshallerPools.clear();
+		this.unmarshallerPools.clear();
+	}
+
+	/** Returns the number of times a pooled marshaller was reused, across all classes. */
+	public long getMarshallerPoolHitCount() {
+		long count = 0;
+		for (BoundedObjectPool<Marshaller> pool : marshallerPools.values()) {
+			count += pool.getHitCount();
+		}
+		return count;
+	}
+
+	/** Returns the number of times a new marshaller had to be created, across all classes. */
+	public long getMarshallerPoolMissCount() {
+		long count = 0;
+		for (BoundedObjectPool<Marshaller> pool : marshallerPools.values()) {
+			count += pool.getMissCount();
+		}
+		return count;
+	}
+
+	/** Returns the number of times a pooled unmarshaller was reused, across all classes. */
+	public long getUnmarshallerPoolHitCount() {
+		long count = 0;
+		for (BoundedObjectPool<Unmarshaller> pool : unmarshallerPools.values()) {
+			count += pool.getHitCount();
+		}
+		return count;
+	}
+
+	/** Returns the number of times a new unmarshaller had to be created, across all classes. */
+	public long getUnmarshallerPoolMissCount() {
+		long count = 0;
+		for (BoundedObjectPool<Unmarshaller> pool : unmarshallerPools.values()) {
+			count += pool.getMissCount();
+		}
+		return count;
+	}
+
 	@Override
 	public final void handleReturnValue(MessageContext messageContext,
 			MethodParameter returnType, Object returnValue) throws Exception {
@@ -110,8 +174,10 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 		else {
 			Result responsePayload = response.getPayloadResult();
 			try {
-				Jaxb2ResultCallback callback = new Jaxb2ResultCallback(clazz, jaxbElement);
+				Marshaller marshaller = borrowMarshaller(clazz);
+				Jaxb2ResultCallback callback = new Jaxb2ResultCallback(marshaller, jaxbElement);
 				TraxUtils.doWithResult(responsePayload, callback);
+				releaseMarshaller(clazz, marshaller);
 			}
 			catch (Exception ex) {
 				throw convertToJaxbException(ex);
@@ -134,8 +200,10 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 			return null;
 		}
 		try {
-			Jaxb2SourceCallback callback = new Jaxb2SourceCallback(clazz);
+			Unmarshaller unmarshaller = borrowUnmarshaller(clazz);
+			Jaxb2SourceCallback callback = new Jaxb2SourceCallback(unmarshaller);
 			TraxUtils.doWithSource(requestPayload, callback);
+			releaseUnmarshaller(clazz, unmarshaller);
 			if (logger.isDebugEnabled()) {
 				logger.debug("Unmarshalled payload request to [" + callback.result + "]");
 			}
@@ -161,8 +229,10 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 			return null;
 		}
 		try {
-			JaxbElementSourceCallback<T> callback = new JaxbElementSourceCallback<T>(clazz);
+			Unmarshaller unmarshaller = borrowUnmarshaller(clazz);
+			JaxbElementSourceCallback<T> callback = new JaxbElementSourceCallback<T>(unmarshaller, clazz);
 			TraxUtils.doWithSource(requestPayload, callback);
+			releaseUnmarshaller(clazz, unmarshaller);
 			if (logger.isDebugEnabled()) {
 				logger.debug("Unmarshalled payload request to [" + callback.result + "]");
 			}
@@ -200,8 +270,17 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 		return jaxbContext.createMarshaller();
 	}
 
-	private Marshaller createMarshaller(Class<?> clazz) throws JAXBException {
-		return createMarshaller(getJaxbContext(clazz));
+	/**
+	 * Returns an idle marshaller for the given class from the pool, or creates a new one if none is available. Once
+	 * successfully used, the marshaller should be returned with {@link #releaseMarshaller(Class, Marshaller)}.
+	 */
+	private Marshaller borrowMarshaller(Class<?> clazz) throws JAXBException {
+		Marshaller marshaller = getPool(marshallerPools, clazz).poll();
+		return marshaller != null ? marshaller : createMarshaller(getJaxbContext(clazz));
+	}
+
+	private void releaseMarshaller(Class<?> clazz, Marshaller marshaller) {
+		getPool(marshallerPools, clazz).offer(marshaller);
 	}
 
 	/**
@@ -217,10 +296,30 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 		return jaxbContext.createUnmarshaller();
 	}
 
-	private Unmarshaller createUnmarshaller(Class<?> clazz) throws JAXBException {
-		return createUnmarshaller(getJaxbContext(clazz));
+	/**
+	 * Returns an idle unmarshaller for the given class from the pool, or creates a new one if none is available. Once
+	 * successfully used, the unmarshaller should be returned with {@link #releaseUnmarshaller(Class, Unmarshaller)}.
+	 */
+	private Unmarshaller borrowUnmarshaller(Class<?> clazz) throws JAXBException {
+		Unmarshaller unmarshaller = getPool(unmarshallerPools, clazz).poll();
+		return unmarshaller != null ? unmarshaller : createUnmarshaller(getJaxbContext(clazz));
 	}
 
+	private void releaseUnmarshaller(Class<?> clazz, Unmarshaller unmarshaller) {
+		getPool(unmarshallerPools, clazz).offer(unmarshaller);
+	}
+
+	private <T> BoundedObjectPool<T> getPool(ConcurrentMap<Class<?>, BoundedObjectPool<T>> pools, Class<?> clazz) {
+		BoundedObjectPool<T> pool = pools.get(clazz);
+		if (pool == null) {
+			pool = new BoundedObjectPool<T>(poolSize);
+			BoundedObjectPool<T> existingPool = pools.putIfAbsent(clazz, pool);
+			if (existingPool != null) {
+				pool = existingPool;
+			}
+		}
+		return pool;
+	}
 
 	private JAXBContext getJaxbContext(Class<?> clazz) throws JAXBException {
 		Assert.notNull(clazz, "'clazz' must not be null");
@@ -240,8 +339,8 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 
 		private Object result;
 
-		public Jaxb2SourceCallback(Class<?> clazz) throws JAXBException {
-			this.unmarshaller = createUnmarshaller(clazz);
+		public Jaxb2SourceCallback(Unmarshaller unmarshaller) {
+			this.unmarshaller = unmarshaller;
 		}
 
 		@Override
@@ -305,8 +404,8 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 
 		private JAXBElement<T> result;
 
-		public JaxbElementSourceCallback(Class<T> declaredType) throws JAXBException {
-			this.unmarshaller = createUnmarshaller(declaredType);
+		public JaxbElementSourceCallback(Unmarshaller unmarshaller, Class<T> declaredType) {
+			this.unmarshaller = unmarshaller;
 			this.declaredType = declaredType;
 		}
 
@@ -352,8 +451,8 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 
 		private final Object jaxbElement;
 
-		private Jaxb2ResultCallback(Class<?> clazz, Object jaxbElement) throws JAXBException {
-			this.marshaller = createMarshaller(clazz);
+		private Jaxb2ResultCallback(Marshaller marshaller, Object jaxbElement) {
+			this.marshaller = marshaller;
 			this.jaxbElement = jaxbElement;
 		}
 
@@ -395,18 +494,16 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 
 	private class JaxbStreamingPayload implements StreamingPayload {
 
-		private final Object jaxbElement;
+		private final Class<?> clazz;
 
-		private final Marshaller marshaller;
+		private final Object jaxbElement;
 
 		private final QName name;
 
 		private JaxbStreamingPayload(Class<?> clazz, Object jaxbElement) throws JAXBException {
-			JAXBContext jaxbContext = getJaxbContext(clazz);
-			this.marshaller = jaxbContext.createMarshaller();
-			this.marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+			this.clazz = clazz;
 			this.jaxbElement = jaxbElement;
-			JAXBIntrospector introspector = jaxbContext.createJAXBIntrospector();
+			JAXBIntrospector introspector = getJaxbContext(clazz).createJAXBIntrospector();
 			this.name = introspector.getElementName(jaxbElement);
 		}
 
@@ -418,7 +515,12 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 		@Override
 		public void writeTo(XMLStreamWriter streamWriter) throws XMLStreamException {
 			try {
+				Marshaller marshaller = borrowMarshaller(clazz);
+				Object fragment = marshaller.getProperty(Marshaller.JAXB_FRAGMENT);
+				marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
 				marshaller.marshal(jaxbElement, streamWriter);
+				marshaller.setProperty(Marshaller.JAXB_FRAGMENT, fragment);
+				releaseMarshaller(clazz, marshaller);
 			}
 			catch (JAXBException ex) {
 				throw new XMLStreamException("Could not marshal [" + jaxbElement + "]: " + ex.getMessage(), ex);
@@ -427,4 +529,4 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 	}
 
 
-}
\ No newline at end of file
+}
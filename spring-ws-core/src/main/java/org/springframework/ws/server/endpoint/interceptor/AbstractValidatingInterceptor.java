@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,8 @@
 package org.springframework.ws.server.endpoint.interceptor;
 
 import java.io.IOException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
 import javax.xml.transform.TransformerException;
 
@@ -26,6 +28,7 @@ import org.xml.sax.SAXParseException;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.io.Resource;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.ws.WebServiceMessage;
@@ -33,8 +36,13 @@ import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.EndpointInterceptor;
 import org.springframework.ws.soap.SoapFault;
 import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.stream.DecoratableWebServiceMessage;
+import org.springframework.ws.stream.PayloadReaderDecorator;
 import org.springframework.xml.transform.TransformerObjectSupport;
+import org.springframework.xml.validation.StreamingXmlValidator;
+import org.springframework.xml.validation.ValidatingStreamReader;
 import org.springframework.xml.validation.ValidationErrorHandler;
+import org.springframework.xml.validation.XmlValidationException;
 import org.springframework.xml.validation.XmlValidator;
 import org.springframework.xml.validation.XmlValidatorFactory;
 import org.springframework.xml.xsd.XsdSchema;
@@ -48,6 +56,9 @@ import org.springframework.xml.xsd.XsdSchemaCollection;
  * <p>By default, only the request message is validated, but this behaviour can be changed using the
  * {@code validateRequest} and {@code validateResponse} properties.
  *
+ * <p>When {@linkplain #setStreamingValidation(boolean) streaming validation} is enabled, and the request payload can
+ * only be read once, the request is validated while the endpoint reads it, rather than before the endpoint is invoked.
+ *
  * @author Arjen Poutsma
  * @see #getValidationRequestSource(org.springframework.ws.WebServiceMessage)
  * @see #getValidationResponseSource(org.springframework.ws.WebServiceMessage)
@@ -68,6 +79,11 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
 
 	private ValidationErrorHandler errorHandler;
 
+	private boolean streamingValidation = false;
+
+	private final String streamingValidationAttribute =
+			ClassUtils.getQualifiedName(getClass()) + "." + ObjectUtils.getIdentityHexString(this);
+
 	public String getSchemaLanguage() {
 		return schemaLanguage;
 	}
@@ -153,6 +169,31 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
 		this.validateResponse = validateResponse;
 	}
 
+	/**
+	 * Indicates whether requests whose payload can only be read once should be validated while the endpoint reads the
+	 * payload, instead of before the endpoint is invoked. Default is {@code false}.
+	 *
+	 * <p>Streaming validation does not require the payload to be buffered, as is the case for an
+	 * {@link org.springframework.ws.soap.axiom.AxiomSoapMessageFactory AxiomSoapMessageFactory} with payload caching
+	 * disabled. Validation errors are detected only once the endpoint has read the entire payload, and are handled in
+	 * {@link #handleResponse(MessageContext, Object) handleResponse}, {@link #handleFault(MessageContext, Object)
+	 * handleFault}, or, if the endpoint produced no response, {@link #afterCompletion(MessageContext, Object, Exception)
+	 * afterCompletion}, by passing them to
+	 * {@link #handleRequestValidationErrors(MessageContext, SAXParseException[]) handleRequestValidationErrors}. Any
+	 * part of the payload not read by the endpoint is read and validated at that point. Note that the endpoint is thus
+	 * invoked for invalid requests as well.
+	 *
+	 * <p>Streaming validation is only applied if supported by this interceptor, the configured validator, and the
+	 * request message; otherwise, the request is validated as usual.
+	 *
+	 * @see #supportsStreamingValidation()
+	 * @see DecoratableWebServiceMessage
+	 * @see StreamingXmlValidator
+	 */
+	public void setStreamingValidation(boolean streamingValidation) {
+		this.streamingValidation = streamingValidation;
+	}
+
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		if (validator == null && !ObjectUtils.isEmpty(schemas)) {
@@ -183,6 +224,12 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
 	public boolean handleRequest(MessageContext messageContext, Object endpoint)
 			throws IOException, SAXException, TransformerException {
 		if (validateRequest) {
+			if (isStreamingValidation(messageContext.getRequest())) {
+				StreamingRequestValidation validation = new StreamingRequestValidation();
+				((DecoratableWebServiceMessage) messageContext.getRequest()).addPayloadReaderDecorator(validation);
+				messageContext.setProperty(streamingValidationAttribute, validation);
+				return true;
+			}
 			Source requestSource = getValidationRequestSource(messageContext.getRequest());
 			if (requestSource != null) {
 				SAXParseException[] errors = validator.validate(requestSource, errorHandler);
@@ -197,6 +244,12 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
 		return true;
 	}
 
+	private boolean isStreamingValidation(WebServiceMessage request) {
+		return streamingValidation && supportsStreamingValidation() && validator instanceof StreamingXmlValidator &&
+				request instanceof DecoratableWebServiceMessage &&
+				!((DecoratableWebServiceMessage) request).isPayloadCaching();
+	}
+
 	/**
 	 * Template method that is called when the request message contains validation errors. Default implementation logs
 	 * all errors, and returns {@code false}, i.e. do not process the request.
@@ -219,12 +272,19 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
 	 *
 	 * <p>Returns {@code true} if the request is valid, or {@code false} if it isn't.
 	 *
+	 * <p>If the request is {@linkplain #setStreamingValidation(boolean) validated as it is read}, the validation
+	 * errors of the request are handled first.
+	 *
 	 * @param messageContext the message context.
 	 * @return {@code true} if the response is valid; {@code false} otherwise
 	 * @see #setValidateResponse(boolean)
 	 */
 	@Override
-	public boolean handleResponse(MessageContext messageContext, Object endpoint) throws IOException, SAXException {
+	public boolean handleResponse(MessageContext messageContext, Object endpoint)
+			throws IOException, SAXException, TransformerException {
+		if (!finishStreamingValidation(messageContext)) {
+			return false;
+		}
 		if (validateResponse) {
 			Source responseSource = getValidationResponseSource(messageContext.getResponse());
 			if (responseSource != null) {
@@ -255,15 +315,60 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
 		return false;
 	}
 
-	/** Does nothing by default. Faults are not validated. */
+	/**
+	 * Faults are not validated. If the request is {@linkplain #setStreamingValidation(boolean) validated as it is
+	 * read}, the validation errors of the request are handled.
+	 */
 	@Override
 	public boolean handleFault(MessageContext messageContext, Object endpoint) throws Exception {
-		return true;
+		return finishStreamingValidation(messageContext);
 	}
 
-	/** Does nothing by default.*/
+	/**
+	 * Indicates whether this interceptor supports {@linkplain #setStreamingValidation(boolean) streaming validation},
+	 * i.e. whether the {@linkplain #getValidationRequestSource(WebServiceMessage) validated part} of the request is
+	 * its payload. Default implementation returns {@code false}.
+	 */
+	protected boolean supportsStreamingValidation() {
+		return false;
+	}
+
+	/**
+	 * If the request is {@linkplain #setStreamingValidation(boolean) validated as it is read}, and the endpoint did not
+	 * produce a response, the validation errors of the request are handled. Does nothing otherwise.
+	 */
 	@Override
-	public void afterCompletion(MessageContext messageContext, Object endpoint, Exception ex) {
+	public void afterCompletion(MessageContext messageContext, Object endpoint, Exception ex)
+			throws TransformerException {
+		if (ex == null && !messageContext.hasResponse()) {
+			finishStreamingValidation(messageContext);
+		}
+		else {
+			messageContext.removeProperty(streamingValidationAttribute);
+		}
+	}
+
+	/**
+	 * Finishes the streaming validation of the request, if any, and handles its validation errors.
+	 *
+	 * @return {@code true} if the request is valid or not validated as it is read; the result of
+	 * {@link #handleRequestValidationErrors(MessageContext, SAXParseException[]) handleRequestValidationErrors} otherwise
+	 */
+	private boolean finishStreamingValidation(MessageContext messageContext) throws TransformerException {
+		StreamingRequestValidation validation =
+				(StreamingRequestValidation) messageContext.getProperty(streamingValidationAttribute);
+		if (validation == null) {
+			return true;
+		}
+		messageContext.removeProperty(streamingValidationAttribute);
+		SAXParseException[] errors = validation.finish(messageContext.getRequest());
+		if (!ObjectUtils.isEmpty(errors)) {
+			return handleRequestValidationErrors(messageContext, errors);
+		}
+		else if (logger.isDebugEnabled()) {
+			logger.debug("Request message validated");
+		}
+		return true;
 	}
 
 	/**
@@ -281,4 +386,37 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
 	 * @return the part of the message that is to validated, or {@code null} not to validate anything
 	 */
 	protected abstract Source getValidationResponseSource(WebServiceMessage response);
+
+	/** Validates the request payload as it is read, by decorating its reader. */
+	private class StreamingRequestValidation implements PayloadReaderDecorator {
+
+		private ValidatingStreamReader validatingReader;
+
+		@Override
+		public XMLStreamReader decorate(XMLStreamReader payloadReader) {
+			if (validatingReader != null) {
+				return payloadReader;
+			}
+			validatingReader =
+					((StreamingXmlValidator) validator).createValidatingStreamReader(payloadReader, errorHandler);
+			return validatingReader;
+		}
+
+		/** Reads the remainder of the payload, if any, and returns the validation errors. */
+		public SAXParseException[] finish(WebServiceMessage request) {
+			if (validatingReader == null) {
+				// the endpoint did not read the payload at all
+				request.getPayloadSource();
+				if (validatingReader == null) {
+					return null;
+				}
+			}
+			try {
+				return validatingReader.finishValidation();
+			}
+			catch (XMLStreamException ex) {
+				throw new XmlValidationException("Could not validate request: " + ex.getMessage(), ex);
+			}
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,9 +20,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import javax.xml.transform.Source;
 import javax.xml.transform.Templates;
-import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 
@@ -89,8 +87,7 @@ public class PayloadTransformingInterceptor extends TransformerObjectSupport
 	public boolean handleRequest(MessageContext messageContext, Object endpoint) throws Exception {
 		if (requestTemplates != null) {
 			WebServiceMessage request = messageContext.getRequest();
-			Transformer transformer = requestTemplates.newTransformer();
-			transformMessage(request, transformer);
+			transformMessage(request, requestTemplates);
 			logger.debug("Request message transformed");
 		}
 		return true;
@@ -108,16 +105,15 @@ public class PayloadTransformingInterceptor extends TransformerObjectSupport
 	public boolean handleResponse(MessageContext messageContext, Object endpoint) throws Exception {
 		if (responseTemplates != null) {
 			WebServiceMessage response = messageContext.getResponse();
-			Transformer transformer = responseTemplates.newTransformer();
-			transformMessage(response, transformer);
+			transformMessage(response, responseTemplates);
 			logger.debug("Response message transformed");
 		}
 		return true;
 	}
 
-	private void transformMessage(WebServiceMessage message, Transformer transformer) throws TransformerException {
+	private void transformMessage(WebServiceMessage message, Templates templates) throws TransformerException {
 		ByteArrayOutputStream os = new ByteArrayOutputStream();
-		transformer.transform(message.getPayloadSource(), new StreamResult(os));
+		transform(templates, message.getPayloadSource(), new StreamResult(os));
 		ByteArrayInputStream is = new ByteArrayInputStream(os.toByteArray());
 		transform(new StreamSource(is), message.getPayloadResult());
 	}
@@ -138,7 +134,6 @@ public class PayloadTransformingInterceptor extends TransformerObjectSupport
 		if (requestXslt == null && responseXslt == null) {
 			throw new IllegalArgumentException("Setting either 'requestXslt' or 'responseXslt' is required");
 		}
-		TransformerFactory transformerFactory = getTransformerFactory();
 		XMLReader xmlReader = XMLReaderFactory.createXMLReader();
 		xmlReader.setFeature("http://xml.org/sax/features/namespace-prefixes", true);
 		if (requestXslt != null) {
@@ -147,7 +142,7 @@ public class PayloadTransformingInterceptor extends TransformerObjectSupport
 				logger.info("Transforming request using " + requestXslt);
 			}
 			Source requestSource = new ResourceSource(xmlReader, requestXslt);
-			requestTemplates = transformerFactory.newTemplates(requestSource);
+			requestTemplates = getTemplates(requestSource);
 		}
 		if (responseXslt != null) {
 			Assert.isTrue(responseXslt.exists(), "responseXslt \"" + responseXslt + "\" does not exit");
@@ -155,7 +150,7 @@ public class PayloadTransformingInterceptor extends TransformerObjectSupport
 				logger.info("Transforming response using " + responseXslt);
 			}
 			Source responseSource = new ResourceSource(xmlReader, responseXslt);
-			responseTemplates = transformerFactory.newTemplates(responseSource);
+			responseTemplates = getTemplates(responseSource);
 		}
 	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.ws.server.endpoint.mapping;
 
 import java.util.Map;
+import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
@@ -29,8 +30,11 @@ import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.context.MessageContext;
+import org.springframework.xml.xpath.StreamingXPathExpression;
+import org.springframework.xml.xpath.StreamingXPathExpressionFactory;
 import org.springframework.xml.xpath.XPathExpression;
 import org.springframework.xml.xpath.XPathExpressionFactory;
+import org.springframework.xml.xpath.XPathParseException;
 
 /**
  * Implementation of the {@code EndpointMapping} interface that maps to endpoint using an XPath expression.
@@ -52,6 +56,9 @@ import org.springframework.xml.xpath.XPathExpressionFactory;
  * The syntax is XPATH_EVALUATION=ENDPOINT_BEAN_NAME. The key is the evaluation of the XPath expression for the incoming
  * message, the value is the name of the endpoint.
  *
+ * <p>If the expression lies within the subset supported by the {@link StreamingXPathExpressionFactory}, it is evaluated
+ * directly on the payload source, without transforming the payload into a DOM tree first.
+ *
  * @author Arjen Poutsma
  * @see #setExpression(String)
  * @see #setNamespaces(java.util.Map) 
@@ -63,6 +70,8 @@ public class XPathPayloadEndpointMapping extends AbstractMapBasedEndpointMapping
 
 	private XPathExpression expression;
 
+	private StreamingXPathExpression streamingExpression;
+
 	private Map<String, String> namespaces;
 
 	private TransformerFactory transformerFactory;
@@ -86,11 +95,24 @@ public class XPathPayloadEndpointMapping extends AbstractMapBasedEndpointMapping
 		else {
 			expression = XPathExpressionFactory.createXPathExpression(expressionString, namespaces);
 		}
+		try {
+			streamingExpression = StreamingXPathExpressionFactory.createXPathExpression(expressionString, namespaces);
+		}
+		catch (XPathParseException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Expression [" + expressionString + "] cannot be evaluated as a stream; " +
+						"payloads will be transformed into a DOM tree");
+			}
+		}
 		transformerFactory = TransformerFactory.newInstance();
 	}
 
 	@Override
 	protected String getLookupKeyForMessage(MessageContext messageContext) throws Exception {
+		if (streamingExpression != null) {
+			Source payloadSource = messageContext.getRequest().getPayloadSource();
+			return payloadSource != null ? streamingExpression.evaluateAsString(payloadSource) : null;
+		}
 		Element payloadElement = getMessagePayloadElement(messageContext.getRequest());
 		return expression.evaluateAsString(payloadElement);
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 
 package org.springframework.ws.soap.axiom;
 
+import java.util.ArrayList;
+import java.util.List;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
@@ -23,6 +25,7 @@ import javax.xml.transform.Source;
 import org.springframework.util.Assert;
 import org.springframework.util.xml.StaxUtils;
 import org.springframework.ws.soap.axiom.support.AxiomUtils;
+import org.springframework.ws.stream.PayloadReaderDecorator;
 
 import org.apache.axiom.om.OMElement;
 import org.apache.axiom.om.OMException;
@@ -41,6 +44,8 @@ abstract class AbstractPayload extends Payload {
 
 	private final SOAPFactory axiomFactory;
 
+	private List<PayloadReaderDecorator> readerDecorators;
+
 	protected AbstractPayload(SOAPBody axiomBody, SOAPFactory axiomFactory) {
 		Assert.notNull(axiomBody, "'axiomBody' must not be null");
 		Assert.notNull(axiomFactory, "'axiomFactory' must not be null");
@@ -54,6 +59,11 @@ abstract class AbstractPayload extends Payload {
 			OMElement payloadElement = getPayloadElement();
 			if (payloadElement != null) {
 				XMLStreamReader streamReader = getStreamReader(payloadElement);
+				if (readerDecorators != null) {
+					for (PayloadReaderDecorator readerDecorator : readerDecorators) {
+						streamReader = readerDecorator.decorate(streamReader);
+					}
+				}
 				return StaxUtils.createCustomStaxSource(streamReader);
 			}
 			else {
@@ -67,6 +77,15 @@ abstract class AbstractPayload extends Payload {
 
 	protected abstract XMLStreamReader getStreamReader(OMElement payloadElement);
 
+	@Override
+	public void addReaderDecorator(PayloadReaderDecorator decorator) {
+		Assert.notNull(decorator, "'decorator' must not be null");
+		if (readerDecorators == null) {
+			readerDecorators = new ArrayList<PayloadReaderDecorator>(1);
+		}
+		readerDecorators.add(decorator);
+	}
+
 	@Override
 	public final Result getResult() {
 		AxiomUtils.removeContents(getAxiomBody());
@@ -19,9 +19,13 @@ package org.springframework.ws.soap.axiom;
 import java.io.IOException;
 import java.io.InputStream;
 import javax.activation.DataHandler;
+import javax.activation.DataSource;
+
+import org.apache.axiom.ext.activation.SizeAwareDataSource;
 
 import org.springframework.util.Assert;
 import org.springframework.ws.mime.Attachment;
+import org.springframework.ws.mime.StoredDataSource;
 
 /**
  * Axiom-specific implementation of {@link org.springframework.ws.mime.Attachment}
@@ -59,8 +63,16 @@ class AxiomAttachment implements Attachment {
 
 	@Override
 	public long getSize() {
-		// Axiom does not support getting the size of attachments.
-		return -1;
+		DataSource dataSource = dataHandler.getDataSource();
+		if (dataSource instanceof StoredDataSource) {
+			return ((StoredDataSource) dataSource).getSize();
+		}
+		else if (dataSource instanceof SizeAwareDataSource) {
+			return ((SizeAwareDataSource) dataSource).getSize();
+		}
+		else {
+			return -1;
+		}
 	}
 
 	@Override
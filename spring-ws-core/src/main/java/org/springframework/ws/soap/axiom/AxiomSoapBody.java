@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,18 +16,27 @@
 
 package org.springframework.ws.soap.axiom;
 
+import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMResult;
 
 import org.apache.axiom.om.OMDataSource;
 import org.apache.axiom.om.OMElement;
 import org.apache.axiom.soap.SOAPBody;
 import org.apache.axiom.soap.SOAPFactory;
+import org.apache.axiom.util.stax.wrapper.XMLStreamWriterWrapper;
+import org.w3c.dom.Element;
 
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 import org.springframework.ws.soap.SoapBody;
 import org.springframework.ws.soap.axiom.support.AxiomUtils;
+import org.springframework.ws.stream.PayloadReaderDecorator;
 import org.springframework.ws.stream.StreamingPayload;
 
 /**
@@ -38,6 +47,8 @@ import org.springframework.ws.stream.StreamingPayload;
  */
 abstract class AxiomSoapBody extends AxiomSoapElement implements SoapBody {
 
+	private static final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+
 	private final Payload payload;
 
 	protected AxiomSoapBody(SOAPBody axiomBody, SOAPFactory axiomFactory, boolean payloadCaching) {
@@ -60,6 +71,10 @@ abstract class AxiomSoapBody extends AxiomSoapElement implements SoapBody {
 		return payload.getResult();
 	}
 
+	void addPayloadReaderDecorator(PayloadReaderDecorator decorator) {
+		payload.addReaderDecorator(decorator);
+	}
+
 	@Override
 	public boolean hasFault() {
 		return getAxiomBody().hasFault();
@@ -71,6 +86,11 @@ abstract class AxiomSoapBody extends AxiomSoapElement implements SoapBody {
 
 	public void setStreamingPayload(StreamingPayload payload) {
 		Assert.notNull(payload, "'payload' must not be null");
+		if (getAxiomBody() instanceof Element) {
+			// DOM-compatible Axiom does not support data sources, so write the payload right away
+			writeStreamingPayload(payload);
+			return;
+		}
 		OMDataSource dataSource = new StreamingOMDataSource(payload);
 		SOAPFactory factory = getAxiomFactory();
 		QName name = payload.getName();
@@ -82,4 +102,85 @@ abstract class AxiomSoapBody extends AxiomSoapElement implements SoapBody {
 		AxiomUtils.removeContents(soapBody);
 		soapBody.addChild(payloadElement);
 	}
+
+	private void writeStreamingPayload(StreamingPayload payload) {
+		try {
+			SOAPBody soapBody = getAxiomBody();
+			AxiomUtils.removeContents(soapBody);
+			XMLStreamWriter streamWriter = new NamespaceRepairingStreamWriter(
+					outputFactory.createXMLStreamWriter(new DOMResult((Element) soapBody)));
+			payload.writeTo(streamWriter);
+			streamWriter.flush();
+		}
+		catch (XMLStreamException ex) {
+			throw new AxiomSoapBodyException("Could not write streaming payload: " + ex.getMessage(), ex);
+		}
+	}
+
+	/**
+	 * Binds the namespaces written to a DOM stream writer, and declares those that are not bound yet. The DOM stream
+	 * writers of some StAX implementations do neither, while their namespace repairing mode writes invalid namespace
+	 * declarations.
+	 */
+	private static class NamespaceRepairingStreamWriter extends XMLStreamWriterWrapper {
+
+		private int prefixCount = 0;
+
+		private NamespaceRepairingStreamWriter(XMLStreamWriter delegate) {
+			super(delegate);
+		}
+
+		@Override
+		public void writeStartElement(String namespaceURI, String localName) throws XMLStreamException {
+			if (!StringUtils.hasLength(namespaceURI) || getPrefix(namespaceURI) != null) {
+				super.writeStartElement(namespaceURI, localName);
+			}
+			else {
+				super.writeStartElement("", localName, namespaceURI);
+				writeDefaultNamespace(namespaceURI);
+			}
+		}
+
+		@Override
+		public void writeEmptyElement(String namespaceURI, String localName) throws XMLStreamException {
+			if (!StringUtils.hasLength(namespaceURI) || getPrefix(namespaceURI) != null) {
+				super.writeEmptyElement(namespaceURI, localName);
+			}
+			else {
+				super.writeEmptyElement("", localName, namespaceURI);
+				writeDefaultNamespace(namespaceURI);
+			}
+		}
+
+		@Override
+		public void writeAttribute(String namespaceURI, String localName, String value) throws XMLStreamException {
+			if (!StringUtils.hasLength(namespaceURI)) {
+				super.writeAttribute(namespaceURI, localName, value);
+				return;
+			}
+			String prefix = getPrefix(namespaceURI);
+			if (!StringUtils.hasLength(prefix)) {
+				prefix = "ns" + prefixCount++;
+				writeNamespace(prefix, namespaceURI);
+			}
+			super.writeAttribute(prefix, namespaceURI, localName, value);
+		}
+
+		@Override
+		public void writeNamespace(String prefix, String namespaceURI) throws XMLStreamException {
+			if (!StringUtils.hasLength(prefix) || XMLConstants.XMLNS_ATTRIBUTE.equals(prefix)) {
+				writeDefaultNamespace(namespaceURI);
+			}
+			else {
+				super.writeNamespace(prefix, namespaceURI);
+				setPrefix(prefix, namespaceURI);
+			}
+		}
+
+		@Override
+		public void writeDefaultNamespace(String namespaceURI) throws XMLStreamException {
+			super.writeDefaultNamespace(namespaceURI);
+			setDefaultNamespace(namespaceURI);
+		}
+	}
 }
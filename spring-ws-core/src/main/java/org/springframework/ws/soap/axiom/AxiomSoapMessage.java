@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -48,6 +48,8 @@ import org.springframework.ws.soap.SoapMessage;
 import org.springframework.ws.soap.SoapVersion;
 import org.springframework.ws.soap.axiom.support.AxiomUtils;
 import org.springframework.ws.soap.support.SoapUtils;
+import org.springframework.ws.stream.DecoratableWebServiceMessage;
+import org.springframework.ws.stream.PayloadReaderDecorator;
 import org.springframework.ws.stream.StreamingPayload;
 import org.springframework.ws.stream.StreamingWebServiceMessage;
 import org.springframework.ws.transport.TransportConstants;
@@ -61,7 +63,8 @@ import org.springframework.ws.transport.TransportOutputStream;
  * @see SOAPMessage
  * @since 1.0.0
  */
-public class AxiomSoapMessage extends AbstractSoapMessage implements StreamingWebServiceMessage {
+public class AxiomSoapMessage extends AbstractSoapMessage
+		implements StreamingWebServiceMessage, DecoratableWebServiceMessage {
 
 	private static final String EMPTY_SOAP_ACTION = "\"\"";
 
@@ -178,6 +181,17 @@ public class AxiomSoapMessage extends AbstractSoapMessage implements StreamingWe
 		soapBody.setStreamingPayload(payload);
 	}
 
+	@Override
+	public boolean isPayloadCaching() {
+		return payloadCaching;
+	}
+
+	@Override
+	public void addPayloadReaderDecorator(PayloadReaderDecorator decorator) {
+		AxiomSoapBody soapBody = (AxiomSoapBody) getSoapBody();
+		soapBody.addPayloadReaderDecorator(decorator);
+	}
+
 	@Override
 	public SoapEnvelope getEnvelope() {
 		if (envelope == null) {
@@ -203,18 +217,41 @@ public class AxiomSoapMessage extends AbstractSoapMessage implements StreamingWe
 		this.soapAction = soapAction;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>If this message was created with a DOM-compatible Axiom factory, the returned document is a live view of this
+	 * message, and changes to it are reflected immediately. Otherwise, the returned document is a copy, and changes
+	 * have to be applied using {@link #setDocument(Document)}.
+	 *
+	 * @see AxiomSoapMessageFactory#setDomCompatible(boolean)
+	 */
 	@Override
 	public Document getDocument() {
 		return AxiomUtils.toDocument(axiomMessage.getSOAPEnvelope());
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>If this message was created with a DOM-compatible Axiom factory, and the given document is a DOM-compatible
+	 * Axiom message whose structure is still intact, such as the one returned by {@link #getDocument()}, it is used as
+	 * is, without being converted.
+	 */
 	@Override
 	public void setDocument(Document document) {
 		// save the Soap Action
 		String soapAction = getSoapAction();
-		SOAPEnvelope envelope = AxiomUtils.toEnvelope(document);
-		SOAPMessage newMessage = axiomFactory.createSOAPMessage();
-		newMessage.setSOAPEnvelope(envelope);
+		SOAPMessage newMessage;
+		if (axiomMessage instanceof Document) {
+			SOAPEnvelope envelope = AxiomUtils.toEnvelope(document, axiomFactory);
+			newMessage = (SOAPMessage) envelope.getParent();
+		}
+		else {
+			SOAPEnvelope envelope = AxiomUtils.toEnvelope(document);
+			newMessage = axiomFactory.createSOAPMessage();
+			newMessage.setSOAPEnvelope(envelope);
+		}
 
 		// replace the Axiom message
 		setAxiomMessage(newMessage);
@@ -317,7 +354,8 @@ public class AxiomSoapMessage extends AbstractSoapMessage implements StreamingWe
 			String charsetEncoding = axiomMessage.getCharsetEncoding();
 
 			OMOutputFormat outputFormat = new OMOutputFormat();
-			outputFormat.setCharSetEncoding(charsetEncoding);
+			outputFormat.setCharSetEncoding(
+					charsetEncoding != null ? charsetEncoding : OMOutputFormat.DEFAULT_CHAR_SET_ENCODING);
 			outputFormat.setSOAP11(getVersion() == SoapVersion.SOAP_11);
 			if (isXopPackage()) {
 				outputFormat.setDoOptimize(true);
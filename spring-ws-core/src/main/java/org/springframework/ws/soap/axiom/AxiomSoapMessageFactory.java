@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,6 +28,7 @@ import javax.xml.stream.XMLStreamReader;
 import org.apache.axiom.attachments.Attachments;
 import org.apache.axiom.om.OMAbstractFactory;
 import org.apache.axiom.om.OMException;
+import org.apache.axiom.om.OMMetaFactory;
 import org.apache.axiom.om.impl.MTOMConstants;
 import org.apache.axiom.soap.SOAP11Constants;
 import org.apache.axiom.soap.SOAP11Version;
@@ -43,6 +44,7 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
+import org.springframework.ws.mime.AttachmentStore;
 import org.springframework.ws.server.endpoint.interceptor.PayloadLoggingInterceptor;
 import org.springframework.ws.server.endpoint.mapping.PayloadRootAnnotationMethodEndpointMapping;
 import org.springframework.ws.soap.SoapMessageFactory;
@@ -68,7 +70,15 @@ import org.springframework.ws.transport.TransportInputStream;
  * <p>Additionally, this message factory can cache large attachments to disk by setting the {@link
  * #setAttachmentCaching(boolean) attachmentCaching} property to {@code true} (default is {@code false}).
  * Optionally, the location where attachments are stored can be defined via the {@link #setAttachmentCacheDir(File)
- * attachmentCacheDir} property (defaults to the system temp file path).
+ * attachmentCacheDir} property (defaults to the system temp file path). Alternatively, an {@link
+ * #setAttachmentStore(AttachmentStore) attachmentStore} can be set, which shares its spill directory with other
+ * message factories.
+ *
+ * <p>Setting the {@link #setDomCompatible(boolean) domCompatible} property to {@code true} makes this factory build
+ * messages with Axiom's DOM-compatible implementation (DOOM), which requires the {@code axiom-dom} module on the
+ * class path. The {@link AxiomSoapMessage#getDocument() document} of such messages is a live DOM view of the Axiom
+ * tree, rather than a copy, which avoids serializing and reparsing the message when it is processed by a DOM-based
+ * library such as WSS4J.
  *
  * <p>Mostly derived from {@code org.apache.axis2.transport.http.HTTPTransportUtils} and
  * {@code org.apache.axis2.transport.TransportUtils}, which we cannot use since they are not part of the Axiom
@@ -99,6 +109,8 @@ public class AxiomSoapMessageFactory implements SoapMessageFactory, Initializing
 
 	private int attachmentCacheThreshold = 4096;
 
+	private AttachmentStore attachmentStore;
+
 	// use SOAP 1.1 by default
 	private SOAPFactory soapFactory = OMAbstractFactory.getSOAP11Factory();
 
@@ -108,6 +120,9 @@ public class AxiomSoapMessageFactory implements SoapMessageFactory, Initializing
 
 	private boolean supportingExternalEntities = false;
 
+	private SoapVersion soapVersion = SoapVersion.SOAP_11;
+
+	private boolean domCompatible = false;
 
 	/**
 	 * Indicates whether the SOAP Body payload should be cached or not. Default is {@code true}.
@@ -155,18 +170,60 @@ public class AxiomSoapMessageFactory implements SoapMessageFactory, Initializing
 		this.attachmentCacheThreshold = attachmentCacheThreshold;
 	}
 
+	/**
+	 * Sets the store that determines how attachments are cached. When set, attachments are always {@linkplain
+	 * #setAttachmentCaching(boolean) cached} in the {@linkplain AttachmentStore#setSpillDirectory(File) spill
+	 * directory} of the store. Attachments larger than its {@linkplain AttachmentStore#getInMemoryThreshold() in-memory
+	 * threshold} at the time the message is created are streamed to disk while the message is read, so that they never
+	 * have to fit in the heap.
+	 *
+	 * <p>Note that Axiom keeps smaller attachments in memory itself: they are not reserved against the {@linkplain
+	 * AttachmentStore#setMemoryBudget(long) memory budget} of the store, which only lowers the threshold when the
+	 * budget is used up by other messages.
+	 *
+	 * <p>When this property is set, the {@code attachmentCaching}, {@code attachmentCacheDir}, and {@code
+	 * attachmentCacheThreshold} properties are ignored.
+	 */
+	public void setAttachmentStore(AttachmentStore attachmentStore) {
+		this.attachmentStore = attachmentStore;
+	}
+
 	@Override
 	public void setSoapVersion(SoapVersion version) {
-		if (SoapVersion.SOAP_11 == version) {
-			soapFactory = OMAbstractFactory.getSOAP11Factory();
+		if (SoapVersion.SOAP_11 != version && SoapVersion.SOAP_12 != version) {
+			throw new IllegalArgumentException(
+					"Invalid version [" + version + "]. " + "Expected the SOAP_11 or SOAP_12 constant");
 		}
-		else if (SoapVersion.SOAP_12 == version) {
-			soapFactory = OMAbstractFactory.getSOAP12Factory();
+		soapVersion = version;
+		soapFactory = createSoapFactory();
+	}
+
+	/**
+	 * Indicates whether messages should be built with Axiom's DOM-compatible implementation (DOOM). Default is
+	 * {@code false}.
+	 *
+	 * <p>Setting this to {@code true} allows {@link AxiomSoapMessage#getDocument()} and {@link
+	 * AxiomSoapMessage#setDocument(org.w3c.dom.Document)} to expose and accept the message as a live DOM, without
+	 * serializing and reparsing it. This requires the {@code axiom-dom} module to be on the class path.
+	 *
+	 * @throws IllegalStateException if {@code true} is given, and {@code axiom-dom} cannot be found
+	 */
+	public void setDomCompatible(boolean domCompatible) {
+		this.domCompatible = domCompatible;
+		soapFactory = createSoapFactory();
+	}
+
+	private SOAPFactory createSoapFactory() {
+		OMMetaFactory metaFactory;
+		if (domCompatible) {
+			metaFactory = OMAbstractFactory.getMetaFactory(OMAbstractFactory.FEATURE_DOM);
+			Assert.state(metaFactory != null,
+					"No DOM-compatible Axiom implementation found; add axiom-dom to the class path");
 		}
 		else {
-			throw new IllegalArgumentException(
-					"Invalid version [" + version + "]. " + "Expected the SOAP_11 or SOAP_12 constant");
+			metaFactory = OMAbstractFactory.getMetaFactory();
 		}
+		return SoapVersion.SOAP_12 == soapVersion ? metaFactory.getSOAP12Factory() : metaFactory.getSOAP11Factory();
 	}
 
 	/**
@@ -281,9 +338,17 @@ public class AxiomSoapMessageFactory implements SoapMessageFactory, Initializing
 	private AxiomSoapMessage createMultiPartAxiomSoapMessage(InputStream inputStream,
 															 String contentType,
 															 String soapAction) throws XMLStreamException {
-		Attachments attachments =
-				new Attachments(inputStream, contentType, attachmentCaching, attachmentCacheDir.getAbsolutePath(),
-						Integer.toString(attachmentCacheThreshold));
+		Attachments attachments;
+		if (attachmentStore != null) {
+			int threshold = Math.max(1, attachmentStore.getInMemoryThreshold());
+			attachments = new Attachments(inputStream, contentType, true,
+					attachmentStore.getSpillDirectory().getAbsolutePath(), Integer.toString(threshold));
+		}
+		else {
+			attachments =
+					new Attachments(inputStream, contentType, attachmentCaching, attachmentCacheDir.getAbsolutePath(),
+							Integer.toString(attachmentCacheThreshold));
+		}
 		XMLStreamReader reader = inputFactory.createXMLStreamReader(attachments.getRootPartInputStream(),
 				getCharSetEncoding(attachments.getRootPartContentType()));
 		StAXSOAPModelBuilder builder;
@@ -293,7 +358,9 @@ public class AxiomSoapMessageFactory implements SoapMessageFactory, Initializing
 			builder = new StAXSOAPModelBuilder(reader, soapFactory, envelopeNamespace);
 		}
 		else if (MTOMConstants.MTOM_TYPE.equals(attachments.getAttachmentSpecType())) {
-			builder = new MTOMStAXSOAPModelBuilder(reader, attachments, envelopeNamespace);
+			builder = domCompatible ?
+					new MTOMStAXSOAPModelBuilder(reader, soapFactory, attachments, envelopeNamespace) :
+					new MTOMStAXSOAPModelBuilder(reader, attachments, envelopeNamespace);
 		}
 		else {
 			throw new AxiomSoapMessageCreationException(
@@ -386,6 +453,9 @@ public class AxiomSoapMessageFactory implements SoapMessageFactory, Initializing
 		else {
 			builder.append("PayloadCaching disabled");
 		}
+		if (domCompatible) {
+			builder.append(",DOM compatible");
+		}
 		builder.append(']');
 		return builder.toString();
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,8 @@ package org.springframework.ws.soap.axiom;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
 
+import org.springframework.ws.stream.PayloadReaderDecorator;
+
 /**
  * Defines the contract for payloads in Axiom.
  *
@@ -40,4 +42,11 @@ abstract class Payload {
 	 * @return the result of the payload
 	 */
 	public abstract Result getResult();
+
+	/**
+	 * Adds a decorator for the stream reader of the payload source.
+	 *
+	 * @param decorator the decorator to add
+	 */
+	public abstract void addReaderDecorator(PayloadReaderDecorator decorator);
 }
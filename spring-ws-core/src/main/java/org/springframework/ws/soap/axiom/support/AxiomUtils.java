@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,11 +31,16 @@ import org.apache.axiom.om.OMElement;
 import org.apache.axiom.om.OMException;
 import org.apache.axiom.om.OMNamespace;
 import org.apache.axiom.om.util.StAXUtils;
+import org.apache.axiom.soap.SOAPBody;
 import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axiom.soap.SOAPFactory;
+import org.apache.axiom.soap.SOAPHeader;
+import org.apache.axiom.soap.SOAPHeaderBlock;
 import org.apache.axiom.soap.impl.builder.StAXSOAPModelBuilder;
 import org.w3c.dom.DOMImplementation;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.Node;
 import org.w3c.dom.ls.DOMImplementationLS;
 import org.w3c.dom.ls.LSOutput;
 import org.w3c.dom.ls.LSSerializer;
@@ -112,6 +117,9 @@ public abstract class AxiomUtils {
 	/**
 	 * Converts a given AXIOM {@link org.apache.axiom.soap.SOAPEnvelope} to a {@link Document}.
 	 *
+	 * <p>If the envelope was created with a DOM-compatible Axiom implementation, it is fully built, and its owner document
+	 * is returned as is. Otherwise, the envelope is serialized and parsed into a new document.
+	 *
 	 * @param envelope the SOAP envelope to be converted
 	 * @return the converted document
 	 * @throws IllegalArgumentException in case of errors
@@ -120,7 +128,10 @@ public abstract class AxiomUtils {
 	public static Document toDocument(SOAPEnvelope envelope) {
 		try {
 			if (envelope instanceof Element) {
-				return ((Element) envelope).getOwnerDocument();
+				// DOM-based libraries expect a complete tree, so parse any deferred content now
+				Document document = ((Element) envelope).getOwnerDocument();
+				((OMContainer) document).build();
+				return document;
 			}
 			else {
 				ByteArrayOutputStream bos = new ByteArrayOutputStream();
@@ -147,28 +158,57 @@ public abstract class AxiomUtils {
 	 * @see org.apache.rampart.util.Axis2Util#getSOAPEnvelopeFromDOMDocument(Document, boolean)
 	 */
 	public static SOAPEnvelope toEnvelope(Document document) {
-		try {
-			DOMImplementation implementation = document.getImplementation();
-			Assert.isInstanceOf(DOMImplementationLS.class, implementation);
+		return toEnvelope(document, null);
+	}
 
-			DOMImplementationLS loadSaveImplementation = (DOMImplementationLS) implementation;
-			LSOutput output = loadSaveImplementation.createLSOutput();
+	/**
+	 * Converts a given {@link Document} to an AXIOM {@link org.apache.axiom.soap.SOAPEnvelope}, using the given factory.
+	 *
+	 * <p>If the document was created with a DOM-compatible Axiom implementation, and it still consists of Axiom SOAP
+	 * envelope, header, header block, and body nodes, its document element is returned as is. Otherwise, the document
+	 * is serialized and parsed into a new envelope.
+	 *
+	 * @param document    the document to be converted
+	 * @param soapFactory the factory used to create the new envelope; may be {@code null} to use the default factory
+	 * @return the converted envelope
+	 * @throws IllegalArgumentException in case of errors
+	 */
+	public static SOAPEnvelope toEnvelope(Document document, SOAPFactory soapFactory) {
+		Element documentElement = document.getDocumentElement();
+		if (isAxiomEnvelope(documentElement)) {
+			return (SOAPEnvelope) documentElement;
+		}
+		try {
 			ByteArrayOutputStream bos = new ByteArrayOutputStream();
-			output.setByteStream(bos);
+			if (document instanceof OMContainer) {
+				// DOM-compatible Axiom documents do not support DOM Load and Save
+				((OMContainer) document).serialize(bos);
+			}
+			else {
+				DOMImplementation implementation = document.getImplementation();
+				Assert.isInstanceOf(DOMImplementationLS.class, implementation);
+
+				DOMImplementationLS loadSaveImplementation = (DOMImplementationLS) implementation;
+				LSOutput output = loadSaveImplementation.createLSOutput();
+				output.setByteStream(bos);
 
-			LSSerializer serializer = loadSaveImplementation.createLSSerializer();
-			serializer.write(document, output);
+				LSSerializer serializer = loadSaveImplementation.createLSSerializer();
+				serializer.write(document, output);
+			}
 
 			ByteArrayInputStream bis = new ByteArrayInputStream(bos.toByteArray());
 
 			XMLInputFactory inputFactory = StAXUtils.getXMLInputFactory();
 
-			StAXSOAPModelBuilder stAXSOAPModelBuilder =
+			StAXSOAPModelBuilder stAXSOAPModelBuilder = soapFactory != null ?
+					new StAXSOAPModelBuilder(inputFactory.createXMLStreamReader(bis), soapFactory,
+							documentElement.getNamespaceURI()) :
 					new StAXSOAPModelBuilder(inputFactory.createXMLStreamReader(bis), null);
 			SOAPEnvelope envelope = stAXSOAPModelBuilder.getSOAPEnvelope();
 
 			// Necessary to build a correct Axiom tree, see SWS-483
 			envelope.serialize(new NullOutputStream());
+			stAXSOAPModelBuilder.getDocument().build();
 
 			return envelope;
 		}
@@ -180,6 +220,30 @@ public abstract class AxiomUtils {
 		}
 	}
 
+	/**
+	 * Indicates whether the given element is a DOM-compatible Axiom envelope, whose header and body have not been
+	 * replaced by plain DOM elements.
+	 */
+	private static boolean isAxiomEnvelope(Element element) {
+		if (!(element instanceof SOAPEnvelope)) {
+			return false;
+		}
+		for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if (child instanceof SOAPHeader) {
+				for (Node headerChild = child.getFirstChild(); headerChild != null;
+						headerChild = headerChild.getNextSibling()) {
+					if (headerChild.getNodeType() == Node.ELEMENT_NODE && !(headerChild instanceof SOAPHeaderBlock)) {
+						return false;
+					}
+				}
+			}
+			else if (child.getNodeType() == Node.ELEMENT_NODE && !(child instanceof SOAPBody)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/** OutputStream that does nothing. */
 	private static class NullOutputStream extends OutputStream {
 
@@ -24,6 +24,7 @@ import javax.xml.soap.SOAPException;
 
 import org.springframework.util.Assert;
 import org.springframework.ws.mime.Attachment;
+import org.springframework.ws.mime.StoredDataSource;
 
 /**
  * SAAJ-specific implementation of the {@code Attachment} interface. Wraps a {@link
@@ -64,6 +65,10 @@ class SaajAttachment implements Attachment {
 	@Override
 	public long getSize() {
 		try {
+			// SAAJ determines the size of data handler content by writing it to memory
+			if (saajAttachment.getDataHandler().getDataSource() instanceof StoredDataSource) {
+				return ((StoredDataSource) saajAttachment.getDataHandler().getDataSource()).getSize();
+			}
 			return saajAttachment.getSize();
 		}
 		catch (SOAPException ex) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -32,6 +32,7 @@ import javax.xml.soap.SOAPEnvelope;
 import javax.xml.soap.SOAPException;
 import javax.xml.soap.SOAPMessage;
 import javax.xml.soap.SOAPPart;
+import javax.xml.transform.dom.DOMSource;
 
 import org.w3c.dom.DOMImplementation;
 import org.w3c.dom.Document;
@@ -191,10 +192,23 @@ public class SaajSoapMessage extends AbstractSoapMessage {
 
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>If the SAAJ implementation exposes its {@link SOAPPart} as a complete DOM document, that part is returned
+	 * after its namespace declarations have been normalized, and changes to it are reflected immediately. Otherwise,
+	 * the message is written and parsed again, to work around SWS-345.
+	 */
 	@Override
 	public Document getDocument() {
+		SOAPPart soapPart = getSaajMessage().getSOAPPart();
+		if (isDomCompatible(soapPart)) {
+			// add the namespace declarations that a reparse would have added, so that signatures are calculated
+			// over the same canonical form as the one that is eventually written
+			soapPart.normalizeDocument();
+			return soapPart;
+		}
 		Assert.state(messageFactory != null, "Could find message factory to use");
-		// return saajSoapMessage.getSaajMessage().getSOAPPart(); // does not work, see SWS-345
 		try {
 			ByteArrayOutputStream bos = new ByteArrayOutputStream();
 			getSaajMessage().writeTo(bos);
@@ -211,33 +225,72 @@ public class SaajSoapMessage extends AbstractSoapMessage {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>If the given document is the {@link SOAPPart} of this message, or the document that owns its envelope, it is
+	 * used as is. If the SAAJ implementation exposes its {@code SOAPPart} as a complete DOM document, other documents
+	 * are set as its content. Otherwise, the document is serialized and parsed into a new SAAJ message.
+	 */
 	@Override
 	public void setDocument(Document document) {
-		if (saajMessage.getSOAPPart() != document) {
-			Assert.state(messageFactory != null, "Could find message factory to use");
+		SOAPPart soapPart = saajMessage.getSOAPPart();
+		if (soapPart == document) {
+			// the envelope might have been changed through the DOM
+			envelope = null;
+			return;
+		}
+		if (isDomCompatible(soapPart)) {
 			try {
-				DOMImplementation implementation = document.getImplementation();
-				Assert.isInstanceOf(DOMImplementationLS.class, implementation);
+				if (soapPart.getEnvelope().getOwnerDocument() != document) {
+					soapPart.setContent(new DOMSource(document));
+				}
+				envelope = null;
+				return;
+			}
+			catch (SOAPException ex) {
+				throw new SaajSoapMessageException("Could not set document", ex);
+			}
+		}
+		Assert.state(messageFactory != null, "Could find message factory to use");
+		try {
+			DOMImplementation implementation = document.getImplementation();
+			Assert.isInstanceOf(DOMImplementationLS.class, implementation);
 
-				DOMImplementationLS loadSaveImplementation = (DOMImplementationLS) implementation;
-				LSOutput output = loadSaveImplementation.createLSOutput();
-				ByteArrayOutputStream bos = new ByteArrayOutputStream();
-				output.setByteStream(bos);
+			DOMImplementationLS loadSaveImplementation = (DOMImplementationLS) implementation;
+			LSOutput output = loadSaveImplementation.createLSOutput();
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			output.setByteStream(bos);
 
-				LSSerializer serializer = loadSaveImplementation.createLSSerializer();
-				serializer.write(document, output);
+			LSSerializer serializer = loadSaveImplementation.createLSSerializer();
+			serializer.write(document, output);
 
-				ByteArrayInputStream bis = new ByteArrayInputStream(bos.toByteArray());
+			ByteArrayInputStream bis = new ByteArrayInputStream(bos.toByteArray());
 
-				this.saajMessage = messageFactory.createMessage(saajMessage.getMimeHeaders(), bis);
+			setSaajMessage(messageFactory.createMessage(saajMessage.getMimeHeaders(), bis));
+		}
+		catch (SOAPException ex) {
+			throw new SaajSoapMessageException("Could not read input stream", ex);
+		}
+		catch (IOException ex) {
+			throw new SaajSoapMessageException("Could not read input stream", ex);
+		}
+	}
 
-			}
-			catch (SOAPException ex) {
-				throw new SaajSoapMessageException("Could not read input stream", ex);
-			}
-			catch (IOException ex) {
-				throw new SaajSoapMessageException("Could not read input stream", ex);
-			}
+	/**
+	 * Indicates whether the given SOAP part can be used as a DOM document: its document element has to be the SAAJ
+	 * envelope itself, rather than a copy of it.
+	 */
+	private static boolean isDomCompatible(SOAPPart soapPart) {
+		try {
+			SOAPEnvelope saajEnvelope = soapPart.getEnvelope();
+			return saajEnvelope != null && soapPart.getDocumentElement() == saajEnvelope;
+		}
+		catch (SOAPException ex) {
+			return false;
+		}
+		catch (UnsupportedOperationException ex) {
+			return false;
 		}
 	}
 
@@ -23,6 +23,7 @@ import java.io.PushbackInputStream;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.StringTokenizer;
+import javax.xml.soap.AttachmentPart;
 import javax.xml.soap.MessageFactory;
 import javax.xml.soap.MimeHeaders;
 import javax.xml.soap.SOAPConstants;
@@ -37,6 +38,8 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.ws.InvalidXmlException;
+import org.springframework.ws.mime.AttachmentStore;
+import org.springframework.ws.mime.StoredDataSource;
 import org.springframework.ws.soap.SoapMessageCreationException;
 import org.springframework.ws.soap.SoapMessageFactory;
 import org.springframework.ws.soap.SoapVersion;
@@ -53,6 +56,10 @@ import org.springframework.ws.transport.TransportInputStream;
  * constructor}, or by the {@link #setMessageFactory(javax.xml.soap.MessageFactory)} property. When a SAAJ message
  * factory is injected, the {@link #setSoapVersion(org.springframework.ws.soap.SoapVersion)} property is ignored.
  *
+ * <p>Setting an {@link #setAttachmentStore(AttachmentStore) attachmentStore} moves the attachments of received
+ * messages into that store, which keeps large attachments on disk rather than in memory for the rest of the lifetime
+ * of the message.
+ *
  * @author Arjen Poutsma
  * @see org.springframework.ws.soap.saaj.SaajSoapMessage
  * @since 1.0.0
@@ -69,6 +76,8 @@ public class SaajSoapMessageFactory implements SoapMessageFactory, InitializingB
 
 	private Map<String, ?> messageProperties;
 
+	private AttachmentStore attachmentStore;
+
 	/** Default, empty constructor. */
 	public SaajSoapMessageFactory() {
 	}
@@ -96,6 +105,17 @@ public class SaajSoapMessageFactory implements SoapMessageFactory, InitializingB
 		this.messageProperties = messageProperties;
 	}
 
+	/**
+	 * Sets the store that holds the attachments of received messages. Default is none, which leaves the attachments to
+	 * SAAJ.
+	 *
+	 * <p>Note that SAAJ reads the entire message when parsing it; the store only limits how much of it stays in memory
+	 * afterwards.
+	 */
+	public void setAttachmentStore(AttachmentStore attachmentStore) {
+		this.attachmentStore = attachmentStore;
+	}
+
 	/**
 	 * Defines whether a {@code xml:lang} attribute should be set on SOAP 1.1 {@code <faultstring>} elements.
 	 *
@@ -188,6 +208,7 @@ public class SaajSoapMessageFactory implements SoapMessageFactory, InitializingB
 			SOAPMessage saajMessage = messageFactory.createMessage(mimeHeaders, inputStream);
 			saajMessage.getSOAPPart().getEnvelope();
 			postProcess(saajMessage);
+			storeAttachments(saajMessage);
 			return new SaajSoapMessage(saajMessage, langAttributeOnSoap11FaultString, messageFactory);
 		}
 		catch (SOAPException ex) {
@@ -201,6 +222,7 @@ public class SaajSoapMessageFactory implements SoapMessageFactory, InitializingB
 				try {
 					SOAPMessage saajMessage = messageFactory.createMessage(mimeHeaders, inputStream);
 					postProcess(saajMessage);
+					storeAttachments(saajMessage);
 					return new SaajSoapMessage(saajMessage,
 							langAttributeOnSoap11FaultString);
 				}
@@ -278,6 +300,23 @@ public class SaajSoapMessageFactory implements SoapMessageFactory, InitializingB
 		return bytes.length == 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF;
 	}
 
+	/** Moves the attachments of the given message into the attachment store, if any. */
+	private void storeAttachments(SOAPMessage saajMessage) throws SOAPException, IOException {
+		if (attachmentStore != null) {
+			for (Iterator<?> iterator = saajMessage.getAttachments(); iterator.hasNext(); ) {
+				AttachmentPart attachmentPart = (AttachmentPart) iterator.next();
+				InputStream content = attachmentPart.getRawContent();
+				try {
+					StoredDataSource dataSource = attachmentStore.store(content, attachmentPart.getContentType());
+					attachmentPart.setDataHandler(dataSource.createDataHandler());
+				}
+				finally {
+					content.close();
+				}
+			}
+		}
+	}
+
 	/**
 	 * Template method that allows for post-processing of the given {@link SOAPMessage}.
 	 * <p>Default implementation sets {@linkplain SOAPMessage#setProperty(String, Object) message properties}, if any.
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -155,6 +155,20 @@ public class SoapMessageDispatcher extends MessageDispatcher {
 		return false;
 	}
 
+	/**
+	 * Returns a cache key that consists of the SOAP action and the payload root element name, in case of a
+	 * {@link SoapMessage}. Returns the default key otherwise.
+	 */
+	@Override
+	protected Object getEndpointMappingCacheKey(MessageContext messageContext) throws Exception {
+		Object payloadRootKey = super.getEndpointMappingCacheKey(messageContext);
+		if (messageContext.getRequest() instanceof SoapMessage) {
+			String soapAction = ((SoapMessage) messageContext.getRequest()).getSoapAction();
+			return new SoapActionCacheKey(soapAction, payloadRootKey);
+		}
+		return payloadRootKey;
+	}
+
 	private void createMustUnderstandFault(SoapMessage soapResponse,
 										   List<QName> notUnderstoodHeaderNames,
 										   String[] actorsOrRoles) {
@@ -177,4 +191,35 @@ public class SoapMessageDispatcher extends MessageDispatcher {
 		}
 	}
 
+	/** Endpoint mapping cache key that combines a SOAP action with the payload root key. */
+	private static final class SoapActionCacheKey {
+
+		private final String soapAction;
+
+		private final Object payloadRootKey;
+
+		private SoapActionCacheKey(String soapAction, Object payloadRootKey) {
+			this.soapAction = soapAction;
+			this.payloadRootKey = payloadRootKey;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof SoapActionCacheKey)) {
+				return false;
+			}
+			SoapActionCacheKey other = (SoapActionCacheKey) o;
+			return ObjectUtils.nullSafeEquals(soapAction, other.soapAction) &&
+					ObjectUtils.nullSafeEquals(payloadRootKey, other.payloadRootKey);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * ObjectUtils.nullSafeHashCode(soapAction) + ObjectUtils.nullSafeHashCode(payloadRootKey);
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -32,6 +32,9 @@ import org.springframework.ws.WebServiceMessage;
  * {@code validateRequest} and {@code validateResponse} properties. Responses that contains faults are not
  * validated.
  *
+ * <p>This interceptor supports {@linkplain #setStreamingValidation(boolean) streaming validation} of request
+ * payloads that can only be read once.
+ *
  * @author Arjen Poutsma
  * @see #setSchema(org.springframework.core.io.Resource)
  * @see #setSchemas(org.springframework.core.io.Resource[])
@@ -52,4 +55,10 @@ public class PayloadValidatingInterceptor extends AbstractFaultCreatingValidatin
 	protected Source getValidationResponseSource(WebServiceMessage response) {
 		return response.getPayloadSource();
 	}
+
+	/** Returns {@code true}, as this interceptor validates the payload. */
+	@Override
+	protected boolean supportsStreamingValidation() {
+		return true;
+	}
 }
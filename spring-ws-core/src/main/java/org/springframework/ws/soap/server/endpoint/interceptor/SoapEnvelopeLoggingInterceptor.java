@@ -47,7 +47,7 @@ public class SoapEnvelopeLoggingInterceptor extends AbstractLoggingInterceptor i
 
 	@Override
 	public boolean handleFault(MessageContext messageContext, Object endpoint) throws Exception {
-		if (logFault && logger.isDebugEnabled()) {
+		if (logFault && logger.isDebugEnabled() && isSampled(messageContext)) {
 			logMessageSource("Fault: ", getSource(messageContext.getResponse()));
 		}
 		return true;
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.springframework.util.Assert;
+import org.springframework.xml.stream.ListBasedXMLEventReader;
+
+/**
+ * Abstract base class for Stroap elements that keep their contents as a list of events, such as header elements and
+ * fault detail elements.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+abstract class CachingStroapElement extends StroapElement {
+
+	private final List<XMLEvent> childEvents = new ArrayList<XMLEvent>();
+
+	protected CachingStroapElement(QName name, StroapMessageFactory messageFactory) {
+		super(name, messageFactory);
+	}
+
+	protected CachingStroapElement(StartElement startElement, List<XMLEvent> childEvents,
+			StroapMessageFactory messageFactory) {
+		super(startElement, messageFactory);
+		Assert.notNull(childEvents, "'childEvents' must not be null");
+		this.childEvents.addAll(childEvents);
+	}
+
+	/**
+	 * Returns the start element of the given element events, checking that they form a complete element.
+	 *
+	 * @param events the events of a single element, from start element to end element inclusive
+	 */
+	static StartElement extractStartElement(List<XMLEvent> events) {
+		Assert.notNull(events, "'events' must not be null");
+		Assert.isTrue(events.size() >= 2, "not enough events");
+		XMLEvent event = events.get(0);
+		if (!event.isStartElement()) {
+			throw new StroapMessageCreationException("Unexpected event: " + event + ", expected StartElement");
+		}
+		XMLEvent lastEvent = events.get(events.size() - 1);
+		if (!lastEvent.isEndElement()) {
+			throw new StroapMessageCreationException("Unexpected event: " + lastEvent + ", expected EndElement");
+		}
+		return event.asStartElement();
+	}
+
+	/** Returns the events between the start and end element of the given element events. */
+	static List<XMLEvent> extractChildEvents(List<XMLEvent> events) {
+		return events.subList(1, events.size() - 1);
+	}
+
+	/** Returns the mutable list of events between the start and end element of this element. */
+	protected final List<XMLEvent> getChildEvents() {
+		return childEvents;
+	}
+
+	/** Returns the character data directly contained in this element. */
+	protected final String getCharacterData() {
+		StringBuilder builder = new StringBuilder();
+		int depth = 0;
+		for (XMLEvent event : childEvents) {
+			if (event.isStartElement()) {
+				depth++;
+			}
+			else if (event.isEndElement()) {
+				depth--;
+			}
+			else if (depth == 0 && event.isCharacters()) {
+				builder.append(event.asCharacters().getData());
+			}
+		}
+		return builder.toString();
+	}
+
+	@Override
+	protected XMLEventReader getChildEventReader() {
+		return new ListBasedXMLEventReader(childEvents);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,7 @@
 
 package org.springframework.ws.soap.stroap;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
@@ -28,11 +28,14 @@ import org.springframework.util.Assert;
 import org.springframework.xml.stream.ListBasedXMLEventReader;
 
 /**
+ * {@link StroapPayload} that keeps its contents as a list of events, so that it can be read multiple times.
+ *
  * @author Arjen Poutsma
+ * @since 2.3.0
  */
 class CachingStroapPayload extends StroapPayload {
 
-	private final List<XMLEvent> events = new LinkedList<XMLEvent>();
+	private final List<XMLEvent> events = new ArrayList<XMLEvent>();
 
 	CachingStroapPayload() {
 	}
@@ -59,9 +62,10 @@ class CachingStroapPayload extends StroapPayload {
 		return new ListBasedXMLEventReader(events);
 	}
 
+	/** Clears the payload, and returns a writer that adds to it. */
 	public XMLEventWriter getEventWriter() {
 		events.clear();
 		return new CachingXMLEventWriter(events);
 	}
 
-}
\ No newline at end of file
+}
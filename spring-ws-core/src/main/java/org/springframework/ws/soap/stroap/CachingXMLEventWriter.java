@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,21 +24,26 @@ import org.springframework.util.Assert;
 import org.springframework.xml.stream.AbstractXMLEventWriter;
 
 /**
+ * {@code XMLEventWriter} that adds all events it receives to a list. Document events, and any events before the first
+ * start element, are ignored.
+ *
  * @author Arjen Poutsma
+ * @since 2.3.0
  */
 class CachingXMLEventWriter extends AbstractXMLEventWriter {
 
-	private int elementDepth = 0;
+	private final List<XMLEvent> events;
 
-	boolean startElementSeen = false;
+	private int elementDepth = 0;
 
-	private final List<XMLEvent> events;
+	private boolean startElementSeen = false;
 
 	CachingXMLEventWriter(List<XMLEvent> events) {
 		Assert.notNull(events, "'events' must not be null");
 		this.events = events;
 	}
 
+	@Override
 	public void add(XMLEvent event) throws XMLStreamException {
 		if (event.isStartElement()) {
 			startElementSeen = true;
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+
+import org.springframework.xml.stream.AbstractXMLEventWriter;
+
+/**
+ * Abstract {@code XMLEventWriter} that splits the events it receives into top-level elements. Events outside of a
+ * top-level element, such as document events and whitespace, are ignored.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+abstract class ElementCollectingXMLEventWriter extends AbstractXMLEventWriter {
+
+	private final List<XMLEvent> events = new ArrayList<XMLEvent>();
+
+	private int elementDepth = 0;
+
+	@Override
+	public void add(XMLEvent event) throws XMLStreamException {
+		if (event.isStartElement()) {
+			elementDepth++;
+		}
+		else if (elementDepth == 0) {
+			return;
+		}
+		events.add(event);
+		if (event.isEndElement()) {
+			elementDepth--;
+			if (elementDepth == 0) {
+				elementCompleted(new ArrayList<XMLEvent>(events));
+				events.clear();
+			}
+		}
+	}
+
+	/**
+	 * Invoked when a top-level element has been written.
+	 *
+	 * @param events the events of the element, from start element to end element inclusive
+	 */
+	protected abstract void elementCompleted(List<XMLEvent> events) throws XMLStreamException;
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,10 +20,12 @@ import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
 
 import org.springframework.util.Assert;
-import org.springframework.ws.soap.SoapFault;
 
 /**
+ * {@link StroapPayload} that contains a {@link StroapFault}.
+ *
  * @author Arjen Poutsma
+ * @since 2.3.0
  */
 class FaultStroapPayload extends StroapPayload {
 
@@ -34,7 +36,7 @@ class FaultStroapPayload extends StroapPayload {
 		this.fault = fault;
 	}
 
-	SoapFault getFault() {
+	StroapFault getFault() {
 		return fault;
 	}
 
@@ -0,0 +1,585 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import javax.activation.DataHandler;
+import javax.activation.DataSource;
+import javax.xml.bind.DatatypeConverter;
+
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.util.StringUtils;
+import org.springframework.ws.mime.AttachmentStore;
+import org.springframework.ws.mime.StoredDataSource;
+import org.springframework.ws.transport.TransportConstants;
+
+/**
+ * Minimal reader and writer of {@code multipart/related} MIME messages, as used by SOAP with Attachments and MTOM.
+ *
+ * <p>A message is read part by part, scanning the stream for boundaries. The content of each part is handed to an
+ * {@link AttachmentStore}, if given; otherwise, it is kept in memory, up to a maximum size for the whole message.
+ * Parts with a {@code base64} transfer encoding are decoded; all other parts are taken as is.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+final class MimeMultipart {
+
+	static final String MULTIPART_RELATED_CONTENT_TYPE = "multipart/related";
+
+	static final String XOP_CONTENT_TYPE = "application/xop+xml";
+
+	private static final String DEFAULT_ATTACHMENT_CONTENT_TYPE = "application/octet-stream";
+
+	private static final String HEADER_CONTENT_LOCATION = "Content-Location";
+
+	private static final Charset HEADER_CHARSET = Charset.forName("ISO-8859-1");
+
+	private static final byte[] CRLF = new byte[]{'\r', '\n'};
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final DataSource rootContent;
+
+	private final String rootContentType;
+
+	private final List<StroapAttachment> attachments;
+
+	private final boolean xopPackage;
+
+	private MimeMultipart(DataSource rootContent, String rootContentType, List<StroapAttachment> attachments,
+			boolean xopPackage) {
+		this.rootContent = rootContent;
+		this.rootContentType = rootContentType;
+		this.attachments = attachments;
+		this.xopPackage = xopPackage;
+	}
+
+	/**
+	 * Reads a multipart message from the given stream.
+	 *
+	 * @param inputStream     the stream to read from
+	 * @param contentType     the {@code multipart/related} content type, including the boundary parameter
+	 * @param attachmentStore the store to hand the content of the parts to; may be {@code null}
+	 * @param maxInMemorySize the maximum number of bytes of content kept in memory, if no store is given
+	 * @return the read message
+	 */
+	static MimeMultipart read(InputStream inputStream, String contentType, AttachmentStore attachmentStore,
+			long maxInMemorySize) throws IOException {
+		String boundary = getParameter(contentType, "boundary");
+		if (!StringUtils.hasLength(boundary)) {
+			throw new StroapMessageCreationException("Content-Type [" + contentType + "] has no boundary parameter");
+		}
+		BoundaryScanner scanner = new BoundaryScanner(inputStream, boundary);
+		if (!scanner.skipToDelimiter()) {
+			throw new StroapMessageCreationException("Multipart message does not contain boundary [" + boundary + "]");
+		}
+		List<Part> parts = new ArrayList<Part>();
+		long remaining = maxInMemorySize;
+		while (!scanner.isCloseDelimiter()) {
+			// the rest of the delimiter line
+			scanner.readLine();
+			Map<String, String> headers = readHeaders(scanner);
+			Part part = new Part(headers);
+			InputStream content = new PartInputStream(scanner);
+			if ("base64".equalsIgnoreCase(headers.get(TransportConstants.HEADER_CONTENT_TRANSFER_ENCODING))) {
+				content = new Base64InputStream(new BufferedInputStream(content, BUFFER_SIZE));
+			}
+			if (attachmentStore != null) {
+				part.content = attachmentStore.store(content, part.getAttachmentContentType());
+			}
+			else {
+				PartContent partContent = new PartContent();
+				remaining -= partContent.readFrom(content, remaining);
+				part.content = partContent.toDataSource(part.getAttachmentContentType());
+			}
+			parts.add(part);
+			if (!scanner.skipToDelimiter()) {
+				throw new StroapMessageCreationException("Unexpected end of multipart message");
+			}
+		}
+		if (parts.isEmpty()) {
+			throw new StroapMessageCreationException("Multipart message has no parts");
+		}
+		Part root = parts.get(0);
+		String start = getParameter(contentType, "start");
+		if (StringUtils.hasLength(start)) {
+			for (Part part : parts) {
+				if (stripAngleBrackets(start).equals(stripAngleBrackets(part.getContentId()))) {
+					root = part;
+					break;
+				}
+			}
+		}
+		String rootContentType = root.getContentType();
+		boolean xopPackage = XOP_CONTENT_TYPE.equalsIgnoreCase(getParameter(contentType, "type")) ||
+				(rootContentType != null && rootContentType.toLowerCase(Locale.ENGLISH).startsWith(XOP_CONTENT_TYPE));
+		List<StroapAttachment> attachments = new ArrayList<StroapAttachment>(parts.size() - 1);
+		for (Part part : parts) {
+			if (part != root) {
+				attachments.add(part.createAttachment());
+			}
+		}
+		return new MimeMultipart(root.content, rootContentType, attachments, xopPackage);
+	}
+
+	InputStream getRootPartInputStream() throws IOException {
+		return rootContent.getInputStream();
+	}
+
+	String getRootPartContentType() {
+		return rootContentType != null ? rootContentType : "";
+	}
+
+	List<StroapAttachment> getAttachments() {
+		return attachments;
+	}
+
+	boolean isXopPackage() {
+		return xopPackage;
+	}
+
+	/**
+	 * Returns the value of the parameter with the given name in the given content type, without surrounding quotes.
+	 *
+	 * @return the parameter value, or {@code null} if not found
+	 */
+	static String getParameter(String contentType, String name) {
+		if (contentType == null) {
+			return null;
+		}
+		int start = contentType.indexOf(';');
+		while (start != -1) {
+			int end = start + 1;
+			boolean quoted = false;
+			while (end < contentType.length() && (quoted || contentType.charAt(end) != ';')) {
+				if (contentType.charAt(end) == '"') {
+					quoted = !quoted;
+				}
+				end++;
+			}
+			String parameter = contentType.substring(start + 1, end);
+			int eqIdx = parameter.indexOf('=');
+			if (eqIdx != -1 && name.equalsIgnoreCase(parameter.substring(0, eqIdx).trim())) {
+				String value = parameter.substring(eqIdx + 1).trim();
+				if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+					value = value.substring(1, value.length() - 1);
+				}
+				return value;
+			}
+			start = end < contentType.length() ? end : -1;
+		}
+		return null;
+	}
+
+	/** Creates a new, unique boundary. */
+	static String createBoundary() {
+		return "MIMEBoundary_" + UUID.randomUUID().toString().replace("-", "");
+	}
+
+	/** Writes the boundary and headers that precede the content of a part. */
+	static void writePartStart(OutputStream outputStream, String boundary, String contentType, String contentId)
+			throws IOException {
+		StringBuilder builder = new StringBuilder("--");
+		builder.append(boundary).append("\r\n");
+		builder.append(TransportConstants.HEADER_CONTENT_TYPE).append(": ").append(contentType).append("\r\n");
+		builder.append(TransportConstants.HEADER_CONTENT_TRANSFER_ENCODING).append(": binary\r\n");
+		builder.append("Content-ID: ").append(addAngleBrackets(contentId)).append("\r\n\r\n");
+		outputStream.write(builder.toString().getBytes(HEADER_CHARSET));
+	}
+
+	/** Writes the line break that follows the content of a part. */
+	static void writePartEnd(OutputStream outputStream) throws IOException {
+		outputStream.write(CRLF);
+	}
+
+	/** Writes the closing boundary. */
+	static void writeEnd(OutputStream outputStream, String boundary) throws IOException {
+		outputStream.write(("--" + boundary + "--\r\n").getBytes(HEADER_CHARSET));
+	}
+
+	static String stripAngleBrackets(String contentId) {
+		if (contentId != null && contentId.length() >= 2 && contentId.startsWith("<") && contentId.endsWith(">")) {
+			return contentId.substring(1, contentId.length() - 1);
+		}
+		return contentId;
+	}
+
+	static String addAngleBrackets(String contentId) {
+		return contentId.startsWith("<") ? contentId : "<" + contentId + ">";
+	}
+
+	private static Map<String, String> readHeaders(BoundaryScanner scanner) throws IOException {
+		Map<String, String> headers = new LinkedCaseInsensitiveMap<String>();
+		String lastName = null;
+		String line;
+		while ((line = scanner.readLine()) != null && line.length() > 0) {
+			if ((line.charAt(0) == ' ' || line.charAt(0) == '\t') && lastName != null) {
+				headers.put(lastName, headers.get(lastName) + " " + line.trim());
+			}
+			else {
+				int colonIdx = line.indexOf(':');
+				if (colonIdx != -1) {
+					lastName = line.substring(0, colonIdx).trim();
+					headers.put(lastName, line.substring(colonIdx + 1).trim());
+				}
+			}
+		}
+		return headers;
+	}
+
+	private static int indexOf(byte[] content, byte[] pattern, int from, int to) {
+		int max = to - pattern.length;
+		outer:
+		for (int i = from; i <= max; i++) {
+			for (int j = 0; j < pattern.length; j++) {
+				if (content[i + j] != pattern[j]) {
+					continue outer;
+				}
+			}
+			return i;
+		}
+		return -1;
+	}
+
+	private static int indexOf(byte[] content, byte b, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (content[i] == b) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static class Part {
+
+		private final Map<String, String> headers;
+
+		private DataSource content;
+
+		private Part(Map<String, String> headers) {
+			this.headers = headers;
+		}
+
+		private String getContentId() {
+			return headers.get(TransportConstants.HEADER_CONTENT_ID);
+		}
+
+		private String getContentType() {
+			return headers.get(TransportConstants.HEADER_CONTENT_TYPE);
+		}
+
+		private String getAttachmentContentType() {
+			String contentType = getContentType();
+			return contentType != null ? contentType : DEFAULT_ATTACHMENT_CONTENT_TYPE;
+		}
+
+		private StroapAttachment createAttachment() {
+			String contentId = getContentId();
+			if (contentId == null) {
+				contentId = headers.get(HEADER_CONTENT_LOCATION);
+			}
+			if (contentId == null) {
+				throw new StroapMessageCreationException("Attachment has no Content-ID or Content-Location header");
+			}
+			DataHandler dataHandler = content instanceof StoredDataSource ?
+					((StoredDataSource) content).createDataHandler() : new DataHandler(content);
+			return new StroapAttachment(contentId, dataHandler);
+		}
+	}
+
+	/**
+	 * Scans a multipart stream for delimiters, through a buffer that always holds back enough bytes to recognize a
+	 * delimiter, including the line break that precedes it.
+	 */
+	private static final class BoundaryScanner {
+
+		private final InputStream inputStream;
+
+		/** The delimiter, including the line feed that precedes it. */
+		private final byte[] delimiter;
+
+		private final byte[] buffer;
+
+		private int pos;
+
+		private int limit;
+
+		private boolean eof;
+
+		/** The index of the next delimiter in the buffer, or -1 if not found yet. */
+		private int delimiterIdx = -1;
+
+		/** The index in the buffer from where to continue looking for the next delimiter. */
+		private int scanIdx;
+
+		private BoundaryScanner(InputStream inputStream, String boundary) {
+			this.inputStream = inputStream;
+			this.delimiter = ("\n--" + boundary).getBytes(HEADER_CHARSET);
+			this.buffer = new byte[BUFFER_SIZE + delimiter.length];
+			// the first delimiter might start at the first byte, without a preceding line break
+			this.buffer[0] = '\n';
+			this.limit = 1;
+		}
+
+		/**
+		 * Reads the content of the current part, up to the next delimiter.
+		 *
+		 * @return the number of bytes read, or -1 if the next delimiter has been reached
+		 */
+		int read(byte[] b, int off, int len) throws IOException {
+			while (true) {
+				if (delimiterIdx == -1) {
+					delimiterIdx = indexOf(buffer, delimiter, scanIdx, limit);
+					scanIdx = delimiterIdx != -1 ? delimiterIdx : Math.max(scanIdx, limit - delimiter.length + 1);
+				}
+				int available;
+				if (delimiterIdx != -1) {
+					int end = delimiterIdx;
+					if (end > pos && buffer[end - 1] == '\r') {
+						end--;
+					}
+					available = end - pos;
+					if (available <= 0) {
+						return -1;
+					}
+				}
+				else {
+					// hold back a possible start of the delimiter, and the carriage return before it
+					available = limit - pos - delimiter.length;
+					if (available <= 0) {
+						if (eof) {
+							throw new StroapMessageCreationException("Unexpected end of multipart message");
+						}
+						fill();
+						continue;
+					}
+				}
+				int count = Math.min(len, available);
+				System.arraycopy(buffer, pos, b, off, count);
+				pos += count;
+				return count;
+			}
+		}
+
+		/**
+		 * Skips the rest of the current part, and the delimiter that follows it.
+		 *
+		 * @return {@code true} if a delimiter was skipped; {@code false} if the stream ended before
+		 */
+		boolean skipToDelimiter() throws IOException {
+			byte[] skipBuffer = new byte[BUFFER_SIZE];
+			try {
+				while (read(skipBuffer, 0, skipBuffer.length) != -1) {
+					// skip
+				}
+			}
+			catch (StroapMessageCreationException ex) {
+				return false;
+			}
+			pos = delimiterIdx + delimiter.length;
+			delimiterIdx = -1;
+			scanIdx = pos;
+			return true;
+		}
+
+		/** Indicates whether the last skipped delimiter closes the message. */
+		boolean isCloseDelimiter() throws IOException {
+			while (limit - pos < 2 && !eof) {
+				fill();
+			}
+			return limit - pos >= 2 && buffer[pos] == '-' && buffer[pos + 1] == '-';
+		}
+
+		/**
+		 * Reads a line, without the line break that ends it. Used for the rest of a delimiter line, and for headers.
+		 *
+		 * @return the line, or {@code null} at the end of the stream
+		 */
+		String readLine() throws IOException {
+			int lineEnd;
+			int from = pos;
+			while ((lineEnd = indexOf(buffer, (byte) '\n', from, limit)) == -1) {
+				if (eof) {
+					return null;
+				}
+				if (pos <= 1 && limit == buffer.length) {
+					throw new StroapMessageCreationException("Multipart header line longer than " + BUFFER_SIZE +
+							" bytes");
+				}
+				from = limit - pos;
+				fill();
+				from += pos;
+			}
+			int end = lineEnd;
+			if (end > pos && buffer[end - 1] == '\r') {
+				end--;
+			}
+			String line = new String(buffer, pos, end - pos, HEADER_CHARSET);
+			pos = lineEnd + 1;
+			// the line feed that ends the line might start a delimiter
+			scanIdx = Math.max(scanIdx, lineEnd);
+			if (delimiterIdx != -1 && delimiterIdx < pos) {
+				delimiterIdx = -1;
+			}
+			return line;
+		}
+
+		/**
+		 * Moves the unread bytes to the start of the buffer, and reads more bytes after them. Keeps the last read byte,
+		 * which might be the line feed that starts a delimiter.
+		 */
+		private void fill() throws IOException {
+			int shift = pos - 1;
+			if (shift > 0) {
+				System.arraycopy(buffer, shift, buffer, 0, limit - shift);
+				limit -= shift;
+				pos -= shift;
+				scanIdx = Math.max(0, scanIdx - shift);
+				if (delimiterIdx != -1) {
+					delimiterIdx -= shift;
+				}
+			}
+			int bytesRead = inputStream.read(buffer, limit, buffer.length - limit);
+			if (bytesRead == -1) {
+				eof = true;
+			}
+			else {
+				limit += bytesRead;
+			}
+		}
+	}
+
+	/** Reads the content of the current part of a {@link BoundaryScanner}. */
+	private static final class PartInputStream extends InputStream {
+
+		private final BoundaryScanner scanner;
+
+		private PartInputStream(BoundaryScanner scanner) {
+			this.scanner = scanner;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) != -1 ? b[0] & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return len == 0 ? 0 : scanner.read(b, off, len);
+		}
+	}
+
+	/** Decodes a base64 encoded stream, in blocks of at most {@value #BUFFER_SIZE} encoded bytes. */
+	private static final class Base64InputStream extends InputStream {
+
+		private final InputStream inputStream;
+
+		private final byte[] encoded = new byte[BUFFER_SIZE];
+
+		private byte[] decoded = new byte[0];
+
+		private int pos;
+
+		private boolean eof;
+
+		private Base64InputStream(InputStream inputStream) {
+			this.inputStream = inputStream;
+		}
+
+		@Override
+		public int read() throws IOException {
+			return fill() ? decoded[pos++] & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (!fill()) {
+				return -1;
+			}
+			int count = Math.min(len, decoded.length - pos);
+			System.arraycopy(decoded, pos, b, off, count);
+			pos += count;
+			return count;
+		}
+
+		private boolean fill() throws IOException {
+			while (pos == decoded.length) {
+				if (eof) {
+					return false;
+				}
+				// the block size is a multiple of 4, so that only the last block can end in padding
+				int count = 0;
+				while (count < encoded.length) {
+					int b = inputStream.read();
+					if (b == -1) {
+						eof = true;
+						break;
+					}
+					else if (!Character.isWhitespace(b)) {
+						encoded[count++] = (byte) b;
+					}
+				}
+				decoded = DatatypeConverter.parseBase64Binary(new String(encoded, 0, count, HEADER_CHARSET));
+				pos = 0;
+			}
+			return true;
+		}
+	}
+
+	/** Part content kept in memory, exposed as a data source without copying it. */
+	private static final class PartContent extends ByteArrayOutputStream {
+
+		/**
+		 * Reads the given stream to the end.
+		 *
+		 * @return the number of bytes read
+		 * @throws StroapMessageCreationException if more than {@code maxSize} bytes are read
+		 */
+		long readFrom(InputStream inputStream, long maxSize) throws IOException {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int bytesRead;
+			while ((bytesRead = inputStream.read(buffer)) != -1) {
+				if (count + bytesRead > maxSize) {
+					throw new StroapMessageCreationException("Multipart message is larger than the maximum in-memory " +
+							"size; set an AttachmentStore to receive larger messages");
+				}
+				write(buffer, 0, bytesRead);
+			}
+			return count;
+		}
+
+		DataSource toDataSource(String contentType) {
+			return new StroapAttachment.ByteArrayDataSource(buf, 0, count, contentType);
+		}
+	}
+
+}
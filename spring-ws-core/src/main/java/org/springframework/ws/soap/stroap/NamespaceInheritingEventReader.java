@@ -0,0 +1,147 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.springframework.util.Assert;
+import org.springframework.xml.stream.AbstractXMLEventReader;
+
+/**
+ * {@code XMLEventReader} that exposes the children of an element that has just been read from an underlying reader.
+ * Stops at the end element of that parent, without consuming it.
+ *
+ * <p>The namespace declarations of the parent and its ancestors are added to each top-level start element, so that
+ * every child element can be used on its own, as a standalone document.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+class NamespaceInheritingEventReader extends AbstractXMLEventReader {
+
+	private final XMLEventReader eventReader;
+
+	private final List<Namespace> inheritedNamespaces;
+
+	private final XMLEventFactory eventFactory;
+
+	private int elementDepth = 0;
+
+	private XMLEvent lastSourceEvent;
+
+	private XMLEvent lastResultEvent;
+
+	/**
+	 * Creates a new reader.
+	 *
+	 * @param eventReader   the underlying reader, positioned after the start element of the parent
+	 * @param eventFactory  the event factory used to create start elements
+	 * @param startElements the start elements of the ancestors of the children, outermost first
+	 */
+	NamespaceInheritingEventReader(XMLEventReader eventReader, XMLEventFactory eventFactory,
+			StartElement... startElements) {
+		Assert.notNull(eventReader, "'eventReader' must not be null");
+		Assert.notNull(eventFactory, "'eventFactory' must not be null");
+		this.eventReader = eventReader;
+		this.eventFactory = eventFactory;
+		this.inheritedNamespaces = new ArrayList<Namespace>();
+		for (StartElement startElement : startElements) {
+			for (Iterator<?> iterator = startElement.getNamespaces(); iterator.hasNext(); ) {
+				Namespace namespace = (Namespace) iterator.next();
+				removeNamespace(inheritedNamespaces, namespace.getPrefix());
+				inheritedNamespaces.add(namespace);
+			}
+		}
+	}
+
+	private static void removeNamespace(List<Namespace> namespaces, String prefix) {
+		for (Iterator<Namespace> iterator = namespaces.iterator(); iterator.hasNext(); ) {
+			if (iterator.next().getPrefix().equals(prefix)) {
+				iterator.remove();
+			}
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		try {
+			return peek() != null;
+		}
+		catch (XMLStreamException ex) {
+			// let nextEvent() throw the exception
+			return true;
+		}
+	}
+
+	@Override
+	public XMLEvent nextEvent() throws XMLStreamException {
+		if (peek() == null) {
+			throw new NoSuchElementException();
+		}
+		XMLEvent event = transform(eventReader.nextEvent());
+		if (event.isStartElement()) {
+			elementDepth++;
+		}
+		else if (event.isEndElement()) {
+			elementDepth--;
+		}
+		return event;
+	}
+
+	@Override
+	public XMLEvent peek() throws XMLStreamException {
+		XMLEvent event = eventReader.peek();
+		if (event == null || event.isEndDocument() || (elementDepth == 0 && event.isEndElement())) {
+			return null;
+		}
+		return transform(event);
+	}
+
+	private XMLEvent transform(XMLEvent event) {
+		if (elementDepth != 0 || !event.isStartElement() || inheritedNamespaces.isEmpty()) {
+			return event;
+		}
+		if (event == lastSourceEvent) {
+			return lastResultEvent;
+		}
+		StartElement startElement = event.asStartElement();
+		List<Namespace> namespaces = new ArrayList<Namespace>(inheritedNamespaces);
+		for (Iterator<?> iterator = startElement.getNamespaces(); iterator.hasNext(); ) {
+			Namespace namespace = (Namespace) iterator.next();
+			removeNamespace(namespaces, namespace.getPrefix());
+			namespaces.add(namespace);
+		}
+		QName name = startElement.getName();
+		XMLEvent result = eventFactory.createStartElement(name.getPrefix(), name.getNamespaceURI(),
+				name.getLocalPart(), startElement.getAttributes(), namespaces.iterator(),
+				startElement.getNamespaceContext());
+		this.lastSourceEvent = event;
+		this.lastResultEvent = result;
+		return result;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,25 +16,30 @@
 
 package org.springframework.ws.soap.stroap;
 
-import java.util.NoSuchElementException;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.XMLEvent;
 
 import org.springframework.util.Assert;
-import org.springframework.xml.stream.AbstractXMLEventReader;
 
 /**
+ * {@link StroapPayload} that reads its contents directly from the underlying stream. As a consequence, the payload
+ * can only be read once.
+ *
  * @author Arjen Poutsma
+ * @since 2.3.0
  */
 class NonCachingStroapPayload extends StroapPayload {
 
 	private final XMLEventReader eventReader;
 
-	private int elementDepth = 0;
-
-	NonCachingStroapPayload(XMLEventReader eventReader) throws XMLStreamException {
+	/**
+	 * Creates a new payload.
+	 *
+	 * @param eventReader a reader of the payload events, which stops at the end of the body
+	 */
+	NonCachingStroapPayload(XMLEventReader eventReader) {
 		Assert.notNull(eventReader, "'eventReader' must not be null");
 		this.eventReader = eventReader;
 	}
@@ -46,7 +51,6 @@ class NonCachingStroapPayload extends StroapPayload {
 			if (event != null && event.isStartElement()) {
 				return event.asStartElement().getName();
 			}
-
 		}
 		catch (XMLStreamException ex) {
 			// ignore
@@ -56,36 +60,7 @@ class NonCachingStroapPayload extends StroapPayload {
 
 	@Override
 	public XMLEventReader getEventReader() {
-		return new NonCachingXMLEventReader();
+		return eventReader;
 	}
 
-	private class NonCachingXMLEventReader extends AbstractXMLEventReader {
-
-		public boolean hasNext() {
-			return elementDepth >= 0 && eventReader.hasNext();
-		}
-
-		public XMLEvent nextEvent() throws XMLStreamException {
-			if (elementDepth < 0) {
-				throw new NoSuchElementException();
-			}
-			XMLEvent event = eventReader.nextEvent();
-			if (event.isStartElement()) {
-				elementDepth++;
-			}
-			else if (event.isEndElement()) {
-				elementDepth--;
-			}
-			return event;
-		}
-
-		public XMLEvent peek() throws XMLStreamException {
-			if (elementDepth < 0) {
-				return null;
-			}
-			else {
-				return eventReader.peek();
-			}
-		}
-	}
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.springframework.util.Assert;
+
+/**
+ * Simple, read-only tree built from a list of events. Used to inspect the contents of SOAP faults, which are small and
+ * need random access.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+final class ParsedElement {
+
+	private final StartElement startElement;
+
+	private final ParsedElement parent;
+
+	private final List<ParsedElement> children = new ArrayList<ParsedElement>();
+
+	private List<XMLEvent> childEvents;
+
+	private ParsedElement(StartElement startElement, ParsedElement parent) {
+		this.startElement = startElement;
+		this.parent = parent;
+	}
+
+	/**
+	 * Builds a tree from the given events.
+	 *
+	 * @param events the events of a single element, from start element to end element inclusive
+	 * @return the root element
+	 */
+	static ParsedElement build(List<XMLEvent> events) {
+		Assert.notEmpty(events, "'events' must not be empty");
+		ParsedElement root = null;
+		ParsedElement current = null;
+		List<Integer> startIndices = new ArrayList<Integer>();
+		for (int i = 0; i < events.size(); i++) {
+			XMLEvent event = events.get(i);
+			if (event.isStartElement()) {
+				ParsedElement element = new ParsedElement(event.asStartElement(), current);
+				if (current != null) {
+					current.children.add(element);
+				}
+				else if (root == null) {
+					root = element;
+				}
+				else {
+					throw new StroapMessageCreationException("Expected a single root element");
+				}
+				current = element;
+				startIndices.add(i + 1);
+			}
+			else if (event.isEndElement()) {
+				if (current == null) {
+					throw new StroapMessageCreationException("Unexpected event: " + event);
+				}
+				int startIndex = startIndices.remove(startIndices.size() - 1);
+				current.childEvents = events.subList(startIndex, i);
+				current = current.parent;
+			}
+		}
+		if (root == null || current != null) {
+			throw new StroapMessageCreationException("Incomplete element");
+		}
+		return root;
+	}
+
+	QName getName() {
+		return startElement.getName();
+	}
+
+	StartElement getStartElement() {
+		return startElement;
+	}
+
+	/** Returns the events between the start and end element of this element. */
+	List<XMLEvent> getChildEvents() {
+		return childEvents;
+	}
+
+	List<ParsedElement> getChildren() {
+		return children;
+	}
+
+	/** Returns the first child element with the given name, or {@code null} if not found. */
+	ParsedElement getChild(QName name) {
+		for (ParsedElement child : children) {
+			if (name.equals(child.getName())) {
+				return child;
+			}
+		}
+		return null;
+	}
+
+	/** Returns the value of the attribute with the given name, or {@code null} if not found. */
+	String getAttributeValue(QName name) {
+		Attribute attribute = startElement.getAttributeByName(name);
+		return attribute != null ? attribute.getValue() : null;
+	}
+
+	/** Returns the concatenated character data directly contained in this element, trimmed. */
+	String getText() {
+		StringBuilder builder = new StringBuilder();
+		int depth = 0;
+		for (XMLEvent event : childEvents) {
+			if (event.isStartElement()) {
+				depth++;
+			}
+			else if (event.isEndElement()) {
+				depth--;
+			}
+			else if (depth == 0 && event.isCharacters()) {
+				builder.append(event.asCharacters().getData());
+			}
+		}
+		return builder.toString().trim();
+	}
+
+	/**
+	 * Resolves the given qualified name, such as {@code prefix:localPart}, against the namespaces in scope of this
+	 * element.
+	 */
+	QName resolveQName(String qualifiedName) {
+		if (qualifiedName == null) {
+			return null;
+		}
+		int idx = qualifiedName.indexOf(':');
+		String prefix = idx != -1 ? qualifiedName.substring(0, idx) : XMLConstants.DEFAULT_NS_PREFIX;
+		String localPart = qualifiedName.substring(idx + 1);
+		String namespaceUri = getInScopeNamespaces().get(prefix);
+		if (namespaceUri == null) {
+			namespaceUri = XMLConstants.NULL_NS_URI;
+		}
+		return new QName(namespaceUri, localPart, prefix);
+	}
+
+	/**
+	 * Returns the start element of this element, with all namespaces in scope declared on it, so that it can be used
+	 * outside of its parent.
+	 */
+	StartElement getStandaloneStartElement(XMLEventFactory eventFactory) {
+		if (parent == null) {
+			return startElement;
+		}
+		List<Namespace> namespaces = new ArrayList<Namespace>();
+		for (Map.Entry<String, String> entry : getInScopeNamespaces().entrySet()) {
+			if (XMLConstants.DEFAULT_NS_PREFIX.equals(entry.getKey())) {
+				namespaces.add(eventFactory.createNamespace(entry.getValue()));
+			}
+			else {
+				namespaces.add(eventFactory.createNamespace(entry.getKey(), entry.getValue()));
+			}
+		}
+		QName name = getName();
+		return eventFactory.createStartElement(name.getPrefix(), name.getNamespaceURI(), name.getLocalPart(),
+				startElement.getAttributes(), namespaces.iterator());
+	}
+
+	private Map<String, String> getInScopeNamespaces() {
+		Map<String, String> result =
+				parent != null ? parent.getInScopeNamespaces() : new LinkedHashMap<String, String>();
+		for (Iterator<?> iterator = startElement.getNamespaces(); iterator.hasNext(); ) {
+			Namespace namespace = (Namespace) iterator.next();
+			result.put(namespace.getPrefix(), namespace.getNamespaceURI());
+		}
+		return result;
+	}
+
+}
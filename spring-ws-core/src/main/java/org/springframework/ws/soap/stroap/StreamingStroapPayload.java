@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,20 +16,26 @@
 
 package org.springframework.ws.soap.stroap;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLEventWriter;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
+import javax.xml.stream.events.XMLEvent;
 
 import org.springframework.util.Assert;
 import org.springframework.util.xml.StaxUtils;
 import org.springframework.ws.stream.StreamingPayload;
+import org.springframework.xml.stream.ListBasedXMLEventReader;
 
 /**
+ * {@link StroapPayload} that wraps a {@link StreamingPayload}. The payload is written directly to the output; only
+ * when it is read are its events collected in memory.
+ *
  * @author Arjen Poutsma
+ * @since 2.3.0
  */
 class StreamingStroapPayload extends StroapPayload {
 
@@ -40,7 +46,6 @@ class StreamingStroapPayload extends StroapPayload {
 	StreamingStroapPayload(StreamingPayload payload, StroapMessageFactory messageFactory) {
 		Assert.notNull(payload, "'payload' must not be null");
 		Assert.notNull(messageFactory, "'messageFactory' must not be null");
-
 		this.payload = payload;
 		this.messageFactory = messageFactory;
 	}
@@ -53,12 +58,9 @@ class StreamingStroapPayload extends StroapPayload {
 	@Override
 	public XMLEventReader getEventReader() {
 		try {
-			ByteArrayOutputStream bos = new ByteArrayOutputStream();
-			XMLStreamWriter streamWriter = messageFactory.getOutputFactory().createXMLStreamWriter(bos);
-			payload.writeTo(streamWriter);
-			streamWriter.flush();
-			ByteArrayInputStream bis = new ByteArrayInputStream(bos.toByteArray());
-			return messageFactory.getInputFactory().createXMLEventReader(bis);
+			List<XMLEvent> events = new ArrayList<XMLEvent>();
+			writeTo(new CachingXMLEventWriter(events));
+			return new ListBasedXMLEventReader(events);
 		}
 		catch (XMLStreamException ex) {
 			throw new StroapBodyException(ex);
@@ -69,6 +71,7 @@ class StreamingStroapPayload extends StroapPayload {
 	public void writeTo(XMLEventWriter eventWriter) throws XMLStreamException {
 		XMLStreamWriter streamWriter = StaxUtils.createEventStreamWriter(eventWriter, messageFactory.getEventFactory());
 		payload.writeTo(streamWriter);
+		streamWriter.flush();
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,19 +26,22 @@ import org.springframework.ws.soap.soap11.Soap11Body;
 import org.springframework.ws.soap.soap11.Soap11Fault;
 
 /**
+ * Stroap-specific implementation of the {@link Soap11Body} interface.
+ *
  * @author Arjen Poutsma
+ * @since 2.3.0
  */
 class Stroap11Body extends StroapBody implements Soap11Body {
 
 	private static final String ENVELOPE_NAMESPACE_URI = "http://schemas.xmlsoap.org/soap/envelope/";
 
-	private QName CLIENT_FAULT_NAME = new QName(ENVELOPE_NAMESPACE_URI, "Client", DEFAULT_PREFIX);
+	private static final QName CLIENT_FAULT_NAME = new QName(ENVELOPE_NAMESPACE_URI, "Client");
 
-	private QName SERVER_FAULT_NAME = new QName(ENVELOPE_NAMESPACE_URI, "Server", DEFAULT_PREFIX);
+	private static final QName SERVER_FAULT_NAME = new QName(ENVELOPE_NAMESPACE_URI, "Server");
 
-	private QName MUST_UNDERSTAND_FAULT_NAME = new QName(ENVELOPE_NAMESPACE_URI, "MustUnderstand", DEFAULT_PREFIX);
+	private static final QName MUST_UNDERSTAND_FAULT_NAME = new QName(ENVELOPE_NAMESPACE_URI, "MustUnderstand");
 
-	private QName VERSION_MISMATCH_FAULT_NAME = new QName(ENVELOPE_NAMESPACE_URI, "VersionMismatch", DEFAULT_PREFIX);
+	private static final QName VERSION_MISMATCH_FAULT_NAME = new QName(ENVELOPE_NAMESPACE_URI, "VersionMismatch");
 
 	Stroap11Body(StroapMessageFactory messageFactory) {
 		super(messageFactory);
@@ -53,44 +56,42 @@ class Stroap11Body extends StroapBody implements Soap11Body {
 		return (Soap11Fault) super.getFault();
 	}
 
+	@Override
 	public Soap11Fault addMustUnderstandFault(String faultStringOrReason, Locale locale) throws SoapFaultException {
-		Stroap11Fault fault =
-				new Stroap11Fault(MUST_UNDERSTAND_FAULT_NAME, "SOAP Must Understand Error", null, getMessageFactory());
-		setFault(fault);
-		return fault;
+		return addStandardFault(MUST_UNDERSTAND_FAULT_NAME, faultStringOrReason, locale);
 	}
 
+	@Override
 	public Soap11Fault addClientOrSenderFault(String faultStringOrReason, Locale locale) throws SoapFaultException {
-		Assert.hasLength(faultStringOrReason, "'faultStringOrReason' must not be empty");
-		Stroap11Fault fault = new Stroap11Fault(CLIENT_FAULT_NAME, faultStringOrReason, null, getMessageFactory());
-		setFault(fault);
-		return fault;
+		return addStandardFault(CLIENT_FAULT_NAME, faultStringOrReason, locale);
 	}
 
+	@Override
 	public Soap11Fault addServerOrReceiverFault(String faultStringOrReason, Locale locale) throws SoapFaultException {
-		Assert.hasLength(faultStringOrReason, "'faultStringOrReason' must not be empty");
-		Stroap11Fault fault = new Stroap11Fault(SERVER_FAULT_NAME, faultStringOrReason, null, getMessageFactory());
-		setFault(fault);
-		return fault;
+		return addStandardFault(SERVER_FAULT_NAME, faultStringOrReason, locale);
 	}
 
+	@Override
 	public Soap11Fault addVersionMismatchFault(String faultStringOrReason, Locale locale) throws SoapFaultException {
-		Assert.hasLength(faultStringOrReason, "'faultStringOrReason' must not be empty");
-		Stroap11Fault fault =
-				new Stroap11Fault(VERSION_MISMATCH_FAULT_NAME, faultStringOrReason, null, getMessageFactory());
-		setFault(fault);
-		return fault;
+		return addStandardFault(VERSION_MISMATCH_FAULT_NAME, faultStringOrReason, locale);
 	}
 
+	private Soap11Fault addStandardFault(QName faultCode, String faultString, Locale faultStringLocale) {
+		Assert.hasLength(faultString, "'faultString' must not be empty");
+		return addFault(getStandardFaultCode(faultCode), faultString, faultStringLocale);
+	}
+
+	@Override
 	public Soap11Fault addFault(QName faultCode, String faultString, Locale faultStringLocale)
 			throws SoapFaultException {
 		Assert.notNull(faultCode, "'faultCode' must not be null");
 		Assert.hasLength(faultCode.getLocalPart(), "faultCode's localPart cannot be empty");
 		Assert.hasLength(faultCode.getNamespaceURI(), "faultCode's namespaceUri cannot be empty");
 		Assert.hasLength(faultString, "'faultString' must not be empty");
-
-		Stroap11Fault fault = new Stroap11Fault(faultCode, faultString, faultStringLocale, getMessageFactory());
+		Stroap11Fault fault =
+				new Stroap11Fault(getFaultName(), faultCode, faultString, faultStringLocale, getMessageFactory());
 		setFault(fault);
 		return fault;
 	}
+
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import javax.xml.namespace.QName;
+import javax.xml.stream.events.XMLEvent;
+
+import org.springframework.util.Assert;
+import org.springframework.ws.soap.soap11.Soap11Fault;
+
+/**
+ * Stroap-specific implementation of the {@link Soap11Fault} interface.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+class Stroap11Fault extends StroapFault implements Soap11Fault {
+
+	private static final QName FAULT_CODE_NAME = new QName("faultcode");
+
+	private static final QName FAULT_STRING_NAME = new QName("faultstring");
+
+	private static final QName FAULT_ACTOR_NAME = new QName("faultactor");
+
+	private static final QName DETAIL_NAME = new QName("detail");
+
+	private final QName faultCode;
+
+	private final String faultString;
+
+	private final Locale faultStringLocale;
+
+	private String faultActor;
+
+	Stroap11Fault(QName name, QName faultCode, String faultString, Locale faultStringLocale,
+			StroapMessageFactory messageFactory) {
+		super(name, messageFactory);
+		Assert.notNull(faultCode, "'faultCode' must not be null");
+		Assert.hasLength(faultString, "'faultString' must not be empty");
+		this.faultCode = ensurePrefix(faultCode);
+		this.faultString = faultString;
+		this.faultStringLocale = faultStringLocale;
+	}
+
+	private Stroap11Fault(ParsedElement fault, StroapMessageFactory messageFactory) {
+		super(fault.getStartElement(), messageFactory);
+		ParsedElement faultCodeElement = fault.getChild(FAULT_CODE_NAME);
+		if (faultCodeElement == null) {
+			throw new StroapMessageCreationException("SOAP 1.1 fault has no faultcode");
+		}
+		this.faultCode = faultCodeElement.resolveQName(faultCodeElement.getText());
+		ParsedElement faultStringElement = fault.getChild(FAULT_STRING_NAME);
+		if (faultStringElement != null) {
+			this.faultString = faultStringElement.getText();
+			this.faultStringLocale = parseLanguage(faultStringElement);
+		}
+		else {
+			this.faultString = null;
+			this.faultStringLocale = null;
+		}
+		ParsedElement faultActorElement = fault.getChild(FAULT_ACTOR_NAME);
+		if (faultActorElement != null) {
+			this.faultActor = faultActorElement.getText();
+		}
+		ParsedElement detailElement = fault.getChild(DETAIL_NAME);
+		if (detailElement != null) {
+			setFaultDetail(StroapFaultDetail.build(detailElement, messageFactory));
+		}
+	}
+
+	/** Creates a SOAP 1.1 fault from the given parsed element. */
+	static Stroap11Fault build(ParsedElement fault, StroapMessageFactory messageFactory) {
+		return new Stroap11Fault(fault, messageFactory);
+	}
+
+	@Override
+	public QName getFaultCode() {
+		return faultCode;
+	}
+
+	@Override
+	public String getFaultStringOrReason() {
+		return faultString;
+	}
+
+	@Override
+	public Locale getFaultStringLocale() {
+		return faultStringLocale;
+	}
+
+	@Override
+	public String getFaultActorOrRole() {
+		return faultActor;
+	}
+
+	@Override
+	public void setFaultActorOrRole(String faultActor) {
+		this.faultActor = faultActor;
+	}
+
+	@Override
+	protected QName getFaultDetailName() {
+		return DETAIL_NAME;
+	}
+
+	@Override
+	protected List<XMLEvent> getFaultEvents() {
+		List<XMLEvent> events = new ArrayList<XMLEvent>();
+		addQNameElement(events, FAULT_CODE_NAME, faultCode);
+		if (faultString != null) {
+			addTextElement(events, FAULT_STRING_NAME, faultString, faultStringLocale);
+		}
+		if (faultActor != null) {
+			addTextElement(events, FAULT_ACTOR_NAME, faultActor, null);
+		}
+		return events;
+	}
+
+}
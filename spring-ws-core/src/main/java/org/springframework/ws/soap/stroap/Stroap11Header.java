@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,19 +16,23 @@
 
 package org.springframework.ws.soap.stroap;
 
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import javax.xml.soap.SOAPConstants;
 import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
 
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.ws.soap.SoapHeaderElement;
+import org.springframework.ws.soap.SoapVersion;
 import org.springframework.ws.soap.soap11.Soap11Header;
 
 /**
+ * Stroap-specific implementation of the {@link Soap11Header} interface.
+ *
  * @author Arjen Poutsma
+ * @since 2.3.0
  */
 class Stroap11Header extends StroapHeader implements Soap11Header {
 
@@ -36,17 +40,15 @@ class Stroap11Header extends StroapHeader implements Soap11Header {
 		super(messageFactory);
 	}
 
-	Stroap11Header(StartElement startElement, StroapMessageFactory messageFactory) {
-		super(startElement, messageFactory);
+	Stroap11Header(StartElement startElement, List<XMLEvent> childEvents, StroapMessageFactory messageFactory) {
+		super(startElement, childEvents, messageFactory);
 	}
 
+	@Override
 	public Iterator<SoapHeaderElement> examineHeaderElementsToProcess(String[] actors) {
-		List<SoapHeaderElement> result = new LinkedList<SoapHeaderElement>();
-		Iterator<SoapHeaderElement> iterator = examineAllHeaderElements();
-		while (iterator.hasNext()) {
-			SoapHeaderElement headerElement = iterator.next();
-			String actor = headerElement.getActorOrRole();
-			if (shouldProcess(actor, actors)) {
+		List<SoapHeaderElement> result = new ArrayList<SoapHeaderElement>();
+		for (StroapHeaderElement headerElement : getHeaderElements()) {
+			if (shouldProcess(headerElement.getActorOrRole(), actors)) {
 				result.add(headerElement);
 			}
 		}
@@ -57,17 +59,10 @@ class Stroap11Header extends StroapHeader implements Soap11Header {
 		if (!StringUtils.hasLength(headerActor)) {
 			return true;
 		}
-		if (SOAPConstants.URI_SOAP_ACTOR_NEXT.equals(headerActor)) {
+		if (SoapVersion.SOAP_11.getNextActorOrRoleUri().equals(headerActor)) {
 			return true;
 		}
-		if (!ObjectUtils.isEmpty(actors)) {
-			for (String actor : actors) {
-				if (actor.equals(headerActor)) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return !ObjectUtils.isEmpty(actors) && ObjectUtils.containsElement(actors, headerActor);
 	}
 
 }
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.events.XMLEvent;
+
+import org.springframework.util.Assert;
+import org.springframework.ws.soap.soap12.Soap12Fault;
+
+/**
+ * Stroap-specific implementation of the {@link Soap12Fault} interface.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+class Stroap12Fault extends StroapFault implements Soap12Fault {
+
+	private static final String CODE = "Code";
+
+	private static final String SUBCODE = "Subcode";
+
+	private static final String VALUE = "Value";
+
+	private static final String REASON = "Reason";
+
+	private static final String TEXT = "Text";
+
+	private static final String NODE = "Node";
+
+	private static final String ROLE = "Role";
+
+	private static final String DETAIL = "Detail";
+
+	private final QName faultCode;
+
+	private final List<QName> faultSubcodes = new ArrayList<QName>();
+
+	private final Map<Locale, String> faultReasons = new LinkedHashMap<Locale, String>();
+
+	private String faultNode;
+
+	private String faultRole;
+
+	Stroap12Fault(QName name, QName faultCode, String faultReason, Locale faultReasonLocale,
+			StroapMessageFactory messageFactory) {
+		super(name, messageFactory);
+		Assert.notNull(faultCode, "'faultCode' must not be null");
+		this.faultCode = ensurePrefix(faultCode);
+		setFaultReasonText(faultReasonLocale, faultReason);
+	}
+
+	private Stroap12Fault(ParsedElement fault, StroapMessageFactory messageFactory) {
+		super(fault.getStartElement(), messageFactory);
+		ParsedElement code = fault.getChild(getEnvelopeName(CODE));
+		ParsedElement value = code != null ? code.getChild(getEnvelopeName(VALUE)) : null;
+		if (value == null) {
+			throw new StroapMessageCreationException("SOAP 1.2 fault has no Code");
+		}
+		this.faultCode = value.resolveQName(value.getText());
+		ParsedElement subcode = code.getChild(getEnvelopeName(SUBCODE));
+		while (subcode != null) {
+			value = subcode.getChild(getEnvelopeName(VALUE));
+			if (value != null) {
+				faultSubcodes.add(value.resolveQName(value.getText()));
+			}
+			subcode = subcode.getChild(getEnvelopeName(SUBCODE));
+		}
+		ParsedElement reason = fault.getChild(getEnvelopeName(REASON));
+		if (reason != null) {
+			for (ParsedElement text : reason.getChildren()) {
+				faultReasons.put(parseLanguage(text), text.getText());
+			}
+		}
+		ParsedElement node = fault.getChild(getEnvelopeName(NODE));
+		if (node != null) {
+			this.faultNode = node.getText();
+		}
+		ParsedElement role = fault.getChild(getEnvelopeName(ROLE));
+		if (role != null) {
+			this.faultRole = role.getText();
+		}
+		ParsedElement detail = fault.getChild(getEnvelopeName(DETAIL));
+		if (detail != null) {
+			setFaultDetail(StroapFaultDetail.build(detail, messageFactory));
+		}
+	}
+
+	/** Creates a SOAP 1.2 fault from the given parsed element. */
+	static Stroap12Fault build(ParsedElement fault, StroapMessageFactory messageFactory) {
+		return new Stroap12Fault(fault, messageFactory);
+	}
+
+	@Override
+	public QName getFaultCode() {
+		return faultCode;
+	}
+
+	@Override
+	public Iterator<QName> getFaultSubcodes() {
+		return new ArrayList<QName>(faultSubcodes).iterator();
+	}
+
+	@Override
+	public void addFaultSubcode(QName subcode) {
+		Assert.notNull(subcode, "'subcode' must not be null");
+		faultSubcodes.add(ensurePrefix(subcode));
+	}
+
+	@Override
+	public String getFaultNode() {
+		return faultNode;
+	}
+
+	@Override
+	public void setFaultNode(String uri) {
+		this.faultNode = uri;
+	}
+
+	@Override
+	public void setFaultReasonText(Locale locale, String text) {
+		Assert.notNull(locale, "locale must not be null");
+		Assert.hasLength(text, "text must not be empty");
+		faultReasons.put(locale, text);
+	}
+
+	@Override
+	public String getFaultReasonText(Locale locale) {
+		return faultReasons.get(locale);
+	}
+
+	@Override
+	public String getFaultStringOrReason() {
+		return faultReasons.isEmpty() ? null : faultReasons.values().iterator().next();
+	}
+
+	@Override
+	public String getFaultActorOrRole() {
+		return faultRole;
+	}
+
+	@Override
+	public void setFaultActorOrRole(String faultRole) {
+		this.faultRole = faultRole;
+	}
+
+	@Override
+	protected QName getFaultDetailName() {
+		return getEnvelopeName(DETAIL);
+	}
+
+	@Override
+	protected List<XMLEvent> getFaultEvents() {
+		XMLEventFactory eventFactory = getEventFactory();
+		List<XMLEvent> events = new ArrayList<XMLEvent>();
+		QName codeName = getEnvelopeName(CODE);
+		QName subcodeName = getEnvelopeName(SUBCODE);
+		QName valueName = getEnvelopeName(VALUE);
+		events.add(eventFactory.createStartElement(codeName, null, null));
+		addQNameElement(events, valueName, faultCode);
+		for (QName subcode : faultSubcodes) {
+			events.add(eventFactory.createStartElement(subcodeName, null, null));
+			addQNameElement(events, valueName, subcode);
+		}
+		for (int i = 0; i < faultSubcodes.size(); i++) {
+			events.add(eventFactory.createEndElement(subcodeName, null));
+		}
+		events.add(eventFactory.createEndElement(codeName, null));
+		QName reasonName = getEnvelopeName(REASON);
+		events.add(eventFactory.createStartElement(reasonName, null, null));
+		for (Map.Entry<Locale, String> entry : faultReasons.entrySet()) {
+			addTextElement(events, getEnvelopeName(TEXT), entry.getValue(), entry.getKey());
+		}
+		events.add(eventFactory.createEndElement(reasonName, null));
+		if (faultNode != null) {
+			addTextElement(events, getEnvelopeName(NODE), faultNode, null);
+		}
+		if (faultRole != null) {
+			addTextElement(events, getEnvelopeName(ROLE), faultRole, null);
+		}
+		return events;
+	}
+
+}
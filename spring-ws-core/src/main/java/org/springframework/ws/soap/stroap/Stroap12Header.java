@@ -0,0 +1,126 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.ws.soap.SoapHeaderElement;
+import org.springframework.ws.soap.SoapHeaderException;
+import org.springframework.ws.soap.SoapVersion;
+import org.springframework.ws.soap.soap12.Soap12Header;
+
+/**
+ * Stroap-specific implementation of the {@link Soap12Header} interface.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+class Stroap12Header extends StroapHeader implements Soap12Header {
+
+	private static final String QNAME_ATTRIBUTE = "qname";
+
+	Stroap12Header(StroapMessageFactory messageFactory) {
+		super(messageFactory);
+	}
+
+	Stroap12Header(StartElement startElement, List<XMLEvent> childEvents, StroapMessageFactory messageFactory) {
+		super(startElement, childEvents, messageFactory);
+	}
+
+	@Override
+	public SoapHeaderElement addNotUnderstoodHeaderElement(QName headerName) {
+		Assert.notNull(headerName, "'headerName' must not be null");
+		Assert.hasLength(headerName.getNamespaceURI(), "'headerName' must have a namespace URI");
+		String prefix = headerName.getPrefix();
+		if (!StringUtils.hasLength(prefix)) {
+			prefix = "ns0";
+		}
+		StroapHeaderElement headerElement = new StroapHeaderElement(getEnvelopeName("NotUnderstood"),
+				getMessageFactory());
+		headerElement.addNamespaceDeclaration(prefix, headerName.getNamespaceURI());
+		headerElement.addAttribute(new QName(QNAME_ATTRIBUTE), prefix + ":" + headerName.getLocalPart());
+		return addHeaderElement(headerElement);
+	}
+
+	@Override
+	public SoapHeaderElement addUpgradeHeaderElement(String[] supportedSoapUris) {
+		Assert.notNull(supportedSoapUris, "'supportedSoapUris' must not be null");
+		XMLEventFactory eventFactory = getEventFactory();
+		QName supportedEnvelopeName = getEnvelopeName("SupportedEnvelope");
+		List<XMLEvent> childEvents = new ArrayList<XMLEvent>();
+		for (int i = 0; i < supportedSoapUris.length; i++) {
+			String prefix = "ns" + i;
+			Attribute qname = eventFactory.createAttribute(QNAME_ATTRIBUTE, prefix + ":Envelope");
+			Namespace namespace = eventFactory.createNamespace(prefix, supportedSoapUris[i]);
+			childEvents.add(eventFactory.createStartElement(supportedEnvelopeName,
+					Collections.singletonList(qname).iterator(), Collections.singletonList(namespace).iterator()));
+			childEvents.add(eventFactory.createEndElement(supportedEnvelopeName, null));
+		}
+		StroapHeaderElement headerElement = new StroapHeaderElement(getEnvelopeName("Upgrade"), getMessageFactory());
+		headerElement.getChildEvents().addAll(childEvents);
+		return addHeaderElement(headerElement);
+	}
+
+	private QName getEnvelopeName(String localPart) {
+		String prefix = getName().getPrefix();
+		if (!StringUtils.hasLength(prefix)) {
+			prefix = DEFAULT_PREFIX;
+		}
+		return new QName(getName().getNamespaceURI(), localPart, prefix);
+	}
+
+	@Override
+	public Iterator<SoapHeaderElement> examineHeaderElementsToProcess(String[] roles, boolean isUltimateReceiver)
+			throws SoapHeaderException {
+		List<SoapHeaderElement> result = new ArrayList<SoapHeaderElement>();
+		for (StroapHeaderElement headerElement : getHeaderElements()) {
+			if (shouldProcess(headerElement.getActorOrRole(), roles, isUltimateReceiver)) {
+				result.add(headerElement);
+			}
+		}
+		return result.iterator();
+	}
+
+	private boolean shouldProcess(String headerRole, String[] roles, boolean isUltimateReceiver) {
+		if (!StringUtils.hasLength(headerRole)) {
+			return true;
+		}
+		if (SoapVersion.SOAP_12.getNextActorOrRoleUri().equals(headerRole)) {
+			return true;
+		}
+		if (SoapVersion.SOAP_12.getUltimateReceiverRoleUri().equals(headerRole)) {
+			return isUltimateReceiver;
+		}
+		if (SoapVersion.SOAP_12.getNoneActorOrRoleUri().equals(headerRole)) {
+			return false;
+		}
+		return !ObjectUtils.isEmpty(roles) && ObjectUtils.containsElement(roles, headerRole);
+	}
+
+}
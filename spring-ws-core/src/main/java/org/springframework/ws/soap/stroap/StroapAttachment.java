@@ -0,0 +1,126 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import javax.activation.DataHandler;
+import javax.activation.DataSource;
+import javax.activation.FileDataSource;
+
+import org.springframework.util.Assert;
+import org.springframework.ws.mime.Attachment;
+import org.springframework.ws.mime.StoredDataSource;
+
+/**
+ * Stroap-specific implementation of {@link org.springframework.ws.mime.Attachment}
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+class StroapAttachment implements Attachment {
+
+	private final String contentId;
+
+	private final DataHandler dataHandler;
+
+	StroapAttachment(String contentId, DataHandler dataHandler) {
+		Assert.hasLength(contentId, "contentId must not be empty");
+		Assert.notNull(dataHandler, "dataHandler must not be null");
+		this.contentId = contentId;
+		this.dataHandler = dataHandler;
+	}
+
+	@Override
+	public String getContentId() {
+		return contentId;
+	}
+
+	@Override
+	public String getContentType() {
+		return dataHandler.getContentType();
+	}
+
+	@Override
+	public InputStream getInputStream() throws IOException {
+		return dataHandler.getInputStream();
+	}
+
+	@Override
+	public long getSize() {
+		DataSource dataSource = dataHandler.getDataSource();
+		if (dataSource instanceof ByteArrayDataSource) {
+			return ((ByteArrayDataSource) dataSource).length;
+		}
+		else if (dataSource instanceof StoredDataSource) {
+			return ((StoredDataSource) dataSource).getSize();
+		}
+		else if (dataSource instanceof FileDataSource) {
+			return ((FileDataSource) dataSource).getFile().length();
+		}
+		else {
+			return -1;
+		}
+	}
+
+	@Override
+	public DataHandler getDataHandler() {
+		return dataHandler;
+	}
+
+	/** Read-only {@code DataSource} that exposes a region of a byte array, without copying it. */
+	static class ByteArrayDataSource implements DataSource {
+
+		private final byte[] content;
+
+		private final int offset;
+
+		private final int length;
+
+		private final String contentType;
+
+		ByteArrayDataSource(byte[] content, int offset, int length, String contentType) {
+			this.content = content;
+			this.offset = offset;
+			this.length = length;
+			this.contentType = contentType;
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			return new ByteArrayInputStream(content, offset, length);
+		}
+
+		@Override
+		public OutputStream getOutputStream() {
+			throw new UnsupportedOperationException("Read-only javax.activation.DataSource");
+		}
+
+		@Override
+		public String getContentType() {
+			return contentType;
+		}
+
+		@Override
+		public String getName() {
+			return null;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 
 package org.springframework.ws.soap.stroap;
 
+import java.util.ArrayList;
+import java.util.List;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLEventWriter;
@@ -25,6 +27,7 @@ import javax.xml.stream.events.XMLEvent;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
 
+import org.springframework.util.StringUtils;
 import org.springframework.util.xml.StaxUtils;
 import org.springframework.ws.soap.SoapBody;
 import org.springframework.ws.soap.SoapFault;
@@ -32,7 +35,11 @@ import org.springframework.ws.soap.SoapVersion;
 import org.springframework.ws.stream.StreamingPayload;
 
 /**
+ * Stroap-specific implementation of the {@link SoapBody} interface. Delegates to a {@link StroapPayload}, which
+ * either caches the payload events, reads them from the underlying stream, or holds a fault.
+ *
  * @author Arjen Poutsma
+ * @since 2.3.0
  */
 abstract class StroapBody extends StroapElement implements SoapBody {
 
@@ -48,9 +55,28 @@ abstract class StroapBody extends StroapElement implements SoapBody {
 		this.payload = payload;
 	}
 
-	static StroapBody build(XMLEventReader eventReader, StroapMessageFactory messageFactory) throws XMLStreamException {
+	/** Creates an empty body for the SOAP version of the given message factory. */
+	static StroapBody create(StroapMessageFactory messageFactory) {
+		if (SoapVersion.SOAP_11 == messageFactory.getSoapVersion()) {
+			return new Stroap11Body(messageFactory);
+		}
+		else {
+			return new Stroap12Body(messageFactory);
+		}
+	}
+
+	/**
+	 * Reads a body from the given reader. The payload is cached or left on the reader, depending on the payload caching
+	 * setting of the message factory. Faults are always read, so that they can be inspected.
+	 *
+	 * @param eventReader          the reader, positioned before the body start element
+	 * @param envelopeStartElement the start element of the envelope, of which the namespaces are in scope
+	 * @param messageFactory       the message factory
+	 */
+	static StroapBody build(XMLEventReader eventReader, StartElement envelopeStartElement,
+			StroapMessageFactory messageFactory) throws XMLStreamException {
 		XMLEvent event = eventReader.nextTag();
-		if (!event.isStartElement()) {
+		if (event == null || !event.isStartElement()) {
 			throw new StroapMessageCreationException("Unexpected event: " + event + ", expected StartElement");
 		}
 		StartElement startElement = event.asStartElement();
@@ -59,27 +85,40 @@ abstract class StroapBody extends StroapElement implements SoapBody {
 			throw new StroapMessageCreationException(
 					"Unexpected name: " + startElement.getName() + ", expected " + soapVersion.getBodyName());
 		}
+		XMLEventReader payloadReader = new NamespaceInheritingEventReader(eventReader,
+				messageFactory.getEventFactory(), envelopeStartElement, startElement);
+		XMLEvent peekedEvent = payloadReader.peek();
+		while (peekedEvent != null && !peekedEvent.isStartElement()) {
+			payloadReader.nextEvent();
+			peekedEvent = payloadReader.peek();
+		}
 		StroapPayload payload;
-		if (messageFactory.isPayloadCaching()) {
-			payload = new CachingStroapPayload(eventReader);
+		if (peekedEvent != null && soapVersion.getFaultName().equals(peekedEvent.asStartElement().getName())) {
+			List<XMLEvent> events = new ArrayList<XMLEvent>();
+			new CachingXMLEventWriter(events).add(payloadReader);
+			payload = new FaultStroapPayload(StroapFault.build(events, messageFactory));
+		}
+		else if (messageFactory.isPayloadCaching()) {
+			payload = new CachingStroapPayload(payloadReader);
 		}
 		else {
-			payload = new NonCachingStroapPayload(eventReader);
+			payload = new NonCachingStroapPayload(payloadReader);
 		}
-
-		if (SoapVersion.SOAP_11.equals(soapVersion)) {
+		if (SoapVersion.SOAP_11 == soapVersion) {
 			return new Stroap11Body(startElement, payload, messageFactory);
 		}
 		else {
-			return null;
+			return new Stroap12Body(startElement, payload, messageFactory);
 		}
 	}
 
+	@Override
 	public Source getPayloadSource() {
 		XMLEventReader eventReader = payload.getEventReader();
 		return StaxUtils.createCustomStaxSource(eventReader);
 	}
 
+	@Override
 	public Result getPayloadResult() {
 		CachingStroapPayload cachingPayload;
 		if (payload instanceof CachingStroapPayload) {
@@ -93,10 +132,12 @@ abstract class StroapBody extends StroapElement implements SoapBody {
 		return StaxUtils.createCustomStaxResult(eventWriter);
 	}
 
+	@Override
 	public boolean hasFault() {
 		return payload instanceof FaultStroapPayload;
 	}
 
+	@Override
 	public SoapFault getFault() {
 		return payload instanceof FaultStroapPayload ? ((FaultStroapPayload) payload).getFault() : null;
 	}
@@ -105,6 +146,23 @@ abstract class StroapBody extends StroapElement implements SoapBody {
 		this.payload = new FaultStroapPayload(fault);
 	}
 
+	/**
+	 * Returns the name of a standard fault code. Uses the prefix of this body, so that the code resolves within the
+	 * envelope.
+	 */
+	protected QName getStandardFaultCode(QName faultCode) {
+		String prefix = getName().getPrefix();
+		if (!StringUtils.hasLength(prefix)) {
+			prefix = DEFAULT_PREFIX;
+		}
+		return new QName(faultCode.getNamespaceURI(), faultCode.getLocalPart(), prefix);
+	}
+
+	/** Returns the name of the fault element, with the prefix of this body. */
+	protected QName getFaultName() {
+		return getStandardFaultCode(getSoapVersion().getFaultName());
+	}
+
 	@Override
 	protected final XMLEventReader getChildEventReader() {
 		return payload.getEventReader();
@@ -124,4 +182,5 @@ abstract class StroapBody extends StroapElement implements SoapBody {
 	public QName getPayloadName() {
 		return payload.getName();
 	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,8 +19,12 @@ package org.springframework.ws.soap.stroap;
 import org.springframework.ws.soap.SoapBodyException;
 
 /**
+ * Stroap-specific subclass of the {@link SoapBodyException} hierarchy.
+ *
  * @author Arjen Poutsma
+ * @since 2.3.0
  */
+@SuppressWarnings("serial")
 public class StroapBodyException extends SoapBodyException {
 
 	public StroapBodyException(String msg) {
@@ -34,4 +38,5 @@ public class StroapBodyException extends SoapBodyException {
 	public StroapBodyException(Throwable ex) {
 		super(ex);
 	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,7 +17,7 @@
 package org.springframework.ws.soap.stroap;
 
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
 import javax.xml.namespace.QName;
@@ -40,7 +40,11 @@ import org.springframework.ws.soap.SoapVersion;
 import org.springframework.xml.stream.AbstractXMLEventReader;
 
 /**
+ * Stroap-specific implementation of the {@link SoapElement} interface. Holds the start element event of the element,
+ * and exposes its contents as a stream of events, provided by subclasses.
+ *
  * @author Arjen Poutsma
+ * @since 2.3.0
  */
 abstract class StroapElement implements SoapElement {
 
@@ -50,14 +54,15 @@ abstract class StroapElement implements SoapElement {
 
 	private StartElement startElement;
 
-	private EndElement endElement;
+	private final EndElement endElement;
 
 	protected StroapElement(QName name, StroapMessageFactory messageFactory) {
 		this(createStartElement(name, messageFactory), messageFactory);
 	}
 
 	private static StartElement createStartElement(QName name, StroapMessageFactory messageFactory) {
-		if (!StringUtils.hasLength(name.getPrefix())) {
+		if (!StringUtils.hasLength(name.getPrefix()) &&
+				messageFactory.getSoapVersion().getEnvelopeNamespaceUri().equals(name.getNamespaceURI())) {
 			name = new QName(name.getNamespaceURI(), name.getLocalPart(), DEFAULT_PREFIX);
 		}
 		return messageFactory.getEventFactory().createStartElement(name, null, null);
@@ -71,14 +76,21 @@ abstract class StroapElement implements SoapElement {
 		this.endElement = getEventFactory().createEndElement(startElement.getName(), startElement.getNamespaces());
 	}
 
+	@Override
 	public final Source getSource() {
 		return StaxUtils.createCustomStaxSource(getEventReader(true));
 	}
 
+	/**
+	 * Returns a reader of the events of this element.
+	 *
+	 * @param documentEvents whether the events should be surrounded by start and end document events
+	 */
 	protected XMLEventReader getEventReader(boolean documentEvents) {
 		return new StroapElementEventReader(documentEvents);
 	}
 
+	/** Writes the events of this element to the given writer. */
 	public void writeTo(XMLEventWriter eventWriter) throws XMLStreamException {
 		eventWriter.add(getEventReader(false));
 	}
@@ -95,29 +107,34 @@ abstract class StroapElement implements SoapElement {
 		return getMessageFactory().getSoapVersion();
 	}
 
+	@Override
 	public final QName getName() {
 		return getStartElement().getName();
 	}
 
+	/** Returns a reader of the events between the start and end element of this element. */
 	protected abstract XMLEventReader getChildEventReader();
 
+	@Override
 	public final Iterator<QName> getAllAttributes() {
-		List<QName> result = new LinkedList<QName>();
-		for (Iterator iterator = getStartElement().getAttributes(); iterator.hasNext();) {
+		List<QName> result = new ArrayList<QName>();
+		for (Iterator<?> iterator = getStartElement().getAttributes(); iterator.hasNext();) {
 			Attribute attribute = (Attribute) iterator.next();
 			result.add(attribute.getName());
 		}
 		return result.iterator();
 	}
 
+	@Override
 	public final String getAttributeValue(QName name) {
 		Attribute attribute = getStartElement().getAttributeByName(name);
 		return attribute != null ? attribute.getValue() : null;
 	}
 
+	@Override
 	public final void removeAttribute(QName name) {
-		List<Attribute> newAttributes = new LinkedList<Attribute>();
-		for (Iterator iterator = getStartElement().getAttributes(); iterator.hasNext();) {
+		List<Attribute> newAttributes = new ArrayList<Attribute>();
+		for (Iterator<?> iterator = getStartElement().getAttributes(); iterator.hasNext();) {
 			Attribute attribute = (Attribute) iterator.next();
 			if (!name.equals(attribute.getName())) {
 				newAttributes.add(attribute);
@@ -128,11 +145,14 @@ abstract class StroapElement implements SoapElement {
 				oldStartElement.getNamespaces());
 	}
 
+	@Override
 	public final void addAttribute(QName name, String value) {
-		List<Attribute> newAttributes = new LinkedList<Attribute>();
-		for (Iterator iterator = getStartElement().getAttributes(); iterator.hasNext();) {
+		List<Attribute> newAttributes = new ArrayList<Attribute>();
+		for (Iterator<?> iterator = getStartElement().getAttributes(); iterator.hasNext();) {
 			Attribute attribute = (Attribute) iterator.next();
-			newAttributes.add(attribute);
+			if (!name.equals(attribute.getName())) {
+				newAttributes.add(attribute);
+			}
 		}
 		Attribute newAttribute = getEventFactory().createAttribute(name, value);
 		newAttributes.add(newAttribute);
@@ -141,9 +161,10 @@ abstract class StroapElement implements SoapElement {
 				oldStartElement.getNamespaces());
 	}
 
+	@Override
 	public final void addNamespaceDeclaration(String prefix, String namespaceUri) {
-		List<Namespace> newNamespaces = new LinkedList<Namespace>();
-		for (Iterator iterator = getStartElement().getNamespaces(); iterator.hasNext();) {
+		List<Namespace> newNamespaces = new ArrayList<Namespace>();
+		for (Iterator<?> iterator = getStartElement().getNamespaces(); iterator.hasNext();) {
 			Namespace namespace = (Namespace) iterator.next();
 			newNamespaces.add(namespace);
 		}
@@ -193,6 +214,7 @@ abstract class StroapElement implements SoapElement {
 			this.childEventReader = getChildEventReader();
 		}
 
+		@Override
 		public boolean hasNext() {
 			if (documentEvents && state == EVENT_READER_STATE.DONE) {
 				return false;
@@ -205,6 +227,7 @@ abstract class StroapElement implements SoapElement {
 			}
 		}
 
+		@Override
 		public XMLEvent nextEvent() throws XMLStreamException {
 			switch (state) {
 				case START_DOCUMENT:
@@ -232,6 +255,7 @@ abstract class StroapElement implements SoapElement {
 			}
 		}
 
+		@Override
 		public XMLEvent peek() throws XMLStreamException {
 			switch (state) {
 				case START_DOCUMENT:
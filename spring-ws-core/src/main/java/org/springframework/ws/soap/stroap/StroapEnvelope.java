@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.ws.soap.stroap;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.StartElement;
 import javax.xml.stream.events.XMLEvent;
@@ -31,35 +32,38 @@ import org.springframework.ws.soap.SoapVersion;
 import org.springframework.xml.stream.CompositeXMLEventReader;
 
 /**
+ * Stroap-specific implementation of the {@link SoapEnvelope} interface.
+ *
  * @author Arjen Poutsma
+ * @since 2.3.0
  */
 class StroapEnvelope extends StroapElement implements SoapEnvelope {
 
-	private static final String LOCAL_NAME = "Envelope";
-
 	private StroapHeader header;
 
-	private StroapBody body;
+	private final StroapBody body;
 
 	StroapEnvelope(StroapMessageFactory messageFactory) {
 		super(messageFactory.getSoapVersion().getEnvelopeName(), messageFactory);
 		this.header = null;
-		this.body = new Stroap11Body(messageFactory);
+		this.body = StroapBody.create(messageFactory);
 	}
 
-	private StroapEnvelope(StartElement startElement,
-						   StroapHeader header,
-						   StroapBody body,
-						   StroapMessageFactory messageFactory) {
+	private StroapEnvelope(StartElement startElement, StroapHeader header, StroapBody body,
+			StroapMessageFactory messageFactory) {
 		super(startElement, messageFactory);
 		this.header = header;
 		this.body = body;
 	}
 
+	/**
+	 * Reads an envelope from the given reader. Reads the envelope, header and body start elements, the header
+	 * contents, and, if payload caching is enabled, the body contents.
+	 */
 	static StroapEnvelope build(XMLEventReader eventReader, StroapMessageFactory messageFactory)
 			throws XMLStreamException {
 		XMLEvent event = eventReader.nextTag();
-		if (!event.isStartElement()) {
+		if (event == null || !event.isStartElement()) {
 			throw new StroapMessageCreationException("Unexpected event: " + event + ", expected StartElement");
 		}
 		StartElement startElement = event.asStartElement();
@@ -74,11 +78,11 @@ class StroapEnvelope extends StroapElement implements SoapEnvelope {
 		while (peekedEvent != null) {
 			if (peekedEvent.isStartElement()) {
 				QName headerOrBodyName = peekedEvent.asStartElement().getName();
-				if (soapVersion.getHeaderName().equals(headerOrBodyName)) {
-					header = StroapHeader.build(eventReader, messageFactory);
+				if (header == null && soapVersion.getHeaderName().equals(headerOrBodyName)) {
+					header = StroapHeader.build(eventReader, startElement, messageFactory);
 				}
 				else if (soapVersion.getBodyName().equals(headerOrBodyName)) {
-					body = StroapBody.build(eventReader, messageFactory);
+					body = StroapBody.build(eventReader, startElement, messageFactory);
 					break;
 				}
 				else {
@@ -94,21 +98,19 @@ class StroapEnvelope extends StroapElement implements SoapEnvelope {
 		if (body == null) {
 			throw new StroapMessageCreationException("No SOAP body found");
 		}
-
 		return new StroapEnvelope(startElement, header, body, messageFactory);
 	}
 
+	@Override
 	public SoapHeader getHeader() throws SoapHeaderException {
 		if (header == null) {
-			header = new Stroap11Header(getMessageFactory());
+			header = StroapHeader.create(getMessageFactory());
 		}
 		return header;
 	}
 
+	@Override
 	public SoapBody getBody() throws SoapBodyException {
-		if (body == null) {
-			body = new Stroap11Body(getMessageFactory());
-		}
 		return body;
 	}
 
@@ -122,4 +124,15 @@ class StroapEnvelope extends StroapElement implements SoapEnvelope {
 		}
 	}
 
+	/** Writes the header and body separately, so that a streaming payload can be written directly. */
+	@Override
+	public void writeTo(XMLEventWriter eventWriter) throws XMLStreamException {
+		eventWriter.add(getStartElement());
+		if (header != null) {
+			header.writeTo(eventWriter);
+		}
+		body.writeTo(eventWriter);
+		eventWriter.add(getEndElement());
+	}
+
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.springframework.util.StringUtils;
+import org.springframework.ws.soap.SoapFault;
+import org.springframework.ws.soap.SoapFaultDetail;
+import org.springframework.ws.soap.SoapVersion;
+import org.springframework.xml.stream.ListBasedXMLEventReader;
+
+/**
+ * Abstract base class for Stroap-specific implementations of the {@link SoapFault} interface.
+ *
+ * <p>Faults are kept as fields, rather than as events; the events are generated when the fault is read or written.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+abstract class StroapFault extends StroapElement implements SoapFault {
+
+	private static final QName XML_LANG_NAME =
+			new QName(XMLConstants.XML_NS_URI, "lang", XMLConstants.XML_NS_PREFIX);
+
+	private StroapFaultDetail faultDetail;
+
+	protected StroapFault(QName name, StroapMessageFactory messageFactory) {
+		super(name, messageFactory);
+	}
+
+	protected StroapFault(StartElement startElement, StroapMessageFactory messageFactory) {
+		super(startElement, messageFactory);
+	}
+
+	/**
+	 * Creates a fault from the given events.
+	 *
+	 * @param events the events of the fault, from start element to end element inclusive
+	 */
+	static StroapFault build(List<XMLEvent> events, StroapMessageFactory messageFactory) {
+		ParsedElement fault = ParsedElement.build(events);
+		if (SoapVersion.SOAP_11 == messageFactory.getSoapVersion()) {
+			return Stroap11Fault.build(fault, messageFactory);
+		}
+		else {
+			return Stroap12Fault.build(fault, messageFactory);
+		}
+	}
+
+	@Override
+	public SoapFaultDetail getFaultDetail() {
+		return faultDetail;
+	}
+
+	@Override
+	public SoapFaultDetail addFaultDetail() {
+		if (faultDetail == null) {
+			faultDetail = new StroapFaultDetail(getFaultDetailName(), getMessageFactory());
+		}
+		return faultDetail;
+	}
+
+	protected void setFaultDetail(StroapFaultDetail faultDetail) {
+		this.faultDetail = faultDetail;
+	}
+
+	/** Returns the name of the detail element. */
+	protected abstract QName getFaultDetailName();
+
+	/** Returns the events of the children of this fault, excluding the detail. */
+	protected abstract List<XMLEvent> getFaultEvents();
+
+	@Override
+	protected final XMLEventReader getChildEventReader() {
+		List<XMLEvent> events = getFaultEvents();
+		if (faultDetail != null) {
+			XMLEventReader detailReader = faultDetail.getEventReader(false);
+			try {
+				while (detailReader.hasNext()) {
+					events.add(detailReader.nextEvent());
+				}
+			}
+			catch (XMLStreamException ex) {
+				throw new StroapBodyException(ex);
+			}
+		}
+		return new ListBasedXMLEventReader(events);
+	}
+
+	/** Returns a name in the SOAP envelope namespace, using the prefix of this fault. */
+	protected final QName getEnvelopeName(String localPart) {
+		return new QName(getName().getNamespaceURI(), localPart, getName().getPrefix());
+	}
+
+	/**
+	 * Adds the events of an element that contains the given qualified name as text. Declares the prefix of the name on
+	 * the element, unless it is the prefix of this fault.
+	 */
+	protected final void addQNameElement(List<XMLEvent> events, QName elementName, QName value) {
+		XMLEventFactory eventFactory = getEventFactory();
+		Iterator<Namespace> namespaces = null;
+		if (!value.getPrefix().equals(getName().getPrefix()) ||
+				!value.getNamespaceURI().equals(getName().getNamespaceURI())) {
+			Namespace namespace = eventFactory.createNamespace(value.getPrefix(), value.getNamespaceURI());
+			namespaces = Collections.singletonList(namespace).iterator();
+		}
+		events.add(eventFactory.createStartElement(elementName, null, namespaces));
+		events.add(eventFactory.createCharacters(value.getPrefix() + ":" + value.getLocalPart()));
+		events.add(eventFactory.createEndElement(elementName, null));
+	}
+
+	/** Adds the events of an element that contains the given text, with an optional {@code xml:lang} attribute. */
+	protected final void addTextElement(List<XMLEvent> events, QName elementName, String text, Locale locale) {
+		XMLEventFactory eventFactory = getEventFactory();
+		Iterator<Attribute> attributes = null;
+		if (locale != null) {
+			Attribute lang = eventFactory.createAttribute(XML_LANG_NAME, toLanguage(locale));
+			attributes = Collections.singletonList(lang).iterator();
+		}
+		events.add(eventFactory.createStartElement(elementName, attributes, null));
+		events.add(eventFactory.createCharacters(text));
+		events.add(eventFactory.createEndElement(elementName, null));
+	}
+
+	/** Ensures that the given qualified name has a prefix, so that it can be written as text. */
+	protected final QName ensurePrefix(QName name) {
+		if (StringUtils.hasLength(name.getPrefix())) {
+			return name;
+		}
+		else if (getName().getNamespaceURI().equals(name.getNamespaceURI())) {
+			return new QName(name.getNamespaceURI(), name.getLocalPart(), getName().getPrefix());
+		}
+		else {
+			return new QName(name.getNamespaceURI(), name.getLocalPart(), "ns0");
+		}
+	}
+
+	private static String toLanguage(Locale locale) {
+		return locale.toString().replace('_', '-');
+	}
+
+	/** Parses the {@code xml:lang} attribute of the given element, or returns {@code null} if not present. */
+	protected static Locale parseLanguage(ParsedElement element) {
+		String language = element.getAttributeValue(XML_LANG_NAME);
+		return StringUtils.hasLength(language) ? StringUtils.parseLocaleString(language.replace('-', '_')) : null;
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.transform.Result;
+
+import org.springframework.util.xml.StaxUtils;
+import org.springframework.ws.soap.SoapFaultDetail;
+import org.springframework.ws.soap.SoapFaultDetailElement;
+import org.springframework.xml.stream.CompositeXMLEventReader;
+
+/**
+ * Stroap-specific implementation of the {@link SoapFaultDetail} interface.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+class StroapFaultDetail extends StroapElement implements SoapFaultDetail {
+
+	private final List<StroapFaultDetailElement> detailElements = new ArrayList<StroapFaultDetailElement>();
+
+	StroapFaultDetail(QName name, StroapMessageFactory messageFactory) {
+		super(name, messageFactory);
+	}
+
+	private StroapFaultDetail(ParsedElement detail, StroapMessageFactory messageFactory) {
+		super(detail.getStandaloneStartElement(messageFactory.getEventFactory()), messageFactory);
+		for (ParsedElement child : detail.getChildren()) {
+			detailElements.add(new StroapFaultDetailElement(
+					child.getStandaloneStartElement(messageFactory.getEventFactory()), child.getChildEvents(),
+					messageFactory));
+		}
+	}
+
+	/** Creates a fault detail from the given parsed element. */
+	static StroapFaultDetail build(ParsedElement detail, StroapMessageFactory messageFactory) {
+		return new StroapFaultDetail(detail, messageFactory);
+	}
+
+	@Override
+	public SoapFaultDetailElement addFaultDetailElement(QName name) {
+		StroapFaultDetailElement detailElement = new StroapFaultDetailElement(name, getMessageFactory());
+		detailElements.add(detailElement);
+		return detailElement;
+	}
+
+	@Override
+	public Result getResult() {
+		return StaxUtils.createCustomStaxResult(new ElementCollectingXMLEventWriter() {
+
+			@Override
+			protected void elementCompleted(List<XMLEvent> events) {
+				detailElements.add(new StroapFaultDetailElement(CachingStroapElement.extractStartElement(events),
+						CachingStroapElement.extractChildEvents(events), getMessageFactory()));
+			}
+		});
+	}
+
+	@Override
+	public Iterator<SoapFaultDetailElement> getDetailEntries() {
+		return new ArrayList<SoapFaultDetailElement>(detailElements).iterator();
+	}
+
+	@Override
+	protected XMLEventReader getChildEventReader() {
+		List<XMLEventReader> eventReaders = new ArrayList<XMLEventReader>(detailElements.size());
+		for (StroapFaultDetailElement detailElement : detailElements) {
+			eventReaders.add(detailElement.getEventReader(false));
+		}
+		return new CompositeXMLEventReader(eventReaders);
+	}
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.List;
+import javax.xml.namespace.QName;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.transform.Result;
+
+import org.springframework.util.xml.StaxUtils;
+import org.springframework.ws.soap.SoapFaultDetailElement;
+
+/**
+ * Stroap-specific implementation of the {@link SoapFaultDetailElement} interface.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+class StroapFaultDetailElement extends CachingStroapElement implements SoapFaultDetailElement {
+
+	StroapFaultDetailElement(QName name, StroapMessageFactory messageFactory) {
+		super(name, messageFactory);
+	}
+
+	StroapFaultDetailElement(StartElement startElement, List<XMLEvent> childEvents,
+			StroapMessageFactory messageFactory) {
+		super(startElement, childEvents, messageFactory);
+	}
+
+	@Override
+	public Result getResult() {
+		return StaxUtils.createCustomStaxResult(new CachingXMLEventWriter(getChildEvents()));
+	}
+
+	@Override
+	public void addText(String text) {
+		getChildEvents().add(getEventFactory().createCharacters(text));
+	}
+
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.transform.Result;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.xml.StaxUtils;
+import org.springframework.ws.soap.SoapHeader;
+import org.springframework.ws.soap.SoapHeaderElement;
+import org.springframework.ws.soap.SoapHeaderException;
+import org.springframework.ws.soap.SoapVersion;
+import org.springframework.xml.stream.CompositeXMLEventReader;
+import org.springframework.xml.stream.ListBasedXMLEventReader;
+
+/**
+ * Stroap-specific implementation of the {@link SoapHeader} interface.
+ *
+ * <p>When read from a stream, the events of the header are kept as is; the header elements are only created when
+ * the header is first examined or modified. Until then, the events are written unchanged.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+abstract class StroapHeader extends StroapElement implements SoapHeader {
+
+	private List<XMLEvent> childEvents;
+
+	private List<StroapHeaderElement> headerElements;
+
+	protected StroapHeader(StroapMessageFactory messageFactory) {
+		super(messageFactory.getSoapVersion().getHeaderName(), messageFactory);
+		this.headerElements = new ArrayList<StroapHeaderElement>();
+	}
+
+	protected StroapHeader(StartElement startElement, List<XMLEvent> childEvents,
+			StroapMessageFactory messageFactory) {
+		super(startElement, messageFactory);
+		Assert.notNull(childEvents, "'childEvents' must not be null");
+		this.childEvents = childEvents;
+	}
+
+	/** Creates an empty header for the SOAP version of the given message factory. */
+	static StroapHeader create(StroapMessageFactory messageFactory) {
+		if (SoapVersion.SOAP_11 == messageFactory.getSoapVersion()) {
+			return new Stroap11Header(messageFactory);
+		}
+		else {
+			return new Stroap12Header(messageFactory);
+		}
+	}
+
+	/**
+	 * Reads a header from the given reader, including its end element.
+	 *
+	 * @param eventReader          the reader, positioned before the header start element
+	 * @param envelopeStartElement the start element of the envelope, of which the namespaces are in scope
+	 * @param messageFactory       the message factory
+	 */
+	static StroapHeader build(XMLEventReader eventReader, StartElement envelopeStartElement,
+			StroapMessageFactory messageFactory) throws XMLStreamException {
+		XMLEvent event = eventReader.nextTag();
+		if (event == null || !event.isStartElement()) {
+			throw new StroapMessageCreationException("Unexpected event: " + event + ", expected StartElement");
+		}
+		StartElement startElement = event.asStartElement();
+		SoapVersion soapVersion = messageFactory.getSoapVersion();
+		if (!soapVersion.getHeaderName().equals(startElement.getName())) {
+			throw new StroapMessageCreationException(
+					"Unexpected name: " + startElement.getName() + ", expected " + soapVersion.getHeaderName());
+		}
+		List<XMLEvent> childEvents = new ArrayList<XMLEvent>();
+		XMLEventReader childEventReader = new NamespaceInheritingEventReader(eventReader,
+				messageFactory.getEventFactory(), envelopeStartElement, startElement);
+		while (childEventReader.hasNext()) {
+			childEvents.add(childEventReader.nextEvent());
+		}
+		event = eventReader.nextEvent();
+		if (!event.isEndElement()) {
+			throw new StroapMessageCreationException("Unexpected event: " + event + ", expected EndElement");
+		}
+		if (SoapVersion.SOAP_11 == soapVersion) {
+			return new Stroap11Header(startElement, childEvents, messageFactory);
+		}
+		else {
+			return new Stroap12Header(startElement, childEvents, messageFactory);
+		}
+	}
+
+	/** Returns the header elements, creating them from the read events if necessary. */
+	protected final List<StroapHeaderElement> getHeaderElements() {
+		if (headerElements == null) {
+			final List<StroapHeaderElement> result = new ArrayList<StroapHeaderElement>();
+			XMLEventReader eventReader = new ListBasedXMLEventReader(childEvents);
+			try {
+				new ElementCollectingXMLEventWriter() {
+
+					@Override
+					protected void elementCompleted(List<XMLEvent> events) {
+						result.add(StroapHeaderElement.build(events, getMessageFactory()));
+					}
+				}.add(eventReader);
+			}
+			catch (XMLStreamException ex) {
+				throw new StroapHeaderException(ex);
+			}
+			this.headerElements = result;
+			this.childEvents = null;
+		}
+		return headerElements;
+	}
+
+	/** Adds the given header element to the end of this header. */
+	protected final <T extends StroapHeaderElement> T addHeaderElement(T headerElement) {
+		getHeaderElements().add(headerElement);
+		return headerElement;
+	}
+
+	@Override
+	public SoapHeaderElement addHeaderElement(QName name) throws SoapHeaderException {
+		Assert.notNull(name, "'name' must not be null");
+		return addHeaderElement(new StroapHeaderElement(name, getMessageFactory()));
+	}
+
+	@Override
+	public Iterator<SoapHeaderElement> examineAllHeaderElements() throws SoapHeaderException {
+		return new ArrayList<SoapHeaderElement>(getHeaderElements()).iterator();
+	}
+
+	@Override
+	public Iterator<SoapHeaderElement> examineHeaderElements(QName name) throws SoapHeaderException {
+		List<SoapHeaderElement> result = new ArrayList<SoapHeaderElement>();
+		for (StroapHeaderElement headerElement : getHeaderElements()) {
+			if (headerElement.getName().equals(name)) {
+				result.add(headerElement);
+			}
+		}
+		return result.iterator();
+	}
+
+	@Override
+	public Iterator<SoapHeaderElement> examineMustUnderstandHeaderElements(String actorOrRole)
+			throws SoapHeaderException {
+		List<SoapHeaderElement> result = new ArrayList<SoapHeaderElement>();
+		for (StroapHeaderElement headerElement : getHeaderElements()) {
+			if (headerElement.getMustUnderstand() &&
+					ObjectUtils.nullSafeEquals(headerElement.getActorOrRole(), actorOrRole)) {
+				result.add(headerElement);
+			}
+		}
+		return result.iterator();
+	}
+
+	@Override
+	public void removeHeaderElement(QName name) throws SoapHeaderException {
+		Assert.notNull(name, "'name' must not be null");
+		for (Iterator<StroapHeaderElement> iterator = getHeaderElements().iterator(); iterator.hasNext(); ) {
+			StroapHeaderElement headerElement = iterator.next();
+			if (name.equals(headerElement.getName())) {
+				iterator.remove();
+				break;
+			}
+		}
+	}
+
+	@Override
+	public Result getResult() {
+		return StaxUtils.createCustomStaxResult(new ElementCollectingXMLEventWriter() {
+
+			@Override
+			protected void elementCompleted(List<XMLEvent> events) {
+				getHeaderElements().add(StroapHeaderElement.build(events, getMessageFactory()));
+			}
+		});
+	}
+
+	@Override
+	protected XMLEventReader getChildEventReader() {
+		if (headerElements == null) {
+			return new ListBasedXMLEventReader(childEvents);
+		}
+		List<XMLEventReader> eventReaders = new ArrayList<XMLEventReader>(headerElements.size());
+		for (StroapHeaderElement headerElement : headerElements) {
+			eventReaders.add(headerElement.getEventReader(false));
+		}
+		return new CompositeXMLEventReader(eventReaders);
+	}
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.util.Iterator;
+import java.util.List;
+import javax.xml.namespace.QName;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.transform.Result;
+
+import org.springframework.util.StringUtils;
+import org.springframework.util.xml.StaxUtils;
+import org.springframework.ws.soap.SoapHeaderElement;
+import org.springframework.ws.soap.SoapHeaderException;
+import org.springframework.ws.soap.SoapVersion;
+
+/**
+ * Stroap-specific implementation of the {@link SoapHeaderElement} interface.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+class StroapHeaderElement extends CachingStroapElement implements SoapHeaderElement {
+
+	StroapHeaderElement(QName name, StroapMessageFactory messageFactory) {
+		super(name, messageFactory);
+	}
+
+	private StroapHeaderElement(StartElement startElement, List<XMLEvent> childEvents,
+			StroapMessageFactory messageFactory) {
+		super(startElement, childEvents, messageFactory);
+	}
+
+	/**
+	 * Creates a header element from the given events.
+	 *
+	 * @param events the events of the header element, from start element to end element inclusive
+	 */
+	static StroapHeaderElement build(List<XMLEvent> events, StroapMessageFactory messageFactory) {
+		return new StroapHeaderElement(extractStartElement(events), extractChildEvents(events), messageFactory);
+	}
+
+	@Override
+	public final String getActorOrRole() throws SoapHeaderException {
+		return getAttributeValue(getSoapVersion().getActorOrRoleName());
+	}
+
+	@Override
+	public final void setActorOrRole(String actorOrRole) throws SoapHeaderException {
+		addEnvelopeAttribute(getSoapVersion().getActorOrRoleName(), actorOrRole);
+	}
+
+	@Override
+	public final boolean getMustUnderstand() throws SoapHeaderException {
+		String value = getAttributeValue(getSoapVersion().getMustUnderstandAttributeName());
+		return "1".equals(value) || "true".equals(value);
+	}
+
+	@Override
+	public final void setMustUnderstand(boolean mustUnderstand) throws SoapHeaderException {
+		String value;
+		if (SoapVersion.SOAP_11 == getSoapVersion()) {
+			value = mustUnderstand ? "1" : "0";
+		}
+		else {
+			value = mustUnderstand ? "true" : "false";
+		}
+		addEnvelopeAttribute(getSoapVersion().getMustUnderstandAttributeName(), value);
+	}
+
+	/**
+	 * Adds an attribute in the SOAP envelope namespace. Uses the {@linkplain #DEFAULT_PREFIX default prefix}, and
+	 * declares it on this element if necessary, so that the element can be used on its own.
+	 */
+	private void addEnvelopeAttribute(QName name, String value) {
+		String namespaceUri = name.getNamespaceURI();
+		String prefix = getDeclaredPrefix(namespaceUri);
+		if (prefix == null) {
+			prefix = DEFAULT_PREFIX;
+			addNamespaceDeclaration(prefix, namespaceUri);
+		}
+		addAttribute(new QName(namespaceUri, name.getLocalPart(), prefix), value);
+	}
+
+	private String getDeclaredPrefix(String namespaceUri) {
+		if (namespaceUri.equals(getName().getNamespaceURI()) && StringUtils.hasLength(getName().getPrefix())) {
+			return getName().getPrefix();
+		}
+		for (Iterator<?> iterator = getStartElement().getNamespaces(); iterator.hasNext(); ) {
+			Namespace namespace = (Namespace) iterator.next();
+			if (namespaceUri.equals(namespace.getNamespaceURI()) && StringUtils.hasLength(namespace.getPrefix())) {
+				return namespace.getPrefix();
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public Result getResult() throws SoapHeaderException {
+		getChildEvents().clear();
+		return StaxUtils.createCustomStaxResult(new CachingXMLEventWriter(getChildEvents()));
+	}
+
+	@Override
+	public String getText() {
+		return getCharacterData();
+	}
+
+	@Override
+	public void setText(String content) {
+		getChildEvents().clear();
+		getChildEvents().add(getEventFactory().createCharacters(content));
+	}
+
+}
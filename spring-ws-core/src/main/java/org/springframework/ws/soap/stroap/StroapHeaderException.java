@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,9 +19,12 @@ package org.springframework.ws.soap.stroap;
 import org.springframework.ws.soap.SoapHeaderException;
 
 /**
+ * Stroap-specific subclass of the {@link SoapHeaderException} hierarchy.
+ *
  * @author Arjen Poutsma
- * @since 1.0.0
+ * @since 2.3.0
  */
+@SuppressWarnings("serial")
 public class StroapHeaderException extends SoapHeaderException {
 
 	public StroapHeaderException(String msg) {
@@ -35,4 +38,5 @@ public class StroapHeaderException extends SoapHeaderException {
 	public StroapHeaderException(Throwable ex) {
 		super(ex);
 	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,29 +19,24 @@ package org.springframework.ws.soap.stroap;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.StringTokenizer;
 import javax.activation.DataHandler;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLEventFactory;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLEventWriter;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.EndDocument;
-import javax.xml.stream.events.StartDocument;
 import javax.xml.stream.events.XMLEvent;
 import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.dom.DOMSource;
 
 import org.springframework.util.Assert;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.util.StringUtils;
 import org.springframework.ws.mime.Attachment;
 import org.springframework.ws.mime.AttachmentException;
 import org.springframework.ws.soap.AbstractSoapMessage;
@@ -52,7 +47,6 @@ import org.springframework.ws.soap.support.SoapUtils;
 import org.springframework.ws.stream.StreamingPayload;
 import org.springframework.ws.stream.StreamingWebServiceMessage;
 import org.springframework.ws.transport.TransportConstants;
-import org.springframework.ws.transport.TransportInputStream;
 import org.springframework.ws.transport.TransportOutputStream;
 import org.springframework.xml.stream.AbstractXMLEventWriter;
 
@@ -64,88 +58,70 @@ import org.w3c.dom.ls.LSSerializer;
 import org.xml.sax.SAXException;
 
 /**
+ * Stroap-specific implementation of the {@link org.springframework.ws.soap.SoapMessage} interface. Created via the
+ * {@link StroapMessageFactory}, holds the SOAP envelope as StAX events, and its attachments in memory.
+ *
  * @author Arjen Poutsma
+ * @since 2.3.0
+ * @see StroapMessageFactory
  */
 public class StroapMessage extends AbstractSoapMessage implements StreamingWebServiceMessage {
 
-	private final MultiValueMap<String, String> mimeHeaders = new LinkedMultiValueMap<String, String>();
-
-	private StroapEnvelope envelope;
+	private static final String CHARSET = "UTF-8";
 
 	private final StroapMessageFactory messageFactory;
 
-	private final StartDocument startDocument;
+	private final Map<String, StroapAttachment> attachments = new LinkedHashMap<String, StroapAttachment>();
+
+	private StroapEnvelope envelope;
+
+	private String soapAction;
 
-	private final EndDocument endDocument;
+	private boolean xopPackage;
 
+	/**
+	 * Create a new, empty {@code StroapMessage}.
+	 *
+	 * @param messageFactory the message factory that creates the parts of this message
+	 */
 	public StroapMessage(StroapMessageFactory messageFactory) {
-		this(null, null, messageFactory);
+		this(new StroapEnvelope(messageFactory), null, null, false, messageFactory);
 	}
 
-	public StroapMessage(MultiValueMap<String, String> mimeHeaders,
-						 StroapEnvelope envelope,
-						 StroapMessageFactory messageFactory) {
+	StroapMessage(StroapEnvelope envelope, String soapAction, List<StroapAttachment> attachments, boolean xopPackage,
+			StroapMessageFactory messageFactory) {
+		Assert.notNull(envelope, "'envelope' must not be null");
 		Assert.notNull(messageFactory, "'messageFactory' must not be null");
+		this.envelope = envelope;
 		this.messageFactory = messageFactory;
-		if (mimeHeaders != null) {
-			this.mimeHeaders.putAll(mimeHeaders);
-		}
-		this.envelope = envelope != null ? envelope : new StroapEnvelope(messageFactory);
-		if (!this.mimeHeaders.containsKey(TransportConstants.HEADER_CONTENT_TYPE)) {
-			this.mimeHeaders
-					.set(TransportConstants.HEADER_CONTENT_TYPE, messageFactory.getSoapVersion().getContentType());
-		}
-		if (!this.mimeHeaders.containsKey(TransportConstants.HEADER_ACCEPT)) {
-			this.mimeHeaders.set(TransportConstants.HEADER_ACCEPT, messageFactory.getSoapVersion().getContentType());
-		}
-		this.startDocument = messageFactory.getEventFactory().createStartDocument();
-		this.endDocument = messageFactory.getEventFactory().createEndDocument();
-	}
-
-	static StroapMessage build(InputStream inputStream, StroapMessageFactory messageFactory)
-			throws XMLStreamException, IOException {
-		MultiValueMap<String, String> mimeHeaders = parseMimeHeaders(inputStream);
-		XMLEventReader eventReader = messageFactory.getInputFactory().createXMLEventReader(inputStream);
-		StroapEnvelope envelope = StroapEnvelope.build(eventReader, messageFactory);
-		return new StroapMessage(mimeHeaders, envelope, messageFactory);
-	}
-
-	private static MultiValueMap<String, String> parseMimeHeaders(InputStream inputStream) throws IOException {
-		MultiValueMap<String, String> mimeHeaders = new LinkedMultiValueMap<String, String>();
-		if (inputStream instanceof TransportInputStream) {
-			TransportInputStream transportInputStream = (TransportInputStream) inputStream;
-			for (Iterator<String> headerNames = transportInputStream.getHeaderNames(); headerNames.hasNext();) {
-				String headerName = headerNames.next();
-				for (Iterator<String> headerValues = transportInputStream.getHeaders(headerName);
-					 headerValues.hasNext();) {
-					String headerValue = headerValues.next();
-					StringTokenizer tokenizer = new StringTokenizer(headerValue, ",");
-					while (tokenizer.hasMoreTokens()) {
-						mimeHeaders.add(headerName, tokenizer.nextToken().trim());
-					}
-				}
+		this.soapAction = SoapUtils.escapeAction(soapAction);
+		this.xopPackage = xopPackage;
+		if (attachments != null) {
+			for (StroapAttachment attachment : attachments) {
+				this.attachments.put(MimeMultipart.stripAngleBrackets(attachment.getContentId()), attachment);
 			}
 		}
-		return mimeHeaders;
 	}
 
+	@Override
 	public SoapEnvelope getEnvelope() throws SoapEnvelopeException {
 		return envelope;
 	}
 
+	@Override
 	public void setStreamingPayload(StreamingPayload payload) {
 		StroapBody soapBody = (StroapBody) getSoapBody();
 		soapBody.setStreamingPayload(payload);
 	}
 
+	@Override
 	public String getSoapAction() {
-		String soapAction = mimeHeaders.getFirst(TransportConstants.HEADER_SOAP_ACTION);
-		return StringUtils.hasLength(soapAction) ? soapAction : TransportConstants.EMPTY_SOAP_ACTION;
+		return soapAction;
 	}
 
+	@Override
 	public void setSoapAction(String soapAction) {
-		soapAction = SoapUtils.escapeAction(soapAction);
-		mimeHeaders.set(TransportConstants.HEADER_SOAP_ACTION, soapAction);
+		this.soapAction = SoapUtils.escapeAction(soapAction);
 	}
 
 	@Override
@@ -153,17 +129,14 @@ public class StroapMessage extends AbstractSoapMessage implements StreamingWebSe
 		return messageFactory.getSoapVersion();
 	}
 
+	@Override
 	public Document getDocument() {
 		try {
 			DocumentBuilder documentBuilder = messageFactory.getDocumentBuilderFactory().newDocumentBuilder();
 			try {
 				Document result = documentBuilder.newDocument();
 				DOMResult domResult = new DOMResult(result);
-				XMLEventWriter eventWriter = messageFactory.getOutputFactory().createXMLEventWriter(domResult);
-				eventWriter.add(startDocument);
-				envelope.writeTo(new NoStartEndDocumentWriter(eventWriter));
-				eventWriter.add(endDocument);
-				eventWriter.flush();
+				writeEnvelope(messageFactory.getOutputFactory().createXMLEventWriter(domResult));
 				return result;
 			}
 			catch (XMLStreamException ignored) {
@@ -175,11 +148,14 @@ public class StroapMessage extends AbstractSoapMessage implements StreamingWebSe
 
 			// XMLOutputFactory does not support DOMResults, so let's do it the hard way
 			ByteArrayOutputStream bos = new ByteArrayOutputStream();
-			writeTo(bos);
+			writeEnvelope(messageFactory.getOutputFactory().createXMLEventWriter(bos, CHARSET));
 
 			ByteArrayInputStream bis = new ByteArrayInputStream(bos.toByteArray());
 			return documentBuilder.parse(bis);
 		}
+		catch (XMLStreamException ex) {
+			throw new StroapMessageException("Could not save message as Document", ex);
+		}
 		catch (ParserConfigurationException ex) {
 			throw new StroapMessageException("Could not create DocumentBuilderFactory", ex);
 		}
@@ -191,6 +167,7 @@ public class StroapMessage extends AbstractSoapMessage implements StreamingWebSe
 		}
 	}
 
+	@Override
 	public void setDocument(Document document) {
 		try {
 			try {
@@ -226,46 +203,115 @@ public class StroapMessage extends AbstractSoapMessage implements StreamingWebSe
 		}
 	}
 
+	@Override
 	public void writeTo(OutputStream outputStream) throws IOException {
+		SoapVersion version = getVersion();
+		boolean multipart = xopPackage || !attachments.isEmpty();
+		String boundary = multipart ? MimeMultipart.createBoundary() : null;
+		String rootContentId = multipart ? "<root." + boundary + ">" : null;
 		if (outputStream instanceof TransportOutputStream) {
-			TransportOutputStream tos = (TransportOutputStream) outputStream;
-			for (Map.Entry<String, List<String>> entry : mimeHeaders.entrySet()) {
-				String name = entry.getKey();
-				for (String value : entry.getValue()) {
-					tos.addHeader(name, value);
-				}
+			TransportOutputStream transportOutputStream = (TransportOutputStream) outputStream;
+			String contentType;
+			if (multipart) {
+				contentType = getMultipartContentType(boundary, rootContentId);
 			}
+			else {
+				contentType = version.getContentType() + "; charset=" + CHARSET;
+			}
+			if (SoapVersion.SOAP_11 == version) {
+				transportOutputStream.addHeader(TransportConstants.HEADER_SOAP_ACTION, soapAction);
+			}
+			else {
+				contentType += "; action=" + soapAction;
+			}
+			transportOutputStream.addHeader(TransportConstants.HEADER_ACCEPT, version.getContentType());
+			transportOutputStream.addHeader(TransportConstants.HEADER_CONTENT_TYPE, contentType);
+		}
+		if (multipart) {
+			MimeMultipart.writePartStart(outputStream, boundary, getRootPartContentType(), rootContentId);
 		}
 		try {
-			XMLEventWriter eventWriter = messageFactory.getOutputFactory().createXMLEventWriter(outputStream);
-			eventWriter.add(startDocument);
-			envelope.writeTo(new NoStartEndDocumentWriter(eventWriter));
-			eventWriter.add(endDocument);
-			eventWriter.flush();
+			writeEnvelope(messageFactory.getOutputFactory().createXMLEventWriter(outputStream, CHARSET));
 		}
 		catch (XMLStreamException ex) {
 			throw new StroapMessageException("Could not write message to OutputStream: " + ex.getMessage(), ex);
 		}
+		if (multipart) {
+			MimeMultipart.writePartEnd(outputStream);
+			for (StroapAttachment attachment : attachments.values()) {
+				MimeMultipart.writePartStart(outputStream, boundary, attachment.getContentType(),
+						attachment.getContentId());
+				attachment.getDataHandler().writeTo(outputStream);
+				MimeMultipart.writePartEnd(outputStream);
+			}
+			MimeMultipart.writeEnd(outputStream, boundary);
+		}
+		outputStream.flush();
 	}
 
+	private void writeEnvelope(XMLEventWriter eventWriter) throws XMLStreamException {
+		XMLEventFactory eventFactory = messageFactory.getEventFactory();
+		eventWriter.add(eventFactory.createStartDocument(CHARSET));
+		envelope.writeTo(new NoStartEndDocumentWriter(eventWriter));
+		eventWriter.add(eventFactory.createEndDocument());
+		eventWriter.flush();
+	}
+
+	private String getMultipartContentType(String boundary, String rootContentId) {
+		StringBuilder builder = new StringBuilder(MimeMultipart.MULTIPART_RELATED_CONTENT_TYPE);
+		if (xopPackage) {
+			builder.append("; type=\"").append(MimeMultipart.XOP_CONTENT_TYPE).append('"');
+		}
+		else {
+			builder.append("; type=\"").append(getVersion().getContentType()).append('"');
+		}
+		builder.append("; boundary=\"").append(boundary).append('"');
+		builder.append("; start=\"").append(rootContentId).append('"');
+		if (xopPackage) {
+			builder.append("; start-info=\"").append(getVersion().getContentType()).append('"');
+		}
+		return builder.toString();
+	}
+
+	private String getRootPartContentType() {
+		if (xopPackage) {
+			return MimeMultipart.XOP_CONTENT_TYPE + "; charset=" + CHARSET + "; type=\"" +
+					getVersion().getContentType() + "\"";
+		}
+		else {
+			return getVersion().getContentType() + "; charset=" + CHARSET;
+		}
+	}
+
+	@Override
 	public boolean isXopPackage() {
-		return false;
+		return xopPackage;
 	}
 
+	@Override
 	public boolean convertToXopPackage() {
-		return false;
+		xopPackage = true;
+		return true;
 	}
 
+	@Override
 	public Attachment getAttachment(String contentId) throws AttachmentException {
-		throw new UnsupportedOperationException();
+		Assert.hasLength(contentId, "contentId must not be empty");
+		return attachments.get(MimeMultipart.stripAngleBrackets(contentId));
 	}
 
+	@Override
 	public Iterator<Attachment> getAttachments() throws AttachmentException {
-		return Collections.<Attachment>emptyList().iterator();
+		return Collections.<Attachment>unmodifiableCollection(attachments.values()).iterator();
 	}
 
+	@Override
 	public Attachment addAttachment(String contentId, DataHandler dataHandler) {
-		throw new UnsupportedOperationException();
+		Assert.hasLength(contentId, "contentId must not be empty");
+		Assert.notNull(dataHandler, "dataHandler must not be null");
+		StroapAttachment attachment = new StroapAttachment(contentId, dataHandler);
+		attachments.put(MimeMultipart.stripAngleBrackets(contentId), attachment);
+		return attachment;
 	}
 
 	@Override
@@ -287,6 +333,7 @@ public class StroapMessage extends AbstractSoapMessage implements StreamingWebSe
 			this.delegate = delegate;
 		}
 
+		@Override
 		public void add(XMLEvent event) throws XMLStreamException {
 			if (!event.isStartDocument() && !event.isEndDocument()) {
 				delegate.add(event);
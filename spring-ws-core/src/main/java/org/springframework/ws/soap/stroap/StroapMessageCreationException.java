@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,8 +19,12 @@ package org.springframework.ws.soap.stroap;
 import org.springframework.ws.soap.SoapMessageCreationException;
 
 /**
+ * Exception thrown when a {@link StroapMessage} cannot be created.
+ *
  * @author Arjen Poutsma
+ * @since 2.3.0
  */
+@SuppressWarnings("serial")
 public class StroapMessageCreationException extends SoapMessageCreationException {
 
 	public StroapMessageCreationException(String msg) {
@@ -30,4 +34,5 @@ public class StroapMessageCreationException extends SoapMessageCreationException
 	public StroapMessageCreationException(String msg, Throwable ex) {
 		super(msg, ex);
 	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,8 +19,12 @@ package org.springframework.ws.soap.stroap;
 import org.springframework.ws.soap.SoapMessageException;
 
 /**
+ * Stroap-specific subclass of the {@link SoapMessageException} hierarchy.
+ *
  * @author Arjen Poutsma
+ * @since 2.3.0
  */
+@SuppressWarnings("serial")
 public class StroapMessageException extends SoapMessageException {
 
 	public StroapMessageException(String msg) {
@@ -31,5 +35,4 @@ public class StroapMessageException extends SoapMessageException {
 		super(msg, ex);
 	}
 
-
 }
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Locale;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.ws.InvalidXmlException;
+import org.springframework.ws.mime.AttachmentStore;
+import org.springframework.ws.soap.SoapMessageFactory;
+import org.springframework.ws.soap.SoapVersion;
+import org.springframework.ws.soap.support.SoapUtils;
+import org.springframework.ws.transport.TransportConstants;
+import org.springframework.ws.transport.TransportInputStream;
+
+/**
+ * StAX-based implementation of the {@link SoapMessageFactory} interface. Creates {@link StroapMessage}s, which are
+ * read from the input stream with a single-pass StAX event reader, instead of being loaded into a tree.
+ *
+ * <p>The SOAP envelope and header are parsed when the message is created; header elements themselves are only
+ * created when the header is examined. The payload is either cached as a list of events, or, when {@linkplain
+ * #setPayloadCaching(boolean) payload caching} is disabled, read directly from the underlying stream. In the latter
+ * case, the payload can only be read once, and ill-formed XML in the payload is only detected when it is read.
+ *
+ * <p>Both SOAP 1.1 and SOAP 1.2 are supported, as are SOAP with Attachments and MTOM. The parts of multipart messages
+ * are handed to the {@link #setAttachmentStore(AttachmentStore) attachmentStore}, if set; otherwise, they are read
+ * into memory, up to the {@link #setMaxInMemorySize(long) maxInMemorySize}. The XOP includes in an MTOM payload are
+ * not inlined, but left for MTOM-aware unmarshallers to resolve.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+public class StroapMessageFactory implements SoapMessageFactory {
+
+	/** The default maximum size of a multipart message read into memory: 16 megabytes. */
+	public static final long DEFAULT_MAX_IN_MEMORY_SIZE = 16 * 1024 * 1024;
+
+	private static final String CHARSET_PARAMETER = "charset";
+
+	private static final Log logger = LogFactory.getLog(StroapMessageFactory.class);
+
+	private final XMLInputFactory inputFactory = createXmlInputFactory();
+
+	private final XMLOutputFactory outputFactory = createXmlOutputFactory();
+
+	private final XMLEventFactory eventFactory = createXmlEventFactory();
+
+	private final DocumentBuilderFactory documentBuilderFactory = createDocumentBuilderFactory();
+
+	private SoapVersion soapVersion = SoapVersion.SOAP_11;
+
+	private boolean payloadCaching = true;
+
+	private AttachmentStore attachmentStore;
+
+	private long maxInMemorySize = DEFAULT_MAX_IN_MEMORY_SIZE;
+
+	/** Indicates whether the SOAP Body payload should be cached or not. */
+	public boolean isPayloadCaching() {
+		return payloadCaching;
+	}
+
+	/**
+	 * Indicates whether the SOAP Body payload should be cached or not. Default is {@code true}.
+	 *
+	 * <p>Setting this to {@code false} will increase performance, but also result in the fact that the message payload
+	 * can only be read once, since it is read directly from the underlying stream.
+	 */
+	public void setPayloadCaching(boolean payloadCaching) {
+		this.payloadCaching = payloadCaching;
+	}
+
+	/**
+	 * Sets the store that holds the parts of received multipart messages, including the root part. Default is none,
+	 * which reads them into memory.
+	 */
+	public void setAttachmentStore(AttachmentStore attachmentStore) {
+		this.attachmentStore = attachmentStore;
+	}
+
+	/**
+	 * Sets the maximum number of bytes of a multipart message that is read into memory, if no {@link
+	 * #setAttachmentStore(AttachmentStore) attachmentStore} is set. Larger messages are rejected. Defaults to 16
+	 * megabytes.
+	 */
+	public void setMaxInMemorySize(long maxInMemorySize) {
+		Assert.isTrue(maxInMemorySize > 0, "'maxInMemorySize' must be larger than 0");
+		this.maxInMemorySize = maxInMemorySize;
+	}
+
+	/** Returns the SOAP version of the messages created by this factory. */
+	public SoapVersion getSoapVersion() {
+		return soapVersion;
+	}
+
+	@Override
+	public void setSoapVersion(SoapVersion version) {
+		Assert.isTrue(version == SoapVersion.SOAP_11 || version == SoapVersion.SOAP_12,
+				"Invalid version [" + version + "]. Expected the SOAP_11 or SOAP_12 constant");
+		this.soapVersion = version;
+	}
+
+	@Override
+	public StroapMessage createWebServiceMessage() {
+		return new StroapMessage(this);
+	}
+
+	@Override
+	public StroapMessage createWebServiceMessage(InputStream inputStream) throws IOException {
+		String contentType = null;
+		String soapAction = null;
+		if (inputStream instanceof TransportInputStream) {
+			TransportInputStream transportInputStream = (TransportInputStream) inputStream;
+			contentType = getHeaderValue(transportInputStream, TransportConstants.HEADER_CONTENT_TYPE);
+			soapAction = getHeaderValue(transportInputStream, TransportConstants.HEADER_SOAP_ACTION);
+		}
+		if (!StringUtils.hasLength(contentType)) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("InputStream has no Content-Type header; defaulting to \"" +
+						soapVersion.getContentType() + "\"");
+			}
+			contentType = soapVersion.getContentType();
+		}
+		if (!StringUtils.hasLength(soapAction)) {
+			soapAction = SoapUtils.extractActionFromContentType(contentType);
+		}
+		try {
+			if (contentType.toLowerCase(Locale.ENGLISH).contains(MimeMultipart.MULTIPART_RELATED_CONTENT_TYPE)) {
+				MimeMultipart multipart = MimeMultipart.read(inputStream, contentType, attachmentStore,
+						maxInMemorySize);
+				XMLEventReader eventReader = createEventReader(multipart.getRootPartInputStream(),
+						multipart.getRootPartContentType());
+				StroapEnvelope envelope = StroapEnvelope.build(eventReader, this);
+				return new StroapMessage(envelope, soapAction, multipart.getAttachments(), multipart.isXopPackage(),
+						this);
+			}
+			else {
+				XMLEventReader eventReader = createEventReader(inputStream, contentType);
+				StroapEnvelope envelope = StroapEnvelope.build(eventReader, this);
+				return new StroapMessage(envelope, soapAction, null, false, this);
+			}
+		}
+		catch (XMLStreamException ex) {
+			throw new InvalidXmlException("Could not parse XML: " + ex.getMessage(), ex);
+		}
+	}
+
+	private String getHeaderValue(TransportInputStream transportInputStream, String header) throws IOException {
+		Iterator<String> iterator = transportInputStream.getHeaders(header);
+		return iterator.hasNext() ? iterator.next() : null;
+	}
+
+	/**
+	 * Creates an event reader for the given stream. Only passes the character set on to the reader if it is specified
+	 * in the content type, so that the reader can detect it otherwise.
+	 */
+	private XMLEventReader createEventReader(InputStream inputStream, String contentType) throws XMLStreamException {
+		String charset = MimeMultipart.getParameter(contentType, CHARSET_PARAMETER);
+		if (StringUtils.hasLength(charset)) {
+			return inputFactory.createXMLEventReader(inputStream, charset);
+		}
+		else {
+			return inputFactory.createXMLEventReader(inputStream);
+		}
+	}
+
+	XMLInputFactory getInputFactory() {
+		return inputFactory;
+	}
+
+	XMLOutputFactory getOutputFactory() {
+		return outputFactory;
+	}
+
+	XMLEventFactory getEventFactory() {
+		return eventFactory;
+	}
+
+	DocumentBuilderFactory getDocumentBuilderFactory() {
+		return documentBuilderFactory;
+	}
+
+	/**
+	 * Create a {@code XMLInputFactory} that this message factory will use to create {@link
+	 * javax.xml.stream.XMLEventReader} objects.
+	 *
+	 * <p>Can be overridden in subclasses, adding further initialization of the factory. The resulting factory is cached,
+	 * so this method will only be called once.
+	 *
+	 * <p>By default this method creates a standard {@link XMLInputFactory} that does not replace entity references, and
+	 * does not support external entities.
+	 *
+	 * @return the created factory
+	 */
+	protected XMLInputFactory createXmlInputFactory() {
+		XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+		inputFactory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
+		inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return inputFactory;
+	}
+
+	/**
+	 * Create a {@code XMLOutputFactory} that this message factory will use to create {@link
+	 * javax.xml.stream.XMLEventWriter} objects.
+	 *
+	 * <p>Can be overridden in subclasses, adding further initialization of the factory. The resulting factory is cached,
+	 * so this method will only be called once.
+	 *
+	 * @return the created factory
+	 */
+	protected XMLOutputFactory createXmlOutputFactory() {
+		XMLOutputFactory outputFactory = XMLOutputFactory.newFactory();
+		outputFactory.setProperty(XMLOutputFactory.IS_REPAIRING_NAMESPACES, true);
+		return outputFactory;
+	}
+
+	/**
+	 * Create a {@code XMLEventFactory} that this message factory will use to create {@link
+	 * javax.xml.stream.events.XMLEvent} objects.
+	 *
+	 * <p>Can be overridden in subclasses, adding further initialization of the factory. The resulting factory is cached,
+	 * so this method will only be called once.
+	 *
+	 * @return the created factory
+	 */
+	protected XMLEventFactory createXmlEventFactory() {
+		return XMLEventFactory.newFactory();
+	}
+
+	/**
+	 * Create a {@code DocumentBuilderFactory} that this message factory will use to create {@link
+	 * org.w3c.dom.Document} objects.
+	 *
+	 * <p>Can be overridden in subclasses, adding further initialization of the factory. The resulting factory is cached,
+	 * so this method will only be called once.
+	 *
+	 * @return the created factory
+	 */
+	protected DocumentBuilderFactory createDocumentBuilderFactory() {
+		DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+		documentBuilderFactory.setNamespaceAware(true);
+		return documentBuilderFactory;
+	}
+
+	public String toString() {
+		StringBuilder builder = new StringBuilder("StroapMessageFactory[");
+		if (getSoapVersion() == SoapVersion.SOAP_11) {
+			builder.append("SOAP 1.1");
+		}
+		else if (getSoapVersion() == SoapVersion.SOAP_12) {
+			builder.append("SOAP 1.2");
+		}
+		builder.append(',');
+		if (payloadCaching) {
+			builder.append("PayloadCaching enabled");
+		}
+		else {
+			builder.append("PayloadCaching disabled");
+		}
+		builder.append(']');
+		return builder.toString();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,16 +22,22 @@ import javax.xml.stream.XMLEventWriter;
 import javax.xml.stream.XMLStreamException;
 
 /**
+ * Abstract base class for the contents of a {@link StroapBody}.
+ *
  * @author Arjen Poutsma
+ * @since 2.3.0
  */
 abstract class StroapPayload {
 
+	/** Returns the name of the payload root element, or {@code null} if the payload is empty. */
 	public abstract QName getName();
 
+	/** Returns a reader of the payload events. */
 	public abstract XMLEventReader getEventReader();
 
+	/** Writes the payload events to the given writer. */
 	public void writeTo(XMLEventWriter eventWriter) throws XMLStreamException {
 		eventWriter.add(getEventReader());
 	}
 
-}
\ No newline at end of file
+}
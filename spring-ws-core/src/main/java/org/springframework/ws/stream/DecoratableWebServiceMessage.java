@@ -0,0 +1,47 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.stream;
+
+import org.springframework.ws.WebServiceMessage;
+
+/**
+ * Sub-interface of {@link WebServiceMessage} that reads its payload from an {@code XMLStreamReader}, and allows for
+ * decorating that reader. This is typically used to process a payload that is not cached, and thus can only be read
+ * once, alongside the endpoint that reads it.
+ *
+ * @author Arjen Poutsma
+ * @see PayloadReaderDecorator
+ * @since 2.3.0
+ */
+public interface DecoratableWebServiceMessage extends WebServiceMessage {
+
+	/**
+	 * Indicates whether the payload of this message is cached, i.e. whether it can be read more than once.
+	 *
+	 * @return {@code true} if the payload can be read repeatedly; {@code false} if it can only be read once
+	 */
+	boolean isPayloadCaching();
+
+	/**
+	 * Adds a decorator for the reader of the payload {@linkplain #getPayloadSource() source}. Decorators are applied,
+	 * in the order in which they were added, each time the payload source is obtained.
+	 *
+	 * @param decorator the decorator to add
+	 */
+	void addPayloadReaderDecorator(PayloadReaderDecorator decorator);
+
+}
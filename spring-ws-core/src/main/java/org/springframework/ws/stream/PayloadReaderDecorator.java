@@ -0,0 +1,39 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.stream;
+
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Callback interface for decorating the {@link XMLStreamReader} that a message payload is read from, for instance to
+ * inspect the payload as it is read by an endpoint.
+ *
+ * @author Arjen Poutsma
+ * @see DecoratableWebServiceMessage#addPayloadReaderDecorator(PayloadReaderDecorator)
+ * @since 2.3.0
+ */
+public interface PayloadReaderDecorator {
+
+	/**
+	 * Decorates the given payload reader.
+	 *
+	 * @param payloadReader the reader to decorate, positioned at the start of the payload
+	 * @return the decorated reader, or {@code payloadReader} to leave it as is
+	 */
+	XMLStreamReader decorate(XMLStreamReader payloadReader);
+
+}
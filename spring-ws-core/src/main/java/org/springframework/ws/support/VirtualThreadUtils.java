@@ -0,0 +1,102 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.support;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Helper class for creating virtual threads, which are available on Java 21 and higher. Uses reflection, so that
+ * Spring-WS itself can still run on older versions of Java.
+ *
+ * <p>Virtual threads are cheap to create and block, which makes them suitable for handling requests whose processing
+ * mostly waits on I/O. Since they are not pooled, they are typically used through a {@link SimpleAsyncTaskExecutor}
+ * created by {@link #createTaskExecutor(String)}.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+public abstract class VirtualThreadUtils {
+
+	private static final Method ofVirtualMethod;
+
+	private static final Method nameMethod;
+
+	private static final Method factoryMethod;
+
+	static {
+		Method ofVirtual = null;
+		Method name = null;
+		Method factory = null;
+		ClassLoader classLoader = VirtualThreadUtils.class.getClassLoader();
+		if (ClassUtils.isPresent("java.lang.Thread$Builder", classLoader)) {
+			try {
+				// use the public interface, the builder implementation is not accessible
+				Class<?> builderClass = ClassUtils.forName("java.lang.Thread$Builder", classLoader);
+				ofVirtual = Thread.class.getMethod("ofVirtual");
+				name = builderClass.getMethod("name", String.class, long.class);
+				factory = builderClass.getMethod("factory");
+			}
+			catch (Exception ex) {
+				ofVirtual = null;
+			}
+		}
+		ofVirtualMethod = ofVirtual;
+		nameMethod = name;
+		factoryMethod = factory;
+	}
+
+	private VirtualThreadUtils() {
+	}
+
+	/** Indicates whether virtual threads are available on the current Java runtime. */
+	public static boolean isAvailable() {
+		return ofVirtualMethod != null;
+	}
+
+	/**
+	 * Creates a {@link ThreadFactory} that creates virtual threads, named with the given prefix and a sequence number.
+	 *
+	 * @param threadNamePrefix the prefix of the thread names
+	 * @return the thread factory
+	 * @throws IllegalStateException if virtual threads are not available
+	 */
+	public static ThreadFactory createThreadFactory(String threadNamePrefix) {
+		if (!isAvailable()) {
+			throw new IllegalStateException("Virtual threads require Java 21 or higher");
+		}
+		Object builder = ReflectionUtils.invokeMethod(ofVirtualMethod, null);
+		builder = ReflectionUtils.invokeMethod(nameMethod, builder, threadNamePrefix, 0L);
+		return (ThreadFactory) ReflectionUtils.invokeMethod(factoryMethod, builder);
+	}
+
+	/**
+	 * Creates a {@link SimpleAsyncTaskExecutor} that runs each task in a new virtual thread.
+	 *
+	 * @param threadNamePrefix the prefix of the thread names
+	 * @return the task executor
+	 * @throws IllegalStateException if virtual threads are not available
+	 */
+	public static SimpleAsyncTaskExecutor createTaskExecutor(String threadNamePrefix) {
+		return new SimpleAsyncTaskExecutor(createThreadFactory(threadNamePrefix));
+	}
+
+}
@@ -35,6 +35,43 @@ public abstract class AbstractWebServiceConnection implements WebServiceConnecti
 
 	private boolean closed = false;
 
+	private int traceBufferSize = 0;
+
+	private TraceBuffer sentTrace;
+
+	private TraceBuffer receivedTrace;
+
+	/**
+	 * Sets the size of the buffers that record the bytes sent and received over this connection. When larger than 0,
+	 * the last {@code traceBufferSize} bytes written to the {@link TransportOutputStream} and read from the {@link
+	 * TransportInputStream} are available from {@link #getSentTrace()} and {@link #getReceivedTrace()}. Default is
+	 * {@code 0}: no bytes are recorded.
+	 */
+	public void setTraceBufferSize(int traceBufferSize) {
+		this.traceBufferSize = traceBufferSize;
+	}
+
+	/** Indicates whether the bytes sent and received over this connection are recorded. */
+	public boolean isTracing() {
+		return traceBufferSize > 0;
+	}
+
+	/** Returns the bytes sent over this connection, or {@code null} if not {@linkplain #isTracing() tracing}. */
+	public TraceBuffer getSentTrace() {
+		if (sentTrace == null && isTracing()) {
+			sentTrace = new TraceBuffer(traceBufferSize);
+		}
+		return sentTrace;
+	}
+
+	/** Returns the bytes received over this connection, or {@code null} if not {@linkplain #isTracing() tracing}. */
+	public TraceBuffer getReceivedTrace() {
+		if (receivedTrace == null && isTracing()) {
+			receivedTrace = new TraceBuffer(traceBufferSize);
+		}
+		return receivedTrace;
+	}
+
 	@Override
 	public final void send(WebServiceMessage message) throws IOException {
 		checkClosed();
@@ -43,6 +80,9 @@ public abstract class AbstractWebServiceConnection implements WebServiceConnecti
 		if (tos == null) {
 			return;
 		}
+		if (isTracing()) {
+			tos.setTraceBuffer(getSentTrace());
+		}
 		message.writeTo(tos);
 		tos.flush();
 		onSendAfterWrite(message);
@@ -89,6 +129,9 @@ public abstract class AbstractWebServiceConnection implements WebServiceConnecti
 		if (tis == null) {
 			return null;
 		}
+		if (isTracing()) {
+			tis.setTraceBuffer(getReceivedTrace());
+		}
 		WebServiceMessage message = messageFactory.createWebServiceMessage(tis);
 		onReceiveAfterRead(message);
 		return message;
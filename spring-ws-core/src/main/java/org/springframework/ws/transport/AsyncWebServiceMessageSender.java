@@ -0,0 +1,54 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.ws.WebServiceMessage;
+
+/**
+ * Extension of the {@link WebServiceMessageSender} interface for senders that can send messages without blocking the
+ * calling thread until the response has arrived.
+ *
+ * <p>Instead of returning a connection on which the caller sends and receives, {@link #sendAsync(URI,
+ * WebServiceMessage)} sends the message and returns a future that completes once the response is available. The
+ * connection the future completes with has already sent the message, and its response can be {@linkplain
+ * WebServiceConnection#receive(org.springframework.ws.WebServiceMessageFactory) received} without blocking.
+ *
+ * @author Arjen Poutsma
+ * @see org.springframework.ws.client.core.AsyncWebServiceOperations
+ * @since 2.3.0
+ */
+public interface AsyncWebServiceMessageSender extends WebServiceMessageSender {
+
+	/**
+	 * Sends the given message to the specified URI asynchronously.
+	 *
+	 * <p>The returned future completes with the connection used to send the message, from which the response can be
+	 * read. The caller is responsible for {@linkplain WebServiceConnection#close() closing} that connection. If sending
+	 * fails, the future completes exceptionally, and the connection is closed by this sender.
+	 *
+	 * @param uri	  the URI to send the message to
+	 * @param message the message to send
+	 * @return a future that completes with the connection once the response is available
+	 * @throws IOException in case of I/O errors that occur before the message is handed off
+	 */
+	ListenableFuture<WebServiceConnection> sendAsync(URI uri, WebServiceMessage message) throws IOException;
+
+}
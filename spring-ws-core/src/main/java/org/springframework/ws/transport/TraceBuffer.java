@@ -0,0 +1,112 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport;
+
+import java.nio.charset.Charset;
+
+import org.springframework.util.Assert;
+
+/**
+ * Fixed-size ring buffer that records the bytes written to a {@link TransportOutputStream} or read from a {@link
+ * TransportInputStream}. When more bytes pass through than fit in the buffer, only the last bytes are kept.
+ *
+ * <p>Used for message tracing, since the recorded bytes are the bytes actually sent or received, and recording them
+ * does not require the message to be written a second time.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ * @see AbstractWebServiceConnection#setTraceBufferSize(int)
+ */
+public class TraceBuffer {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final byte[] buffer;
+
+	private long count;
+
+	/**
+	 * Creates a new {@code TraceBuffer} with the given capacity.
+	 *
+	 * @param capacity the maximum number of bytes kept
+	 */
+	public TraceBuffer(int capacity) {
+		Assert.isTrue(capacity > 0, "'capacity' must be larger than 0");
+		this.buffer = new byte[capacity];
+	}
+
+	/** Records the given byte. */
+	public synchronized void write(int b) {
+		buffer[(int) (count % buffer.length)] = (byte) b;
+		count++;
+	}
+
+	/** Records the given bytes. */
+	public synchronized void write(byte[] b, int off, int len) {
+		if (len > buffer.length) {
+			off += len - buffer.length;
+			count += len - buffer.length;
+			len = buffer.length;
+		}
+		int pos = (int) (count % buffer.length);
+		int first = Math.min(len, buffer.length - pos);
+		System.arraycopy(b, off, buffer, pos, first);
+		System.arraycopy(b, off + first, buffer, 0, len - first);
+		count += len;
+	}
+
+	/** Returns the total number of bytes recorded, including those no longer kept. */
+	public synchronized long getCount() {
+		return count;
+	}
+
+	/** Indicates whether more bytes were recorded than this buffer keeps. */
+	public synchronized boolean isTruncated() {
+		return count > buffer.length;
+	}
+
+	/** Returns the bytes kept in this buffer, oldest first. */
+	public synchronized byte[] toByteArray() {
+		if (count <= buffer.length) {
+			byte[] result = new byte[(int) count];
+			System.arraycopy(buffer, 0, result, 0, result.length);
+			return result;
+		}
+		byte[] result = new byte[buffer.length];
+		int pos = (int) (count % buffer.length);
+		System.arraycopy(buffer, pos, result, 0, buffer.length - pos);
+		System.arraycopy(buffer, 0, result, buffer.length - pos, pos);
+		return result;
+	}
+
+	/** Clears this buffer. */
+	public synchronized void clear() {
+		count = 0;
+	}
+
+	/**
+	 * Returns the bytes kept in this buffer as a UTF-8 string. If the buffer is {@linkplain #isTruncated()
+	 * truncated}, the string starts with {@code ...}.
+	 */
+	@Override
+	public String toString() {
+		byte[] bytes = toByteArray();
+		String result = new String(bytes, UTF_8);
+		return isTruncated() ? "..." + result : result;
+	}
+
+}
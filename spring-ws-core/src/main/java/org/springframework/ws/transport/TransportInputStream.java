@@ -35,6 +35,8 @@ public abstract class TransportInputStream extends InputStream {
 
 	private InputStream inputStream;
 
+	private TraceBuffer traceBuffer;
+
 	protected TransportInputStream() {
 	}
 
@@ -46,6 +48,19 @@ public abstract class TransportInputStream extends InputStream {
 		return inputStream;
 	}
 
+	/** Returns the buffer that records the bytes read from this stream, if any. */
+	public TraceBuffer getTraceBuffer() {
+		return traceBuffer;
+	}
+
+	/**
+	 * Sets the buffer that records the bytes read from this stream. Default is none. Note that bytes that are read again
+	 * after a {@link #reset()} are recorded again.
+	 */
+	public void setTraceBuffer(TraceBuffer traceBuffer) {
+		this.traceBuffer = traceBuffer;
+	}
+
 	@Override
 	public void close() throws IOException {
 		getInputStream().close();
@@ -78,12 +93,16 @@ public abstract class TransportInputStream extends InputStream {
 
 	@Override
 	public int read(byte b[]) throws IOException {
-		return getInputStream().read(b);
+		return read(b, 0, b.length);
 	}
 
 	@Override
 	public int read(byte b[], int off, int len) throws IOException {
-		return getInputStream().read(b, off, len);
+		int count = getInputStream().read(b, off, len);
+		if (traceBuffer != null && count > 0) {
+			traceBuffer.write(b, off, count);
+		}
+		return count;
 	}
 
 	@Override
@@ -98,7 +117,11 @@ public abstract class TransportInputStream extends InputStream {
 
 	@Override
 	public int read() throws IOException {
-		return getInputStream().read();
+		int b = getInputStream().read();
+		if (traceBuffer != null && b != -1) {
+			traceBuffer.write(b);
+		}
+		return b;
 	}
 
 	/** Returns the input stream to read from. */
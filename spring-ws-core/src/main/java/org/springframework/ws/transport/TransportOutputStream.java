@@ -33,6 +33,8 @@ public abstract class TransportOutputStream extends OutputStream {
 
 	private OutputStream outputStream;
 
+	private TraceBuffer traceBuffer;
+
 	protected TransportOutputStream() {
 	}
 
@@ -44,6 +46,16 @@ public abstract class TransportOutputStream extends OutputStream {
 		return outputStream;
 	}
 
+	/** Returns the buffer that records the bytes written to this stream, if any. */
+	public TraceBuffer getTraceBuffer() {
+		return traceBuffer;
+	}
+
+	/** Sets the buffer that records the bytes written to this stream. Default is none. */
+	public void setTraceBuffer(TraceBuffer traceBuffer) {
+		this.traceBuffer = traceBuffer;
+	}
+
 	@Override
 	public void close() throws IOException {
 		getOutputStream().close();
@@ -57,16 +69,25 @@ public abstract class TransportOutputStream extends OutputStream {
 	@Override
 	public void write(byte b[]) throws IOException {
 		getOutputStream().write(b);
+		if (traceBuffer != null) {
+			traceBuffer.write(b, 0, b.length);
+		}
 	}
 
 	@Override
 	public void write(byte b[], int off, int len) throws IOException {
 		getOutputStream().write(b, off, len);
+		if (traceBuffer != null) {
+			traceBuffer.write(b, off, len);
+		}
 	}
 
 	@Override
 	public void write(int b) throws IOException {
 		getOutputStream().write(b);
+		if (traceBuffer != null) {
+			traceBuffer.write(b);
+		}
 	}
 
 	/**
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.http.client.AsyncClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.transport.WebServiceConnection;
+
+/**
+ * Implementation of {@link WebServiceConnection} that is based on Spring 4's {@link AsyncClientHttpRequest}. Sending a
+ * message executes the request asynchronously; the response is only waited for when it is first accessed.
+ *
+ * @author Arjen Poutsma
+ * @see AsyncClientHttpRequestMessageSender
+ * @since 2.3.0
+ */
+public class AsyncClientHttpRequestConnection extends AbstractHttpSenderConnection {
+
+	private final AsyncClientHttpRequest request;
+
+	private ListenableFuture<ClientHttpResponse> responseFuture;
+
+	private ClientHttpResponse response;
+
+	public AsyncClientHttpRequestConnection(AsyncClientHttpRequest request) {
+		Assert.notNull(request, "'request' must not be null");
+		this.request = request;
+	}
+
+	public AsyncClientHttpRequest getAsyncClientHttpRequest() {
+		return request;
+	}
+
+	/**
+	 * Returns the future response of the executed request, or {@code null} if no message has been sent yet.
+	 */
+	public ListenableFuture<ClientHttpResponse> getClientHttpResponseFuture() {
+		return responseFuture;
+	}
+
+	/**
+	 * Returns the response of the executed request, waiting for it to arrive if necessary.
+	 *
+	 * @throws IOException in case of I/O errors, or if no message has been sent yet
+	 */
+	public ClientHttpResponse getClientHttpResponse() throws IOException {
+		if (response == null) {
+			if (responseFuture == null) {
+				throw new IllegalStateException("Request has not been sent");
+			}
+			try {
+				response = responseFuture.get();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for response");
+			}
+			catch (ExecutionException ex) {
+				Throwable cause = ex.getCause();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				else if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				else if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IOException(cause);
+			}
+		}
+		return response;
+	}
+
+	// URI
+
+	@Override
+	public URI getUri() throws URISyntaxException {
+		return request.getURI();
+	}
+
+	// Sending request
+
+	@Override
+	public void addRequestHeader(String name, String value) throws IOException {
+		request.getHeaders().add(name, value);
+	}
+
+	@Override
+	protected OutputStream getRequestOutputStream() throws IOException {
+		return request.getBody();
+	}
+
+	@Override
+	protected void onSendAfterWrite(WebServiceMessage message) throws IOException {
+		responseFuture = request.executeAsync();
+	}
+
+	// Receiving response
+
+	@Override
+	protected long getResponseContentLength() throws IOException {
+		return getClientHttpResponse().getHeaders().getContentLength();
+	}
+
+	@Override
+	public Iterator<String> getResponseHeaderNames() throws IOException {
+		return getClientHttpResponse().getHeaders().keySet().iterator();
+	}
+
+	@Override
+	public Iterator<String> getResponseHeaders(String name) throws IOException {
+		List<String> headers = getClientHttpResponse().getHeaders().get(name);
+		return headers != null ? headers.iterator() :
+				Collections.<String>emptyList().iterator();
+	}
+
+	@Override
+	protected int getResponseCode() throws IOException {
+		return getClientHttpResponse().getStatusCode().value();
+	}
+
+	@Override
+	protected String getResponseMessage() throws IOException {
+		return getClientHttpResponse().getStatusText();
+	}
+
+	@Override
+	protected InputStream getRawResponseInputStream() throws IOException {
+		return getClientHttpResponse().getBody();
+	}
+
+	@Override
+	protected void onClose() throws IOException {
+		if (response != null) {
+			response.close();
+		}
+		else if (responseFuture != null && !responseFuture.cancel(true) && !responseFuture.isCancelled()) {
+			try {
+				responseFuture.get().close();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			catch (ExecutionException ex) {
+				// request failed, nothing to close
+			}
+		}
+	}
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport.http;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AsyncClientHttpRequest;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureAdapter;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.transport.AsyncWebServiceMessageSender;
+import org.springframework.ws.transport.WebServiceConnection;
+import org.springframework.ws.transport.support.TransportUtils;
+
+/**
+ * {@code AsyncWebServiceMessageSender} implementation based on the {@link AsyncClientHttpRequestFactory} introduced in
+ * Spring 4.
+ *
+ * <p>Whether sending is truly non-blocking depends on the request factory. By default, this sender uses a {@link
+ * SimpleClientHttpRequestFactory} that executes each request on a {@link SimpleAsyncTaskExecutor}, and thus still
+ * uses a thread per outstanding request. Configure a {@link org.springframework.http.client.HttpComponentsAsyncClientHttpRequestFactory
+ * HttpComponentsAsyncClientHttpRequestFactory} to share a small number of I/O threads between all requests.
+ *
+ * <p>This sender can also be used as a regular {@code WebServiceMessageSender}, in which case the calling thread
+ * waits for the response when it is received.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+public class AsyncClientHttpRequestMessageSender extends AbstractHttpWebServiceMessageSender
+		implements AsyncWebServiceMessageSender {
+
+	private AsyncClientHttpRequestFactory requestFactory;
+
+	public AsyncClientHttpRequestMessageSender() {
+		SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+		requestFactory.setTaskExecutor(new SimpleAsyncTaskExecutor(getClass().getSimpleName() + "-"));
+		setRequestFactory(requestFactory);
+	}
+
+	public AsyncClientHttpRequestMessageSender(AsyncClientHttpRequestFactory requestFactory) {
+		setRequestFactory(requestFactory);
+	}
+
+	public AsyncClientHttpRequestFactory getRequestFactory() {
+		return requestFactory;
+	}
+
+	public void setRequestFactory(AsyncClientHttpRequestFactory requestFactory) {
+		Assert.notNull(requestFactory, "'requestFactory' must not be null");
+		this.requestFactory = requestFactory;
+	}
+
+	@Override
+	public WebServiceConnection createConnection(URI uri) throws IOException {
+		AsyncClientHttpRequest request = requestFactory.createAsyncRequest(uri, HttpMethod.POST);
+		if (isAcceptGzipEncoding()) {
+			request.getHeaders().add(HttpTransportConstants.HEADER_ACCEPT_ENCODING,
+					HttpTransportConstants.CONTENT_ENCODING_GZIP);
+		}
+		return new AsyncClientHttpRequestConnection(request);
+	}
+
+	@Override
+	public ListenableFuture<WebServiceConnection> sendAsync(URI uri, WebServiceMessage message) throws IOException {
+		final AsyncClientHttpRequestConnection connection = (AsyncClientHttpRequestConnection) createConnection(uri);
+		try {
+			connection.send(message);
+		}
+		catch (IOException ex) {
+			TransportUtils.closeConnection(connection);
+			throw ex;
+		}
+		catch (RuntimeException ex) {
+			TransportUtils.closeConnection(connection);
+			throw ex;
+		}
+		ListenableFuture<ClientHttpResponse> responseFuture = connection.getClientHttpResponseFuture();
+		responseFuture.addCallback(new ListenableFutureCallback<ClientHttpResponse>() {
+
+			@Override
+			public void onSuccess(ClientHttpResponse result) {
+			}
+
+			@Override
+			public void onFailure(Throwable ex) {
+				TransportUtils.closeConnection(connection);
+			}
+		});
+		return new ListenableFutureAdapter<WebServiceConnection, ClientHttpResponse>(responseFuture) {
+
+			@Override
+			protected WebServiceConnection adapt(ClientHttpResponse response) throws ExecutionException {
+				return connection;
+			}
+		};
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,11 +19,17 @@ package org.springframework.ws.transport.http;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
@@ -31,9 +37,12 @@ import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.protocol.HTTP;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
 
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.util.Assert;
 import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.transport.WebServiceConnection;
@@ -42,6 +51,11 @@ import org.springframework.ws.transport.WebServiceConnection;
  * Implementation of {@link WebServiceConnection} that is based on Apache HttpClient. Exposes a {@link HttpPost} and
  * {@link HttpResponse}.
  *
+ * <p>By default, the request message is buffered in memory before it is sent. If a request streaming executor is
+ * given, the message is instead streamed to the HTTP client as it is written, through a pipe: the request is executed
+ * by the executor as soon as the message starts writing its body, while the message is written in the calling thread.
+ * As the resulting entity is not repeatable, streamed requests cannot be retried by the HTTP client.
+ *
  * @author Alan Stewart
  * @author Barry Pitman
  * @author Arjen Poutsma
@@ -50,6 +64,8 @@ import org.springframework.ws.transport.WebServiceConnection;
  */
 public class HttpComponentsConnection extends AbstractHttpSenderConnection {
 
+	private static final int REQUEST_PIPE_SIZE = 64 * 1024;
+
 	private final HttpClient httpClient;
 
 	private final HttpPost httpPost;
@@ -60,12 +76,31 @@ public class HttpComponentsConnection extends AbstractHttpSenderConnection {
 
 	private ByteArrayOutputStream requestBuffer;
 
+	private final AsyncTaskExecutor requestStreamingExecutor;
+
+	private RequestPipeOutputStream requestPipe;
+
+	private Future<HttpResponse> responseFuture;
+
 	protected HttpComponentsConnection(HttpClient httpClient, HttpPost httpPost, HttpContext httpContext) {
+		this(httpClient, httpPost, httpContext, null);
+	}
+
+	/**
+	 * Creates a new {@code HttpComponentsConnection} that streams its requests, if the given executor is not
+	 * {@code null}.
+	 *
+	 * @param requestStreamingExecutor the executor that executes streamed requests, or {@code null} to buffer requests
+	 * @since 2.3.0
+	 */
+	protected HttpComponentsConnection(HttpClient httpClient, HttpPost httpPost, HttpContext httpContext,
+			AsyncTaskExecutor requestStreamingExecutor) {
 		Assert.notNull(httpClient, "httpClient must not be null");
 		Assert.notNull(httpPost, "httpPost must not be null");
 		this.httpClient = httpClient;
 		this.httpPost = httpPost;
 		this.httpContext = httpContext;
+		this.requestStreamingExecutor = requestStreamingExecutor;
 	}
 
 	public HttpPost getHttpPost() {
@@ -78,6 +113,15 @@ public class HttpComponentsConnection extends AbstractHttpSenderConnection {
 
 	@Override
 	public void onClose() throws IOException {
+		if (responseFuture != null && httpResponse == null) {
+			// the request message was not written completely
+			httpPost.abort();
+			requestPipe.closePipe();
+			if (responseFuture.isDone()) {
+				// the server might have responded before writing failed
+				releaseStreamedResponse();
+			}
+		}
 		if (httpResponse != null && httpResponse.getEntity() != null) {
 			EntityUtils.consume(httpResponse.getEntity());
 		}
@@ -97,7 +141,9 @@ public class HttpComponentsConnection extends AbstractHttpSenderConnection {
 
 	@Override
 	protected void onSendBeforeWrite(WebServiceMessage message) throws IOException {
-		requestBuffer = new ByteArrayOutputStream();
+		if (requestStreamingExecutor == null) {
+			requestBuffer = new ByteArrayOutputStream();
+		}
 	}
 
 	@Override
@@ -107,18 +153,122 @@ public class HttpComponentsConnection extends AbstractHttpSenderConnection {
 
 	@Override
 	protected OutputStream getRequestOutputStream() throws IOException {
-		return requestBuffer;
+		if (requestStreamingExecutor == null) {
+			return requestBuffer;
+		}
+		if (requestPipe == null) {
+			// called when the message starts writing its body, so all headers have been added by now
+			startStreamingRequest();
+		}
+		return requestPipe;
+	}
+
+	private void startStreamingRequest() throws IOException {
+		final PipedInputStream entityStream = new PipedInputStream(REQUEST_PIPE_SIZE);
+		requestPipe = new RequestPipeOutputStream(new PipedOutputStream(entityStream));
+		InputStreamEntity entity = new InputStreamEntity(entityStream, getRequestContentLength());
+		entity.setChunked(entity.getContentLength() < 0);
+		httpPost.setEntity(entity);
+		responseFuture = requestStreamingExecutor.submit(new Callable<HttpResponse>() {
+
+			@Override
+			public HttpResponse call() throws IOException {
+				try {
+					return executeRequest();
+				}
+				finally {
+					// unblocks the writing thread if the request ended prematurely
+					entityStream.close();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Returns the length of the streamed request, as given by a {@code Content-Length} request header, or {@code -1}
+	 * if unknown. In the latter case, the request is sent using chunked transfer encoding.
+	 */
+	private long getRequestContentLength() {
+		Header contentLength = httpPost.getFirstHeader(HTTP.CONTENT_LEN);
+		if (contentLength != null) {
+			// the entity determines the header
+			httpPost.removeHeaders(HTTP.CONTENT_LEN);
+			try {
+				return Long.parseLong(contentLength.getValue().trim());
+			}
+			catch (NumberFormatException ex) {
+				// fall through
+			}
+		}
+		return -1;
 	}
 
 	@Override
 	protected void onSendAfterWrite(WebServiceMessage message) throws IOException {
-		httpPost.setEntity(new ByteArrayEntity(requestBuffer.toByteArray()));
-		requestBuffer = null;
+		if (requestStreamingExecutor == null) {
+			httpPost.setEntity(new ByteArrayEntity(requestBuffer.toByteArray()));
+			requestBuffer = null;
+			httpResponse = executeRequest();
+		}
+		else if (responseFuture == null) {
+			// the message did not write a body
+			httpPost.setEntity(new ByteArrayEntity(new byte[0]));
+			httpResponse = executeRequest();
+		}
+		else {
+			requestPipe.close();
+			httpResponse = getStreamedResponse();
+		}
+	}
+
+	private HttpResponse executeRequest() throws IOException {
 		if (httpContext != null) {
-			httpResponse = httpClient.execute(httpPost, httpContext);
+			return httpClient.execute(httpPost, httpContext);
 		}
 		else {
-			httpResponse = httpClient.execute(httpPost);
+			return httpClient.execute(httpPost);
+		}
+	}
+
+	private HttpResponse getStreamedResponse() throws IOException {
+		try {
+			return responseFuture.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			httpPost.abort();
+			throw new InterruptedIOException("Interrupted while waiting for response");
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			else {
+				throw new IOException(cause);
+			}
+		}
+	}
+
+	/** Releases the response of a streamed request that was not written completely, if any. */
+	private void releaseStreamedResponse() {
+		try {
+			HttpResponse response = responseFuture.get();
+			if (response != null) {
+				EntityUtils.consumeQuietly(response.getEntity());
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException ex) {
+			// the request failed, so there is no response to release
 		}
 	}
 
@@ -173,4 +323,74 @@ public class HttpComponentsConnection extends AbstractHttpSenderConnection {
 		}
 		return Arrays.asList(values).iterator();
 	}
+
+	/**
+	 * {@code OutputStream} that writes to the pipe read by the streamed request entity. When writing fails because the
+	 * request has already failed, the cause of that failure is thrown instead.
+	 */
+	private class RequestPipeOutputStream extends OutputStream {
+
+		private final PipedOutputStream pipe;
+
+		private RequestPipeOutputStream(PipedOutputStream pipe) {
+			this.pipe = pipe;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			try {
+				pipe.write(b);
+			}
+			catch (IOException ex) {
+				throw translateException(ex);
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			try {
+				pipe.write(b, off, len);
+			}
+			catch (IOException ex) {
+				throw translateException(ex);
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			try {
+				pipe.flush();
+			}
+			catch (IOException ex) {
+				throw translateException(ex);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				pipe.close();
+			}
+			catch (IOException ex) {
+				throw translateException(ex);
+			}
+		}
+
+		private void closePipe() {
+			try {
+				pipe.close();
+			}
+			catch (IOException ex) {
+				// ignore
+			}
+		}
+
+		private IOException translateException(IOException ex) throws IOException {
+			if (responseFuture.isDone()) {
+				// throws the cause of the failed request, if any
+				getStreamedResponse();
+			}
+			return ex;
+		}
+	}
 }
\ No newline at end of file
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -37,6 +37,8 @@ import org.apache.http.protocol.HttpContext;
 
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.util.Assert;
 import org.springframework.ws.transport.WebServiceConnection;
 
@@ -48,6 +50,9 @@ import org.springframework.ws.transport.WebServiceConnection;
  * Authentication can also be set by injecting a {@link Credentials} instance (such as the {@link
  * UsernamePasswordCredentials}).
  *
+ * <p>By default, request messages are buffered in memory before they are sent, so that the HTTP client can retry
+ * them. Large requests can be {@linkplain #setRequestStreaming(boolean) streamed} instead.
+ *
  * @author Alan Stewart
  * @author Barry Pitman
  * @author Arjen Poutsma
@@ -69,6 +74,10 @@ public class HttpComponentsMessageSender extends AbstractHttpWebServiceMessageSe
 
 	private AuthScope authScope = AuthScope.ANY;
 
+	private boolean requestStreaming = false;
+
+	private AsyncTaskExecutor requestStreamingExecutor;
+
 	/**
 	 * Create a new instance of the {@code HttpClientMessageSender} with a default {@link HttpClient} that uses a
 	 * default {@link org.apache.http.impl.conn.PoolingClientConnectionManager}.
@@ -210,6 +219,29 @@ public class HttpComponentsMessageSender extends AbstractHttpWebServiceMessageSe
 		}
 	}
 
+	/**
+	 * Indicates whether request messages should be streamed to the HTTP client as they are written, rather than being
+	 * buffered in memory first. Default is {@code false}.
+	 *
+	 * <p>Streaming requests avoids holding a copy of every request in memory, but requires an additional thread per
+	 * request, which executes the HTTP request while the message is written. Streamed requests are sent using chunked
+	 * transfer encoding, and cannot be retried by the HTTP client.
+	 *
+	 * @see #setRequestStreamingExecutor(AsyncTaskExecutor)
+	 */
+	public void setRequestStreaming(boolean requestStreaming) {
+		this.requestStreaming = requestStreaming;
+	}
+
+	/**
+	 * Sets the executor that executes streamed HTTP requests. Default is a {@link SimpleAsyncTaskExecutor}, starting
+	 * a new thread for every request. Only used when {@linkplain #setRequestStreaming(boolean) request streaming} is
+	 * enabled.
+	 */
+	public synchronized void setRequestStreamingExecutor(AsyncTaskExecutor requestStreamingExecutor) {
+		this.requestStreamingExecutor = requestStreamingExecutor;
+	}
+
 	/**
 	 * Sets the authentication scope to be used. Only used when the {@code credentials} property has been set.
 	 *
@@ -238,6 +270,9 @@ public class HttpComponentsMessageSender extends AbstractHttpWebServiceMessageSe
 					HttpTransportConstants.CONTENT_ENCODING_GZIP);
 		}
 		HttpContext httpContext = createContext(uri);
+		if (requestStreaming) {
+			return new HttpComponentsConnection(getHttpClient(), httpPost, httpContext, getRequestStreamingExecutor());
+		}
 		return new HttpComponentsConnection(getHttpClient(), httpPost, httpContext);
 	}
 
@@ -252,6 +287,13 @@ public class HttpComponentsMessageSender extends AbstractHttpWebServiceMessageSe
 		return null;
 	}
 
+	private synchronized AsyncTaskExecutor getRequestStreamingExecutor() {
+		if (requestStreamingExecutor == null) {
+			requestStreamingExecutor = new SimpleAsyncTaskExecutor(getClass().getSimpleName() + "-");
+		}
+		return requestStreamingExecutor;
+	}
+
 	@Override
 	public void destroy() throws Exception {
 		getHttpClient().getConnectionManager().shutdown();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,17 +16,27 @@
 
 package org.springframework.ws.transport.http;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Enumeration;
 import java.util.Iterator;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.xml.namespace.QName;
 import javax.xml.soap.SOAPConstants;
 
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.transport.AbstractReceiverConnection;
 import org.springframework.ws.transport.EndpointAwareWebServiceConnection;
@@ -44,12 +54,25 @@ import org.springframework.ws.transport.support.EnumerationIterator;
 public class HttpServletConnection extends AbstractReceiverConnection
 		implements EndpointAwareWebServiceConnection, FaultAwareWebServiceConnection {
 
+	/** The default response compression threshold, in bytes. */
+	public static final int DEFAULT_RESPONSE_COMPRESSION_THRESHOLD = 1024;
+
 	private final HttpServletRequest httpServletRequest;
 
 	private final HttpServletResponse httpServletResponse;
 
 	private boolean statusCodeSet = false;
 
+	private boolean decompressRequest = false;
+
+	private boolean compressResponse = false;
+
+	private int responseCompressionThreshold = DEFAULT_RESPONSE_COMPRESSION_THRESHOLD;
+
+	private int responseCompressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+	private CompressingOutputStream compressingOutputStream;
+
 	/**
 	 * Constructs a new servlet connection with the given {@code HttpServletRequest} and
 	 * {@code HttpServletResponse}.
@@ -69,6 +92,47 @@ public class HttpServletConnection extends AbstractReceiverConnection
 		return httpServletResponse;
 	}
 
+	/**
+	 * Sets whether a request with a {@code gzip} or {@code deflate} {@code Content-Encoding} is decompressed before it
+	 * is read. Defaults to {@code false}.
+	 *
+	 * <p>Note that the size of a decompressed request is not limited, so a small compressed request can expand to a
+	 * very large one.
+	 */
+	public void setDecompressRequest(boolean decompressRequest) {
+		this.decompressRequest = decompressRequest;
+	}
+
+	/**
+	 * Sets whether the response is compressed, if the client accepts a {@code gzip} or {@code deflate} encoding.
+	 * Defaults to {@code false}.
+	 *
+	 * @see #setResponseCompressionThreshold(int)
+	 */
+	public void setCompressResponse(boolean compressResponse) {
+		this.compressResponse = compressResponse;
+	}
+
+	/**
+	 * Sets the size in bytes above which the response is compressed. Responses are buffered up to this size to decide
+	 * whether to compress them. Defaults to {@link #DEFAULT_RESPONSE_COMPRESSION_THRESHOLD}.
+	 */
+	public void setResponseCompressionThreshold(int responseCompressionThreshold) {
+		Assert.isTrue(responseCompressionThreshold >= 0, "'responseCompressionThreshold' must not be negative");
+		this.responseCompressionThreshold = responseCompressionThreshold;
+	}
+
+	/**
+	 * Sets the compression level used to compress responses, from 0 to 9. Defaults to {@link
+	 * Deflater#DEFAULT_COMPRESSION}.
+	 */
+	public void setResponseCompressionLevel(int responseCompressionLevel) {
+		Assert.isTrue(responseCompressionLevel == Deflater.DEFAULT_COMPRESSION ||
+				(responseCompressionLevel >= Deflater.NO_COMPRESSION &&
+						responseCompressionLevel <= Deflater.BEST_COMPRESSION), "Invalid compression level");
+		this.responseCompressionLevel = responseCompressionLevel;
+	}
+
 	@Override
 	public void endpointNotFound() {
 		getHttpServletResponse().setStatus(HttpTransportConstants.STATUS_NOT_FOUND);
@@ -116,7 +180,21 @@ public class HttpServletConnection extends AbstractReceiverConnection
 
 	@Override
 	protected InputStream getRequestInputStream() throws IOException {
-		return getHttpServletRequest().getInputStream();
+		InputStream inputStream = getHttpServletRequest().getInputStream();
+		if (decompressRequest) {
+			String contentEncoding = getHttpServletRequest().getHeader(HttpTransportConstants.HEADER_CONTENT_ENCODING);
+			if (contentEncoding != null) {
+				contentEncoding = contentEncoding.trim().toLowerCase(Locale.ENGLISH);
+				if (HttpTransportConstants.CONTENT_ENCODING_GZIP.equals(contentEncoding) ||
+						("x-" + HttpTransportConstants.CONTENT_ENCODING_GZIP).equals(contentEncoding)) {
+					return new GZIPInputStream(inputStream);
+				}
+				else if (HttpTransportConstants.CONTENT_ENCODING_DEFLATE.equals(contentEncoding)) {
+					return new InflaterInputStream(inputStream);
+				}
+			}
+		}
+		return inputStream;
 	}
 
 	/*
@@ -130,11 +208,70 @@ public class HttpServletConnection extends AbstractReceiverConnection
 
 	@Override
 	protected OutputStream getResponseOutputStream() throws IOException {
+		if (compressResponse) {
+			getHttpServletResponse().addHeader(HttpTransportConstants.HEADER_VARY,
+					HttpTransportConstants.HEADER_ACCEPT_ENCODING);
+			String contentEncoding = getAcceptedContentEncoding();
+			if (contentEncoding != null) {
+				compressingOutputStream = new CompressingOutputStream(contentEncoding);
+				return compressingOutputStream;
+			}
+		}
 		return getHttpServletResponse().getOutputStream();
 	}
 
+	/**
+	 * Returns the compressed content encoding accepted by the client, preferring {@code gzip} over {@code deflate}, or
+	 * {@code null} if neither is accepted.
+	 */
+	private String getAcceptedContentEncoding() {
+		return getAcceptedContentEncoding(getHttpServletRequest());
+	}
+
+	/**
+	 * Returns the compressed content encoding accepted by the given request, preferring {@code gzip} over {@code
+	 * deflate}, or {@code null} if neither is accepted. Codings with a quality value of zero are not accepted.
+	 */
+	static String getAcceptedContentEncoding(HttpServletRequest request) {
+		boolean deflate = false;
+		Enumeration<String> headers = request.getHeaders(HttpTransportConstants.HEADER_ACCEPT_ENCODING);
+		while (headers != null && headers.hasMoreElements()) {
+			for (String coding : StringUtils.commaDelimitedListToStringArray(headers.nextElement())) {
+				String[] parameters = StringUtils.tokenizeToStringArray(coding, ";");
+				if (parameters.length == 0 || isZeroQuality(parameters)) {
+					continue;
+				}
+				String name = parameters[0].toLowerCase(Locale.ENGLISH);
+				if (HttpTransportConstants.CONTENT_ENCODING_GZIP.equals(name)) {
+					return HttpTransportConstants.CONTENT_ENCODING_GZIP;
+				}
+				else if (HttpTransportConstants.CONTENT_ENCODING_DEFLATE.equals(name)) {
+					deflate = true;
+				}
+			}
+		}
+		return deflate ? HttpTransportConstants.CONTENT_ENCODING_DEFLATE : null;
+	}
+
+	private static boolean isZeroQuality(String[] parameters) {
+		for (int i = 1; i < parameters.length; i++) {
+			if (parameters[i].startsWith("q=")) {
+				try {
+					return Float.parseFloat(parameters[i].substring(2)) == 0f;
+				}
+				catch (NumberFormatException ex) {
+					return false;
+				}
+			}
+		}
+		return false;
+	}
+
 	@Override
 	protected void onSendAfterWrite(WebServiceMessage message) throws IOException {
+		if (compressingOutputStream != null) {
+			compressingOutputStream.finish();
+		}
 		statusCodeSet = true;
 	}
 
@@ -183,4 +320,105 @@ public class HttpServletConnection extends AbstractReceiverConnection
 		}
 		statusCodeSet = true;
 	}
+
+	/**
+	 * Output stream that buffers the response up to the {@linkplain #setResponseCompressionThreshold(int) threshold},
+	 * and compresses it once it grows beyond that. Smaller responses are written as is.
+	 */
+	private class CompressingOutputStream extends OutputStream {
+
+		private final String contentEncoding;
+
+		private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		private DeflaterOutputStream compressedStream;
+
+		private boolean finished = false;
+
+		private CompressingOutputStream(String contentEncoding) {
+			this.contentEncoding = contentEncoding;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (finished) {
+				throw new IOException("Response has already been written");
+			}
+			if (compressedStream != null) {
+				compressedStream.write(b, off, len);
+			}
+			else if (buffer.size() + len > responseCompressionThreshold) {
+				startCompression();
+				compressedStream.write(b, off, len);
+			}
+			else {
+				buffer.write(b, off, len);
+			}
+		}
+
+		private void startCompression() throws IOException {
+			getHttpServletResponse().addHeader(HttpTransportConstants.HEADER_CONTENT_ENCODING, contentEncoding);
+			OutputStream os = getHttpServletResponse().getOutputStream();
+			if (HttpTransportConstants.CONTENT_ENCODING_GZIP.equals(contentEncoding)) {
+				compressedStream = new GZIPOutputStream(os) {
+
+					{
+						def.setLevel(responseCompressionLevel);
+					}
+				};
+			}
+			else {
+				compressedStream = new DeflaterOutputStream(os) {
+
+					{
+						def.setLevel(responseCompressionLevel);
+					}
+				};
+			}
+			buffer.writeTo(compressedStream);
+			buffer = null;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			// a buffered response is only written when finished, as its encoding is not known before
+			if (compressedStream != null) {
+				compressedStream.flush();
+			}
+		}
+
+		/** Writes the remainder of the response, compressed or not. */
+		public void finish() throws IOException {
+			if (finished) {
+				return;
+			}
+			finished = true;
+			if (compressedStream != null) {
+				compressedStream.finish();
+			}
+			else {
+				getHttpServletResponse().setContentLength(buffer.size());
+				buffer.writeTo(getHttpServletResponse().getOutputStream());
+				buffer = null;
+			}
+			getHttpServletResponse().getOutputStream().flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			finish();
+			if (compressedStream != null) {
+				// also releases the deflater
+				compressedStream.close();
+			}
+			else {
+				getHttpServletResponse().getOutputStream().close();
+			}
+		}
+	}
 }
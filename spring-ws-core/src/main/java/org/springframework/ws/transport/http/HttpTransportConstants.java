@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -32,9 +32,21 @@ public interface HttpTransportConstants extends TransportConstants {
 	/** The "Accept-Encoding" header. */
 	String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
 
+	/** The "Vary" header. */
+	String HEADER_VARY = "Vary";
+
+	/** The "ETag" header. */
+	String HEADER_ETAG = "ETag";
+
+	/** The "If-None-Match" header. */
+	String HEADER_IF_NONE_MATCH = "If-None-Match";
+
 	/** Header value that indicates a compressed "Content-Encoding". */
 	String CONTENT_ENCODING_GZIP = "gzip";
 
+	/** Header value that indicates a "Content-Encoding" compressed with zlib. */
+	String CONTENT_ENCODING_DEFLATE = "deflate";
+
 	/** The "200 OK" status code. */
 	int STATUS_OK = 200;
 
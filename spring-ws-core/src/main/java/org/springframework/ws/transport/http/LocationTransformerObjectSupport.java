@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.ws.transport.http;
 
 import java.util.List;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
@@ -34,6 +35,11 @@ import org.w3c.dom.Node;
  * Abstract base class for {@link WsdlDefinitionHandlerAdapter} and {@link XsdSchemaHandlerAdapter} that transforms
  * XSD and WSDL location attributes.
  *
+ * <p>If the {@code cacheEnabled} property is set to {@code true}, rendered documents are cached and served with a
+ * strong {@code ETag}, so that clients can revalidate them with {@code If-None-Match}. Since transformed locations
+ * depend on the request, documents are cached per {@linkplain #getOrigin(HttpServletRequest) origin}. The cache
+ * assumes that documents do not change while the application runs; use {@link #clearCache()} otherwise.
+ *
  * @author Arjen Poutsma
  * @since 2.1.2
  */
@@ -42,6 +48,37 @@ public abstract class LocationTransformerObjectSupport extends TransformerObject
 	/** Logger available to subclasses. */
 	private final Log logger = LogFactory.getLog(getClass());
 
+	private final RenderedDocumentCache documentCache = new RenderedDocumentCache();
+
+	private boolean cacheEnabled = false;
+
+	/**
+	 * Sets whether rendered documents are to be cached, and served with an {@code ETag}. Defaults to {@code false}.
+	 */
+	public void setCacheEnabled(boolean cacheEnabled) {
+		this.cacheEnabled = cacheEnabled;
+	}
+
+	/**
+	 * Sets whether a gzipped variant of cached documents is to be kept, and served to clients that accept it. Only
+	 * applies when the cache is enabled. Defaults to {@code false}.
+	 */
+	public void setGzipEnabled(boolean gzipEnabled) {
+		documentCache.setGzipEnabled(gzipEnabled);
+	}
+
+	/**
+	 * Sets the maximum number of documents that are cached. Every handler takes one entry per origin. Defaults to 100.
+	 */
+	public void setMaxCachedDocuments(int maxCachedDocuments) {
+		documentCache.setMaxEntries(maxCachedDocuments);
+	}
+
+	/** Removes all cached documents, for instance because a definition has changed. */
+	public void clearCache() {
+		documentCache.clear();
+	}
+
 	/**
 	 * Transforms the locations of the given definition document using the given XPath expression.
 	 * @param xPathExpression the XPath expression
@@ -108,4 +145,39 @@ public abstract class LocationTransformerObjectSupport extends TransformerObject
 		// unknown location, return the original
 		return location;
 	}
+
+	/**
+	 * Returns the origin of the given request, which identifies the cached document for the request when locations are
+	 * transformed. Should be overridden together with {@link #transformLocation(String, HttpServletRequest)} if that
+	 * method uses other parts of the request.
+	 *
+	 * <p>Default implementation returns the scheme, server name, port, and context path of the request.
+	 */
+	protected String getOrigin(HttpServletRequest request) {
+		return request.getScheme() + "://" + request.getServerName() + ':' + request.getServerPort() +
+				request.getContextPath();
+	}
+
+	boolean isCacheEnabled() {
+		return cacheEnabled;
+	}
+
+	/**
+	 * Writes the cached document for the given handler and origin to the response, rendering it first if it is not
+	 * cached yet.
+	 */
+	void writeCachedDocument(HttpServletRequest request, HttpServletResponse response, Object handler,
+			String origin, String contentType, DocumentRenderer renderer) throws Exception {
+		RenderedDocumentCache.RenderedDocument document = documentCache.get(handler, origin);
+		if (document == null) {
+			document = documentCache.put(handler, origin, renderer.render());
+		}
+		RenderedDocumentCache.write(request, response, document, contentType);
+	}
+
+	/** Renders a document into bytes. */
+	interface DocumentRenderer {
+
+		byte[] render() throws Exception;
+	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.ws.transport.http;
 
 import java.util.Map;
+import java.util.zip.Deflater;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -25,6 +26,8 @@ import org.springframework.beans.factory.BeanInitializationException;
 import org.springframework.beans.factory.BeanNameAware;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.context.ApplicationContext;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.servlet.DispatcherServlet;
 import org.springframework.web.servlet.FrameworkServlet;
@@ -35,6 +38,7 @@ import org.springframework.ws.server.EndpointExceptionResolver;
 import org.springframework.ws.server.EndpointMapping;
 import org.springframework.ws.server.MessageDispatcher;
 import org.springframework.ws.support.DefaultStrategiesHelper;
+import org.springframework.ws.support.VirtualThreadUtils;
 import org.springframework.ws.transport.WebServiceMessageReceiver;
 import org.springframework.ws.wsdl.WsdlDefinition;
 import org.springframework.xml.xsd.XsdSchema;
@@ -54,7 +58,17 @@ import org.springframework.xml.xsd.XsdSchema;
  * exposed as {@code echo.wsdl} in this servlet's context: {@code http://localhost:8080/spring-ws/echo.wsdl}.
  * When the {@code transformWsdlLocations} init-param is set to {@code true} in this servlet's configuration
  * in {@code web.xml}, all {@code location} attributes in the WSDL definitions will reflect the URL of the
- * incoming request.
+ * incoming request. Setting the {@code cacheDefinitions} init-param to {@code true} caches the rendered WSDL
+ * definitions and XSD schemas, and serves them with an {@code ETag}.
+ *
+ * <p>When the {@code asyncDispatch} init-param is set to {@code true}, and the servlet is registered as {@code
+ * async-supported}, Web service requests are handled asynchronously, on a separate thread, which releases the container
+ * thread. Setting the {@code virtualThreads} init-param to {@code true} as well makes these threads virtual ones, on
+ * Java 21 and higher. This is especially useful for endpoints that spend most of their time waiting on other systems.
+ *
+ * <p>Setting the {@code messageTracingBufferSize} init-param traces the bytes actually received and sent, rather than
+ * writing each message a second time, when the {@code org.springframework.ws.server.MessageTracing} logger is at
+ * "trace" level.
  *
  * @author Arjen Poutsma
  * @see org.springframework.web.servlet.DispatcherServlet
@@ -122,6 +136,22 @@ public class MessageDispatcherServlet extends FrameworkServlet {
 
 	private boolean transformSchemaLocations = false;
 
+	private boolean cacheDefinitions = false;
+
+	private boolean decompressRequests = false;
+
+	private boolean compressResponses = false;
+
+	private int responseCompressionThreshold = HttpServletConnection.DEFAULT_RESPONSE_COMPRESSION_THRESHOLD;
+
+	private int responseCompressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+	private boolean asyncDispatch = false;
+
+	private boolean virtualThreads = false;
+
+	private int messageTracingBufferSize = 0;
+
 	/**
 	 * Public constructor, necessary for some Web application servers.
 	 */
@@ -237,6 +267,127 @@ public class MessageDispatcherServlet extends FrameworkServlet {
 		this.transformSchemaLocations = transformSchemaLocations;
 	}
 
+	/** Indicates whether rendered WSDL definitions and XSD schemas are cached, and served with an {@code ETag}. */
+	public boolean isCacheDefinitions() {
+		return cacheDefinitions;
+	}
+
+	/**
+	 * Sets whether rendered WSDL definitions and XSD schemas are cached, and served with an {@code ETag}. When
+	 * {@linkplain #setCompressResponses(boolean) response compression} is enabled as well, a gzipped variant is cached
+	 * too. Defaults to {@code false}.
+	 *
+	 * @see LocationTransformerObjectSupport#setCacheEnabled(boolean)
+	 */
+	public void setCacheDefinitions(boolean cacheDefinitions) {
+		this.cacheDefinitions = cacheDefinitions;
+	}
+
+	/**
+	 * Indicates whether requests with a {@code gzip} or {@code deflate} {@code Content-Encoding} are decompressed
+	 * before they are read.
+	 */
+	public boolean isDecompressRequests() {
+		return decompressRequests;
+	}
+
+	/**
+	 * Sets whether requests with a {@code gzip} or {@code deflate} {@code Content-Encoding} are decompressed before
+	 * they are read. Defaults to {@code false}.
+	 *
+	 * <p>Note that the size of a decompressed request is not limited, so a small compressed request can expand to a
+	 * very large one. Only enable this for trusted clients, or limit the request size elsewhere.
+	 */
+	public void setDecompressRequests(boolean decompressRequests) {
+		this.decompressRequests = decompressRequests;
+	}
+
+	/** Indicates whether responses are compressed for clients that accept a {@code gzip} or {@code deflate} encoding. */
+	public boolean isCompressResponses() {
+		return compressResponses;
+	}
+
+	/**
+	 * Sets whether responses are compressed for clients that accept a {@code gzip} or {@code deflate} encoding.
+	 * Defaults to {@code false}.
+	 *
+	 * @see #setResponseCompressionThreshold(int)
+	 * @see #setResponseCompressionLevel(int)
+	 */
+	public void setCompressResponses(boolean compressResponses) {
+		this.compressResponses = compressResponses;
+	}
+
+	/** Returns the size in bytes above which responses are compressed. */
+	public int getResponseCompressionThreshold() {
+		return responseCompressionThreshold;
+	}
+
+	/**
+	 * Sets the size in bytes above which responses are compressed, if {@linkplain #setCompressResponses(boolean)
+	 * enabled}. Defaults to {@link HttpServletConnection#DEFAULT_RESPONSE_COMPRESSION_THRESHOLD}.
+	 */
+	public void setResponseCompressionThreshold(int responseCompressionThreshold) {
+		this.responseCompressionThreshold = responseCompressionThreshold;
+	}
+
+	/** Returns the compression level used to compress responses. */
+	public int getResponseCompressionLevel() {
+		return responseCompressionLevel;
+	}
+
+	/**
+	 * Sets the compression level used to compress responses, from 0 (no compression) to 9 (best compression). Defaults
+	 * to {@link Deflater#DEFAULT_COMPRESSION}.
+	 */
+	public void setResponseCompressionLevel(int responseCompressionLevel) {
+		this.responseCompressionLevel = responseCompressionLevel;
+	}
+
+	/** Indicates whether Web service requests are handled asynchronously. */
+	public boolean isAsyncDispatch() {
+		return asyncDispatch;
+	}
+
+	/**
+	 * Sets whether Web service requests are handled asynchronously, on a separate thread, if the servlet is registered as
+	 * {@code async-supported}. Defaults to {@code false}.
+	 *
+	 * @see #setVirtualThreads(boolean)
+	 * @see WebServiceMessageReceiverHandlerAdapter#setAsyncExecutor(java.util.concurrent.Executor)
+	 */
+	public void setAsyncDispatch(boolean asyncDispatch) {
+		this.asyncDispatch = asyncDispatch;
+	}
+
+	/** Indicates whether asynchronously handled requests run on virtual threads. */
+	public boolean isVirtualThreads() {
+		return virtualThreads;
+	}
+
+	/**
+	 * Sets whether {@linkplain #setAsyncDispatch(boolean) asynchronously handled} requests run on virtual threads, which
+	 * requires Java 21 or higher. Defaults to {@code false}, which runs every request on a new platform thread.
+	 */
+	public void setVirtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+
+	/** Returns the size of the buffers used for transport-level message tracing. */
+	public int getMessageTracingBufferSize() {
+		return messageTracingBufferSize;
+	}
+
+	/**
+	 * Sets the size of the buffers used for transport-level message tracing. Defaults to {@code 0}, which traces
+	 * messages by writing them a second time.
+	 *
+	 * @see WebServiceMessageReceiverHandlerAdapter#setMessageTracingBufferSize(int)
+	 */
+	public void setMessageTracingBufferSize(int messageTracingBufferSize) {
+		this.messageTracingBufferSize = messageTracingBufferSize;
+	}
+
 	/** Returns the bean name used to lookup a {@link WebServiceMessageReceiverHandlerAdapter}. */
 	public String getMessageReceiverHandlerAdapterBeanName() {
 		return messageReceiverHandlerAdapterBeanName;
@@ -384,6 +535,24 @@ public class MessageDispatcherServlet extends FrameworkServlet {
 			catch (NoSuchBeanDefinitionException ignored) {
 				messageReceiverHandlerAdapter = new WebServiceMessageReceiverHandlerAdapter();
 			}
+			if (isDecompressRequests()) {
+				messageReceiverHandlerAdapter.setDecompressRequests(true);
+			}
+			if (isCompressResponses()) {
+				messageReceiverHandlerAdapter.setCompressResponses(true);
+			}
+			if (getResponseCompressionThreshold() != HttpServletConnection.DEFAULT_RESPONSE_COMPRESSION_THRESHOLD) {
+				messageReceiverHandlerAdapter.setResponseCompressionThreshold(getResponseCompressionThreshold());
+			}
+			if (getResponseCompressionLevel() != Deflater.DEFAULT_COMPRESSION) {
+				messageReceiverHandlerAdapter.setResponseCompressionLevel(getResponseCompressionLevel());
+			}
+			if (isAsyncDispatch()) {
+				messageReceiverHandlerAdapter.setAsyncExecutor(createAsyncExecutor());
+			}
+			if (getMessageTracingBufferSize() > 0) {
+				messageReceiverHandlerAdapter.setMessageTracingBufferSize(getMessageTracingBufferSize());
+			}
 			initWebServiceMessageFactory(context);
 			messageReceiverHandlerAdapter.afterPropertiesSet();
 		}
@@ -392,6 +561,23 @@ public class MessageDispatcherServlet extends FrameworkServlet {
 		}
 	}
 
+	/**
+	 * Creates the executor that handles requests when {@linkplain #setAsyncDispatch(boolean) async dispatch} is enabled.
+	 *
+	 * <p>The default implementation creates a {@link SimpleAsyncTaskExecutor}, which runs each request on a new thread,
+	 * virtual if {@linkplain #setVirtualThreads(boolean) enabled}. Can be overridden in subclasses, for instance to use
+	 * a thread pool.
+	 */
+	protected TaskExecutor createAsyncExecutor() {
+		String threadNamePrefix = getServletName() + "-";
+		if (isVirtualThreads()) {
+			return VirtualThreadUtils.createTaskExecutor(threadNamePrefix);
+		}
+		else {
+			return new SimpleAsyncTaskExecutor(threadNamePrefix);
+		}
+	}
+
 	private void initWebServiceMessageFactory(ApplicationContext context) {
 		WebServiceMessageFactory messageFactory;
 		try {
@@ -419,6 +605,10 @@ public class MessageDispatcherServlet extends FrameworkServlet {
 			}
 			wsdlDefinitionHandlerAdapter.setTransformLocations(isTransformWsdlLocations());
 			wsdlDefinitionHandlerAdapter.setTransformSchemaLocations(isTransformSchemaLocations());
+			if (isCacheDefinitions()) {
+				wsdlDefinitionHandlerAdapter.setCacheEnabled(true);
+				wsdlDefinitionHandlerAdapter.setGzipEnabled(isCompressResponses());
+			}
 			wsdlDefinitionHandlerAdapter.afterPropertiesSet();
 		}
 		catch (Exception ex) {
@@ -437,6 +627,10 @@ public class MessageDispatcherServlet extends FrameworkServlet {
 				xsdSchemaHandlerAdapter = new XsdSchemaHandlerAdapter();
 			}
 			xsdSchemaHandlerAdapter.setTransformSchemaLocations(isTransformSchemaLocations());
+			if (isCacheDefinitions()) {
+				xsdSchemaHandlerAdapter.setCacheEnabled(true);
+				xsdSchemaHandlerAdapter.setGzipEnabled(isCompressResponses());
+			}
 			xsdSchemaHandlerAdapter.afterPropertiesSet();
 		}
 		catch (Exception ex) {
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Cache of rendered WSDL and XSD documents, used by {@link LocationTransformerObjectSupport} subclasses to avoid
+ * transforming the same document over and over again.
+ *
+ * <p>Documents are cached per handler and per origin, since transformed locations depend on the scheme, host, port,
+ * and context path of the request. Each document has a strong ETag based on its content, and optionally a gzipped
+ * variant with an ETag of its own. The cache holds at most {@linkplain #setMaxEntries(int) maxEntries} documents.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+class RenderedDocumentCache {
+
+	/** The default maximum number of entries: 100. */
+	static final int DEFAULT_MAX_ENTRIES = 100;
+
+	private final ConcurrentMap<Key, RenderedDocument> documents = new ConcurrentHashMap<Key, RenderedDocument>();
+
+	private volatile int maxEntries = DEFAULT_MAX_ENTRIES;
+
+	private volatile boolean gzipEnabled = false;
+
+	void setMaxEntries(int maxEntries) {
+		Assert.isTrue(maxEntries > 0, "'maxEntries' must be larger than 0");
+		this.maxEntries = maxEntries;
+	}
+
+	void setGzipEnabled(boolean gzipEnabled) {
+		if (this.gzipEnabled != gzipEnabled) {
+			this.gzipEnabled = gzipEnabled;
+			documents.clear();
+		}
+	}
+
+	/**
+	 * Returns the document rendered for the given handler and origin.
+	 *
+	 * @return the document, or {@code null} if it has not been rendered yet
+	 */
+	RenderedDocument get(Object handler, String origin) {
+		return documents.get(new Key(handler, origin));
+	}
+
+	/**
+	 * Adds the given rendered content for the given handler and origin to this cache.
+	 *
+	 * @return the cached document
+	 */
+	RenderedDocument put(Object handler, String origin, byte[] content) throws IOException {
+		RenderedDocument document = new RenderedDocument(content, gzipEnabled);
+		if (documents.size() >= maxEntries) {
+			for (Iterator<Key> iterator = documents.keySet().iterator();
+					iterator.hasNext() && documents.size() >= maxEntries; ) {
+				iterator.next();
+				iterator.remove();
+			}
+		}
+		documents.put(new Key(handler, origin), document);
+		return document;
+	}
+
+	void clear() {
+		documents.clear();
+	}
+
+	int size() {
+		return documents.size();
+	}
+
+	/**
+	 * Writes the given document to the response. Responds with {@code 304 Not Modified} if the request contains a
+	 * matching {@code If-None-Match} header, and with the gzipped variant if there is one and the client accepts it.
+	 */
+	static void write(HttpServletRequest request, HttpServletResponse response, RenderedDocument document,
+			String contentType) throws IOException {
+		boolean gzip = document.gzippedContent != null && acceptsGzip(request);
+		String etag = gzip ? document.gzippedEtag : document.etag;
+		if (document.gzippedContent != null) {
+			response.setHeader(HttpTransportConstants.HEADER_VARY,
+					HttpTransportConstants.HEADER_ACCEPT_ENCODING);
+		}
+		response.setHeader(HttpTransportConstants.HEADER_ETAG, etag);
+		if (matchesIfNoneMatch(request, etag)) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+		byte[] content = gzip ? document.gzippedContent : document.content;
+		response.setContentType(contentType);
+		if (gzip) {
+			response.setHeader(HttpTransportConstants.HEADER_CONTENT_ENCODING,
+					HttpTransportConstants.CONTENT_ENCODING_GZIP);
+		}
+		response.setContentLength(content.length);
+		response.getOutputStream().write(content);
+	}
+
+	private static boolean acceptsGzip(HttpServletRequest request) {
+		return HttpTransportConstants.CONTENT_ENCODING_GZIP.equals(
+				HttpServletConnection.getAcceptedContentEncoding(request));
+	}
+
+	private static boolean matchesIfNoneMatch(HttpServletRequest request, String etag) {
+		String ifNoneMatch = request.getHeader(HttpTransportConstants.HEADER_IF_NONE_MATCH);
+		if (!StringUtils.hasLength(ifNoneMatch)) {
+			return false;
+		}
+		for (String candidate : StringUtils.commaDelimitedListToStringArray(ifNoneMatch)) {
+			candidate = candidate.trim();
+			// If-None-Match uses the weak comparison function
+			if (candidate.startsWith("W/")) {
+				candidate = candidate.substring(2);
+			}
+			if ("*".equals(candidate) || etag.equals(candidate)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/** A rendered document, together with its ETag and optional gzipped variant. */
+	static final class RenderedDocument {
+
+		private final byte[] content;
+
+		private final String etag;
+
+		private final byte[] gzippedContent;
+
+		private final String gzippedEtag;
+
+		private RenderedDocument(byte[] content, boolean gzip) throws IOException {
+			this.content = content;
+			String digest = DigestUtils.md5DigestAsHex(content);
+			this.etag = "\"" + digest + "\"";
+			if (gzip) {
+				ByteArrayOutputStream os = new ByteArrayOutputStream(content.length / 4 + 16);
+				GZIPOutputStream gzipOs = new GZIPOutputStream(os);
+				gzipOs.write(content);
+				gzipOs.close();
+				this.gzippedContent = os.toByteArray();
+				this.gzippedEtag = "\"" + digest + "-gzip\"";
+			}
+			else {
+				this.gzippedContent = null;
+				this.gzippedEtag = null;
+			}
+		}
+
+		byte[] getContent() {
+			return content;
+		}
+
+		String getEtag() {
+			return etag;
+		}
+	}
+
+	private static final class Key {
+
+		private final Object handler;
+
+		private final String origin;
+
+		private Key(Object handler, String origin) {
+			this.handler = handler;
+			this.origin = origin;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof Key)) {
+				return false;
+			}
+			Key otherKey = (Key) other;
+			return handler == otherKey.handler && origin.equals(otherKey.origin);
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(handler) * 31 + origin.hashCode();
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,13 +16,16 @@
 
 package org.springframework.ws.transport.http;
 
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
+import javax.servlet.AsyncContext;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.util.Assert;
 import org.springframework.web.servlet.HandlerAdapter;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.ws.InvalidXmlException;
-import org.springframework.ws.transport.WebServiceConnection;
 import org.springframework.ws.transport.WebServiceMessageReceiver;
 import org.springframework.ws.transport.support.WebServiceMessageReceiverObjectSupport;
 
@@ -36,6 +39,11 @@ import org.springframework.ws.transport.support.WebServiceMessageReceiverObjectS
  * <p>Note that the {@code MessageDispatcher} implements the {@code WebServiceMessageReceiver} interface,
  * enabling this adapter to function as a gateway to further message handling logic.
  *
+ * <p>When an {@linkplain #setAsyncExecutor(Executor) async executor} is set, and the request supports asynchronous
+ * processing, the request is handled by that executor rather than by the container thread, which is returned to the
+ * container right away. This is useful when the executor creates {@linkplain
+ * org.springframework.ws.support.VirtualThreadUtils virtual threads}, and the endpoints mostly wait on I/O.
+ *
  * @author Arjen Poutsma
  * @see #setMessageFactory(org.springframework.ws.WebServiceMessageFactory)
  * @see org.springframework.ws.transport.WebServiceMessageReceiver
@@ -46,6 +54,68 @@ import org.springframework.ws.transport.support.WebServiceMessageReceiverObjectS
 public class WebServiceMessageReceiverHandlerAdapter extends WebServiceMessageReceiverObjectSupport
 		implements HandlerAdapter {
 
+	private boolean decompressRequests = false;
+
+	private boolean compressResponses = false;
+
+	private int responseCompressionThreshold = HttpServletConnection.DEFAULT_RESPONSE_COMPRESSION_THRESHOLD;
+
+	private int responseCompressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+	private Executor asyncExecutor;
+
+	/**
+	 * Sets whether requests with a {@code gzip} or {@code deflate} {@code Content-Encoding} are decompressed before
+	 * they are read. Defaults to {@code false}.
+	 *
+	 * <p>Note that the size of a decompressed request is not limited, so a small compressed request can expand to a
+	 * very large one. Only enable this for trusted clients, or limit the request size elsewhere.
+	 */
+	public void setDecompressRequests(boolean decompressRequests) {
+		this.decompressRequests = decompressRequests;
+	}
+
+	/**
+	 * Sets whether responses are compressed for clients that accept a {@code gzip} or {@code deflate} encoding.
+	 * Defaults to {@code false}.
+	 *
+	 * @see #setResponseCompressionThreshold(int)
+	 * @see #setResponseCompressionLevel(int)
+	 */
+	public void setCompressResponses(boolean compressResponses) {
+		this.compressResponses = compressResponses;
+	}
+
+	/**
+	 * Sets the size in bytes above which responses are compressed. Smaller responses are sent as is, as compressing
+	 * them saves little. Defaults to {@link HttpServletConnection#DEFAULT_RESPONSE_COMPRESSION_THRESHOLD}.
+	 */
+	public void setResponseCompressionThreshold(int responseCompressionThreshold) {
+		Assert.isTrue(responseCompressionThreshold >= 0, "'responseCompressionThreshold' must not be negative");
+		this.responseCompressionThreshold = responseCompressionThreshold;
+	}
+
+	/**
+	 * Sets the compression level used to compress responses, from 0 (no compression) to 9 (best compression). Defaults
+	 * to {@link Deflater#DEFAULT_COMPRESSION}.
+	 */
+	public void setResponseCompressionLevel(int responseCompressionLevel) {
+		this.responseCompressionLevel = responseCompressionLevel;
+	}
+
+	/**
+	 * Sets the executor used to handle requests asynchronously, using a Servlet 3.0 {@link AsyncContext}. Requests are
+	 * handled on the calling thread if not set (the default), or if the request does not support asynchronous
+	 * processing, for instance because the servlet is not registered as {@code async-supported}.
+	 *
+	 * <p>Asynchronously handled requests do not time out, just like requests handled on the container thread.
+	 *
+	 * @see org.springframework.ws.support.VirtualThreadUtils#createTaskExecutor(String)
+	 */
+	public void setAsyncExecutor(Executor asyncExecutor) {
+		this.asyncExecutor = asyncExecutor;
+	}
+
 	@Override
 	public long getLastModified(HttpServletRequest request, Object handler) {
 		return -1L;
@@ -56,7 +126,11 @@ public class WebServiceMessageReceiverHandlerAdapter extends WebServiceMessageRe
 							   HttpServletResponse httpServletResponse,
 							   Object handler) throws Exception {
 		if (HttpTransportConstants.METHOD_POST.equals(httpServletRequest.getMethod())) {
-			WebServiceConnection connection = new HttpServletConnection(httpServletRequest, httpServletResponse);
+			if (asyncExecutor != null && httpServletRequest.isAsyncSupported()) {
+				handleAsync(httpServletRequest, httpServletResponse, (WebServiceMessageReceiver) handler);
+				return null;
+			}
+			HttpServletConnection connection = createConnection(httpServletRequest, httpServletResponse);
 			try {
 				handleConnection(connection, (WebServiceMessageReceiver) handler);
 			}
@@ -70,6 +144,53 @@ public class WebServiceMessageReceiverHandlerAdapter extends WebServiceMessageRe
 		return null;
 	}
 
+	private HttpServletConnection createConnection(HttpServletRequest httpServletRequest,
+			HttpServletResponse httpServletResponse) {
+		HttpServletConnection connection = new HttpServletConnection(httpServletRequest, httpServletResponse);
+		connection.setDecompressRequest(decompressRequests);
+		connection.setCompressResponse(compressResponses);
+		connection.setResponseCompressionThreshold(responseCompressionThreshold);
+		connection.setResponseCompressionLevel(responseCompressionLevel);
+		return connection;
+	}
+
+	private void handleAsync(final HttpServletRequest httpServletRequest,
+							 final HttpServletResponse httpServletResponse,
+							 final WebServiceMessageReceiver receiver) {
+		final AsyncContext asyncContext = httpServletRequest.startAsync(httpServletRequest, httpServletResponse);
+		asyncContext.setTimeout(0);
+		try {
+			asyncExecutor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						HttpServletConnection connection = createConnection(httpServletRequest, httpServletResponse);
+						try {
+							handleConnection(connection, receiver);
+						}
+						catch (InvalidXmlException ex) {
+							handleInvalidXmlException(httpServletRequest, httpServletResponse, receiver, ex);
+						}
+					}
+					catch (Exception ex) {
+						logger.error("Could not handle request asynchronously", ex);
+						if (!httpServletResponse.isCommitted()) {
+							httpServletResponse.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+						}
+					}
+					finally {
+						asyncContext.complete();
+					}
+				}
+			});
+		}
+		catch (RuntimeException ex) {
+			asyncContext.complete();
+			throw ex;
+		}
+	}
+
 	@Override
 	public boolean supports(Object handler) {
 		return handler instanceof WebServiceMessageReceiver;
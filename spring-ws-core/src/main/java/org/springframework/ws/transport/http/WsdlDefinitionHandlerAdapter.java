@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,10 +16,12 @@
 
 package org.springframework.ws.transport.http;
 
+import java.io.ByteArrayOutputStream;
 import java.util.HashMap;
 import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.xml.transform.Result;
 import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.dom.DOMResult;
@@ -59,10 +61,14 @@ import org.springframework.xml.xpath.XPathExpressionFactory;
  * are changed by default. This behavior can be customized by changing the {@code locationExpression} property,
  * which is an XPath expression that matches the attributes to change.
  *
+ * <p>If the property {@code cacheEnabled} is set to {@code true}, the rendered definition is cached per origin, and
+ * served with an {@code ETag}.
+ *
  * @author Arjen Poutsma
  * @see WsdlDefinition
  * @see #setTransformLocations(boolean)
  * @see #setLocationExpression(String)
+ * @see #setCacheEnabled(boolean)
  * @see #transformLocation(String,javax.servlet.http.HttpServletRequest)
  * @since 1.0.0
  */
@@ -131,30 +137,27 @@ public class WsdlDefinitionHandlerAdapter extends LocationTransformerObjectSuppo
 	}
 
 	@Override
-	public ModelAndView handle(HttpServletRequest request, HttpServletResponse response, Object handler)
+	public ModelAndView handle(final HttpServletRequest request, HttpServletResponse response, Object handler)
 			throws Exception {
 		if (HttpTransportConstants.METHOD_GET.equals(request.getMethod())) {
-			WsdlDefinition definition = (WsdlDefinition) handler;
-
-			Transformer transformer = createTransformer();
-			Source definitionSource = definition.getSource();
-
-			if (transformLocations || transformSchemaLocations) {
-				DOMResult domResult = new DOMResult();
-				transformer.transform(definitionSource, domResult);
-				Document definitionDocument = (Document) domResult.getNode();
-				if (transformLocations) {
-					transformLocations(definitionDocument, request);
-				}
-				if (transformSchemaLocations) {
-					transformSchemaLocations(definitionDocument, request);
-				}
-				definitionSource = new DOMSource(definitionDocument);
+			final WsdlDefinition definition = (WsdlDefinition) handler;
+
+			if (isCacheEnabled()) {
+				String origin = transformLocations || transformSchemaLocations ? getOrigin(request) : "";
+				writeCachedDocument(request, response, definition, origin, CONTENT_TYPE, new DocumentRenderer() {
+
+					@Override
+					public byte[] render() throws Exception {
+						ByteArrayOutputStream os = new ByteArrayOutputStream();
+						renderDefinition(definition, request, new StreamResult(os));
+						return os.toByteArray();
+					}
+				});
+			}
+			else {
+				response.setContentType(CONTENT_TYPE);
+				renderDefinition(definition, request, new StreamResult(response.getOutputStream()));
 			}
-
-			response.setContentType(CONTENT_TYPE);
-			StreamResult responseResult = new StreamResult(response.getOutputStream());
-			transformer.transform(definitionSource, responseResult);
 		}
 		else {
 			response.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
@@ -162,6 +165,27 @@ public class WsdlDefinitionHandlerAdapter extends LocationTransformerObjectSuppo
 		return null;
 	}
 
+	private void renderDefinition(WsdlDefinition definition, HttpServletRequest request, Result result)
+			throws Exception {
+		Transformer transformer = createTransformer();
+		Source definitionSource = definition.getSource();
+
+		if (transformLocations || transformSchemaLocations) {
+			DOMResult domResult = new DOMResult();
+			transformer.transform(definitionSource, domResult);
+			Document definitionDocument = (Document) domResult.getNode();
+			if (transformLocations) {
+				transformLocations(definitionDocument, request);
+			}
+			if (transformSchemaLocations) {
+				transformSchemaLocations(definitionDocument, request);
+			}
+			definitionSource = new DOMSource(definitionDocument);
+		}
+
+		transformer.transform(definitionSource, result);
+	}
+
 	@Override
 	public boolean supports(Object handler) {
 		return handler instanceof WsdlDefinition;
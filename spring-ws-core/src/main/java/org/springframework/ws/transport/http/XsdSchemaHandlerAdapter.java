@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,10 +16,12 @@
 
 package org.springframework.ws.transport.http;
 
+import java.io.ByteArrayOutputStream;
 import java.util.HashMap;
 import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.xml.transform.Result;
 import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.dom.DOMResult;
@@ -41,6 +43,9 @@ import org.springframework.xml.xsd.XsdSchema;
  * <p>Reads the source from the mapped {@link XsdSchema} implementation, and writes that as the result to the
  * {@code HttpServletResponse}. Allows for post-processing the schema in subclasses.
  *
+ * <p>If the property {@code cacheEnabled} is set to {@code true}, the rendered schema is cached per origin, and served
+ * with an {@code ETag}.
+ *
  * @author Arjen Poutsma
  * @see XsdSchema
  * @see #getSchemaSource(XsdSchema)
@@ -88,23 +93,27 @@ public class XsdSchemaHandlerAdapter extends LocationTransformerObjectSupport
 	}
 
 	@Override
-	public ModelAndView handle(HttpServletRequest request, HttpServletResponse response, Object handler)
+	public ModelAndView handle(final HttpServletRequest request, HttpServletResponse response, Object handler)
 			throws Exception {
 		if (HttpTransportConstants.METHOD_GET.equals(request.getMethod())) {
-			Transformer transformer = createTransformer();
-			Source schemaSource = getSchemaSource((XsdSchema) handler);
-
-			if (transformSchemaLocations) {
-				DOMResult domResult = new DOMResult();
-				transformer.transform(schemaSource, domResult);
-				Document schemaDocument = (Document) domResult.getNode();
-				transformSchemaLocations(schemaDocument, request);
-				schemaSource = new DOMSource(schemaDocument);
+			final XsdSchema schema = (XsdSchema) handler;
+
+			if (isCacheEnabled()) {
+				String origin = transformSchemaLocations ? getOrigin(request) : "";
+				writeCachedDocument(request, response, schema, origin, CONTENT_TYPE, new DocumentRenderer() {
+
+					@Override
+					public byte[] render() throws Exception {
+						ByteArrayOutputStream os = new ByteArrayOutputStream();
+						renderSchema(schema, request, new StreamResult(os));
+						return os.toByteArray();
+					}
+				});
+			}
+			else {
+				response.setContentType(CONTENT_TYPE);
+				renderSchema(schema, request, new StreamResult(response.getOutputStream()));
 			}
-
-			response.setContentType(CONTENT_TYPE);
-			StreamResult responseResult = new StreamResult(response.getOutputStream());
-			transformer.transform(schemaSource, responseResult);
 		}
 		else {
 			response.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
@@ -112,6 +121,21 @@ public class XsdSchemaHandlerAdapter extends LocationTransformerObjectSupport
 		return null;
 	}
 
+	private void renderSchema(XsdSchema schema, HttpServletRequest request, Result result) throws Exception {
+		Transformer transformer = createTransformer();
+		Source schemaSource = getSchemaSource(schema);
+
+		if (transformSchemaLocations) {
+			DOMResult domResult = new DOMResult();
+			transformer.transform(schemaSource, domResult);
+			Document schemaDocument = (Document) domResult.getNode();
+			transformSchemaLocations(schemaDocument, request);
+			schemaSource = new DOMSource(schemaDocument);
+		}
+
+		transformer.transform(schemaSource, result);
+	}
+
 	@Override
 	public boolean supports(Object handler) {
 		return handler instanceof XsdSchema;
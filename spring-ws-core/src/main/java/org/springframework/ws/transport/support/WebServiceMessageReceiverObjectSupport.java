@@ -29,6 +29,7 @@ import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.WebServiceMessageFactory;
 import org.springframework.ws.context.DefaultMessageContext;
 import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.transport.AbstractWebServiceConnection;
 import org.springframework.ws.transport.EndpointAwareWebServiceConnection;
 import org.springframework.ws.transport.FaultAwareWebServiceConnection;
 import org.springframework.ws.transport.WebServiceConnection;
@@ -47,11 +48,24 @@ import org.springframework.ws.transport.context.TransportContextHolder;
  */
 public abstract class WebServiceMessageReceiverObjectSupport implements InitializingBean {
 
+	/**
+	 * Log category used for transport-level message tracing; the same category as used by {@link
+	 * org.springframework.ws.server.MessageDispatcher}.
+	 */
+	private static final String MESSAGE_TRACING_LOG_CATEGORY = "org.springframework.ws.server.MessageTracing";
+
+	private static final Log sentMessageTracingLogger = LogFactory.getLog(MESSAGE_TRACING_LOG_CATEGORY + ".sent");
+
+	private static final Log receivedMessageTracingLogger =
+			LogFactory.getLog(MESSAGE_TRACING_LOG_CATEGORY + ".received");
+
 	/** Logger available to subclasses. */
 	protected final Log logger = LogFactory.getLog(getClass());
 
 	private WebServiceMessageFactory messageFactory;
 
+	private int messageTracingBufferSize = 0;
+
 	/** Returns the {@code WebServiceMessageFactory}. */
 	public WebServiceMessageFactory getMessageFactory() {
 		return messageFactory;
@@ -62,6 +76,21 @@ public abstract class WebServiceMessageReceiverObjectSupport implements Initiali
 		this.messageFactory = messageFactory;
 	}
 
+	/**
+	 * Sets the size of the buffers used for transport-level message tracing. When larger than 0, and the message
+	 * tracing logger is at "trace" level, the traced messages are the bytes actually received and sent over the
+	 * {@linkplain AbstractWebServiceConnection connection}, limited to the last {@code messageTracingBufferSize} bytes,
+	 * rather than a copy obtained by writing each message a second time. The traced bytes are also logged when handling
+	 * the connection fails.
+	 *
+	 * <p>Default is {@code 0}: messages are traced by the {@link org.springframework.ws.server.MessageDispatcher}.
+	 *
+	 * @see AbstractWebServiceConnection#setTraceBufferSize(int)
+	 */
+	public void setMessageTracingBufferSize(int messageTracingBufferSize) {
+		this.messageTracingBufferSize = messageTracingBufferSize;
+	}
+
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		Assert.notNull(messageFactory, "messageFactory is required");
@@ -82,11 +111,16 @@ public abstract class WebServiceMessageReceiverObjectSupport implements Initiali
 		logUri(connection);
 		TransportContext previousTransportContext = TransportContextHolder.getTransportContext();
 		TransportContextHolder.setTransportContext(new DefaultTransportContext(connection));
+		AbstractWebServiceConnection tracingConnection = enableTransportTracing(connection);
 
 		try {
 			WebServiceMessage request = connection.receive(getMessageFactory());
 			MessageContext messageContext = new DefaultMessageContext(request, getMessageFactory());
 			receiver.receive(messageContext);
+			// the request might be read lazily, so it has only been received completely after it has been handled
+			if (tracingConnection != null && receivedMessageTracingLogger.isTraceEnabled()) {
+				receivedMessageTracingLogger.trace("Received request [" + tracingConnection.getReceivedTrace() + "]");
+			}
 			if (messageContext.hasResponse()) {
 				WebServiceMessage response = messageContext.getResponse();
 				if (response instanceof FaultAwareWebServiceMessage &&
@@ -96,11 +130,23 @@ public abstract class WebServiceMessageReceiverObjectSupport implements Initiali
 					faultConnection.setFaultCode(faultResponse.getFaultCode());
 				}
 				connection.send(messageContext.getResponse());
+				if (tracingConnection != null && sentMessageTracingLogger.isTraceEnabled()) {
+					sentMessageTracingLogger.trace("Sent response [" + tracingConnection.getSentTrace() +
+							"] for request [" + tracingConnection.getReceivedTrace() + "]");
+				}
 			}
 		}
 		catch (NoEndpointFoundException ex) {
 			handleNoEndpointFoundException(ex, connection, receiver);
 		}
+		catch (Exception ex) {
+			if (tracingConnection != null && receivedMessageTracingLogger.isTraceEnabled()) {
+				receivedMessageTracingLogger.trace("Failed with received bytes [" +
+						tracingConnection.getReceivedTrace() + "] and sent bytes [" + tracingConnection.getSentTrace() +
+						"]");
+			}
+			throw ex;
+		}
 		finally {
 			TransportUtils.closeConnection(connection);
 			TransportContextHolder.setTransportContext(previousTransportContext);
@@ -127,6 +173,21 @@ public abstract class WebServiceMessageReceiverObjectSupport implements Initiali
 		}
 	}
 
+	/**
+	 * Enables transport-level tracing on the given connection, if a {@linkplain #setMessageTracingBufferSize(int)
+	 * buffer size} has been set and a message tracing logger is at "trace" level. Returns the connection if tracing
+	 * was enabled, or {@code null} otherwise.
+	 */
+	private AbstractWebServiceConnection enableTransportTracing(WebServiceConnection connection) {
+		if (messageTracingBufferSize > 0 && connection instanceof AbstractWebServiceConnection &&
+				(sentMessageTracingLogger.isTraceEnabled() || receivedMessageTracingLogger.isTraceEnabled())) {
+			AbstractWebServiceConnection tracingConnection = (AbstractWebServiceConnection) connection;
+			tracingConnection.setTraceBufferSize(messageTracingBufferSize);
+			return tracingConnection;
+		}
+		return null;
+	}
+
 	private void logUri(WebServiceConnection connection) {
 		if (logger.isDebugEnabled()) {
 			try {
@@ -152,6 +152,7 @@ public class MockWebServiceMessage implements FaultAwareWebServiceMessage {
 		if (content != null) {
 			PrintWriter writer = new PrintWriter(outputStream);
 			writer.write(content.toString());
+			writer.flush();
 		}
 	}
 
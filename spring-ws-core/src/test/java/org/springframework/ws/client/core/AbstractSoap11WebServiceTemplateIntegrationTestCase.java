@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,8 @@ import java.io.IOException;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import javax.activation.DataHandler;
 import javax.mail.util.ByteArrayDataSource;
 import javax.servlet.ServletConfig;
@@ -57,11 +59,13 @@ import org.springframework.oxm.Marshaller;
 import org.springframework.oxm.Unmarshaller;
 import org.springframework.oxm.XmlMappingException;
 import org.springframework.util.StringUtils;
+import org.springframework.util.concurrent.ListenableFuture;
 import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.client.WebServiceTransportException;
 import org.springframework.ws.soap.SoapMessage;
 import org.springframework.ws.soap.SoapMessageFactory;
 import org.springframework.ws.soap.client.SoapFaultClientException;
+import org.springframework.ws.transport.http.AsyncClientHttpRequestMessageSender;
 import org.springframework.ws.transport.http.HttpComponentsMessageSender;
 import org.springframework.ws.transport.support.FreePortScanner;
 import org.springframework.xml.transform.StringResult;
@@ -224,6 +228,59 @@ public abstract class AbstractSoap11WebServiceTemplateIntegrationTestCase {
 		}
 	}
 
+	@Test
+	public void sendAndReceiveAsync() throws Exception {
+		template.setMessageSender(new AsyncClientHttpRequestMessageSender());
+		final StringResult result = new StringResult();
+		ListenableFuture<Boolean> future = template.sendAndReceiveAsync(baseUrl + "/soap/echo",
+				new WebServiceMessageCallback() {
+
+					@Override
+					public void doWithMessage(WebServiceMessage message) throws IOException, TransformerException {
+						TransformerFactory.newInstance().newTransformer()
+								.transform(new StringSource(messagePayload), message.getPayloadResult());
+					}
+				}, new WebServiceMessageExtractor<Boolean>() {
+
+					@Override
+					public Boolean extractData(WebServiceMessage message) throws IOException, TransformerException {
+						TransformerFactory.newInstance().newTransformer()
+								.transform(message.getPayloadSource(), result);
+						return Boolean.TRUE;
+					}
+				});
+		Assert.assertTrue("Invalid result", future.get(10, TimeUnit.SECONDS));
+		assertXMLEqual(messagePayload, result.toString());
+	}
+
+	@Test
+	public void faultAsync() throws Exception {
+		template.setMessageSender(new AsyncClientHttpRequestMessageSender());
+		ListenableFuture<Object> future = template.sendAndReceiveAsync(baseUrl + "/soap/fault",
+				new WebServiceMessageCallback() {
+
+					@Override
+					public void doWithMessage(WebServiceMessage message) throws IOException, TransformerException {
+						TransformerFactory.newInstance().newTransformer()
+								.transform(new StringSource(messagePayload), message.getPayloadResult());
+					}
+				}, new WebServiceMessageExtractor<Object>() {
+
+					@Override
+					public Object extractData(WebServiceMessage message) {
+						Assert.fail("Fault expected");
+						return null;
+					}
+				});
+		try {
+			future.get(10, TimeUnit.SECONDS);
+			Assert.fail("ExecutionException expected");
+		}
+		catch (ExecutionException ex) {
+			Assert.assertTrue("SoapFaultClientException expected", ex.getCause() instanceof SoapFaultClientException);
+		}
+	}
+
 	@Test
 	public void faultNonCompliant() {
 		Result result = new StringResult();
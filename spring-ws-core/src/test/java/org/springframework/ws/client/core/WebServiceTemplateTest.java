@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,9 +18,17 @@ package org.springframework.ws.client.core;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
 
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
 import static org.easymock.EasyMock.*;
 import static org.junit.Assert.*;
 import org.junit.Before;
@@ -28,15 +36,21 @@ import org.junit.Test;
 
 import org.springframework.oxm.Marshaller;
 import org.springframework.oxm.Unmarshaller;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureTask;
 import org.springframework.ws.MockWebServiceMessage;
 import org.springframework.ws.MockWebServiceMessageFactory;
 import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.client.WebServiceIOException;
 import org.springframework.ws.client.WebServiceTransportException;
 import org.springframework.ws.client.support.destination.DestinationProvider;
 import org.springframework.ws.client.support.interceptor.ClientInterceptor;
 import org.springframework.ws.context.DefaultMessageContext;
 import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.transport.AsyncWebServiceMessageSender;
 import org.springframework.ws.transport.FaultAwareWebServiceConnection;
+import org.springframework.ws.transport.MockWebServiceConnection;
 import org.springframework.ws.transport.WebServiceConnection;
 import org.springframework.ws.transport.WebServiceMessageSender;
 import org.springframework.xml.transform.StringResult;
@@ -459,6 +473,135 @@ public class WebServiceTemplateTest {
 		verify(connectionMock, interceptorMock1, interceptorMock2, requestCallback, extractorMock);
 	}
 
+	@Test
+	public void testSendAndReceiveAsync() throws Exception {
+		ClientInterceptor interceptorMock = createStrictMock(ClientInterceptor.class);
+		template.setInterceptors(new ClientInterceptor[]{interceptorMock});
+		expect(interceptorMock.handleRequest(isA(MessageContext.class))).andReturn(true);
+		expect(interceptorMock.handleResponse(isA(MessageContext.class))).andReturn(true);
+		interceptorMock.afterCompletion(isA(MessageContext.class), (Exception)isNull());
+
+		WebServiceMessageExtractor extractorMock = createMock(WebServiceMessageExtractor.class);
+		Object extracted = new Object();
+		expect(extractorMock.extractData(isA(WebServiceMessage.class))).andReturn(extracted);
+
+		expect(connectionMock.hasError()).andReturn(false);
+		expect(connectionMock.receive(messageFactory)).andReturn(new MockWebServiceMessage("<response/>"));
+		expect(connectionMock.hasFault()).andReturn(false);
+		connectionMock.close();
+
+		ListenableFutureTask<WebServiceConnection> connectionFuture =
+				new ListenableFutureTask<WebServiceConnection>(new Callable<WebServiceConnection>() {
+
+					@Override
+					public WebServiceConnection call() throws Exception {
+						return connectionMock;
+					}
+				});
+		template.setMessageSender(new StubAsyncMessageSender(connectionFuture));
+
+		replay(connectionMock, interceptorMock, extractorMock);
+
+		ListenableFuture<Object> result = template.sendAndReceiveAsync(null, extractorMock);
+		assertFalse("Response handled before it was received", result.isDone());
+		connectionFuture.run();
+		assertTrue("Response not handled", result.isDone());
+		assertEquals("Invalid response", extracted, result.get());
+
+		verify(connectionMock, interceptorMock, extractorMock);
+	}
+
+	@Test
+	public void testSendAndReceiveAsyncFailure() throws Exception {
+		ClientInterceptor interceptorMock = createStrictMock(ClientInterceptor.class);
+		template.setInterceptors(new ClientInterceptor[]{interceptorMock});
+		expect(interceptorMock.handleRequest(isA(MessageContext.class))).andReturn(true);
+		interceptorMock.afterCompletion(isA(MessageContext.class), isA(IOException.class));
+
+		WebServiceMessageExtractor extractorMock = createMock(WebServiceMessageExtractor.class);
+
+		ListenableFutureTask<WebServiceConnection> connectionFuture =
+				new ListenableFutureTask<WebServiceConnection>(new Callable<WebServiceConnection>() {
+
+					@Override
+					public WebServiceConnection call() throws Exception {
+						throw new IOException("Connection refused");
+					}
+				});
+		template.setMessageSender(new StubAsyncMessageSender(connectionFuture));
+
+		replay(connectionMock, interceptorMock, extractorMock);
+
+		ListenableFuture<Object> result = template.sendAndReceiveAsync(null, extractorMock);
+		connectionFuture.run();
+		try {
+			result.get();
+			fail("ExecutionException expected");
+		}
+		catch (ExecutionException ex) {
+			assertTrue("WebServiceIOException expected", ex.getCause() instanceof WebServiceIOException);
+		}
+
+		verify(connectionMock, interceptorMock, extractorMock);
+	}
+
+	@Test
+	public void testSendAndReceiveTransportTracing() throws Exception {
+		final MockWebServiceConnection.LazyMessageFactory lazyMessageFactory =
+				new MockWebServiceConnection.LazyMessageFactory();
+		template.setMessageFactory(lazyMessageFactory);
+		template.setMessageTracingBufferSize(1024);
+		final MockWebServiceConnection connection = new MockWebServiceConnection("<response/>".getBytes("UTF-8"));
+		template.setMessageSender(new WebServiceMessageSender() {
+
+			@Override
+			public WebServiceConnection createConnection(URI uri) throws IOException {
+				return connection;
+			}
+
+			@Override
+			public boolean supports(URI uri) {
+				return true;
+			}
+		});
+
+		Logger tracingLogger = Logger.getLogger("org.springframework.ws.client.MessageTracing");
+		Level level = tracingLogger.getLevel();
+		RecordingAppender appender = new RecordingAppender();
+		tracingLogger.addAppender(appender);
+		tracingLogger.setLevel(Level.TRACE);
+		String result;
+		try {
+			result = template.sendAndReceive(new WebServiceMessageCallback() {
+
+				public void doWithMessage(WebServiceMessage message) throws IOException {
+					((MockWebServiceMessage) message).setPayload("<request/>");
+				}
+			}, new WebServiceMessageExtractor<String>() {
+
+				public String extractData(WebServiceMessage message) throws IOException {
+					// read the response while extracting it, like a streaming message
+					return new String(FileCopyUtils.copyToByteArray(lazyMessageFactory.getInputStream()), "UTF-8");
+				}
+			});
+		}
+		finally {
+			tracingLogger.removeAppender(appender);
+			tracingLogger.setLevel(level);
+		}
+
+		assertEquals("Invalid result", "<response/>", result);
+		assertEquals("Invalid amount of messages traced", 2, appender.messages.size());
+		assertEquals("Invalid sent trace", "Sent request [<request/>]", appender.messages.get(0));
+		assertEquals("Invalid received trace", "Received response [<response/>] for request [<request/>]",
+				appender.messages.get(1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSendAndReceiveAsyncNoAsyncMessageSender() throws Exception {
+		template.sendAndReceiveAsync(null, createMock(WebServiceMessageExtractor.class));
+	}
+
 	@Test
 	public void testDestinationResolver() throws Exception {
 		DestinationProvider providerMock = createMock(DestinationProvider.class);
@@ -497,5 +640,47 @@ public class WebServiceTemplateTest {
 		verify(connectionMock, extractorMock, providerMock);
 	}
 
+	private static class StubAsyncMessageSender implements AsyncWebServiceMessageSender {
 
+		private final ListenableFuture<WebServiceConnection> connectionFuture;
+
+		private StubAsyncMessageSender(ListenableFuture<WebServiceConnection> connectionFuture) {
+			this.connectionFuture = connectionFuture;
+		}
+
+		@Override
+		public ListenableFuture<WebServiceConnection> sendAsync(URI uri, WebServiceMessage message) {
+			return connectionFuture;
+		}
+
+		@Override
+		public WebServiceConnection createConnection(URI uri) throws IOException {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean supports(URI uri) {
+			return true;
+		}
+	}
+
+
+	private static class RecordingAppender extends AppenderSkeleton {
+
+		private final List<String> messages = new CopyOnWriteArrayList<String>();
+
+		@Override
+		protected void append(LoggingEvent loggingEvent) {
+			messages.add(loggingEvent.getRenderedMessage());
+		}
+
+		@Override
+		public boolean requiresLayout() {
+			return false;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
 }
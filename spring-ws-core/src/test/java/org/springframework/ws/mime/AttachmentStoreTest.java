@@ -0,0 +1,186 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.mime;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.util.FileCopyUtils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AttachmentStoreTest {
+
+	@Rule
+	public TemporaryFolder spillDirectory = new TemporaryFolder();
+
+	private AttachmentStore store;
+
+	@Before
+	public void setUp() throws Exception {
+		store = new AttachmentStore();
+		store.setSpillDirectory(spillDirectory.getRoot());
+		store.setSpillThreshold(100);
+		store.setMemoryBudget(150);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		store.destroy();
+	}
+
+	@Test
+	public void inMemory() throws Exception {
+		byte[] content = createContent(100);
+		StoredDataSource dataSource = store.store(new ByteArrayInputStream(content), "text/plain");
+		assertFalse("Content spilled", dataSource.isSpilled());
+		assertEquals("Invalid size", 100, dataSource.getSize());
+		assertEquals("Invalid content type", "text/plain", dataSource.getContentType());
+		assertArrayEquals("Invalid content", content, FileCopyUtils.copyToByteArray(dataSource.getInputStream()));
+		assertEquals("Invalid memory usage", 100, store.getMemoryUsage());
+
+		dataSource.dispose();
+		assertEquals("Memory not released", 0, store.getMemoryUsage());
+	}
+
+	@Test
+	public void spillAboveThreshold() throws Exception {
+		byte[] content = createContent(20000);
+		StoredDataSource dataSource = store.store(new ByteArrayInputStream(content), "application/octet-stream");
+		assertTrue("Content not spilled", dataSource.isSpilled());
+		File file = dataSource.getFile();
+		assertEquals("Invalid spill directory", spillDirectory.getRoot(), file.getParentFile());
+		assertEquals("Invalid size", 20000, dataSource.getSize());
+		assertEquals("Invalid file size", 20000, file.length());
+		assertArrayEquals("Invalid content", content, FileCopyUtils.copyToByteArray(dataSource.getInputStream()));
+		assertEquals("Invalid memory usage", 0, store.getMemoryUsage());
+
+		dataSource.dispose();
+		assertFalse("Spill file not deleted", file.exists());
+	}
+
+	@Test
+	public void spillAboveMemoryBudget() throws Exception {
+		StoredDataSource first = store.store(new ByteArrayInputStream(createContent(100)), "text/plain");
+		assertFalse("Content spilled", first.isSpilled());
+		assertEquals("Invalid in-memory threshold", 50, store.getInMemoryThreshold());
+		StoredDataSource second = store.store(new ByteArrayInputStream(createContent(60)), "text/plain");
+		assertTrue("Content not spilled", second.isSpilled());
+		StoredDataSource third = store.store(new ByteArrayInputStream(createContent(50)), "text/plain");
+		assertFalse("Content spilled", third.isSpilled());
+		assertEquals("Invalid memory usage", 150, store.getMemoryUsage());
+	}
+
+	@Test
+	public void concurrentStores() throws Exception {
+		store.setMemoryBudget(1000);
+		final byte[] content = createContent(100);
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<StoredDataSource>> futures = new ArrayList<Future<StoredDataSource>>();
+			for (int i = 0; i < 40; i++) {
+				futures.add(executor.submit(new Callable<StoredDataSource>() {
+
+					@Override
+					public StoredDataSource call() throws Exception {
+						startLatch.await();
+						return store.store(new ByteArrayInputStream(content), "text/plain");
+					}
+				}));
+			}
+			startLatch.countDown();
+			List<StoredDataSource> dataSources = new ArrayList<StoredDataSource>();
+			int inMemory = 0;
+			for (Future<StoredDataSource> future : futures) {
+				StoredDataSource dataSource = future.get();
+				dataSources.add(dataSource);
+				if (!dataSource.isSpilled()) {
+					inMemory++;
+				}
+				assertArrayEquals("Invalid content", content,
+						FileCopyUtils.copyToByteArray(dataSource.getInputStream()));
+			}
+			assertEquals("Invalid amount of attachments in memory", 10, inMemory);
+			assertEquals("Invalid memory usage", 1000, store.getMemoryUsage());
+
+			for (StoredDataSource dataSource : dataSources) {
+				dataSource.dispose();
+			}
+			assertEquals("Memory not released", 0, store.getMemoryUsage());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void writeTo() throws Exception {
+		byte[] content = createContent(20000);
+		StoredDataSource dataSource = store.store(new ByteArrayInputStream(content), "application/octet-stream");
+
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		dataSource.createDataHandler().writeTo(bos);
+		assertArrayEquals("Invalid content", content, bos.toByteArray());
+
+		File target = spillDirectory.newFile("target.bin");
+		FileOutputStream fos = new FileOutputStream(target);
+		try {
+			assertEquals("Invalid transferred size", 20000, dataSource.transferTo(fos.getChannel()));
+		}
+		finally {
+			fos.close();
+		}
+		assertArrayEquals("Invalid content", content, FileCopyUtils.copyToByteArray(target));
+	}
+
+	@Test
+	public void destroy() throws Exception {
+		StoredDataSource dataSource = store.store(new ByteArrayInputStream(createContent(20000)), "text/plain");
+		store.destroy();
+		assertFalse("Spill file not deleted", dataSource.getFile().exists());
+	}
+
+	private static byte[] createContent(int size) {
+		byte[] content = new byte[size];
+		Arrays.fill(content, (byte) 'a');
+		for (int i = 0; i < size; i += 7) {
+			content[i] = (byte) ('0' + i % 10);
+		}
+		return content;
+	}
+
+}
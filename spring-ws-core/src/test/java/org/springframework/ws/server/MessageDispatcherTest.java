@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,17 @@
 
 package org.springframework.ws.server;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
 
 import org.springframework.context.support.StaticApplicationContext;
 import org.springframework.ws.MockWebServiceMessage;
@@ -27,6 +37,10 @@ import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.endpoint.adapter.PayloadEndpointAdapter;
 import org.springframework.ws.server.endpoint.mapping.PayloadRootQNameEndpointMapping;
 import org.springframework.ws.soap.server.endpoint.SimpleSoapExceptionResolver;
+import org.springframework.ws.transport.MockWebServiceConnection;
+import org.springframework.ws.transport.context.DefaultTransportContext;
+import org.springframework.ws.transport.context.TransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -84,6 +98,47 @@ public class MessageDispatcherTest {
 		Assert.assertEquals("getEndpointAdapter returns invalid EndpointAdapter", adapterMock, result);
 	}
 
+	@Test
+	public void testGetEndpointAdapterCached() throws Exception {
+		EndpointAdapter adapterMock = createMock(EndpointAdapter.class);
+		dispatcher.setEndpointAdapters(Collections.singletonList(adapterMock));
+
+		Object endpoint = new Object();
+		expect(adapterMock.supports(endpoint)).andReturn(true).once();
+
+		replay(adapterMock, factoryMock);
+
+		Assert.assertEquals("getEndpointAdapter returns invalid EndpointAdapter", adapterMock,
+				dispatcher.getEndpointAdapter(endpoint));
+		Assert.assertEquals("getEndpointAdapter returns invalid EndpointAdapter", adapterMock,
+				dispatcher.getEndpointAdapter(endpoint));
+
+		verify(adapterMock, factoryMock);
+	}
+
+	@Test
+	public void testGetEndpointMappingCaching() throws Exception {
+		EndpointMapping mappingMock1 = createMock("mapping1", EndpointMapping.class);
+		EndpointMapping mappingMock2 = createMock("mapping2", EndpointMapping.class);
+		dispatcher.setEndpointMappings(Arrays.asList(mappingMock1, mappingMock2));
+		dispatcher.setEndpointMappingCaching(true);
+
+		messageContext = new DefaultMessageContext(new MockWebServiceMessage("<root xmlns='namespace'/>"), factoryMock);
+		EndpointInvocationChain chain = new EndpointInvocationChain(new Object());
+
+		expect(mappingMock1.getEndpoint(messageContext)).andReturn(null).once();
+		expect(mappingMock2.getEndpoint(messageContext)).andReturn(chain).times(2);
+
+		replay(mappingMock1, mappingMock2, factoryMock);
+
+		Assert.assertEquals("getEndpoint returns invalid EndpointInvocationChain", chain,
+				dispatcher.getEndpoint(messageContext));
+		Assert.assertEquals("getEndpoint returns invalid EndpointInvocationChain", chain,
+				dispatcher.getEndpoint(messageContext));
+
+		verify(mappingMock1, mappingMock2, factoryMock);
+	}
+
 	@Test
 	public void testGetEndpointAdapterUnsupportedEndpoint() throws Exception {
 		EndpointAdapter adapterMock = createMock(EndpointAdapter.class);
@@ -393,6 +448,46 @@ public class MessageDispatcherTest {
 		}
 	}
 
+	@Test
+	public void testReceiveTransportTracing() throws Exception {
+		messageContext = new DefaultMessageContext(new UnwritableMessage(), factoryMock);
+
+		EndpointAdapter adapterMock = createMock(EndpointAdapter.class);
+		dispatcher.setEndpointAdapters(Collections.singletonList(adapterMock));
+		Object endpoint = new Object();
+		expect(adapterMock.supports(endpoint)).andReturn(true);
+		adapterMock.invoke(messageContext, endpoint);
+
+		EndpointMapping mappingMock = createMock(EndpointMapping.class);
+		dispatcher.setEndpointMappings(Collections.singletonList(mappingMock));
+		expect(mappingMock.getEndpoint(messageContext)).andReturn(new EndpointInvocationChain(endpoint));
+		expect(factoryMock.createWebServiceMessage()).andReturn(new UnwritableMessage());
+
+		replay(mappingMock, adapterMock, factoryMock);
+
+		MockWebServiceConnection connection = new MockWebServiceConnection(new byte[0]);
+		connection.setTraceBufferSize(1024);
+		TransportContext previousTransportContext = TransportContextHolder.getTransportContext();
+		TransportContextHolder.setTransportContext(new DefaultTransportContext(connection));
+		Logger tracingLogger = Logger.getLogger(MessageDispatcher.MESSAGE_TRACING_LOG_CATEGORY);
+		Level level = tracingLogger.getLevel();
+		RecordingAppender appender = new RecordingAppender();
+		tracingLogger.addAppender(appender);
+		tracingLogger.setLevel(Level.TRACE);
+		try {
+			messageContext.getResponse();
+			dispatcher.receive(messageContext);
+		}
+		finally {
+			tracingLogger.removeAppender(appender);
+			tracingLogger.setLevel(level);
+			TransportContextHolder.setTransportContext(previousTransportContext);
+		}
+
+		verify(mappingMock, adapterMock, factoryMock);
+		Assert.assertTrue("MessageDispatcher traced messages traced by the transport", appender.messages.isEmpty());
+	}
+
 	@Test
 	public void testDetectStrategies() throws Exception {
 		StaticApplicationContext applicationContext = new StaticApplicationContext();
@@ -418,4 +513,32 @@ public class MessageDispatcherTest {
 		dispatcher.setApplicationContext(applicationContext);
 	}
 
-}
\ No newline at end of file
+	/** Message that fails when it is written, to verify that it is not serialized for tracing. */
+	private static class UnwritableMessage extends MockWebServiceMessage {
+
+		@Override
+		public void writeTo(OutputStream outputStream) throws IOException {
+			throw new IOException("Message written");
+		}
+	}
+
+	private static class RecordingAppender extends AppenderSkeleton {
+
+		private final List<String> messages = new CopyOnWriteArrayList<String>();
+
+		@Override
+		protected void append(LoggingEvent loggingEvent) {
+			messages.add(loggingEvent.getRenderedMessage());
+		}
+
+		@Override
+		public boolean requiresLayout() {
+			return false;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,13 +19,18 @@ package org.springframework.ws.server.endpoint.adapter;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
 
 import static org.easymock.EasyMock.*;
 import static org.junit.Assert.*;
+import org.easymock.Capture;
 import org.junit.Before;
 import org.junit.Test;
 
 import org.springframework.core.MethodParameter;
+import org.springframework.util.concurrent.ListenableFutureTask;
 import org.springframework.ws.MockWebServiceMessage;
 import org.springframework.ws.MockWebServiceMessageFactory;
 import org.springframework.ws.context.DefaultMessageContext;
@@ -53,6 +58,16 @@ public class DefaultMethodEndpointAdapterTest {
 
 	private MethodEndpoint exceptionEndpoint;
 
+	private MethodEndpoint futureEndpoint;
+
+	private MethodEndpoint voidFutureEndpoint;
+
+	private ListenableFutureTask<String> future;
+
+	private String futureValue;
+
+	private Exception futureException;
+
 	private String supportedArgument;
 
 	@Before
@@ -68,6 +83,17 @@ public class DefaultMethodEndpointAdapterTest {
 		nullReturnValue = new MethodEndpoint(this, "nullReturnValue", String.class);
 		unsupportedEndpoint = new MethodEndpoint(this, "unsupported", String.class);
 		exceptionEndpoint = new MethodEndpoint(this, "exception", String.class);
+		futureEndpoint = new MethodEndpoint(this, "future", String.class);
+		voidFutureEndpoint = new MethodEndpoint(this, "voidFuture", String.class);
+		future = new ListenableFutureTask<String>(new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				if (futureException != null) {
+					throw futureException;
+				}
+				return futureValue;
+			}
+		});
 	}
 
 	@Test
@@ -149,6 +175,35 @@ public class DefaultMethodEndpointAdapterTest {
 		verify(argumentResolver1, argumentResolver2, returnValueHandler);
 	}
 
+	@Test
+	public void invokeSupportedAfterSupports() throws Exception {
+		MockWebServiceMessage request = new MockWebServiceMessage("<root xmlns='http://springframework.org'/>");
+		MessageContext messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+
+		String value = "Foo";
+
+		expect(argumentResolver1.supportsParameter(isA(MethodParameter.class))).andReturn(true).once();
+		expect(argumentResolver1.supportsParameter(isA(MethodParameter.class))).andReturn(false).once();
+		expect(argumentResolver2.supportsParameter(isA(MethodParameter.class))).andReturn(true).once();
+		expect(returnValueHandler.supportsReturnType(isA(MethodParameter.class))).andReturn(true).once();
+
+		expect(argumentResolver1.resolveArgument(eq(messageContext), isA(MethodParameter.class))).andReturn(value)
+				.times(2);
+		expect(argumentResolver2.resolveArgument(eq(messageContext), isA(MethodParameter.class)))
+				.andReturn(new Integer(42)).times(2);
+		returnValueHandler.handleReturnValue(eq(messageContext), isA(MethodParameter.class), eq(value));
+		expectLastCall().times(2);
+
+		replay(argumentResolver1, argumentResolver2, returnValueHandler);
+
+		assertTrue("adapter does not support method", adapter.supports(supportedEndpoint));
+		adapter.invoke(messageContext, supportedEndpoint);
+		adapter.invoke(messageContext, supportedEndpoint);
+		assertEquals("Invalid argument passed", value, supportedArgument);
+
+		verify(argumentResolver1, argumentResolver2, returnValueHandler);
+	}
+
 	@Test
 	public void invokeNullReturnValue() throws Exception {
 		MockWebServiceMessage request = new MockWebServiceMessage("<root xmlns='http://springframework.org'/>");
@@ -195,6 +250,119 @@ public class DefaultMethodEndpointAdapterTest {
 		verify(argumentResolver1, argumentResolver2, returnValueHandler);
 	}
 
+	@Test
+	public void supportsFutureReturnType() throws Exception {
+		expect(argumentResolver1.supportsParameter(isA(MethodParameter.class))).andReturn(true);
+		Capture<MethodParameter> returnType = new Capture<MethodParameter>();
+		expect(returnValueHandler.supportsReturnType(capture(returnType))).andReturn(true);
+
+		replay(argumentResolver1, argumentResolver2, returnValueHandler);
+
+		assertTrue("adapter does not support method", adapter.supports(futureEndpoint));
+		assertEquals("Invalid return type", String.class, returnType.getValue().getParameterType());
+
+		verify(argumentResolver1, argumentResolver2, returnValueHandler);
+	}
+
+	@Test
+	public void invokeFuture() throws Exception {
+		MockWebServiceMessage request = new MockWebServiceMessage("<root xmlns='http://springframework.org'/>");
+		MessageContext messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+
+		String value = "Foo";
+		futureValue = value;
+		future.run();
+
+		expect(argumentResolver1.supportsParameter(isA(MethodParameter.class))).andReturn(true);
+		expect(argumentResolver1.resolveArgument(eq(messageContext), isA(MethodParameter.class))).andReturn(value);
+		expect(returnValueHandler.supportsReturnType(isA(MethodParameter.class))).andReturn(true);
+		returnValueHandler.handleReturnValue(eq(messageContext), isA(MethodParameter.class), eq(value));
+
+		replay(argumentResolver1, argumentResolver2, returnValueHandler);
+
+		adapter.invoke(messageContext, futureEndpoint);
+
+		verify(argumentResolver1, argumentResolver2, returnValueHandler);
+	}
+
+	@Test
+	public void invokeFailedFuture() throws Exception {
+		MockWebServiceMessage request = new MockWebServiceMessage("<root xmlns='http://springframework.org'/>");
+		MessageContext messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+
+		futureException = new IOException("Foo");
+		future.run();
+
+		expect(argumentResolver1.supportsParameter(isA(MethodParameter.class))).andReturn(true);
+		expect(argumentResolver1.resolveArgument(eq(messageContext), isA(MethodParameter.class))).andReturn("Foo");
+
+		replay(argumentResolver1, argumentResolver2, returnValueHandler);
+
+		try {
+			adapter.invoke(messageContext, futureEndpoint);
+			fail("IOException expected");
+		}
+		catch (IOException expected) {
+			// expected
+		}
+
+		verify(argumentResolver1, argumentResolver2, returnValueHandler);
+	}
+
+	@Test
+	public void invokeFutureTimeout() throws Exception {
+		MockWebServiceMessage request = new MockWebServiceMessage("<root xmlns='http://springframework.org'/>");
+		MessageContext messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+		adapter.setDeferredResultTimeout(10);
+
+		expect(argumentResolver1.supportsParameter(isA(MethodParameter.class))).andReturn(true);
+		expect(argumentResolver1.resolveArgument(eq(messageContext), isA(MethodParameter.class))).andReturn("Foo");
+
+		replay(argumentResolver1, argumentResolver2, returnValueHandler);
+
+		try {
+			adapter.invoke(messageContext, futureEndpoint);
+			fail("TimeoutException expected");
+		}
+		catch (TimeoutException expected) {
+			// expected
+		}
+		assertTrue("Future not cancelled", future.isCancelled());
+
+		verify(argumentResolver1, argumentResolver2, returnValueHandler);
+	}
+
+	@Test
+	public void invokeVoidFuture() throws Exception {
+		MockWebServiceMessage request = new MockWebServiceMessage("<root xmlns='http://springframework.org'/>");
+		MessageContext messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+
+		expect(argumentResolver1.supportsParameter(isA(MethodParameter.class))).andReturn(true);
+		expect(argumentResolver1.resolveArgument(eq(messageContext), isA(MethodParameter.class))).andReturn("Foo");
+
+		replay(argumentResolver1, argumentResolver2, returnValueHandler);
+
+		assertTrue("adapter does not support method", adapter.supports(voidFutureEndpoint));
+		adapter.invoke(messageContext, voidFutureEndpoint);
+		assertFalse("Response created", messageContext.hasResponse());
+
+		verify(argumentResolver1, argumentResolver2, returnValueHandler);
+	}
+
+	public Future<String> future(String s) {
+		return future;
+	}
+
+	public Future<Void> voidFuture(String s) {
+		ListenableFutureTask<Void> task = new ListenableFutureTask<Void>(new Runnable() {
+			@Override
+			public void run() {
+			}
+		}, null);
+		task.run();
+		return task;
+	}
+
 	public String supported(String s, Integer i) {
 		supportedArgument = s;
 		return s;
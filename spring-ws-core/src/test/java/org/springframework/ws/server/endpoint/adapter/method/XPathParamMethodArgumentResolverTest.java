@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -184,9 +184,25 @@ public class XPathParamMethodArgumentResolverTest {
 		assertEquals("Invalid string value", "text", s);
 	}
 
+	@Test
+	public void resolveNonStreamingExpression() throws Exception {
+		MethodParameter parameter = new MethodParameter(getClass().getMethod("nonStreaming", String.class), 0);
+		for (int i = 0; i < 2; i++) {
+			MockWebServiceMessage request = new MockWebServiceMessage(CONTENTS);
+			MessageContext messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+
+			Object result = resolver.resolveArgument(messageContext, parameter);
+
+			assertEquals("Invalid string value", "child", result);
+		}
+	}
+
 	public void unsupported(String s) {
 	}
 
+	public void nonStreaming(@XPathParam("local-name(/root/*[last()])") String s) {
+	}
+
 	public void supportedTypes(@XPathParam("/root/child")boolean param1,
 							   @XPathParam("/root/child/number")double param2,
 							   @XPathParam("/root/child") Node param3,
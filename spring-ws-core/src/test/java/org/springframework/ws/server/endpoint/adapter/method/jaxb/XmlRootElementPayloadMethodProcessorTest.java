@@ -166,6 +166,35 @@ public class XmlRootElementPayloadMethodProcessorTest {
 		assertEquals("invalid result", "Foo", rootElement.getString());
 	}
 
+	@Test
+	public void resolveArgumentPooledUnmarshaller() throws JAXBException {
+		for (int i = 0; i < 2; i++) {
+			WebServiceMessage request = new MockWebServiceMessage("<root xmlns='http://springframework.org'><string>Foo</string></root>");
+			MessageContext messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+
+			MyRootElement rootElement = (MyRootElement) processor.resolveArgument(messageContext, rootElementParameter);
+			assertEquals("invalid result", "Foo", rootElement.getString());
+		}
+		assertEquals("invalid unmarshaller pool miss count", 1, processor.getUnmarshallerPoolMissCount());
+		assertEquals("invalid unmarshaller pool hit count", 1, processor.getUnmarshallerPoolHitCount());
+	}
+
+	@Test
+	public void handleReturnValuePooledMarshallerDisabled() throws Exception {
+		processor.setPoolSize(0);
+		for (int i = 0; i < 2; i++) {
+			MessageContext messageContext = new DefaultMessageContext(new MockWebServiceMessageFactory());
+
+			MyRootElement rootElement = new MyRootElement();
+			rootElement.setString("Foo");
+			processor.handleReturnValue(messageContext, rootElementReturnType, rootElement);
+			MockWebServiceMessage response = (MockWebServiceMessage) messageContext.getResponse();
+			assertXMLEqual("<root xmlns='http://springframework.org'><string>Foo</string></root>", response.getPayloadAsString());
+		}
+		assertEquals("invalid marshaller pool miss count", 2, processor.getMarshallerPoolMissCount());
+		assertEquals("invalid marshaller pool hit count", 0, processor.getMarshallerPoolHitCount());
+	}
+
 	@Test
 	public void handleReturnValue() throws Exception {
 		MessageContext messageContext = new DefaultMessageContext(new MockWebServiceMessageFactory());
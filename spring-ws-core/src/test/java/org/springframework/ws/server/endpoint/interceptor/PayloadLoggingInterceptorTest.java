@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,10 @@
 
 package org.springframework.ws.server.endpoint.interceptor;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import org.apache.log4j.AppenderSkeleton;
 import org.apache.log4j.BasicConfigurator;
 import org.apache.log4j.Level;
@@ -93,6 +97,102 @@ public class PayloadLoggingInterceptorTest {
 		Assert.assertTrue("PayloadLoggingInterceptor did not log", appender.getCount() > eventCount);
 	}
 
+	@Test
+	public void testSampleRate() throws Exception {
+		RecordingInterceptor interceptor = new RecordingInterceptor();
+		interceptor.setSampleRate(3);
+		for (int i = 0; i < 7; i++) {
+			interceptor.handleRequest(messageContext, null);
+		}
+		Assert.assertEquals("Invalid amount of messages logged", 3, interceptor.messages.size());
+	}
+
+	@Test
+	public void testSampleRateRequestAndResponse() throws Exception {
+		RecordingInterceptor interceptor = new RecordingInterceptor();
+		interceptor.setSampleRate(2);
+		for (int i = 0; i < 4; i++) {
+			MockWebServiceMessage request = new MockWebServiceMessage("<request" + i + "/>");
+			MessageContext context = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+			((MockWebServiceMessage) context.getResponse()).setPayload("<response" + i + "/>");
+			interceptor.handleRequest(context, null);
+			// interleave another exchange, so that a global counter would pick other responses
+			MessageContext otherContext = new DefaultMessageContext(new MockWebServiceMessage("<other/>"),
+					new MockWebServiceMessageFactory());
+			interceptor.handleRequest(otherContext, null);
+			interceptor.handleResponse(context, null);
+		}
+		Assert.assertEquals("Invalid messages logged", Arrays.asList("Request: <request0/>", "Response: <response0/>",
+				"Request: <request1/>", "Response: <response1/>", "Request: <request2/>", "Response: <response2/>",
+				"Request: <request3/>", "Response: <response3/>"), interceptor.messages);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidMaxLength() throws Exception {
+		interceptor.setMaxLength(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidLogQueueCapacity() throws Exception {
+		interceptor.setLogQueueCapacity(0);
+	}
+
+	@Test
+	public void testMaxLength() throws Exception {
+		MockWebServiceMessage request = new MockWebServiceMessage("<request><child>text</child></request>");
+		messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+		RecordingInterceptor interceptor = new RecordingInterceptor();
+		interceptor.setMaxLength(10);
+		interceptor.handleRequest(messageContext, null);
+		Assert.assertEquals("Invalid amount of messages logged", 1, interceptor.messages.size());
+		Assert.assertEquals("Invalid truncated message", "Request: <request><...",
+				interceptor.messages.get(0));
+	}
+
+	@Test
+	public void testMaxLengthNotReached() throws Exception {
+		RecordingInterceptor interceptor = new RecordingInterceptor();
+		interceptor.setMaxLength(100);
+		interceptor.handleRequest(messageContext, null);
+		Assert.assertEquals("Invalid message", "Request: <request/>", interceptor.messages.get(0));
+	}
+
+	@Test
+	public void testLogQueue() throws Exception {
+		RecordingInterceptor interceptor = new RecordingInterceptor();
+		interceptor.setLogQueueCapacity(10);
+		try {
+			interceptor.handleRequest(messageContext, null);
+			for (int i = 0; i < 100 && interceptor.messages.isEmpty(); i++) {
+				Thread.sleep(10);
+			}
+			Assert.assertEquals("Invalid message", "Request: <request/>", interceptor.messages.get(0));
+		}
+		finally {
+			interceptor.destroy();
+		}
+	}
+
+	@Test
+	public void testLogQueueDestroyed() throws Exception {
+		RecordingInterceptor interceptor = new RecordingInterceptor();
+		interceptor.setLogQueueCapacity(10);
+		interceptor.destroy();
+		interceptor.handleRequest(messageContext, null);
+		Assert.assertEquals("Message not logged synchronously", Arrays.asList("Request: <request/>"),
+				interceptor.messages);
+	}
+
+	private static class RecordingInterceptor extends PayloadLoggingInterceptor {
+
+		private final List<String> messages = new CopyOnWriteArrayList<String>();
+
+		@Override
+		protected void logMessage(String message) {
+			messages.add(message);
+		}
+	}
+
 	private static class CountingAppender extends AppenderSkeleton {
 
 		private int count;
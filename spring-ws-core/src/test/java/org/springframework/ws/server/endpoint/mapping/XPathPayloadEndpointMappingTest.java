@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -46,4 +46,16 @@ public class XPathPayloadEndpointMappingTest {
 		Assert.assertNotNull("mapping returns null", result);
 		Assert.assertEquals("mapping returns invalid result", "value", result);
 	}
+
+	@Test
+	public void testGetLookupKeyForMessageNonStreaming() throws Exception {
+		mapping.setExpression("local-name(/*)");
+		mapping.afterPropertiesSet();
+
+		MockWebServiceMessage request = new MockWebServiceMessage("<root>value</root>");
+		MessageContext context = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+
+		String result = mapping.getLookupKeyForMessage(context);
+		Assert.assertEquals("mapping returns invalid result", "root", result);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.axiom;
+
+import java.io.ByteArrayOutputStream;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.axiom.soap.SOAPMessage;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.soap.SoapVersion;
+import org.springframework.ws.soap.soap11.AbstractSoap11MessageTestCase;
+import org.springframework.ws.stream.StreamingPayload;
+import org.springframework.xml.transform.StringResult;
+import org.springframework.xml.transform.StringSource;
+
+import static org.custommonkey.xmlunit.XMLAssert.assertXMLEqual;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AxiomSoap11DomMessageTest extends AbstractSoap11MessageTestCase {
+
+	@Override
+	protected String getNS() {
+		return "soapenv";
+	}
+
+	@Override
+	protected SoapMessage createSoapMessage() throws Exception {
+		AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+		messageFactory.setDomCompatible(true);
+		messageFactory.setSoapVersion(SoapVersion.SOAP_11);
+
+		return messageFactory.createWebServiceMessage();
+	}
+
+	@Test
+	public void testGetDocumentIsLive() throws Exception {
+		transformer.transform(new StringSource("<payload xmlns='http://www.springframework.org' />"),
+				soapMessage.getSoapBody().getPayloadResult());
+		SOAPMessage axiomMessage = ((AxiomSoapMessage) soapMessage).getAxiomMessage();
+
+		Document document = soapMessage.getDocument();
+		assertSame("Document is not the Axiom message", axiomMessage, document);
+
+		Element payload = (Element) document.getElementsByTagNameNS("http://www.springframework.org", "payload").item(0);
+		payload.setAttributeNS(null, "attr", "value");
+		soapMessage.setDocument(document);
+		assertSame("Axiom message replaced", axiomMessage, ((AxiomSoapMessage) soapMessage).getAxiomMessage());
+
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		soapMessage.writeTo(bos);
+		String result = bos.toString("UTF-8");
+		assertTrue("Change to document not reflected in message", result.contains("attr=\"value\""));
+		assertXMLEqual("<" + getNS() + ":Envelope xmlns:" + getNS() + "='http://schemas.xmlsoap.org/soap/envelope/'>" +
+				getHeader() + "<" + getNS() + ":Body><payload xmlns='http://www.springframework.org' attr='value' />" +
+				"</" + getNS() + ":Body></" + getNS() + ":Envelope>", result);
+	}
+
+	@Test
+	public void testSetStreamingPayloadUnboundNamespaces() throws Exception {
+		final QName name = new QName("http://springframework.org", "root");
+		((AxiomSoapMessage) soapMessage).setStreamingPayload(new StreamingPayload() {
+			@Override
+			public QName getName() {
+				return name;
+			}
+
+			@Override
+			public void writeTo(XMLStreamWriter streamWriter) throws XMLStreamException {
+				streamWriter.writeStartElement(name.getNamespaceURI(), name.getLocalPart());
+				streamWriter.writeAttribute("http://springframework.org/attributes", "attr", "value");
+				streamWriter.writeEmptyElement(name.getNamespaceURI(), "child");
+				streamWriter.writeEndElement();
+			}
+		});
+
+		StringResult result = new StringResult();
+		transformer.transform(soapMessage.getPayloadSource(), result);
+		assertXMLEqual("<root xmlns='http://springframework.org' xmlns:a='http://springframework.org/attributes' " +
+				"a:attr='value'><child/></root>", result.toString());
+	}
+}
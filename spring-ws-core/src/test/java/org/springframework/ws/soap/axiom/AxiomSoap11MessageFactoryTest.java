@@ -18,13 +18,19 @@ package org.springframework.ws.soap.axiom;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 
 import org.springframework.ws.InvalidXmlException;
 import org.springframework.ws.WebServiceMessage;
+import org.springframework.util.FileCopyUtils;
 import org.springframework.ws.WebServiceMessageFactory;
+import org.springframework.ws.mime.Attachment;
+import org.springframework.ws.mime.AttachmentStore;
+import org.springframework.ws.soap.SoapMessage;
 import org.springframework.ws.soap.soap11.AbstractSoap11MessageFactoryTestCase;
 import org.springframework.ws.transport.MockTransportInputStream;
 import org.springframework.ws.transport.TransportInputStream;
@@ -35,6 +41,8 @@ import org.custommonkey.xmlunit.XMLUnit;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class AxiomSoap11MessageFactoryTest extends AbstractSoap11MessageFactoryTestCase {
@@ -65,6 +73,28 @@ public class AxiomSoap11MessageFactoryTest extends AbstractSoap11MessageFactoryT
 		assertEquals("Invalid charset", "utf-8", messageFactory.getCharSetEncoding("application/xop+xml;type=\"text/xml; charset=utf-8\""));
 	}
 
+	@Test
+	public void testAttachmentStore() throws Exception {
+		AttachmentStore attachmentStore = new AttachmentStore();
+		attachmentStore.setSpillThreshold(0);
+		AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+		messageFactory.setAttachmentStore(attachmentStore);
+		messageFactory.afterPropertiesSet();
+
+		InputStream is = AbstractSoap11MessageFactoryTestCase.class.getResourceAsStream("soap11-mtom.bin");
+		Map<String, String> headers = new HashMap<String, String>();
+		headers.put("Content-Type", "multipart/related;" + "start-info=\"text/xml\";" +
+				"type=\"application/xop+xml\";" + "start=\"<0.urn:uuid:492264AB42E57108E01176731445508@apache.org>\";" +
+				"boundary=\"MIMEBoundaryurn_uuid_492264AB42E57108E01176731445507\"");
+		SoapMessage soapMessage =
+				(SoapMessage) messageFactory.createWebServiceMessage(new MockTransportInputStream(is, headers));
+		Attachment attachment = soapMessage.getAttachment("<1.urn:uuid:492264AB42E57108E01176731445504@apache.org>");
+		assertNotNull("No attachment read", attachment);
+		byte[] content = FileCopyUtils.copyToByteArray(attachment.getInputStream());
+		assertTrue("No content read", content.length > 0);
+		assertEquals("Invalid size", content.length, attachment.getSize());
+	}
+
 	@Test
 	public void testRepetitiveReadCaching() throws Exception {
 		AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
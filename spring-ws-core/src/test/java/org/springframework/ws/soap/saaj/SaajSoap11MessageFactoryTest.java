@@ -18,18 +18,27 @@ package org.springframework.ws.soap.saaj;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import javax.xml.soap.MessageFactory;
 import javax.xml.soap.SOAPConstants;
 import javax.xml.soap.SOAPMessage;
 
+import org.springframework.util.FileCopyUtils;
 import org.springframework.ws.WebServiceMessageFactory;
+import org.springframework.ws.mime.Attachment;
+import org.springframework.ws.mime.AttachmentStore;
+import org.springframework.ws.mime.StoredDataSource;
 import org.springframework.ws.soap.SoapMessage;
 import org.springframework.ws.soap.soap11.AbstractSoap11MessageFactoryTestCase;
+import org.springframework.ws.transport.MockTransportInputStream;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 public class SaajSoap11MessageFactoryTest extends AbstractSoap11MessageFactoryTestCase {
@@ -51,5 +60,34 @@ public class SaajSoap11MessageFactoryTest extends AbstractSoap11MessageFactoryTe
 		assertTrue("XML declaration not written", result.startsWith("<?xml version=\"1.0\""));
 	}
 
+	@Test
+	public void attachmentStore() throws Exception {
+		AttachmentStore attachmentStore = new AttachmentStore();
+		attachmentStore.setSpillThreshold(0);
+		((SaajSoapMessageFactory) messageFactory).setAttachmentStore(attachmentStore);
+		InputStream is = AbstractSoap11MessageFactoryTestCase.class.getResourceAsStream("soap11-attachment.bin");
+		Map<String, String> headers = new HashMap<String, String>();
+		headers.put("Content-Type",
+				"multipart/related;" + "type=\"text/xml\";" + "boundary=\"----=_Part_0_11416420.1149699787554\"");
+		try {
+			SoapMessage soapMessage =
+					(SoapMessage) messageFactory.createWebServiceMessage(new MockTransportInputStream(is, headers));
+			Attachment attachment = soapMessage.getAttachment("interface21");
+			assertNotNull("No attachment read", attachment);
+			assertTrue("Attachment not stored",
+					attachment.getDataHandler().getDataSource() instanceof StoredDataSource);
+			byte[] content = FileCopyUtils.copyToByteArray(attachment.getInputStream());
+			assertTrue("No content read", content.length > 0);
+			assertEquals("Invalid size", content.length, attachment.getSize());
+
+			ByteArrayOutputStream os = new ByteArrayOutputStream();
+			soapMessage.writeTo(os);
+			assertTrue("Attachment not written", os.toString("UTF-8").contains("interface21"));
+		}
+		finally {
+			attachmentStore.destroy();
+		}
+	}
+
 
 }
\ No newline at end of file
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,8 +24,11 @@ import javax.xml.soap.SOAPConstants;
 import javax.xml.soap.SOAPMessage;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMResult;
 
 import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 
 import org.springframework.ws.soap.SoapMessage;
 import org.springframework.ws.soap.soap11.AbstractSoap11MessageTestCase;
@@ -34,6 +37,7 @@ import org.springframework.xml.transform.StringSource;
 
 import static org.custommonkey.xmlunit.XMLAssert.*;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class SaajSoap11MessageTest extends AbstractSoap11MessageTestCase {
@@ -90,4 +94,39 @@ public class SaajSoap11MessageTest extends AbstractSoap11MessageTestCase {
 		assertEquals("Invalid child node created", "child", bodyElement.getElementName().getLocalName());
 	}
 
+	@Test
+	public void testGetDocumentIsLive() throws Exception {
+		transformer.transform(new StringSource("<payload xmlns='http://www.springframework.org' />"),
+				soapMessage.getPayloadResult());
+
+		Document document = soapMessage.getDocument();
+		assertSame("Document is not the SOAP part", saajMessage.getSOAPPart(), document);
+
+		Element payload = (Element) document.getElementsByTagNameNS("http://www.springframework.org", "payload").item(0);
+		payload.setAttributeNS(null, "attr", "value");
+		soapMessage.setDocument(document);
+		assertSame("SAAJ message replaced", saajMessage, ((SaajSoapMessage) soapMessage).getSaajMessage());
+
+		StringResult result = new StringResult();
+		transformer.transform(soapMessage.getPayloadSource(), result);
+		assertXMLEqual("Change to document not reflected in message",
+				"<payload xmlns='http://www.springframework.org' attr='value' />", result.toString());
+	}
+
+	@Test
+	public void testSetOtherDocumentKeepsMessage() throws Exception {
+		DOMResult domResult = new DOMResult();
+		transformer.transform(new StringSource(
+				"<SOAP-ENV:Envelope xmlns:SOAP-ENV='http://schemas.xmlsoap.org/soap/envelope/'><SOAP-ENV:Body>" +
+						"<payload xmlns='http://www.springframework.org' /></SOAP-ENV:Body></SOAP-ENV:Envelope>"),
+				domResult);
+
+		soapMessage.setDocument((Document) domResult.getNode());
+		assertSame("SAAJ message replaced", saajMessage, ((SaajSoapMessage) soapMessage).getSaajMessage());
+
+		StringResult result = new StringResult();
+		transformer.transform(soapMessage.getPayloadSource(), result);
+		assertXMLEqual("Document not set", "<payload xmlns='http://www.springframework.org' />", result.toString());
+	}
+
 }
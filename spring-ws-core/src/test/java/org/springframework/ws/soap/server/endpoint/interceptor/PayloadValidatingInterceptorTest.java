@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,10 @@
 
 package org.springframework.ws.soap.server.endpoint.interceptor;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.Locale;
 import javax.xml.XMLConstants;
 import javax.xml.soap.MessageFactory;
@@ -25,6 +27,7 @@ import javax.xml.soap.SOAPConstants;
 import javax.xml.soap.SOAPMessage;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.stream.StreamSource;
 
 import org.junit.Assert;
@@ -36,6 +39,7 @@ import org.xml.sax.helpers.LocatorImpl;
 
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.util.FileCopyUtils;
 import org.springframework.ws.MockWebServiceMessage;
 import org.springframework.ws.MockWebServiceMessageFactory;
 import org.springframework.ws.WebServiceMessage;
@@ -394,4 +398,103 @@ public class PayloadValidatingInterceptorTest {
 		Assert.assertFalse("Context has response", context.hasResponse());
 	}
 
-}
\ No newline at end of file
+	@Test
+	public void streamingValidationInvalidRequestAxiom() throws Exception {
+		AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+		messageFactory.setPayloadCaching(false);
+		messageFactory.afterPropertiesSet();
+		interceptor.setStreamingValidation(true);
+
+		context = new DefaultMessageContext(createAxiomRequest(messageFactory, INVALID_MESSAGE), messageFactory);
+		boolean result = interceptor.handleRequest(context, null);
+		Assert.assertTrue("Invalid response from interceptor", result);
+		Assert.assertFalse("Context has response", context.hasResponse());
+
+		// the endpoint reads the payload, which can only be done once
+		transformer.transform(context.getRequest().getPayloadSource(), new DOMResult());
+		transformer.transform(new StreamSource(getClass().getResourceAsStream(VALID_MESSAGE)),
+				context.getResponse().getPayloadResult());
+
+		result = interceptor.handleResponse(context, null);
+		Assert.assertFalse("Invalid response from interceptor", result);
+		SoapMessage response = (SoapMessage) context.getResponse();
+		Assert.assertTrue("Response has no fault", response.getSoapBody().hasFault());
+	}
+
+	@Test
+	public void streamingValidationUnreadRequestAxiom() throws Exception {
+		AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+		messageFactory.setPayloadCaching(false);
+		messageFactory.afterPropertiesSet();
+		interceptor.setStreamingValidation(true);
+		interceptor.setValidateResponse(false);
+
+		context = new DefaultMessageContext(createAxiomRequest(messageFactory, VALID_MESSAGE), messageFactory);
+		boolean result = interceptor.handleRequest(context, null);
+		Assert.assertTrue("Invalid response from interceptor", result);
+		context.getResponse();
+
+		result = interceptor.handleResponse(context, null);
+		Assert.assertTrue("Invalid response from interceptor", result);
+		SoapMessage response = (SoapMessage) context.getResponse();
+		Assert.assertFalse("Response has fault", response.getSoapBody().hasFault());
+	}
+
+	@Test
+	public void streamingValidationInvalidRequestVoidEndpointAxiom() throws Exception {
+		AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+		messageFactory.setPayloadCaching(false);
+		messageFactory.afterPropertiesSet();
+		interceptor.setStreamingValidation(true);
+
+		context = new DefaultMessageContext(createAxiomRequest(messageFactory, INVALID_MESSAGE), messageFactory);
+		boolean result = interceptor.handleRequest(context, null);
+		Assert.assertTrue("Invalid response from interceptor", result);
+
+		// the endpoint reads the payload, and returns no response
+		transformer.transform(context.getRequest().getPayloadSource(), new DOMResult());
+		Assert.assertFalse("Context has response", context.hasResponse());
+
+		interceptor.afterCompletion(context, null, null);
+		Assert.assertTrue("Context has no response", context.hasResponse());
+		SoapMessage response = (SoapMessage) context.getResponse();
+		Assert.assertTrue("Response has no fault", response.getSoapBody().hasFault());
+	}
+
+	@Test
+	public void streamingValidationInvalidRequestFaultingEndpointAxiom() throws Exception {
+		AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+		messageFactory.setPayloadCaching(false);
+		messageFactory.afterPropertiesSet();
+		interceptor.setStreamingValidation(true);
+
+		context = new DefaultMessageContext(createAxiomRequest(messageFactory, INVALID_MESSAGE), messageFactory);
+		boolean result = interceptor.handleRequest(context, null);
+		Assert.assertTrue("Invalid response from interceptor", result);
+
+		// the endpoint reads the payload, and fails
+		transformer.transform(context.getRequest().getPayloadSource(), new DOMResult());
+		SoapMessage response = (SoapMessage) context.getResponse();
+		response.getSoapBody().addServerOrReceiverFault("Endpoint failure", Locale.ENGLISH);
+
+		result = interceptor.handleFault(context, null);
+		Assert.assertFalse("Invalid response from interceptor", result);
+		Assert.assertTrue("Response has no fault", response.getSoapBody().hasFault());
+		Assert.assertEquals("Invalid fault", PayloadValidatingInterceptor.DEFAULT_FAULTSTRING_OR_REASON,
+				response.getSoapBody().getFault().getFaultStringOrReason());
+
+		interceptor.afterCompletion(context, null, null);
+	}
+
+	private WebServiceMessage createAxiomRequest(AxiomSoapMessageFactory messageFactory, String payloadResource)
+			throws Exception {
+		String payload = FileCopyUtils.copyToString(
+				new InputStreamReader(getClass().getResourceAsStream(payloadResource), "UTF-8"));
+		payload = payload.replaceFirst("<\\?xml[^>]*\\?>", "");
+		String envelope = "<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'>" +
+				"<soapenv:Body>" + payload + "</soapenv:Body></soapenv:Envelope>";
+		TransportInputStream tis = new MockTransportInputStream(new ByteArrayInputStream(envelope.getBytes("UTF-8")));
+		return messageFactory.createWebServiceMessage(tis);
+	}
+
+}
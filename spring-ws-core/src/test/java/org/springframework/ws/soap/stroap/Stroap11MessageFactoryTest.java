@@ -0,0 +1,167 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.stroap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.transform.TransformerFactory;
+
+import org.springframework.util.FileCopyUtils;
+import org.springframework.ws.WebServiceMessageFactory;
+import org.springframework.ws.mime.Attachment;
+import org.springframework.ws.mime.AttachmentStore;
+import org.springframework.ws.soap.SoapFault;
+import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.soap.SoapVersion;
+import org.springframework.ws.soap.soap11.AbstractSoap11MessageFactoryTestCase;
+import org.springframework.ws.transport.MockTransportInputStream;
+import org.springframework.ws.transport.TransportInputStream;
+import org.springframework.xml.transform.StringResult;
+
+import org.junit.Test;
+
+import static org.custommonkey.xmlunit.XMLAssert.assertXMLEqual;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class Stroap11MessageFactoryTest extends AbstractSoap11MessageFactoryTestCase {
+
+	@Override
+	protected WebServiceMessageFactory createMessageFactory() throws Exception {
+		return new StroapMessageFactory();
+	}
+
+	@Test
+	public void testCreateSoapMessageNoPayloadCaching() throws Exception {
+		StroapMessageFactory messageFactory = new StroapMessageFactory();
+		messageFactory.setPayloadCaching(false);
+		InputStream is = AbstractSoap11MessageFactoryTestCase.class.getResourceAsStream("soap11.xml");
+		SoapMessage message = messageFactory.createWebServiceMessage(createTransportInputStream(is));
+		StringResult result = new StringResult();
+		TransformerFactory.newInstance().newTransformer().transform(message.getPayloadSource(), result);
+		assertXMLEqual("Invalid payload",
+				"<m:GetLastTradePrice xmlns:m='http://www.springframework.org/spring-ws'><symbol>DIS</symbol>" +
+						"</m:GetLastTradePrice>", result.toString());
+	}
+
+	@Test
+	public void testCreateSoapMessageFault() throws Exception {
+		String envelope = "<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'>" +
+				"<soapenv:Body><soapenv:Fault><faultcode>soapenv:Server</faultcode>" +
+				"<faultstring xml:lang='en'>Error</faultstring>" +
+				"<detail><spring:entry xmlns:spring='http://www.springframework.org'>Detail</spring:entry></detail>" +
+				"</soapenv:Fault></soapenv:Body></soapenv:Envelope>";
+		InputStream is = new ByteArrayInputStream(envelope.getBytes("UTF-8"));
+		SoapMessage message = (SoapMessage) messageFactory.createWebServiceMessage(createTransportInputStream(is));
+		assertTrue("Message has no fault", message.hasFault());
+		SoapFault fault = message.getSoapBody().getFault();
+		assertEquals("Invalid fault code", SoapVersion.SOAP_11.getServerOrReceiverFaultName(), fault.getFaultCode());
+		assertEquals("Invalid fault string", "Error", fault.getFaultStringOrReason());
+		assertTrue("Fault has no detail entries", fault.getFaultDetail().getDetailEntries().hasNext());
+	}
+
+	@Test
+	public void testCreateSoapMessageLargeAttachments() throws Exception {
+		byte[] content = createAttachmentContent();
+		assertLargeAttachments(new StroapMessageFactory(), content);
+	}
+
+	@Test
+	public void testCreateSoapMessageLargeAttachmentsStore() throws Exception {
+		AttachmentStore attachmentStore = new AttachmentStore();
+		attachmentStore.setSpillThreshold(1024);
+		StroapMessageFactory messageFactory = new StroapMessageFactory();
+		messageFactory.setAttachmentStore(attachmentStore);
+		try {
+			assertLargeAttachments(messageFactory, createAttachmentContent());
+		}
+		finally {
+			attachmentStore.destroy();
+		}
+	}
+
+	@Test(expected = StroapMessageCreationException.class)
+	public void testCreateSoapMessageMaxInMemorySize() throws Exception {
+		StroapMessageFactory messageFactory = new StroapMessageFactory();
+		messageFactory.setMaxInMemorySize(1024);
+		messageFactory.createWebServiceMessage(createMultipartInputStream(createAttachmentContent()));
+	}
+
+	private void assertLargeAttachments(StroapMessageFactory messageFactory, byte[] content) throws Exception {
+		SoapMessage message = messageFactory.createWebServiceMessage(createMultipartInputStream(content));
+		StringResult result = new StringResult();
+		TransformerFactory.newInstance().newTransformer().transform(message.getPayloadSource(), result);
+		assertXMLEqual("Invalid payload", "<payload xmlns='http://www.springframework.org/spring-ws'/>",
+				result.toString());
+		Attachment binary = message.getAttachment("binary");
+		assertEquals("Invalid size", content.length, binary.getSize());
+		assertArrayEquals("Invalid binary content", content, FileCopyUtils.copyToByteArray(binary.getInputStream()));
+		Attachment base64 = message.getAttachment("base64");
+		assertArrayEquals("Invalid base64 content", content, FileCopyUtils.copyToByteArray(base64.getInputStream()));
+		Attachment empty = message.getAttachment("empty");
+		assertEquals("Invalid empty content", 0, FileCopyUtils.copyToByteArray(empty.getInputStream()).length);
+	}
+
+	/** Creates content larger than the read buffer, with line breaks and dashes that resemble a boundary. */
+	private byte[] createAttachmentContent() {
+		byte[] content = new byte[100000];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = (byte) i;
+		}
+		byte[] lookalike = "\r\n--MIMEBoundar\r\n--".getBytes();
+		for (int i = 0; i + lookalike.length < content.length; i += 8000) {
+			System.arraycopy(lookalike, 0, content, i, lookalike.length);
+		}
+		return content;
+	}
+
+	private TransportInputStream createMultipartInputStream(byte[] content) throws Exception {
+		String base64 = DatatypeConverter.printBase64Binary(content).replaceAll("(.{76})", "$1\r\n");
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		bos.write(("--MIMEBoundary\r\n" +
+				"Content-Type: text/xml; charset=UTF-8\r\n" +
+				"Content-ID: <root>\r\n\r\n" +
+				"<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'><soapenv:Body>" +
+				"<payload xmlns='http://www.springframework.org/spring-ws'/></soapenv:Body></soapenv:Envelope>\r\n" +
+				"--MIMEBoundary\r\n" +
+				"Content-Type: application/octet-stream\r\n" +
+				"Content-ID: <binary>\r\n\r\n").getBytes("ISO-8859-1"));
+		bos.write(content);
+		bos.write(("\r\n--MIMEBoundary\r\n" +
+				"Content-Type: application/octet-stream\r\n" +
+				"Content-Transfer-Encoding: base64\r\n" +
+				"Content-ID: <base64>\r\n\r\n" + base64 + "\r\n" +
+				"--MIMEBoundary\r\n" +
+				"Content-ID: <empty>\r\n\r\n" +
+				"--MIMEBoundary--\r\n").getBytes("ISO-8859-1"));
+		Map<String, String> headers = new HashMap<String, String>();
+		headers.put("Content-Type", "multipart/related; type=\"text/xml\"; boundary=MIMEBoundary; start=\"<root>\"");
+		return new MockTransportInputStream(new ByteArrayInputStream(bos.toByteArray()), headers);
+	}
+
+	private TransportInputStream createTransportInputStream(InputStream is) {
+		Map<String, String> headers = new HashMap<String, String>();
+		headers.put("Content-Type", "text/xml");
+		return new MockTransportInputStream(is, headers);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,24 +17,15 @@
 package org.springframework.ws.soap.stroap;
 
 import org.springframework.ws.WebServiceMessageFactory;
-import org.springframework.ws.soap.soap11.AbstractSoap11MessageFactoryTestCase;
+import org.springframework.ws.soap.SoapVersion;
+import org.springframework.ws.soap.soap12.AbstractSoap12MessageFactoryTestCase;
 
-public class Stroap11MessageFactoryTest extends AbstractSoap11MessageFactoryTestCase {
+public class Stroap12MessageFactoryTest extends AbstractSoap12MessageFactoryTestCase {
 
 	@Override
 	protected WebServiceMessageFactory createMessageFactory() throws Exception {
-		return new StroapMessageFactory();
+		StroapMessageFactory messageFactory = new StroapMessageFactory();
+		messageFactory.setSoapVersion(SoapVersion.SOAP_12);
+		return messageFactory;
 	}
-
-	@Override
-	public void testCreateSoapMessageMtom() throws Exception {
-	}
-
-	@Override
-	public void testCreateSoapMessageSwA() throws Exception {
-	}
-
-	@Override
-	public void testCreateSoapMessageMtomWeirdStartInfo() throws Exception {
-	}
-}
\ No newline at end of file
+}
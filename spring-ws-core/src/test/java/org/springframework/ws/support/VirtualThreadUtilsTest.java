@@ -0,0 +1,66 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.support;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import org.springframework.util.ClassUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class VirtualThreadUtilsTest {
+
+	private static final boolean VIRTUAL_THREADS_SUPPORTED =
+			ClassUtils.isPresent("java.lang.Thread$Builder", VirtualThreadUtilsTest.class.getClassLoader());
+
+	@Test
+	public void isAvailable() {
+		assertEquals(VIRTUAL_THREADS_SUPPORTED, VirtualThreadUtils.isAvailable());
+	}
+
+	@Test
+	public void createThreadFactory() throws Exception {
+		Assume.assumeTrue(VIRTUAL_THREADS_SUPPORTED);
+		ThreadFactory threadFactory = VirtualThreadUtils.createThreadFactory("test-");
+		Thread thread = threadFactory.newThread(new Runnable() {
+
+			@Override
+			public void run() {
+			}
+		});
+		assertTrue("Invalid thread name", thread.getName().startsWith("test-"));
+		assertTrue("Not a virtual thread", (Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+	}
+
+	@Test
+	public void createThreadFactoryNotAvailable() {
+		Assume.assumeTrue(!VIRTUAL_THREADS_SUPPORTED);
+		try {
+			VirtualThreadUtils.createThreadFactory("test-");
+			fail("IllegalStateException expected");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+	}
+
+}
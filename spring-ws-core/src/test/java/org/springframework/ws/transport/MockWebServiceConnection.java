@@ -0,0 +1,93 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import org.springframework.util.Assert;
+import org.springframework.ws.MockWebServiceMessage;
+import org.springframework.ws.WebServiceMessageFactory;
+
+/**
+ * Connection that receives the given content, and writes the content it sends to a byte array.
+ */
+public class MockWebServiceConnection extends AbstractWebServiceConnection {
+
+	private final byte[] receivedContent;
+
+	private final ByteArrayOutputStream sentContent = new ByteArrayOutputStream();
+
+	public MockWebServiceConnection(byte[] receivedContent) {
+		Assert.notNull(receivedContent, "receivedContent must not be null");
+		this.receivedContent = receivedContent;
+	}
+
+	@Override
+	protected TransportOutputStream createTransportOutputStream() throws IOException {
+		return new MockTransportOutputStream(sentContent);
+	}
+
+	@Override
+	protected TransportInputStream createTransportInputStream() throws IOException {
+		return new MockTransportInputStream(new ByteArrayInputStream(receivedContent));
+	}
+
+	@Override
+	public URI getUri() throws URISyntaxException {
+		return new URI("mock://connection");
+	}
+
+	@Override
+	public boolean hasError() throws IOException {
+		return false;
+	}
+
+	@Override
+	public String getErrorMessage() throws IOException {
+		return null;
+	}
+
+	/**
+	 * Message factory that does not read the input stream when creating a message, like a streaming factory, but
+	 * leaves that to the caller.
+	 */
+	public static class LazyMessageFactory implements WebServiceMessageFactory {
+
+		private InputStream inputStream;
+
+		/** Returns the input stream of the last message created. */
+		public InputStream getInputStream() {
+			return inputStream;
+		}
+
+		@Override
+		public MockWebServiceMessage createWebServiceMessage() {
+			return new MockWebServiceMessage();
+		}
+
+		@Override
+		public MockWebServiceMessage createWebServiceMessage(InputStream inputStream) {
+			this.inputStream = inputStream;
+			return new MockWebServiceMessage();
+		}
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Test;
+
+import org.springframework.util.FileCopyUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TraceBufferTest {
+
+	@Test
+	public void notTruncated() throws Exception {
+		TraceBuffer buffer = new TraceBuffer(10);
+		buffer.write("abc".getBytes("UTF-8"), 0, 3);
+		buffer.write('d');
+		assertFalse("Buffer truncated", buffer.isTruncated());
+		assertEquals("Invalid count", 4, buffer.getCount());
+		assertEquals("Invalid contents", "abcd", buffer.toString());
+	}
+
+	@Test
+	public void truncated() throws Exception {
+		TraceBuffer buffer = new TraceBuffer(4);
+		buffer.write("abc".getBytes("UTF-8"), 0, 3);
+		buffer.write("defg".getBytes("UTF-8"), 1, 3);
+		buffer.write('h');
+		assertTrue("Buffer not truncated", buffer.isTruncated());
+		assertEquals("Invalid count", 7, buffer.getCount());
+		assertEquals("Invalid contents", "...efgh", buffer.toString());
+	}
+
+	@Test
+	public void largerThanCapacity() throws Exception {
+		TraceBuffer buffer = new TraceBuffer(4);
+		buffer.write('a');
+		buffer.write("0123456789".getBytes("UTF-8"), 0, 10);
+		assertEquals("Invalid count", 11, buffer.getCount());
+		assertEquals("Invalid contents", "...6789", buffer.toString());
+	}
+
+	@Test
+	public void transportStreams() throws Exception {
+		byte[] content = "<content/>".getBytes("UTF-8");
+		TraceBuffer receivedTrace = new TraceBuffer(100);
+		TransportInputStream tis = new MockTransportInputStream(new ByteArrayInputStream(content));
+		tis.setTraceBuffer(receivedTrace);
+		TraceBuffer sentTrace = new TraceBuffer(100);
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		TransportOutputStream tos = new MockTransportOutputStream(bos);
+		tos.setTraceBuffer(sentTrace);
+
+		FileCopyUtils.copy(tis, tos);
+
+		assertEquals("Invalid received trace", "<content/>", receivedTrace.toString());
+		assertEquals("Invalid sent trace", "<content/>", sentTrace.toString());
+		assertEquals("Invalid output", "<content/>", bos.toString("UTF-8"));
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -14,16 +14,13 @@
  * limitations under the License.
  */
 
-package org.springframework.ws.soap.stroap;
+package org.springframework.ws.transport.http;
 
-import org.springframework.ws.soap.SoapFault;
+public class AsyncClientHttpRequestMessageSenderIntegrationTest
+		extends AbstractHttpWebServiceMessageSenderIntegrationTestCase {
 
-/**
- * @author Arjen Poutsma
- */
-abstract class StroapFault extends StroapElement implements SoapFault {
-
-	protected StroapFault(StroapMessageFactory messageFactory) {
-		super(messageFactory.getSoapVersion().getFaultName(), messageFactory);
+	@Override
+	protected AbstractHttpWebServiceMessageSender createMessageSender() {
+		return new AsyncClientHttpRequestMessageSender();
 	}
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Executor;
+
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.ws.MockWebServiceMessage;
+
+import static org.easymock.EasyMock.*;
+
+public class HttpComponentsConnectionTest {
+
+	@Test
+	public void closeAfterEarlyResponseAndFailedWrite() throws Exception {
+		BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 413, "Request Entity Too Large");
+		CloseTrackingInputStream responseContent = new CloseTrackingInputStream("Too large".getBytes("UTF-8"));
+		response.setEntity(new InputStreamEntity(responseContent, -1));
+
+		// the server responds without reading the request body
+		HttpClient httpClientMock = createMock(HttpClient.class);
+		expect(httpClientMock.execute(isA(HttpPost.class))).andReturn(response);
+		replay(httpClientMock);
+
+		// executes the request in the calling thread, so that it has been responded to before the body is written
+		ConcurrentTaskExecutor executor = new ConcurrentTaskExecutor(new Executor() {
+
+			@Override
+			public void execute(Runnable command) {
+				command.run();
+			}
+		});
+		HttpPost httpPost = new HttpPost("http://localhost");
+		HttpComponentsConnection connection = new HttpComponentsConnection(httpClientMock, httpPost, null, executor);
+		try {
+			connection.send(new MockWebServiceMessage() {
+
+				@Override
+				public void writeTo(OutputStream outputStream) throws IOException {
+					outputStream.write(new byte[1024]);
+				}
+			});
+			Assert.fail("IOException expected");
+		}
+		catch (IOException ex) {
+			// expected
+		}
+		connection.close();
+
+		verify(httpClientMock);
+		Assert.assertTrue("Request not aborted", httpPost.isAborted());
+		Assert.assertTrue("Response not released", responseContent.closed);
+	}
+
+	private static class CloseTrackingInputStream extends ByteArrayInputStream {
+
+		private boolean closed;
+
+		private CloseTrackingInputStream(byte[] buf) {
+			super(buf);
+		}
+
+		@Override
+		public void close() throws IOException {
+			closed = true;
+			super.close();
+		}
+	}
+
+}
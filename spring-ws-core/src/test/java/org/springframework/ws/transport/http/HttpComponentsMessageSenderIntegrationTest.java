@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.ws.transport.http;
 
 import static org.hamcrest.core.IsEqual.*;
 import static org.springframework.test.util.MatcherAssertionErrors.*;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
@@ -29,7 +30,10 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.xml.namespace.QName;
 import javax.xml.soap.MessageFactory;
+import javax.xml.soap.SOAPElement;
+import javax.xml.soap.SOAPMessage;
 
 import org.apache.commons.httpclient.URIException;
 import org.apache.http.HttpHost;
@@ -134,6 +138,45 @@ public class HttpComponentsMessageSenderIntegrationTest extends AbstractHttpWebS
 
 	}
 
+	@Test
+	public void testRequestStreaming() throws Exception {
+		MessageFactory messageFactory = MessageFactory.newInstance();
+		int port = FreePortScanner.getFreePort();
+		Server jettyServer = new Server(port);
+		Context jettyContext = new Context(jettyServer, "/");
+		jettyContext.addServlet(new ServletHolder(new EchoServlet()), "/");
+		jettyServer.start();
+		WebServiceConnection connection = null;
+		try {
+			HttpComponentsMessageSender messageSender = new HttpComponentsMessageSender();
+			messageSender.setRequestStreaming(true);
+			connection = messageSender.createConnection(new URI("http://localhost:" + port));
+
+			SOAPMessage request = messageFactory.createMessage();
+			SOAPElement payload = request.getSOAPBody().addChildElement(new QName("http://example.com", "request"));
+			StringBuilder text = new StringBuilder();
+			for (int i = 0; i < 100000; i++) {
+				text.append("text");
+			}
+			payload.addTextNode(text.toString());
+			connection.send(new SaajSoapMessage(request));
+			SaajSoapMessage response =
+					(SaajSoapMessage) connection.receive(new SaajSoapMessageFactory(messageFactory));
+
+			assertNotNull("No response", response);
+			SOAPElement responsePayload = (SOAPElement) response.getSaajMessage().getSOAPBody().getFirstChild();
+			assertThat(responsePayload.getValue(), equalTo(text.toString()));
+		}
+		finally {
+			if (connection != null) {
+				connection.close();
+			}
+			if (jettyServer.isRunning()) {
+				jettyServer.stop();
+			}
+		}
+	}
+
 	@SuppressWarnings("serial")
 	private class EchoServlet extends HttpServlet {
 
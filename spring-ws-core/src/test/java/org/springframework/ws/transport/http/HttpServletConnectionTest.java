@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,11 @@
 
 package org.springframework.ws.transport.http;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 import javax.xml.soap.MessageFactory;
 import javax.xml.soap.MimeHeaders;
 import javax.xml.soap.SOAPConstants;
@@ -32,6 +36,7 @@ import org.junit.Test;
 
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.FileCopyUtils;
 import org.springframework.ws.soap.SoapVersion;
 import org.springframework.ws.soap.saaj.SaajSoapMessage;
 import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
@@ -106,6 +111,71 @@ public class HttpServletConnectionTest {
 		assertXMLEqual("Invalid content", SOAP_CONTENT, httpServletResponse.getContentAsString());
 	}
 
+	@Test
+	public void receiveCompressed() throws Exception {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		GZIPOutputStream gzip = new GZIPOutputStream(bos);
+		gzip.write(SOAP_CONTENT.getBytes("UTF-8"));
+		gzip.close();
+		byte[] bytes = bos.toByteArray();
+		httpServletRequest.addHeader("Content-Type", "text/xml");
+		httpServletRequest.addHeader("Content-Encoding", "gzip");
+		httpServletRequest.addHeader("Content-Length", Integer.toString(bytes.length));
+		httpServletRequest.setContent(bytes);
+		connection.setDecompressRequest(true);
+		SaajSoapMessage message = (SaajSoapMessage) connection.receive(messageFactory);
+		Assert.assertNotNull("No message received", message);
+		StringResult result = new StringResult();
+		transformerFactory.newTransformer().transform(message.getPayloadSource(), result);
+		assertXMLEqual("Invalid message", CONTENT, result.toString());
+	}
+
+	@Test
+	public void sendCompressed() throws Exception {
+		httpServletRequest.addHeader("Accept-Encoding", "deflate;q=0.5, gzip");
+		connection.setCompressResponse(true);
+		connection.setResponseCompressionThreshold(0);
+		SaajSoapMessage message = messageFactory.createWebServiceMessage();
+		transformerFactory.newTransformer().transform(new StringSource(CONTENT), message.getPayloadResult());
+
+		connection.send(message);
+
+		assertEquals("Invalid Content-Encoding header", "gzip", httpServletResponse.getHeader("Content-Encoding"));
+		GZIPInputStream gzip =
+				new GZIPInputStream(new ByteArrayInputStream(httpServletResponse.getContentAsByteArray()));
+		assertXMLEqual("Invalid content", SOAP_CONTENT, new String(FileCopyUtils.copyToByteArray(gzip), "UTF-8"));
+	}
+
+	@Test
+	public void sendBelowCompressionThreshold() throws Exception {
+		httpServletRequest.addHeader("Accept-Encoding", "gzip");
+		connection.setCompressResponse(true);
+		connection.setResponseCompressionThreshold(4096);
+		SaajSoapMessage message = messageFactory.createWebServiceMessage();
+		transformerFactory.newTransformer().transform(new StringSource(CONTENT), message.getPayloadResult());
+
+		connection.send(message);
+
+		Assert.assertNull("Content-Encoding header set", httpServletResponse.getHeader("Content-Encoding"));
+		assertEquals("Invalid Content-Length", httpServletResponse.getContentAsByteArray().length,
+				httpServletResponse.getContentLength());
+		assertXMLEqual("Invalid content", SOAP_CONTENT, httpServletResponse.getContentAsString());
+	}
+
+	@Test
+	public void sendCompressionNotAccepted() throws Exception {
+		httpServletRequest.addHeader("Accept-Encoding", "gzip;q=0");
+		connection.setCompressResponse(true);
+		connection.setResponseCompressionThreshold(0);
+		SaajSoapMessage message = messageFactory.createWebServiceMessage();
+		transformerFactory.newTransformer().transform(new StringSource(CONTENT), message.getPayloadResult());
+
+		connection.send(message);
+
+		Assert.assertNull("Content-Encoding header set", httpServletResponse.getHeader("Content-Encoding"));
+		assertXMLEqual("Invalid content", SOAP_CONTENT, httpServletResponse.getContentAsString());
+	}
+
 	@Test
 	public void faultCodes() throws IOException {
 		connection.setFaultCode(SoapVersion.SOAP_11.getClientOrSenderFaultName());
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,9 @@ package org.springframework.ws.transport.http;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
 import javax.servlet.http.HttpServletResponse;
 
 import static org.easymock.EasyMock.*;
@@ -207,6 +210,45 @@ public class WebServiceMessageReceiverHandlerAdapterTest {
 		verifyMockControls();
 	}
 
+	@Test
+	public void testHandlePostResponseAsync() throws Exception {
+		httpRequest.setMethod(HttpTransportConstants.METHOD_POST);
+		httpRequest.setContent(REQUEST.getBytes("UTF-8"));
+		httpRequest.setContentType("text/xml; charset=\"utf-8\"");
+		httpRequest.setCharacterEncoding("UTF-8");
+		httpRequest.setAsyncSupported(true);
+		expect(factoryMock.createWebServiceMessage(isA(InputStream.class))).andReturn(requestMock);
+		expect(factoryMock.createWebServiceMessage()).andReturn(responseMock);
+		expect(responseMock.getFaultCode()).andReturn(null);
+		responseMock.writeTo(isA(OutputStream.class));
+
+		replayMockControls();
+		final List<Runnable> tasks = new ArrayList<Runnable>();
+		adapter.setAsyncExecutor(new Executor() {
+
+			@Override
+			public void execute(Runnable command) {
+				tasks.add(command);
+			}
+		});
+		WebServiceMessageReceiver endpoint = new WebServiceMessageReceiver() {
+
+			@Override
+			public void receive(MessageContext messageContext) throws Exception {
+				messageContext.getResponse();
+			}
+		};
+
+		adapter.handle(httpRequest, httpResponse, endpoint);
+
+		Assert.assertTrue("Request not handled asynchronously", httpRequest.isAsyncStarted());
+		Assert.assertEquals("Invalid number of tasks", 1, tasks.size());
+		tasks.get(0).run();
+		Assert.assertFalse("Async processing not completed", httpRequest.isAsyncStarted());
+		Assert.assertEquals("Invalid status code on response", HttpServletResponse.SC_OK, httpResponse.getStatus());
+		verifyMockControls();
+	}
+
 	private void replayMockControls() {
 		replay(factoryMock, requestMock, responseMock);
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.ws.transport.http;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.zip.GZIPInputStream;
 import javax.servlet.http.HttpServletResponse;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -26,6 +27,7 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.FileCopyUtils;
 import org.springframework.ws.wsdl.WsdlDefinition;
 import org.springframework.ws.wsdl.wsdl11.SimpleWsdl11Definition;
 import org.springframework.xml.transform.StringSource;
@@ -225,4 +227,114 @@ public class WsdlDefinitionHandlerAdapterTest {
 		assertXMLEqual("Invalid WSDL returned", expectedDocument, resultingDocument);
 	}
 
-}
\ No newline at end of file
+	@Test
+	public void handleGetCached() throws Exception {
+		adapter.setCacheEnabled(true);
+		request.setMethod(HttpTransportConstants.METHOD_GET);
+		String definition = "<definition xmlns='http://schemas.xmlsoap.org/wsdl/'/>";
+		expect(definitionMock.getSource()).andReturn(new StringSource(definition)).once();
+
+		replay(definitionMock);
+
+		adapter.handle(request, response, definitionMock);
+		assertXMLEqual(definition, response.getContentAsString());
+		String etag = response.getHeader("ETag");
+		Assert.assertNotNull("No ETag", etag);
+		Assert.assertTrue("ETag not strong", etag.startsWith("\""));
+
+		MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+		adapter.handle(request, secondResponse, definitionMock);
+		Assert.assertArrayEquals("Invalid cached content", response.getContentAsByteArray(),
+				secondResponse.getContentAsByteArray());
+		Assert.assertEquals("Invalid ETag", etag, secondResponse.getHeader("ETag"));
+
+		verify(definitionMock);
+	}
+
+	@Test
+	public void handleGetCachedNotModified() throws Exception {
+		adapter.setCacheEnabled(true);
+		request.setMethod(HttpTransportConstants.METHOD_GET);
+		String definition = "<definition xmlns='http://schemas.xmlsoap.org/wsdl/'/>";
+		expect(definitionMock.getSource()).andReturn(new StringSource(definition)).once();
+
+		replay(definitionMock);
+
+		adapter.handle(request, response, definitionMock);
+		String etag = response.getHeader("ETag");
+
+		MockHttpServletRequest secondRequest = new MockHttpServletRequest(HttpTransportConstants.METHOD_GET, "/");
+		secondRequest.addHeader("If-None-Match", "\"other\", " + etag);
+		MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+		adapter.handle(secondRequest, secondResponse, definitionMock);
+		Assert.assertEquals("NOT_MODIFIED expected", HttpServletResponse.SC_NOT_MODIFIED, secondResponse.getStatus());
+		Assert.assertEquals("Content returned", 0, secondResponse.getContentAsByteArray().length);
+		Assert.assertEquals("Invalid ETag", etag, secondResponse.getHeader("ETag"));
+
+		verify(definitionMock);
+	}
+
+	@Test
+	public void handleGetCachedGzip() throws Exception {
+		adapter.setCacheEnabled(true);
+		adapter.setGzipEnabled(true);
+		request.setMethod(HttpTransportConstants.METHOD_GET);
+		String definition = "<definition xmlns='http://schemas.xmlsoap.org/wsdl/'/>";
+		expect(definitionMock.getSource()).andReturn(new StringSource(definition)).once();
+
+		replay(definitionMock);
+
+		adapter.handle(request, response, definitionMock);
+		Assert.assertNull("Content encoded", response.getHeader("Content-Encoding"));
+
+		MockHttpServletRequest gzipRequest = new MockHttpServletRequest(HttpTransportConstants.METHOD_GET, "/");
+		gzipRequest.addHeader("Accept-Encoding", "deflate, gzip");
+		MockHttpServletResponse gzipResponse = new MockHttpServletResponse();
+		adapter.handle(gzipRequest, gzipResponse, definitionMock);
+		Assert.assertEquals("Invalid Content-Encoding", "gzip", gzipResponse.getHeader("Content-Encoding"));
+		Assert.assertEquals("Invalid Vary", "Accept-Encoding", gzipResponse.getHeader("Vary"));
+		Assert.assertFalse("Same ETag for both variants",
+				response.getHeader("ETag").equals(gzipResponse.getHeader("ETag")));
+		byte[] decompressed = FileCopyUtils.copyToByteArray(
+				new GZIPInputStream(new ByteArrayInputStream(gzipResponse.getContentAsByteArray())));
+		Assert.assertArrayEquals("Invalid gzipped content", response.getContentAsByteArray(), decompressed);
+
+		verify(definitionMock);
+	}
+
+	@Test
+	public void handleSimpleWsdl11DefinitionCachedPerOrigin() throws Exception {
+		adapter.setTransformLocations(true);
+		adapter.setCacheEnabled(true);
+
+		SimpleWsdl11Definition definition =
+				new SimpleWsdl11Definition(new ClassPathResource("echo-input.wsdl", getClass()));
+
+		MockHttpServletResponse firstResponse = handleForOrigin(definition, "example.com");
+		MockHttpServletResponse secondResponse = handleForOrigin(definition, "example.org");
+		MockHttpServletResponse thirdResponse = handleForOrigin(definition, "example.com");
+
+		Assert.assertTrue("Location not transformed",
+				firstResponse.getContentAsString().contains("http://example.com:80/echo/services"));
+		Assert.assertTrue("Location not transformed",
+				secondResponse.getContentAsString().contains("http://example.org:80/echo/services"));
+		Assert.assertFalse("Same ETag for different origins",
+				firstResponse.getHeader("ETag").equals(secondResponse.getHeader("ETag")));
+		Assert.assertEquals("Invalid ETag", firstResponse.getHeader("ETag"), thirdResponse.getHeader("ETag"));
+		Assert.assertEquals("Invalid content", firstResponse.getContentAsString(), thirdResponse.getContentAsString());
+	}
+
+	private MockHttpServletResponse handleForOrigin(WsdlDefinition definition, String serverName) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest(HttpTransportConstants.METHOD_GET,
+				"/context/service.wsdl");
+		request.setScheme("http");
+		request.setServerName(serverName);
+		request.setServerPort(80);
+		request.setContextPath("/context");
+		request.setServletPath("/service.wsdl");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		adapter.handle(request, response, definition);
+		return response;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,19 +17,28 @@
 package org.springframework.ws.transport.support;
 
 import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import javax.xml.namespace.QName;
 
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+
 import static org.easymock.EasyMock.*;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import org.springframework.util.FileCopyUtils;
 import org.springframework.ws.MockWebServiceMessage;
 import org.springframework.ws.MockWebServiceMessageFactory;
 import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.soap.SoapVersion;
 import org.springframework.ws.transport.FaultAwareWebServiceConnection;
+import org.springframework.ws.transport.MockWebServiceConnection;
 import org.springframework.ws.transport.WebServiceMessageReceiver;
 public class WebServiceMessageReceiverObjectSupportTest {
 
@@ -122,7 +131,62 @@ public class WebServiceMessageReceiverObjectSupportTest {
 		verify(connectionMock);
 	}
 
+	@Test
+	public void handleConnectionTransportTracing() throws Exception {
+		final MockWebServiceConnection.LazyMessageFactory lazyMessageFactory =
+				new MockWebServiceConnection.LazyMessageFactory();
+		receiverSupport.setMessageFactory(lazyMessageFactory);
+		receiverSupport.setMessageTracingBufferSize(1024);
+		MockWebServiceConnection connection = new MockWebServiceConnection("<request/>".getBytes("UTF-8"));
+
+		WebServiceMessageReceiver receiver = new WebServiceMessageReceiver() {
+
+			public void receive(MessageContext messageContext) throws Exception {
+				// read the request while handling it, like a streaming endpoint
+				FileCopyUtils.copyToByteArray(lazyMessageFactory.getInputStream());
+				((MockWebServiceMessage) messageContext.getResponse()).setPayload("<response/>");
+			}
+		};
+
+		Logger tracingLogger = Logger.getLogger("org.springframework.ws.server.MessageTracing");
+		Level level = tracingLogger.getLevel();
+		RecordingAppender appender = new RecordingAppender();
+		tracingLogger.addAppender(appender);
+		tracingLogger.setLevel(Level.TRACE);
+		try {
+			receiverSupport.handleConnection(connection, receiver);
+		}
+		finally {
+			tracingLogger.removeAppender(appender);
+			tracingLogger.setLevel(level);
+		}
+
+		Assert.assertEquals("Invalid amount of messages traced", 2, appender.messages.size());
+		Assert.assertEquals("Invalid received trace", "Received request [<request/>]", appender.messages.get(0));
+		Assert.assertEquals("Invalid sent trace", "Sent response [<response/>] for request [<request/>]",
+				appender.messages.get(1));
+	}
+
 	private static class MyReceiverSupport extends WebServiceMessageReceiverObjectSupport {
 
 	}
-}
\ No newline at end of file
+
+	private static class RecordingAppender extends AppenderSkeleton {
+
+		private final List<String> messages = new CopyOnWriteArrayList<String>();
+
+		@Override
+		protected void append(LoggingEvent loggingEvent) {
+			messages.add(loggingEvent.getRenderedMessage());
+		}
+
+		@Override
+		public boolean requiresLayout() {
+			return false;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
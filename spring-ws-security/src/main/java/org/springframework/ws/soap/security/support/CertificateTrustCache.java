@@ -0,0 +1,235 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.security.support;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.Assert;
+
+/**
+ * Cache of certificate chains that have been found trusted. Used to avoid full certificate path validation when the
+ * same client certificate is received over and over again.
+ *
+ * <p>Chains are identified by the SHA-256 fingerprints of their certificates, together with a qualifier that
+ * describes how they were validated, such as whether revocation was checked. A chain validated without revocation
+ * checking is therefore never returned for a validation that requires it. The qualifier should also identify the trust
+ * store that validated the chain, if the cache is shared by validators with different trust stores; the
+ * {@code TrustCachingCrypto} implementations do so.
+ *
+ * <p>Entries expire after the {@linkplain #setTimeToLive(long) time to live}, or when one of the certificates in the
+ * chain expires, whichever comes first. Entries for a revoked certificate can be dropped with {@link
+ * #invalidate(X509Certificate)}, all entries with {@link #clear()}, for instance after the revocation lists have been
+ * updated. The cache holds at most {@linkplain #setMaxEntries(int) maxEntries} chains.
+ *
+ * @author Arjen Poutsma
+ * @see org.springframework.ws.soap.security.wss4j.support.TrustCachingCrypto
+ * @see org.springframework.ws.soap.security.wss4j2.support.TrustCachingCrypto
+ * @since 2.3.0
+ */
+public class CertificateTrustCache {
+
+	/** The default maximum number of entries: 10000. */
+	public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+	/** The default time to live in seconds: five minutes. */
+	public static final long DEFAULT_TIME_TO_LIVE = 300;
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private volatile int maxEntries = DEFAULT_MAX_ENTRIES;
+
+	private volatile long timeToLive = DEFAULT_TIME_TO_LIVE;
+
+	/** Sets the maximum number of chains held by this cache. Defaults to {@link #DEFAULT_MAX_ENTRIES}. */
+	public void setMaxEntries(int maxEntries) {
+		Assert.isTrue(maxEntries > 0, "'maxEntries' must be larger than 0");
+		this.maxEntries = maxEntries;
+	}
+
+	/** Sets the time in seconds that a chain is considered trusted. Defaults to {@link #DEFAULT_TIME_TO_LIVE}. */
+	public void setTimeToLive(long timeToLive) {
+		Assert.isTrue(timeToLive > 0, "'timeToLive' must be larger than 0");
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Indicates whether the given chain has been found trusted before, using the given qualifier, and the entry has not
+	 * expired yet. Updates the hit and miss counts.
+	 *
+	 * @param certificates the certificate chain
+	 * @param qualifier describes how the chain is validated, for instance whether revocation is checked
+	 * @return {@code true} if the chain is trusted; {@code false} if it should be validated
+	 */
+	public boolean contains(X509Certificate[] certificates, String qualifier) {
+		String key = getKey(certificates, qualifier);
+		if (key != null) {
+			Entry entry = entries.get(key);
+			if (entry != null) {
+				if (entry.expirationTime > System.currentTimeMillis()) {
+					hitCount.incrementAndGet();
+					return true;
+				}
+				entries.remove(key, entry);
+			}
+		}
+		missCount.incrementAndGet();
+		return false;
+	}
+
+	/**
+	 * Adds the given chain, which has been found trusted using the given qualifier, to this cache.
+	 *
+	 * @param certificates the certificate chain
+	 * @param qualifier describes how the chain was validated, for instance whether revocation was checked
+	 */
+	public void add(X509Certificate[] certificates, String qualifier) {
+		String key = getKey(certificates, qualifier);
+		if (key == null) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		long expirationTime = now + timeToLive * 1000;
+		String[] fingerprints = new String[certificates.length];
+		for (int i = 0; i < certificates.length; i++) {
+			expirationTime = Math.min(expirationTime, certificates[i].getNotAfter().getTime());
+			fingerprints[i] = getFingerprint(certificates[i]);
+		}
+		if (expirationTime <= now) {
+			return;
+		}
+		if (entries.size() >= maxEntries) {
+			evict(now);
+		}
+		entries.put(key, new Entry(expirationTime, fingerprints));
+	}
+
+	/**
+	 * Removes all chains that contain the given certificate, for instance because it has been revoked.
+	 *
+	 * @param certificate the certificate to invalidate
+	 */
+	public void invalidate(X509Certificate certificate) {
+		String fingerprint = getFingerprint(certificate);
+		if (fingerprint == null) {
+			return;
+		}
+		for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+			for (String chainFingerprint : iterator.next().fingerprints) {
+				if (fingerprint.equals(chainFingerprint)) {
+					iterator.remove();
+					break;
+				}
+			}
+		}
+	}
+
+	/** Removes all chains from this cache. */
+	public void clear() {
+		entries.clear();
+	}
+
+	/** Returns the number of chains in this cache. */
+	public int size() {
+		return entries.size();
+	}
+
+	/** Returns the number of lookups that found a trusted chain. */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/** Returns the number of lookups that did not find a trusted chain. */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/** Removes expired entries and, if still full, arbitrary entries, to make room for a new entry. */
+	private void evict(long now) {
+		for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+			if (iterator.next().expirationTime <= now) {
+				iterator.remove();
+			}
+		}
+		for (Iterator<String> iterator = entries.keySet().iterator();
+				iterator.hasNext() && entries.size() >= maxEntries; ) {
+			iterator.next();
+			iterator.remove();
+		}
+	}
+
+	private static String getKey(X509Certificate[] certificates, String qualifier) {
+		if (certificates == null || certificates.length == 0) {
+			return null;
+		}
+		StringBuilder builder = new StringBuilder(qualifier != null ? qualifier : "");
+		for (X509Certificate certificate : certificates) {
+			String fingerprint = getFingerprint(certificate);
+			if (fingerprint == null) {
+				return null;
+			}
+			builder.append(':').append(fingerprint);
+		}
+		return builder.toString();
+	}
+
+	private static String getFingerprint(X509Certificate certificate) {
+		if (certificate == null) {
+			return null;
+		}
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(certificate.getEncoded());
+			char[] chars = new char[digest.length * 2];
+			for (int i = 0; i < digest.length; i++) {
+				chars[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0xf];
+				chars[i * 2 + 1] = HEX_DIGITS[digest[i] & 0xf];
+			}
+			return new String(chars);
+		}
+		catch (CertificateEncodingException ex) {
+			return null;
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("SHA-256 not supported", ex);
+		}
+	}
+
+	private static final class Entry {
+
+		private final long expirationTime;
+
+		private final String[] fingerprints;
+
+		private Entry(long expirationTime, String[] fingerprints) {
+			this.expirationTime = expirationTime;
+			this.fingerprints = fingerprints;
+		}
+	}
+
+}
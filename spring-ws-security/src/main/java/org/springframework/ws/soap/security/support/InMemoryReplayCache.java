@@ -0,0 +1,292 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.security.support;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * In-memory implementation of the {@link ReplayCache} interface.
+ *
+ * <p>The cache holds at most {@link #setMaxEntries(int) maxEntries} identifiers. It is split into stripes, each
+ * guarded by its own lock, so that concurrent requests rarely contend. Each stripe is a hash table of identifiers and
+ * their expiration times, kept in arrays, so that adding an identifier creates no garbage besides the identifier
+ * itself. Expired identifiers are evicted when a stripe is full.
+ *
+ * <p>The maximum number of entries should be at least the peak number of requests per second multiplied by the time to
+ * live: at 20000 requests per second and a time to live of five minutes, for instance, 6000000 entries. If the cache is
+ * too small, identifiers are evicted before they expire, so that replays of their messages are not detected. Such
+ * evictions are logged as a warning, and counted by {@link #getEvictionCount()}.
+ *
+ * <p>The contents of this cache are lost on restart; use the {@link MappedFileReplayCache} to retain them.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+public class InMemoryReplayCache implements ReplayCache {
+
+	/** The default maximum number of entries: 100000. */
+	public static final int DEFAULT_MAX_ENTRIES = 100000;
+
+	/** The default time to live in seconds: one hour. */
+	public static final long DEFAULT_TIME_TO_LIVE = 3600;
+
+	private static final Log logger = LogFactory.getLog(InMemoryReplayCache.class);
+
+	private static final int MAX_STRIPES = 64;
+
+	private static final int MIN_ENTRIES_PER_STRIPE = 64;
+
+	/** The minimum interval between eviction warnings, in milliseconds. */
+	private static final long EVICTION_WARNING_INTERVAL = 60 * 1000;
+
+	private volatile Stripe[] stripes;
+
+	private volatile long defaultTimeToLive = DEFAULT_TIME_TO_LIVE;
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	private final AtomicLong lastEvictionWarning = new AtomicLong();
+
+	public InMemoryReplayCache() {
+		setMaxEntries(DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * Sets the maximum number of identifiers held by this cache. Defaults to {@link #DEFAULT_MAX_ENTRIES}. Setting this
+	 * property clears the cache.
+	 */
+	public void setMaxEntries(int maxEntries) {
+		Assert.isTrue(maxEntries > 0, "'maxEntries' must be larger than 0");
+		int stripeCount = Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, maxEntries / MIN_ENTRIES_PER_STRIPE)));
+		int entriesPerStripe = (maxEntries + stripeCount - 1) / stripeCount;
+		Assert.isTrue(entriesPerStripe <= (1 << 29), "'maxEntries' is too large");
+		Stripe[] stripes = new Stripe[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			stripes[i] = new Stripe(entriesPerStripe);
+		}
+		this.stripes = stripes;
+	}
+
+	/**
+	 * Sets the time to live in seconds used for identifiers added without one. Defaults to {@link
+	 * #DEFAULT_TIME_TO_LIVE}.
+	 */
+	public void setDefaultTimeToLive(long defaultTimeToLive) {
+		Assert.isTrue(defaultTimeToLive > 0, "'defaultTimeToLive' must be larger than 0");
+		this.defaultTimeToLive = defaultTimeToLive;
+	}
+
+	@Override
+	public void add(String identifier) {
+		add(identifier, defaultTimeToLive);
+	}
+
+	@Override
+	public void add(String identifier, long timeToLive) {
+		Assert.notNull(identifier, "'identifier' must not be null");
+		if (timeToLive <= 0) {
+			timeToLive = defaultTimeToLive;
+		}
+		long now = System.currentTimeMillis();
+		if (getStripe(identifier).add(identifier, now + timeToLive * 1000, now)) {
+			onEviction(now);
+		}
+	}
+
+	@Override
+	public boolean contains(String identifier) {
+		Assert.notNull(identifier, "'identifier' must not be null");
+		return getStripe(identifier).contains(identifier, System.currentTimeMillis());
+	}
+
+	/** Returns the number of identifiers in this cache, including those that have expired but were not evicted yet. */
+	public int size() {
+		int size = 0;
+		for (Stripe stripe : stripes) {
+			size += stripe.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the number of identifiers that were evicted before they expired, because the cache was full. If this
+	 * number increases, the {@linkplain #setMaxEntries(int) maximum number of entries} is too small.
+	 */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	private void onEviction(long now) {
+		long count = evictionCount.incrementAndGet();
+		long lastWarning = lastEvictionWarning.get();
+		if (now - lastWarning >= EVICTION_WARNING_INTERVAL && lastEvictionWarning.compareAndSet(lastWarning, now) &&
+				logger.isWarnEnabled()) {
+			logger.warn("Replay cache full: evicted " + count + " unexpired identifiers in total, so that replays " +
+					"of their messages are not detected. Increase the maximum number of entries.");
+		}
+	}
+
+	private Stripe getStripe(String identifier) {
+		Stripe[] stripes = this.stripes;
+		int hash = identifier.hashCode();
+		hash ^= (hash >>> 16);
+		return stripes[hash & (stripes.length - 1)];
+	}
+
+	/**
+	 * A part of the cache: a hash table with linear probing, which holds identifiers and their expiration times in
+	 * parallel arrays. It has room for twice the maximum number of entries, so that probe sequences stay short.
+	 */
+	private static final class Stripe {
+
+		private final String[] identifiers;
+
+		private final long[] expirationTimes;
+
+		private final int maxEntries;
+
+		private final int shift;
+
+		private int count;
+
+		private Stripe(int maxEntries) {
+			this.maxEntries = maxEntries;
+			int capacity = Integer.highestOneBit(2 * maxEntries - 1) << 1;
+			this.identifiers = new String[capacity];
+			this.expirationTimes = new long[capacity];
+			this.shift = 32 - Integer.numberOfTrailingZeros(capacity);
+		}
+
+		/**
+		 * Adds the given identifier, or extends its expiration time if already present.
+		 *
+		 * @return {@code true} if an unexpired identifier was evicted to make room; {@code false} otherwise
+		 */
+		synchronized boolean add(String identifier, long expirationTime, long now) {
+			int index = indexOf(identifier);
+			if (index >= 0) {
+				if (expirationTimes[index] < expirationTime) {
+					expirationTimes[index] = expirationTime;
+				}
+				return false;
+			}
+			boolean evicted = false;
+			if (count >= maxEntries) {
+				evicted = !evictExpired(now);
+			}
+			index = home(identifier);
+			while (identifiers[index] != null) {
+				index = (index + 1) & (identifiers.length - 1);
+			}
+			identifiers[index] = identifier;
+			expirationTimes[index] = expirationTime;
+			count++;
+			return evicted;
+		}
+
+		synchronized boolean contains(String identifier, long now) {
+			int index = indexOf(identifier);
+			if (index < 0) {
+				return false;
+			}
+			else if (expirationTimes[index] <= now) {
+				remove(index);
+				return false;
+			}
+			else {
+				return true;
+			}
+		}
+
+		synchronized int size() {
+			return count;
+		}
+
+		private int home(String identifier) {
+			// Fibonacci hashing, so that the table does not use the bits that selected the stripe
+			return (identifier.hashCode() * 0x9e3779b9) >>> shift;
+		}
+
+		private int indexOf(String identifier) {
+			int index = home(identifier);
+			String candidate;
+			while ((candidate = identifiers[index]) != null) {
+				if (candidate.equals(identifier)) {
+					return index;
+				}
+				index = (index + 1) & (identifiers.length - 1);
+			}
+			return -1;
+		}
+
+		/**
+		 * Evicts all expired identifiers. If none have expired, evicts the identifier that expires first instead.
+		 *
+		 * @return {@code true} if expired identifiers were evicted; {@code false} if an unexpired one was evicted
+		 */
+		private boolean evictExpired(long now) {
+			int earliestIndex = -1;
+			long earliestExpirationTime = Long.MAX_VALUE;
+			boolean expired = false;
+			int i = 0;
+			while (i < identifiers.length) {
+				if (identifiers[i] != null && expirationTimes[i] <= now) {
+					// another identifier might take its place, so check the same index again
+					remove(i);
+					expired = true;
+				}
+				else {
+					if (identifiers[i] != null && expirationTimes[i] < earliestExpirationTime) {
+						earliestExpirationTime = expirationTimes[i];
+						earliestIndex = i;
+					}
+					i++;
+				}
+			}
+			if (!expired && earliestIndex >= 0) {
+				remove(earliestIndex);
+			}
+			return expired;
+		}
+
+		/** Removes the identifier at the given index, moving back those that follow it in their probe sequence. */
+		private void remove(int index) {
+			int mask = identifiers.length - 1;
+			int gap = index;
+			int next = (gap + 1) & mask;
+			while (identifiers[next] != null) {
+				int home = home(identifiers[next]);
+				// move the identifier into the gap, unless its home lies cyclically within (gap, next]
+				if (((next - home) & mask) >= ((next - gap) & mask)) {
+					identifiers[gap] = identifiers[next];
+					expirationTimes[gap] = expirationTimes[next];
+					gap = next;
+				}
+				next = (next + 1) & mask;
+			}
+			identifiers[gap] = null;
+			expirationTimes[gap] = 0;
+			count--;
+		}
+	}
+
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.security.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ReplayCache} implementation that keeps its entries in a memory-mapped file, so that they survive restarts.
+ *
+ * <p>The file contains a fixed-size hash table, which is split into segments that are each guarded by their own lock.
+ * Rather than the identifiers themselves, the table holds a 128-bit hash of each identifier, together with its
+ * expiration time. As a consequence, the cache does not create garbage while it is used, and its size on disk is
+ * fixed: about 48 bytes per {@linkplain #setMaxEntries(int) entry}. Expired entries are overwritten by new ones. When
+ * there is no room left for a new entry, the entry that expires first is overwritten, even if it has not expired yet.
+ *
+ * <p>The file is created when it does not exist. It is cleared when it was written with a different layout, for
+ * instance after the maximum number of entries has changed. Changes are written to disk by the operating system, and
+ * explicitly when the cache is {@linkplain #destroy() destroyed}.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+public class MappedFileReplayCache implements ReplayCache, InitializingBean, DisposableBean {
+
+	/** The default maximum number of entries: 100000. */
+	public static final int DEFAULT_MAX_ENTRIES = 100000;
+
+	/** The default time to live in seconds: one hour. */
+	public static final long DEFAULT_TIME_TO_LIVE = 3600;
+
+	private static final Log logger = LogFactory.getLog(MappedFileReplayCache.class);
+
+	private static final int MAGIC = 0x53575243;
+
+	private static final int VERSION = 1;
+
+	/** Magic number, version, segment count, and slots per segment. */
+	private static final int HEADER_SIZE = 16;
+
+	/** Two 64-bit hashes, and the expiration time. */
+	private static final int SLOT_SIZE = 24;
+
+	private static final int PROBE_LENGTH = 16;
+
+	private static final int MAX_SEGMENTS = 64;
+
+	private File file;
+
+	private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+	private long defaultTimeToLive = DEFAULT_TIME_TO_LIVE;
+
+	private FileChannel channel;
+
+	private MappedByteBuffer buffer;
+
+	private Object[] locks;
+
+	private int slotsPerSegment;
+
+	/** Sets the file that holds the entries of this cache. Required. */
+	public void setFile(File file) {
+		this.file = file;
+	}
+
+	/** Sets the maximum number of entries of this cache. Defaults to {@link #DEFAULT_MAX_ENTRIES}. */
+	public void setMaxEntries(int maxEntries) {
+		Assert.isTrue(maxEntries > 0, "'maxEntries' must be larger than 0");
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Sets the time to live in seconds used for identifiers added without one. Defaults to {@link
+	 * #DEFAULT_TIME_TO_LIVE}.
+	 */
+	public void setDefaultTimeToLive(long defaultTimeToLive) {
+		Assert.isTrue(defaultTimeToLive > 0, "'defaultTimeToLive' must be larger than 0");
+		this.defaultTimeToLive = defaultTimeToLive;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws IOException {
+		Assert.notNull(file, "'file' is required");
+		// a load factor of at most 0.5 keeps the probe sequences short
+		int segmentCount = Math.min(MAX_SEGMENTS, Integer.highestOneBit(Math.max(1, maxEntries / 1024)));
+		long minSlotsPerSegment = Math.max(PROBE_LENGTH, 2L * maxEntries / segmentCount);
+		Assert.isTrue(minSlotsPerSegment <= (1 << 29), "'maxEntries' is too large");
+		int slotsPerSegment = Integer.highestOneBit((int) minSlotsPerSegment - 1) << 1;
+		long size = HEADER_SIZE + (long) segmentCount * slotsPerSegment * SLOT_SIZE;
+		Assert.isTrue(size <= Integer.MAX_VALUE, "'maxEntries' is too large");
+
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		channel = randomAccessFile.getChannel();
+		boolean sizeMatches = channel.size() == size;
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		if (!sizeMatches || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION ||
+				buffer.getInt(8) != segmentCount || buffer.getInt(12) != slotsPerSegment) {
+			if (logger.isInfoEnabled()) {
+				logger.info("Initializing replay cache file [" + file + "]");
+			}
+			for (int i = HEADER_SIZE; i < size; i += 8) {
+				buffer.putLong(i, 0);
+			}
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, VERSION);
+			buffer.putInt(8, segmentCount);
+			buffer.putInt(12, slotsPerSegment);
+		}
+		this.slotsPerSegment = slotsPerSegment;
+		Object[] locks = new Object[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			locks[i] = new Object();
+		}
+		this.locks = locks;
+	}
+
+	@Override
+	public void add(String identifier) {
+		add(identifier, defaultTimeToLive);
+	}
+
+	@Override
+	public void add(String identifier, long timeToLive) {
+		Assert.notNull(identifier, "'identifier' must not be null");
+		Assert.state(buffer != null, "MappedFileReplayCache not initialized");
+		if (timeToLive <= 0) {
+			timeToLive = defaultTimeToLive;
+		}
+		long hash1 = hash1(identifier);
+		long hash2 = hash2(identifier);
+		long now = System.currentTimeMillis();
+		long expirationTime = now + timeToLive * 1000;
+		int segment = segment(hash1);
+		synchronized (locks[segment]) {
+			int freeSlot = -1;
+			int earliestSlot = -1;
+			long earliestExpirationTime = Long.MAX_VALUE;
+			for (int i = 0; i < PROBE_LENGTH; i++) {
+				int offset = slotOffset(segment, hash2, i);
+				long slotExpirationTime = buffer.getLong(offset + 16);
+				if (slotExpirationTime == 0) {
+					// never used, so the identifier cannot be further down the sequence
+					if (freeSlot == -1) {
+						freeSlot = offset;
+					}
+					break;
+				}
+				if (buffer.getLong(offset) == hash1 && buffer.getLong(offset + 8) == hash2) {
+					if (slotExpirationTime < expirationTime) {
+						buffer.putLong(offset + 16, expirationTime);
+					}
+					return;
+				}
+				if (slotExpirationTime <= now) {
+					if (freeSlot == -1) {
+						freeSlot = offset;
+					}
+				}
+				else if (slotExpirationTime < earliestExpirationTime) {
+					earliestExpirationTime = slotExpirationTime;
+					earliestSlot = offset;
+				}
+			}
+			int offset = freeSlot != -1 ? freeSlot : earliestSlot;
+			buffer.putLong(offset, hash1);
+			buffer.putLong(offset + 8, hash2);
+			buffer.putLong(offset + 16, expirationTime);
+		}
+	}
+
+	@Override
+	public boolean contains(String identifier) {
+		Assert.notNull(identifier, "'identifier' must not be null");
+		Assert.state(buffer != null, "MappedFileReplayCache not initialized");
+		long hash1 = hash1(identifier);
+		long hash2 = hash2(identifier);
+		long now = System.currentTimeMillis();
+		int segment = segment(hash1);
+		synchronized (locks[segment]) {
+			for (int i = 0; i < PROBE_LENGTH; i++) {
+				int offset = slotOffset(segment, hash2, i);
+				long slotExpirationTime = buffer.getLong(offset + 16);
+				if (slotExpirationTime == 0) {
+					return false;
+				}
+				if (buffer.getLong(offset) == hash1 && buffer.getLong(offset + 8) == hash2) {
+					return slotExpirationTime > now;
+				}
+			}
+			return false;
+		}
+	}
+
+	/** Writes all changes to disk, and closes the file. */
+	@Override
+	public void destroy() throws IOException {
+		if (channel != null) {
+			buffer.force();
+			channel.close();
+			channel = null;
+		}
+	}
+
+	private int segment(long hash1) {
+		return (int) (hash1 >>> 32) & (locks.length - 1);
+	}
+
+	private int slotOffset(int segment, long hash2, int probe) {
+		int slot = ((int) hash2 + probe) & (slotsPerSegment - 1);
+		return HEADER_SIZE + (segment * slotsPerSegment + slot) * SLOT_SIZE;
+	}
+
+	/** FNV-1a hash of the given string. */
+	private static long hash1(String s) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < s.length(); i++) {
+			hash ^= s.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/** Multiplicative hash of the given string, with a final avalanche step. */
+	private static long hash2(String s) {
+		long hash = s.length();
+		for (int i = 0; i < s.length(); i++) {
+			hash = (hash + s.charAt(i)) * 0xc6a4a7935bd1e995L;
+			hash ^= hash >>> 47;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.security.support;
+
+/**
+ * Cache of identifiers that have been seen before, such as UsernameToken nonces and Timestamp creation times. Used to
+ * detect replayed messages.
+ *
+ * <p>A single cache is shared by all requests handled by an interceptor, so implementations have to be thread-safe and
+ * bounded in size. See {@link InMemoryReplayCache} and {@link MappedFileReplayCache}.
+ *
+ * @author Arjen Poutsma
+ * @see org.springframework.ws.soap.security.wss4j.Wss4jSecurityInterceptor#setNonceReplayCache(ReplayCache)
+ * @see org.springframework.ws.soap.security.wss4j2.Wss4jSecurityInterceptor#setNonceReplayCache(ReplayCache)
+ * @since 2.3.0
+ */
+public interface ReplayCache {
+
+	/**
+	 * Adds the given identifier to this cache, using the default time to live of this cache.
+	 *
+	 * @param identifier the identifier to add
+	 */
+	void add(String identifier);
+
+	/**
+	 * Adds the given identifier to this cache, using the given time to live.
+	 *
+	 * @param identifier the identifier to add
+	 * @param timeToLive the time to live in seconds; the default time to live is used if not positive
+	 */
+	void add(String identifier, long timeToLive);
+
+	/**
+	 * Indicates whether the given identifier has been added to this cache, and has not expired yet.
+	 *
+	 * @param identifier the identifier to look up
+	 * @return {@code true} if the identifier is in this cache; {@code false} otherwise
+	 */
+	boolean contains(String identifier);
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -42,6 +42,7 @@ import org.apache.ws.security.validate.Credential;
 import org.apache.ws.security.validate.SignatureTrustValidator;
 import org.apache.ws.security.validate.TimestampValidator;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.util.Assert;
@@ -54,6 +55,7 @@ import org.springframework.ws.soap.security.WsSecuritySecurementException;
 import org.springframework.ws.soap.security.WsSecurityValidationException;
 import org.springframework.ws.soap.security.callback.CallbackHandlerChain;
 import org.springframework.ws.soap.security.callback.CleanupCallback;
+import org.springframework.ws.soap.security.support.ReplayCache;
 import org.springframework.ws.soap.security.wss4j.callback.UsernameTokenPrincipalCallback;
 
 /**
@@ -154,6 +156,10 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
 	// To maintain same behavior as default, this flag is set to true
 	private boolean removeSecurityHeader = true;
 
+	private org.apache.ws.security.cache.ReplayCache timestampReplayCache;
+
+	private org.apache.ws.security.cache.ReplayCache nonceReplayCache;
+
 	public void setSecurementActions(String securementActions) {
 		this.securementActions = securementActions;
 		securementActionsVector = new ArrayList<Integer>();
@@ -527,6 +533,17 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
 		this.removeSecurityHeader = removeSecurityHeader;
 	}
 
+	/** Sets the {@link ReplayCache} used to detect replayed Timestamps; by default, none is used. */
+	public void setTimestampReplayCache(ReplayCache timestampReplayCache) {
+		this.timestampReplayCache =
+				timestampReplayCache != null ? new ReplayCacheAdapter(timestampReplayCache) : null;
+	}
+
+	/** Sets the {@link ReplayCache} used to detect replayed UsernameToken nonces; by default, none is used. */
+	public void setNonceReplayCache(ReplayCache nonceReplayCache) {
+		this.nonceReplayCache = nonceReplayCache != null ? new ReplayCacheAdapter(nonceReplayCache) : null;
+	}
+
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		Assert.isTrue(validationActions != null || securementActions != null,
@@ -609,6 +626,31 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
 		return requestData;
 	}
 
+	/**
+	 * Creates and initializes a request data for validating the message in the given message context.
+	 *
+	 * @param messageContext the message context
+	 * @return the request data
+	 */
+	protected RequestData initializeValidationRequestData(MessageContext messageContext) {
+		RequestData requestData = new RequestData();
+		requestData.setMsgContext(messageContext);
+
+		requestData.setWssConfig(securityEngine.getWssConfig());
+
+		requestData.setDecCrypto(validationDecryptionCrypto);
+
+		requestData.setSigCrypto(validationSignatureCrypto);
+
+		requestData.setCallbackHandler(validationCallbackHandler);
+
+		requestData.setTimestampReplayCache(timestampReplayCache);
+
+		requestData.setNonceReplayCache(nonceReplayCache);
+
+		return requestData;
+	}
+
 	@Override
 	protected void validateMessage(SoapMessage soapMessage, MessageContext messageContext)
 			throws WsSecurityValidationException {
@@ -625,9 +667,11 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
 		// Header processing
 
 		try {
-			List<WSSecurityEngineResult> results = securityEngine
-					.processSecurityHeader(envelopeAsDocument, validationActor, validationCallbackHandler,
-							validationSignatureCrypto, validationDecryptionCrypto);
+			String actor = validationActor != null ? validationActor : "";
+			Element securityHeader = WSSecurityUtil.getSecurityHeader(envelopeAsDocument, actor);
+			List<WSSecurityEngineResult> results = securityHeader != null ?
+					securityEngine.processSecurityHeader(securityHeader,
+							initializeValidationRequestData(messageContext)) : null;
 
 			// Results verification
 			if (CollectionUtils.isEmpty(results)) {
@@ -767,4 +811,29 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
 			}
 		}
 	}
+
+	/** Adapts a {@link ReplayCache} to the WSS4J contract. */
+	private static class ReplayCacheAdapter implements org.apache.ws.security.cache.ReplayCache {
+
+		private final ReplayCache replayCache;
+
+		private ReplayCacheAdapter(ReplayCache replayCache) {
+			this.replayCache = replayCache;
+		}
+
+		@Override
+		public void add(String identifier) {
+			replayCache.add(identifier);
+		}
+
+		@Override
+		public void add(String identifier, long timeToLive) {
+			replayCache.add(identifier, timeToLive);
+		}
+
+		@Override
+		public boolean contains(String identifier) {
+			return replayCache.contains(identifier);
+		}
+	}
 }
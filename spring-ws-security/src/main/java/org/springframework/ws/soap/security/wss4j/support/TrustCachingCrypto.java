@@ -0,0 +1,175 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.security.wss4j.support;
+
+import java.io.InputStream;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.security.auth.callback.CallbackHandler;
+
+import org.apache.ws.security.WSSecurityException;
+import org.apache.ws.security.components.crypto.Crypto;
+import org.apache.ws.security.components.crypto.CryptoType;
+
+import org.springframework.util.Assert;
+import org.springframework.ws.soap.security.support.CertificateTrustCache;
+
+/**
+ * {@link Crypto} decorator that caches the certificate chains found trusted by the target crypto in a {@link
+ * CertificateTrustCache}, so that the certificate path of a known client is not validated on every request. All other
+ * operations are delegated to the target.
+ *
+ * <p>Chains that are not trusted are not cached, so they are validated again on every request. Chains are cached
+ * per {@code TrustCachingCrypto}, so a cache can be shared by cryptos with different trust stores.
+ *
+ * @author Arjen Poutsma
+ * @see CryptoFactoryBean#setCertificateTrustCache(CertificateTrustCache)
+ * @since 2.3.0
+ */
+public class TrustCachingCrypto implements Crypto {
+
+	private static final AtomicLong instanceCount = new AtomicLong();
+
+	private final Crypto targetCrypto;
+
+	private final CertificateTrustCache trustCache;
+
+	private final String cacheQualifier;
+
+	/**
+	 * Creates a new {@code TrustCachingCrypto} that decorates the given crypto.
+	 *
+	 * @param targetCrypto the crypto to delegate to
+	 * @param trustCache   the cache of trusted certificate chains
+	 */
+	public TrustCachingCrypto(Crypto targetCrypto, CertificateTrustCache trustCache) {
+		Assert.notNull(targetCrypto, "'targetCrypto' must not be null");
+		Assert.notNull(trustCache, "'trustCache' must not be null");
+		this.targetCrypto = targetCrypto;
+		this.trustCache = trustCache;
+		this.cacheQualifier = "crypto" + instanceCount.incrementAndGet();
+	}
+
+	/** Returns the crypto this crypto delegates to. */
+	public Crypto getTargetCrypto() {
+		return targetCrypto;
+	}
+
+	/** Returns the cache of trusted certificate chains. */
+	public CertificateTrustCache getTrustCache() {
+		return trustCache;
+	}
+
+	@Override
+	@Deprecated
+	public boolean verifyTrust(X509Certificate[] certificates) throws WSSecurityException {
+		return verifyTrust(certificates, false);
+	}
+
+	@Override
+	public boolean verifyTrust(X509Certificate[] certificates, boolean enableRevocation) throws WSSecurityException {
+		String qualifier = enableRevocation ? cacheQualifier + "|revocation" : cacheQualifier;
+		if (trustCache.contains(certificates, qualifier)) {
+			return true;
+		}
+		boolean trusted = targetCrypto.verifyTrust(certificates, enableRevocation);
+		if (trusted) {
+			trustCache.add(certificates, qualifier);
+		}
+		return trusted;
+	}
+
+	@Override
+	public boolean verifyTrust(PublicKey publicKey) throws WSSecurityException {
+		return targetCrypto.verifyTrust(publicKey);
+	}
+
+	@Override
+	public String getCryptoProvider() {
+		return targetCrypto.getCryptoProvider();
+	}
+
+	@Override
+	public void setCryptoProvider(String provider) {
+		targetCrypto.setCryptoProvider(provider);
+	}
+
+	@Override
+	public String getDefaultX509Identifier() throws WSSecurityException {
+		return targetCrypto.getDefaultX509Identifier();
+	}
+
+	@Override
+	public void setDefaultX509Identifier(String identifier) {
+		targetCrypto.setDefaultX509Identifier(identifier);
+	}
+
+	@Override
+	public void setCertificateFactory(String provider, CertificateFactory certificateFactory) {
+		targetCrypto.setCertificateFactory(provider, certificateFactory);
+	}
+
+	@Override
+	public CertificateFactory getCertificateFactory() throws WSSecurityException {
+		return targetCrypto.getCertificateFactory();
+	}
+
+	@Override
+	public X509Certificate loadCertificate(InputStream in) throws WSSecurityException {
+		return targetCrypto.loadCertificate(in);
+	}
+
+	@Override
+	public byte[] getSKIBytesFromCert(X509Certificate certificate) throws WSSecurityException {
+		return targetCrypto.getSKIBytesFromCert(certificate);
+	}
+
+	@Override
+	public byte[] getBytesFromCertificates(X509Certificate[] certificates) throws WSSecurityException {
+		return targetCrypto.getBytesFromCertificates(certificates);
+	}
+
+	@Override
+	public X509Certificate[] getCertificatesFromBytes(byte[] data) throws WSSecurityException {
+		return targetCrypto.getCertificatesFromBytes(data);
+	}
+
+	@Override
+	public X509Certificate[] getX509Certificates(CryptoType cryptoType) throws WSSecurityException {
+		return targetCrypto.getX509Certificates(cryptoType);
+	}
+
+	@Override
+	public String getX509Identifier(X509Certificate certificate) throws WSSecurityException {
+		return targetCrypto.getX509Identifier(certificate);
+	}
+
+	@Override
+	public PrivateKey getPrivateKey(X509Certificate certificate, CallbackHandler callbackHandler)
+			throws WSSecurityException {
+		return targetCrypto.getPrivateKey(certificate, callbackHandler);
+	}
+
+	@Override
+	public PrivateKey getPrivateKey(String identifier, String password) throws WSSecurityException {
+		return targetCrypto.getPrivateKey(identifier, password);
+	}
+
+}
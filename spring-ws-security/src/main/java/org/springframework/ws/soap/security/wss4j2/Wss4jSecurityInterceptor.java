@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -57,6 +57,7 @@ import org.springframework.ws.soap.security.WsSecuritySecurementException;
 import org.springframework.ws.soap.security.WsSecurityValidationException;
 import org.springframework.ws.soap.security.callback.CallbackHandlerChain;
 import org.springframework.ws.soap.security.callback.CleanupCallback;
+import org.springframework.ws.soap.security.support.ReplayCache;
 import org.springframework.ws.soap.security.wss4j2.callback.UsernameTokenPrincipalCallback;
 
 /**
@@ -149,6 +150,10 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
 	// To maintain same behavior as default, this flag is set to true
 	private boolean removeSecurityHeader = true;
 
+	private org.apache.wss4j.common.cache.ReplayCache timestampReplayCache;
+
+	private org.apache.wss4j.common.cache.ReplayCache nonceReplayCache;
+
 	/**
 	 * Create a {@link WSSecurityEngine} by default.
 	 */
@@ -520,6 +525,17 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
 		this.removeSecurityHeader = removeSecurityHeader;
 	}
 
+	/** Sets the {@link ReplayCache} used to detect replayed Timestamps; defaults to one per request. */
+	public void setTimestampReplayCache(ReplayCache timestampReplayCache) {
+		this.timestampReplayCache =
+				timestampReplayCache != null ? new ReplayCacheAdapter(timestampReplayCache) : null;
+	}
+
+	/** Sets the {@link ReplayCache} used to detect replayed UsernameToken nonces; defaults to one per request. */
+	public void setNonceReplayCache(ReplayCache nonceReplayCache) {
+		this.nonceReplayCache = nonceReplayCache != null ? new ReplayCacheAdapter(nonceReplayCache) : null;
+	}
+
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		Assert.isTrue(validationActions != null || securementActions != null,
@@ -632,7 +648,13 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
 		// allow for qualified password types for .Net interoperability
 		requestData.setAllowNamespaceQualifiedPasswordTypes(true);
 
-				
+		if (timestampReplayCache != null) {
+			requestData.setTimestampReplayCache(timestampReplayCache);
+		}
+		if (nonceReplayCache != null) {
+			requestData.setNonceReplayCache(nonceReplayCache);
+		}
+
 		return requestData;
 	}
 
@@ -809,4 +831,34 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
 			}
 		}
 	}
+
+	/** Adapts a {@link ReplayCache} to the WSS4J contract. */
+	private static class ReplayCacheAdapter implements org.apache.wss4j.common.cache.ReplayCache {
+
+		private final ReplayCache replayCache;
+
+		private ReplayCacheAdapter(ReplayCache replayCache) {
+			this.replayCache = replayCache;
+		}
+
+		@Override
+		public void add(String identifier) {
+			replayCache.add(identifier);
+		}
+
+		@Override
+		public void add(String identifier, long timeToLive) {
+			replayCache.add(identifier, timeToLive);
+		}
+
+		@Override
+		public boolean contains(String identifier) {
+			return replayCache.contains(identifier);
+		}
+
+		@Override
+		public void close() {
+			// the life cycle of the cache is managed by the application context
+		}
+	}
 }
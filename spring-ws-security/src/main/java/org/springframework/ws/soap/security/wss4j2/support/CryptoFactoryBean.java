@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,6 +27,7 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.util.Assert;
+import org.springframework.ws.soap.security.support.CertificateTrustCache;
 
 /**
  * Spring factory bean for a WSS4J {@link Crypto}. Allows for strong-typed property configuration, or configuration
@@ -47,6 +48,8 @@ public class CryptoFactoryBean implements FactoryBean<Crypto>, InitializingBean
 
 	private Crypto crypto;
 
+	private CertificateTrustCache certificateTrustCache;
+
 	private static final String CRYPTO_PROVIDER_PROPERTY = "org.apache.wss4j.crypto.provider";
 
 	/**
@@ -160,12 +163,26 @@ public class CryptoFactoryBean implements FactoryBean<Crypto>, InitializingBean
 		this.configuration.setProperty("org.apache.ws.security.crypto.merlin.keystore.alias", defaultX509Alias);
 	}
 
+	/**
+	 * Sets the cache of trusted certificate chains. If set, the created crypto is wrapped in a {@link
+	 * TrustCachingCrypto}, so that certificate chains that have been found trusted are not validated again until their
+	 * cache entry expires.
+	 *
+	 * @param certificateTrustCache the cache of trusted certificate chains
+	 */
+	public void setCertificateTrustCache(CertificateTrustCache certificateTrustCache) {
+		this.certificateTrustCache = certificateTrustCache;
+	}
+
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		if (!configuration.containsKey(CRYPTO_PROVIDER_PROPERTY)) {
 			configuration.setProperty(CRYPTO_PROVIDER_PROPERTY, Merlin.class.getName());
 		}
 		this.crypto = CryptoFactory.getInstance(configuration);
+		if (certificateTrustCache != null) {
+			this.crypto = new TrustCachingCrypto(this.crypto, certificateTrustCache);
+		}
 	}
 
 	@Override
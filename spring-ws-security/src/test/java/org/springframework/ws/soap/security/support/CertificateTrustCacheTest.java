@@ -0,0 +1,122 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.security.support;
+
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.core.io.ClassPathResource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CertificateTrustCacheTest {
+
+	private CertificateTrustCache cache;
+
+	private X509Certificate[] chain;
+
+	private X509Certificate[] expiredChain;
+
+	@Before
+	public void setUp() throws Exception {
+		cache = new CertificateTrustCache();
+		chain = new X509Certificate[]{loadCertificate("private.jks", "jceks", "123456", "rsakey")};
+		expiredChain = new X509Certificate[]{
+				loadCertificate("org/springframework/ws/soap/security/xwss/test-keystore.jks", "jks", "password",
+						"alias")};
+	}
+
+	private X509Certificate loadCertificate(String location, String type, String password, String alias)
+			throws Exception {
+		KeyStore keyStore = KeyStore.getInstance(type);
+		InputStream is = new ClassPathResource(location).getInputStream();
+		try {
+			keyStore.load(is, password.toCharArray());
+		}
+		finally {
+			is.close();
+		}
+		return (X509Certificate) keyStore.getCertificate(alias);
+	}
+
+	@Test
+	public void addAndContains() {
+		assertFalse(cache.contains(chain, ""));
+		cache.add(chain, "");
+		assertTrue(cache.contains(chain, ""));
+		assertEquals(1, cache.size());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	public void qualifier() {
+		cache.add(chain, "");
+		assertFalse(cache.contains(chain, "revocation"));
+		cache.add(chain, "revocation");
+		assertTrue(cache.contains(chain, "revocation"));
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void expiredCertificate() {
+		cache.add(expiredChain, "");
+		assertFalse(cache.contains(expiredChain, ""));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void expiration() throws Exception {
+		cache.setTimeToLive(1);
+		cache.add(chain, "");
+		Thread.sleep(1100);
+		assertFalse(cache.contains(chain, ""));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void invalidate() {
+		cache.add(chain, "");
+		cache.add(chain, "revocation");
+		cache.invalidate(chain[0]);
+		assertFalse(cache.contains(chain, ""));
+		assertFalse(cache.contains(chain, "revocation"));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void clear() {
+		cache.add(chain, "");
+		cache.clear();
+		assertFalse(cache.contains(chain, ""));
+	}
+
+	@Test
+	public void emptyChain() {
+		cache.add(new X509Certificate[0], "");
+		assertFalse(cache.contains(new X509Certificate[0], ""));
+		assertFalse(cache.contains(null, ""));
+		assertEquals(0, cache.size());
+	}
+
+}
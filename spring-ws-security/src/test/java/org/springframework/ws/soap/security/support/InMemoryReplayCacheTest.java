@@ -0,0 +1,95 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.security.support;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InMemoryReplayCacheTest {
+
+	private InMemoryReplayCache cache;
+
+	@Before
+	public void setUp() {
+		cache = new InMemoryReplayCache();
+	}
+
+	@Test
+	public void addAndContains() {
+		assertFalse(cache.contains("foo"));
+		cache.add("foo");
+		assertTrue(cache.contains("foo"));
+		assertFalse(cache.contains("bar"));
+		cache.add("foo", 60);
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void expiration() throws Exception {
+		cache.add("foo", 1);
+		cache.add("bar", 60);
+		Thread.sleep(1100);
+		assertFalse(cache.contains("foo"));
+		assertTrue(cache.contains("bar"));
+	}
+
+	@Test
+	public void maxEntries() {
+		cache.setMaxEntries(10);
+		for (int i = 0; i < 20; i++) {
+			cache.add("id" + i, 60 + i);
+		}
+		assertEquals(10, cache.size());
+		assertEquals("Invalid eviction count", 10, cache.getEvictionCount());
+		assertFalse("Earliest expiring entry not evicted", cache.contains("id0"));
+		assertTrue("Latest expiring entry evicted", cache.contains("id19"));
+	}
+
+	@Test
+	public void expiredEntriesEvicted() throws Exception {
+		cache.setMaxEntries(10);
+		for (int i = 0; i < 10; i++) {
+			cache.add("expired" + i, 1);
+		}
+		Thread.sleep(1100);
+		for (int i = 0; i < 10; i++) {
+			cache.add("id" + i);
+		}
+		assertEquals(10, cache.size());
+		assertEquals("Unexpired entries evicted", 0, cache.getEvictionCount());
+		for (int i = 0; i < 10; i++) {
+			assertTrue(cache.contains("id" + i));
+		}
+	}
+
+	@Test
+	public void striped() {
+		for (int i = 0; i < InMemoryReplayCache.DEFAULT_MAX_ENTRIES; i++) {
+			cache.add("id" + i);
+		}
+		for (int i = 0; i < 1000; i++) {
+			cache.add("other" + i);
+		}
+		assertTrue(cache.size() <= InMemoryReplayCache.DEFAULT_MAX_ENTRIES);
+		assertTrue(cache.contains("other999"));
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.security.support;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MappedFileReplayCacheTest {
+
+	private File file;
+
+	private MappedFileReplayCache cache;
+
+	@Before
+	public void setUp() throws Exception {
+		file = File.createTempFile("replay", ".cache");
+		cache = createCache(1000);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		cache.destroy();
+		file.delete();
+	}
+
+	@Test
+	public void addAndContains() {
+		assertFalse(cache.contains("foo"));
+		cache.add("foo");
+		assertTrue(cache.contains("foo"));
+		assertFalse(cache.contains("bar"));
+		cache.add("foo", 60);
+		assertTrue(cache.contains("foo"));
+	}
+
+	@Test
+	public void expiration() throws Exception {
+		cache.add("foo", 1);
+		cache.add("bar", 60);
+		Thread.sleep(1100);
+		assertFalse(cache.contains("foo"));
+		assertTrue(cache.contains("bar"));
+	}
+
+	@Test
+	public void full() {
+		for (int i = 0; i < 10000; i++) {
+			cache.add("id" + i);
+		}
+		assertTrue("Newest entry evicted", cache.contains("id9999"));
+	}
+
+	@Test
+	public void survivesRestart() throws Exception {
+		cache.add("foo");
+		cache.destroy();
+
+		cache = createCache(1000);
+		assertTrue("Entry lost on restart", cache.contains("foo"));
+		cache.destroy();
+
+		cache = createCache(5000);
+		assertFalse("File not cleared after layout change", cache.contains("foo"));
+	}
+
+	private MappedFileReplayCache createCache(int maxEntries) throws Exception {
+		MappedFileReplayCache cache = new MappedFileReplayCache();
+		cache.setFile(file);
+		cache.setMaxEntries(maxEntries);
+		cache.afterPropertiesSet();
+		return cache;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -43,6 +43,9 @@ import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
 import org.springframework.xml.transform.StringSource;
 import org.springframework.xml.xpath.Jaxp13XPathTemplate;
 
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.soap.SOAP11Constants;
 import org.apache.axiom.soap.SOAP12Constants;
 import org.apache.axiom.soap.impl.builder.StAXSOAPModelBuilder;
 import org.junit.Assert;
@@ -60,6 +63,8 @@ public abstract class Wss4jTestCase {
 
 	protected final boolean axiomTest = this.getClass().getSimpleName().startsWith("Axiom");
 
+	protected final boolean axiomDomTest = this.getClass().getSimpleName().startsWith("AxiomDom");
+
 	protected final boolean saajTest = this.getClass().getSimpleName().startsWith("Saaj");
 
 	protected Jaxp13XPathTemplate xpathTemplate = new Jaxp13XPathTemplate();
@@ -155,8 +160,15 @@ public abstract class Wss4jTestCase {
 			is = resource.getInputStream();
 
 			XMLStreamReader parser = XMLInputFactory.newInstance().createXMLStreamReader(is);
-			StAXSOAPModelBuilder builder = new StAXSOAPModelBuilder(parser, null);
+			StAXSOAPModelBuilder builder = axiomDomTest ?
+					new StAXSOAPModelBuilder(parser, getDomMetaFactory().getSOAP11Factory(),
+							SOAP11Constants.SOAP_ENVELOPE_NAMESPACE_URI) :
+					new StAXSOAPModelBuilder(parser, null);
 			org.apache.axiom.soap.SOAPMessage soapMessage = builder.getSoapMessage();
+			if (axiomDomTest) {
+				// the DOM tree is parsed lazily, so build it before the stream is closed
+				soapMessage.build();
+			}
 			return new AxiomSoapMessage(soapMessage, "", true, true);
 		}
 		finally {
@@ -173,8 +185,15 @@ public abstract class Wss4jTestCase {
 			is = resource.getInputStream();
 
 			XMLStreamReader parser = XMLInputFactory.newInstance().createXMLStreamReader(is);
-			StAXSOAPModelBuilder builder = new StAXSOAPModelBuilder(parser, SOAP12Constants.SOAP_ENVELOPE_NAMESPACE_URI);
+			StAXSOAPModelBuilder builder = axiomDomTest ?
+					new StAXSOAPModelBuilder(parser, getDomMetaFactory().getSOAP12Factory(),
+							SOAP12Constants.SOAP_ENVELOPE_NAMESPACE_URI) :
+					new StAXSOAPModelBuilder(parser, SOAP12Constants.SOAP_ENVELOPE_NAMESPACE_URI);
 			org.apache.axiom.soap.SOAPMessage soapMessage = builder.getSoapMessage();
+			if (axiomDomTest) {
+				// the DOM tree is parsed lazily, so build it before the stream is closed
+				soapMessage.build();
+			}
 			return new AxiomSoapMessage(soapMessage, "", true, true);
 		}
 		finally {
@@ -182,6 +201,10 @@ public abstract class Wss4jTestCase {
 		}
 	}
 
+	private OMMetaFactory getDomMetaFactory() {
+		return OMAbstractFactory.getMetaFactory(OMAbstractFactory.FEATURE_DOM);
+	}
+
 	protected Object getMessage(SoapMessage soapMessage) {
 		if (soapMessage instanceof SaajSoapMessage) {
 			return ((SaajSoapMessage) soapMessage).getSaajMessage();
@@ -230,7 +253,9 @@ public abstract class Wss4jTestCase {
 
 	protected SoapMessageFactory getSoap11MessageFactory() throws Exception {
 		if (axiomTest) {
-			return new AxiomSoapMessageFactory();
+			AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+			messageFactory.setDomCompatible(axiomDomTest);
+			return messageFactory;
 		}
 		if (saajTest) {
 			return new SaajSoapMessageFactory(saajSoap11MessageFactory);
@@ -241,7 +266,9 @@ public abstract class Wss4jTestCase {
 	protected SoapMessageFactory getSoap12MessageFactory() throws Exception {
 		SoapMessageFactory messageFactory;
 		if (axiomTest) {
-			messageFactory = new AxiomSoapMessageFactory();
+			AxiomSoapMessageFactory axiomMessageFactory = new AxiomSoapMessageFactory();
+			axiomMessageFactory.setDomCompatible(axiomDomTest);
+			messageFactory = axiomMessageFactory;
 		} else if (saajTest) {
 			messageFactory = new SaajSoapMessageFactory(saajSoap12MessageFactory);
 		} else
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.ws.soap.security.wss4j2;
 
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 
 import java.util.Properties;
 
@@ -25,6 +26,7 @@ import org.junit.Test;
 import org.springframework.ws.context.DefaultMessageContext;
 import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.soap.security.support.InMemoryReplayCache;
 import org.springframework.ws.soap.security.wss4j2.callback.SimplePasswordValidationCallbackHandler;
 import org.w3c.dom.Document;
 
@@ -63,6 +65,31 @@ public abstract class Wss4jMessageInterceptorUsernameTokenTestCase extends Wss4j
 		assertValidateUsernameToken(message);
 	}
 
+	@Test
+	public void testValidateUsernameTokenNonceReplay() throws Exception {
+		Wss4jSecurityInterceptor interceptor = new Wss4jSecurityInterceptor();
+		interceptor.setSecurementActions("UsernameToken");
+		interceptor.setSecurementUsername("Bert");
+		interceptor.setSecurementPassword("Ernie");
+		interceptor.setSecurementPasswordType(WSConstants.PW_DIGEST);
+
+		SoapMessage message = loadSoap11Message("empty-soap.xml");
+		MessageContext messageContext = new DefaultMessageContext(message, getSoap11MessageFactory());
+		interceptor.handleRequest(messageContext);
+
+		interceptor = prepareInterceptor("UsernameToken", true, true);
+		interceptor.setRemoveSecurityHeader(false);
+		interceptor.setNonceReplayCache(new InMemoryReplayCache());
+		interceptor.validateMessage(message, messageContext);
+		try {
+			interceptor.validateMessage(message, messageContext);
+			fail("Wss4jSecurityValidationException expected for replayed nonce");
+		}
+		catch (Wss4jSecurityValidationException ex) {
+			// expected
+		}
+	}
+
 	@Test
 	public void testValidateUsernameTokenWithQualifiedType() throws Exception {
 		Wss4jSecurityInterceptor interceptor = prepareInterceptor("UsernameToken", true, false);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,13 +16,17 @@
 
 package org.springframework.ws.soap.security.wss4j2.support;
 
+import java.security.cert.X509Certificate;
 import java.util.Properties;
 
+import org.apache.wss4j.common.crypto.CryptoType;
 import org.apache.wss4j.common.crypto.Merlin;
+import org.apache.wss4j.common.ext.WSSecurityException;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.ws.soap.security.support.CertificateTrustCache;
 
 public class CryptoFactoryBeanTest {
 
@@ -60,4 +64,53 @@ public class CryptoFactoryBeanTest {
 		Assert.assertNotNull("No result", result);
 		Assert.assertTrue("Not a Merlin instance", result instanceof Merlin);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testCertificateTrustCache() throws Exception {
+		CertificateTrustCache trustCache = new CertificateTrustCache();
+		factoryBean.setKeyStoreType("jceks");
+		factoryBean.setKeyStorePassword("123456");
+		factoryBean.setKeyStoreLocation(new ClassPathResource("private.jks"));
+		factoryBean.setCertificateTrustCache(trustCache);
+		factoryBean.afterPropertiesSet();
+		Object result = factoryBean.getObject();
+		Assert.assertTrue("Not a TrustCachingCrypto instance", result instanceof TrustCachingCrypto);
+		TrustCachingCrypto crypto = (TrustCachingCrypto) result;
+		Assert.assertTrue("Not a Merlin instance", crypto.getTargetCrypto() instanceof Merlin);
+
+		CryptoType cryptoType = new CryptoType(CryptoType.TYPE.ALIAS);
+		cryptoType.setAlias("rsakey");
+		X509Certificate[] certificates = crypto.getX509Certificates(cryptoType);
+		crypto.verifyTrust(certificates, false, null);
+		crypto.verifyTrust(certificates, false, null);
+		Assert.assertEquals("Invalid cache size", 1, trustCache.size());
+		Assert.assertEquals("Invalid hit count", 1, trustCache.getHitCount());
+		Assert.assertEquals("Invalid miss count", 1, trustCache.getMissCount());
+	}
+
+	@Test
+	public void testCertificateTrustCacheSharedByCryptos() throws Exception {
+		CertificateTrustCache trustCache = new CertificateTrustCache();
+		factoryBean.setKeyStoreType("jceks");
+		factoryBean.setKeyStorePassword("123456");
+		factoryBean.setKeyStoreLocation(new ClassPathResource("private.jks"));
+		factoryBean.setCertificateTrustCache(trustCache);
+		factoryBean.afterPropertiesSet();
+		TrustCachingCrypto crypto = (TrustCachingCrypto) factoryBean.getObject();
+
+		CryptoType cryptoType = new CryptoType(CryptoType.TYPE.ALIAS);
+		cryptoType.setAlias("rsakey");
+		X509Certificate[] certificates = crypto.getX509Certificates(cryptoType);
+		crypto.verifyTrust(certificates, false, null);
+
+		TrustCachingCrypto emptyCrypto = new TrustCachingCrypto(new Merlin(), trustCache);
+		try {
+			emptyCrypto.verifyTrust(certificates, false, null);
+			Assert.fail("WSSecurityException expected");
+		}
+		catch (WSSecurityException ex) {
+			// expected
+		}
+		Assert.assertEquals("Invalid hit count", 0, trustCache.getHitCount());
+	}
+}
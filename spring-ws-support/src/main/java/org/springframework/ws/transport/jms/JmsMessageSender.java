@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,10 +31,12 @@ import javax.jms.Session;
 import javax.jms.TextMessage;
 import javax.jms.Topic;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.jms.connection.ConnectionFactoryUtils;
 import org.springframework.jms.core.MessagePostProcessor;
 import org.springframework.jms.support.JmsUtils;
 import org.springframework.jms.support.destination.JmsDestinationAccessor;
+import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 import org.springframework.ws.transport.WebServiceConnection;
 import org.springframework.ws.transport.WebServiceMessageSender;
@@ -85,6 +87,14 @@ import org.springframework.ws.transport.jms.support.JmsTransportUtils;
  * instead. <b>Note</b> that {@code BytesMessages} are preferred, since {@code TextMessages} do not support
  * attachments and character encodings reliably.
  *
+ * <p>By default, every request uses its own JMS {@link Connection}, {@link Session}, and {@link MessageProducer}; a
+ * pooling {@code ConnectionFactory} can be used to reduce this overhead. Alternatively, this sender can manage the
+ * resources itself, by setting the {@linkplain #setSessionCacheSize(int) session cache size}. It then shares a single
+ * connection, caches sessions together with their producers, and uses a single temporary queue, with a single
+ * long-lived consumer, for all replies. Replies on that queue are correlated to their requests by the {@code
+ * JMSCorrelationID}, which therefore has to be copied from the request to the response, as the {@link
+ * WebServiceMessageListener} does.
+ *
  * <p>Some examples of JMS URIs are:
  *
  * <blockquote> <tt>jms:SomeQueue</tt><br> <tt>jms:SomeTopic?priority=3&deliveryMode=NON_PERSISTENT</tt><br>
@@ -94,7 +104,7 @@ import org.springframework.ws.transport.jms.support.JmsTransportUtils;
  * @see <a href="http://tools.ietf.org/id/draft-merrick-jms-iri-00.txt">IRI Scheme for Java(tm) Message Service 1.0</a>
  * @since 1.5.0
  */
-public class JmsMessageSender extends JmsDestinationAccessor implements WebServiceMessageSender {
+public class JmsMessageSender extends JmsDestinationAccessor implements WebServiceMessageSender, DisposableBean {
 
 	/** Default timeout for receive operations: -1 indicates a blocking receive without timeout. */
 	public static final long DEFAULT_RECEIVE_TIMEOUT = -1;
@@ -108,6 +118,10 @@ public class JmsMessageSender extends JmsDestinationAccessor implements WebServi
 
 	private MessagePostProcessor postProcessor;
 
+	private int sessionCacheSize = 0;
+
+	private volatile JmsSessionPool sessionPool;
+
 	/**
 	 * Create a new {@code JmsMessageSender}
 	 *
@@ -151,8 +165,23 @@ public class JmsMessageSender extends JmsDestinationAccessor implements WebServi
 		this.postProcessor = postProcessor;
 	}
 
+	/**
+	 * Sets the maximum number of idle sessions, with their message producers, to cache. Defaults to {@code 0}, which
+	 * means that every request uses a new connection and session.
+	 *
+	 * <p>Setting this to a positive value makes this sender share a single connection, and receive all replies sent to
+	 * temporary queues with a single consumer. Set it to the expected number of concurrent requests.
+	 */
+	public void setSessionCacheSize(int sessionCacheSize) {
+		Assert.isTrue(sessionCacheSize >= 0, "'sessionCacheSize' must not be negative");
+		this.sessionCacheSize = sessionCacheSize;
+	}
+
 	@Override
 	public WebServiceConnection createConnection(URI uri) throws IOException {
+		if (sessionCacheSize > 0) {
+			return createPooledConnection(uri);
+		}
 		Connection jmsConnection = null;
 		Session jmsSession = null;
 		try {
@@ -180,6 +209,62 @@ public class JmsMessageSender extends JmsDestinationAccessor implements WebServi
 		}
 	}
 
+	private WebServiceConnection createPooledConnection(URI uri) throws IOException {
+		JmsSessionPool sessionPool = getSessionPool();
+		JmsSessionPool.CachedSession cachedSession = null;
+		try {
+			cachedSession = sessionPool.obtainSession();
+			Session jmsSession = cachedSession.getSession();
+			Destination requestDestination = resolveRequestDestination(jmsSession, uri);
+			Message requestMessage = createRequestMessage(jmsSession, uri);
+			JmsSenderConnection wsConnection =
+					new JmsSenderConnection(getConnectionFactory(), sessionPool.getConnection(), jmsSession,
+							requestDestination, requestMessage);
+			wsConnection.setSessionPool(sessionPool, cachedSession);
+			wsConnection.setDeliveryMode(JmsTransportUtils.getDeliveryMode(uri));
+			wsConnection.setPriority(JmsTransportUtils.getPriority(uri));
+			wsConnection.setReceiveTimeout(receiveTimeout);
+			wsConnection.setResponseDestination(resolveResponseDestination(jmsSession, uri));
+			wsConnection.setTimeToLive(JmsTransportUtils.getTimeToLive(uri));
+			wsConnection.setTextMessageEncoding(textMessageEncoding);
+			wsConnection.setSessionTransacted(isSessionTransacted());
+			wsConnection.setPostProcessor(postProcessor);
+			return wsConnection;
+		}
+		catch (JMSException ex) {
+			if (cachedSession != null) {
+				sessionPool.releaseSession(cachedSession, true);
+			}
+			throw new JmsTransportException(ex);
+		}
+	}
+
+	private JmsSessionPool getSessionPool() {
+		JmsSessionPool sessionPool = this.sessionPool;
+		if (sessionPool == null) {
+			synchronized (this) {
+				sessionPool = this.sessionPool;
+				if (sessionPool == null) {
+					sessionPool = new JmsSessionPool(getConnectionFactory(), isSessionTransacted(),
+							getSessionAcknowledgeMode(), sessionCacheSize);
+					this.sessionPool = sessionPool;
+				}
+			}
+		}
+		return sessionPool;
+	}
+
+	/** Closes the shared connection and cached sessions, if any. */
+	@Override
+	public void destroy() {
+		synchronized (this) {
+			if (sessionPool != null) {
+				sessionPool.destroy();
+				sessionPool = null;
+			}
+		}
+	}
+
 	@Override
 	public boolean supports(URI uri) {
 		return uri.getScheme().equals(JmsTransportConstants.JMS_URI_SCHEME);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -83,6 +83,16 @@ public class JmsSenderConnection extends AbstractSenderConnection {
 
 	private boolean temporaryResponseQueueCreated = false;
 
+	private JmsSessionPool sessionPool;
+
+	private JmsSessionPool.CachedSession cachedSession;
+
+	private JmsSessionPool.PendingReply pendingReply;
+
+	private String correlationId;
+
+	private boolean sessionFailed = false;
+
 	/** Constructs a new JMS connection with the given parameters. */
 	protected JmsSenderConnection(ConnectionFactory connectionFactory,
 								  Connection connection,
@@ -150,6 +160,11 @@ public class JmsSenderConnection extends AbstractSenderConnection {
 		this.sessionTransacted = sessionTransacted;
 	}
 
+	void setSessionPool(JmsSessionPool sessionPool, JmsSessionPool.CachedSession cachedSession) {
+		this.sessionPool = sessionPool;
+		this.cachedSession = cachedSession;
+	}
+
 	/*
 	 * URI
 	 */
@@ -208,6 +223,10 @@ public class JmsSenderConnection extends AbstractSenderConnection {
 
 	@Override
 	protected void onSendAfterWrite(WebServiceMessage message) throws IOException {
+		if (sessionPool != null) {
+			sendWithSessionPool();
+			return;
+		}
 		MessageProducer messageProducer = null;
 		try {
 			messageProducer = session.createProducer(requestDestination);
@@ -236,6 +255,43 @@ public class JmsSenderConnection extends AbstractSenderConnection {
 		}
 	}
 
+	/**
+	 * Sends the request with the cached producer of the pooled session. Replies to the shared temporary queue are
+	 * correlated by the {@code JMSCorrelationID}, which is generated if not set by the post processor.
+	 */
+	private void sendWithSessionPool() throws IOException {
+		try {
+			boolean sharedResponseQueue = responseDestination == null;
+			if (sharedResponseQueue) {
+				responseDestination = sessionPool.getReplyQueue();
+			}
+			requestMessage.setJMSReplyTo(responseDestination);
+			if (postProcessor != null) {
+				requestMessage = postProcessor.postProcessMessage(requestMessage);
+			}
+			if (sharedResponseQueue) {
+				correlationId = requestMessage.getJMSCorrelationID();
+				if (correlationId == null) {
+					correlationId = sessionPool.generateCorrelationId();
+					requestMessage.setJMSCorrelationID(correlationId);
+				}
+				pendingReply = sessionPool.registerReply(correlationId);
+			}
+			cachedSession.getProducer().send(requestDestination, requestMessage, deliveryMode, priority, timeToLive);
+			if (session.getTransacted() && isSessionLocallyTransacted(session)) {
+				JmsUtils.commitIfNecessary(session);
+			}
+		}
+		catch (JMSException ex) {
+			sessionFailed = true;
+			if (pendingReply != null) {
+				sessionPool.unregisterReply(correlationId);
+				pendingReply = null;
+			}
+			throw new JmsTransportException(ex);
+		}
+	}
+
 	/** @see org.springframework.jms.core.JmsTemplate#isSessionLocallyTransacted(Session) */
 	private boolean isSessionLocallyTransacted(Session session) {
 		return sessionTransacted && !ConnectionFactoryUtils.isSessionTransactional(session, connectionFactory);
@@ -249,15 +305,21 @@ public class JmsSenderConnection extends AbstractSenderConnection {
 	protected void onReceiveBeforeRead() throws IOException {
 		MessageConsumer messageConsumer = null;
 		try {
-			if (temporaryResponseQueueCreated) {
-				messageConsumer = session.createConsumer(responseDestination);
+			Message message;
+			if (pendingReply != null) {
+				message = pendingReply.getReply(receiveTimeout);
 			}
 			else {
-				String messageId = requestMessage.getJMSMessageID().replaceAll("'", "''");
-				String messageSelector = "JMSCorrelationID = '" + messageId + "'";
-				messageConsumer = session.createConsumer(responseDestination, messageSelector);
+				if (temporaryResponseQueueCreated) {
+					messageConsumer = session.createConsumer(responseDestination);
+				}
+				else {
+					String messageId = requestMessage.getJMSMessageID().replaceAll("'", "''");
+					String messageSelector = "JMSCorrelationID = '" + messageId + "'";
+					messageConsumer = session.createConsumer(responseDestination, messageSelector);
+				}
+				message = receiveTimeout >= 0 ? messageConsumer.receive(receiveTimeout) : messageConsumer.receive();
 			}
-			Message message = receiveTimeout >= 0 ? messageConsumer.receive(receiveTimeout) : messageConsumer.receive();
 			if (message instanceof BytesMessage || message instanceof TextMessage) {
 				responseMessage = message;
 			}
@@ -268,9 +330,14 @@ public class JmsSenderConnection extends AbstractSenderConnection {
 			}
 		}
 		catch (JMSException ex) {
+			sessionFailed = true;
 			throw new JmsTransportException(ex);
 		}
 		finally {
+			if (pendingReply != null) {
+				sessionPool.unregisterReply(correlationId);
+				pendingReply = null;
+			}
 			JmsUtils.closeMessageConsumer(messageConsumer);
 			if (temporaryResponseQueueCreated) {
 				try {
@@ -325,6 +392,14 @@ public class JmsSenderConnection extends AbstractSenderConnection {
 
 	@Override
 	protected void onClose() throws IOException {
+		if (sessionPool != null) {
+			if (pendingReply != null) {
+				sessionPool.unregisterReply(correlationId);
+				pendingReply = null;
+			}
+			sessionPool.releaseSession(cachedSession, sessionFailed);
+			return;
+		}
 		JmsUtils.closeSession(session);
 		ConnectionFactoryUtils.releaseConnection(connection, connectionFactory, true);
 	}
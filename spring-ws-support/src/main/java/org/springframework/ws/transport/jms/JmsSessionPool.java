@@ -0,0 +1,331 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport.jms;
+
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.ExceptionListener;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.jms.TemporaryQueue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.util.Assert;
+
+/**
+ * Shared JMS resources used by the {@link JmsMessageSender} when {@linkplain JmsMessageSender#setSessionCacheSize(int)
+ * session caching} is enabled.
+ *
+ * <p>Holds a single, started JMS {@link Connection}, a pool of {@link Session}s with a cached {@link MessageProducer}
+ * each, and a single {@link TemporaryQueue} with a long-lived consumer that dispatches replies to waiting requests by
+ * their {@code JMSCorrelationID}. When the connection fails, all resources are discarded, waiting requests fail, and new
+ * resources are created on the next request.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+class JmsSessionPool implements ExceptionListener, MessageListener {
+
+	private static final Log logger = LogFactory.getLog(JmsSessionPool.class);
+
+	private final ConnectionFactory connectionFactory;
+
+	private final boolean sessionTransacted;
+
+	private final int acknowledgeMode;
+
+	private final BlockingQueue<CachedSession> idleSessions;
+
+	private final ConcurrentMap<String, PendingReply> pendingReplies = new ConcurrentHashMap<String, PendingReply>();
+
+	private final String correlationIdPrefix = UUID.randomUUID().toString() + "-";
+
+	private final AtomicLong correlationIdCounter = new AtomicLong();
+
+	private final Object monitor = new Object();
+
+	private Connection connection;
+
+	private Session replySession;
+
+	private TemporaryQueue replyQueue;
+
+	private MessageConsumer replyConsumer;
+
+	private boolean active = true;
+
+	JmsSessionPool(ConnectionFactory connectionFactory, boolean sessionTransacted, int acknowledgeMode,
+			int cacheSize) {
+		Assert.notNull(connectionFactory, "'connectionFactory' must not be null");
+		Assert.isTrue(cacheSize > 0, "'cacheSize' must be larger than 0");
+		this.connectionFactory = connectionFactory;
+		this.sessionTransacted = sessionTransacted;
+		this.acknowledgeMode = acknowledgeMode;
+		this.idleSessions = new LinkedBlockingQueue<CachedSession>(cacheSize);
+	}
+
+	/** Returns the shared connection, creating and starting it if necessary. */
+	Connection getConnection() throws JMSException {
+		synchronized (monitor) {
+			Assert.state(active, "JmsSessionPool has been destroyed");
+			if (connection == null) {
+				Connection connection = connectionFactory.createConnection();
+				try {
+					connection.setExceptionListener(this);
+					connection.start();
+				}
+				catch (JMSException ex) {
+					JmsUtils.closeConnection(connection);
+					throw ex;
+				}
+				this.connection = connection;
+			}
+			return connection;
+		}
+	}
+
+	/** Returns an idle session of the shared connection, or a new one if there is none. */
+	CachedSession obtainSession() throws JMSException {
+		Connection connection = getConnection();
+		CachedSession cachedSession;
+		while ((cachedSession = idleSessions.poll()) != null) {
+			if (cachedSession.connection == connection) {
+				return cachedSession;
+			}
+			cachedSession.close();
+		}
+		Session session = connection.createSession(sessionTransacted, acknowledgeMode);
+		try {
+			return new CachedSession(connection, session, session.createProducer(null));
+		}
+		catch (JMSException ex) {
+			JmsUtils.closeSession(session);
+			throw ex;
+		}
+	}
+
+	/**
+	 * Returns the given session to the pool. Sessions that have failed, that belong to a previous connection, or that do
+	 * not fit in the pool are closed.
+	 */
+	void releaseSession(CachedSession cachedSession, boolean failed) {
+		boolean current;
+		synchronized (monitor) {
+			current = active && cachedSession.connection == connection;
+		}
+		if (failed || !current || !idleSessions.offer(cachedSession)) {
+			cachedSession.close();
+		}
+	}
+
+	/** Returns the temporary queue to which replies are sent, creating it and its consumer if necessary. */
+	TemporaryQueue getReplyQueue() throws JMSException {
+		synchronized (monitor) {
+			if (replyQueue == null) {
+				Session session = getConnection().createSession(false, Session.AUTO_ACKNOWLEDGE);
+				try {
+					TemporaryQueue queue = session.createTemporaryQueue();
+					MessageConsumer consumer = session.createConsumer(queue);
+					consumer.setMessageListener(this);
+					this.replySession = session;
+					this.replyQueue = queue;
+					this.replyConsumer = consumer;
+				}
+				catch (JMSException ex) {
+					JmsUtils.closeSession(session);
+					throw ex;
+				}
+			}
+			return replyQueue;
+		}
+	}
+
+	/** Generates a correlation identifier that is unique for this pool. */
+	String generateCorrelationId() {
+		return correlationIdPrefix + correlationIdCounter.incrementAndGet();
+	}
+
+	/**
+	 * Registers a request that expects a reply with the given correlation identifier on the {@linkplain #getReplyQueue()
+	 * reply queue}. Must be called before the request is sent.
+	 */
+	PendingReply registerReply(String correlationId) {
+		PendingReply pendingReply = new PendingReply();
+		pendingReplies.put(correlationId, pendingReply);
+		return pendingReply;
+	}
+
+	/** Removes the registration for the given correlation identifier, for instance after the reply has arrived. */
+	void unregisterReply(String correlationId) {
+		pendingReplies.remove(correlationId);
+	}
+
+	@Override
+	public void onMessage(Message message) {
+		String correlationId = null;
+		try {
+			correlationId = message.getJMSCorrelationID();
+		}
+		catch (JMSException ex) {
+			logger.warn("Could not read correlation id of reply message", ex);
+		}
+		PendingReply pendingReply = correlationId != null ? pendingReplies.remove(correlationId) : null;
+		if (pendingReply != null) {
+			pendingReply.complete(message);
+		}
+		else if (logger.isDebugEnabled()) {
+			logger.debug("Discarding reply message with unknown correlation id [" + correlationId + "]");
+		}
+	}
+
+	@Override
+	public void onException(JMSException ex) {
+		logger.warn("Shared JMS connection failed; resetting", ex);
+		synchronized (monitor) {
+			resetConnection();
+		}
+		failPendingReplies(ex);
+	}
+
+	/** Closes all resources held by this pool. */
+	void destroy() {
+		synchronized (monitor) {
+			active = false;
+			resetConnection();
+		}
+		CachedSession cachedSession;
+		while ((cachedSession = idleSessions.poll()) != null) {
+			cachedSession.close();
+		}
+		failPendingReplies(new JMSException("JmsSessionPool has been destroyed"));
+	}
+
+	private void resetConnection() {
+		JmsUtils.closeMessageConsumer(replyConsumer);
+		if (replyQueue != null) {
+			try {
+				replyQueue.delete();
+			}
+			catch (JMSException ex) {
+				// ignore
+			}
+		}
+		JmsUtils.closeSession(replySession);
+		JmsUtils.closeConnection(connection, true);
+		replyConsumer = null;
+		replyQueue = null;
+		replySession = null;
+		connection = null;
+	}
+
+	private void failPendingReplies(JMSException ex) {
+		for (PendingReply pendingReply : pendingReplies.values()) {
+			pendingReply.fail(ex);
+		}
+		pendingReplies.clear();
+	}
+
+	/** A session of the shared connection, together with its anonymous message producer. */
+	static final class CachedSession {
+
+		private final Connection connection;
+
+		private final Session session;
+
+		private final MessageProducer producer;
+
+		private CachedSession(Connection connection, Session session, MessageProducer producer) {
+			this.connection = connection;
+			this.session = session;
+			this.producer = producer;
+		}
+
+		Session getSession() {
+			return session;
+		}
+
+		MessageProducer getProducer() {
+			return producer;
+		}
+
+		private void close() {
+			JmsUtils.closeMessageProducer(producer);
+			JmsUtils.closeSession(session);
+		}
+	}
+
+	/** A request waiting for its reply. */
+	static final class PendingReply {
+
+		private final CountDownLatch latch = new CountDownLatch(1);
+
+		private volatile Message message;
+
+		private volatile JMSException exception;
+
+		private void complete(Message message) {
+			this.message = message;
+			latch.countDown();
+		}
+
+		private void fail(JMSException exception) {
+			this.exception = exception;
+			latch.countDown();
+		}
+
+		/**
+		 * Waits for the reply.
+		 *
+		 * @param timeout the timeout in milliseconds; {@code 0} or a negative value waits indefinitely
+		 * @return the reply, or {@code null} if none arrived within the timeout
+		 */
+		Message getReply(long timeout) throws JMSException {
+			try {
+				if (timeout <= 0) {
+					latch.await();
+				}
+				else if (!latch.await(timeout, TimeUnit.MILLISECONDS)) {
+					return null;
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+			if (exception != null) {
+				throw exception;
+			}
+			return message;
+		}
+	}
+
+}
@@ -17,6 +17,7 @@
 package org.springframework.ws.transport.mail;
 
 import java.util.Properties;
+import java.util.concurrent.ThreadFactory;
 import javax.mail.Folder;
 import javax.mail.FolderClosedException;
 import javax.mail.Message;
@@ -28,14 +29,17 @@ import javax.mail.internet.AddressException;
 import javax.mail.internet.InternetAddress;
 
 import org.springframework.scheduling.SchedulingAwareRunnable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
 import org.springframework.ws.WebServiceMessageFactory;
+import org.springframework.ws.support.VirtualThreadUtils;
 import org.springframework.ws.transport.WebServiceMessageReceiver;
 import org.springframework.ws.transport.mail.monitor.MonitoringStrategy;
 import org.springframework.ws.transport.mail.monitor.PollingMonitoringStrategy;
 import org.springframework.ws.transport.mail.monitor.Pop3PollingMonitoringStrategy;
 import org.springframework.ws.transport.mail.support.MailTransportUtils;
 import org.springframework.ws.transport.support.AbstractAsyncStandaloneMessageReceiver;
+import org.springframework.ws.transport.support.BoundedWorkerPool;
 
 /**
  * Server-side component for receiving email messages using JavaMail.  Requires a {@link #setTransportUri(String)
@@ -47,6 +51,12 @@ import org.springframework.ws.transport.support.AbstractAsyncStandaloneMessageRe
  * is not explicitly set, this receiver will use the {@link Pop3PollingMonitoringStrategy} for POP3 servers, and the
  * {@link PollingMonitoringStrategy} for IMAP servers.
  *
+ * <p>By default, every incoming message is handled by a new task of the {@link #setTaskExecutor(
+ * org.springframework.core.task.TaskExecutor) taskExecutor}. Setting the {@linkplain #setMaxConcurrency(int) maximum
+ * concurrency} makes this receiver use a {@link BoundedWorkerPool} instead: messages are then handled by a fixed number
+ * of threads, and the folder is not monitored while all threads are busy and the {@linkplain #setQueueCapacity(int)
+ * queue} is full.
+ *
  * @author Arjen Poutsma
  * @since 1.5.0
  */
@@ -66,6 +76,12 @@ public class MailMessageReceiver extends AbstractAsyncStandaloneMessageReceiver
 
 	private MonitoringStrategy monitoringStrategy;
 
+	private int maxConcurrency = 0;
+
+	private int queueCapacity = 0;
+
+	private BoundedWorkerPool workerPool;
+
 	/** Sets the from address to use when sending response messages. */
 	public void setFrom(String from) throws AddressException {
 		this.from = new InternetAddress(from);
@@ -131,6 +147,32 @@ public class MailMessageReceiver extends AbstractAsyncStandaloneMessageReceiver
 		this.monitoringStrategy = monitoringStrategy;
 	}
 
+	/**
+	 * Sets the maximum number of messages that are handled concurrently. Defaults to {@code 0}, which means that every
+	 * message is handed to the {@linkplain #setTaskExecutor(org.springframework.core.task.TaskExecutor) task executor}.
+	 */
+	public void setMaxConcurrency(int maxConcurrency) {
+		Assert.isTrue(maxConcurrency >= 0, "'maxConcurrency' must not be negative");
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	/**
+	 * Sets the number of messages that can wait for a handler thread when the {@linkplain #setMaxConcurrency(int)
+	 * maximum concurrency} is reached. Defaults to {@code 0}.
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		Assert.isTrue(queueCapacity >= 0, "'queueCapacity' must not be negative");
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Returns the worker pool that handles the messages, which exposes statistics. Returns {@code null} if the
+	 * {@linkplain #setMaxConcurrency(int) maximum concurrency} is not set.
+	 */
+	public BoundedWorkerPool getWorkerPool() {
+		return workerPool;
+	}
+
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		Assert.notNull(storeUri, "Property 'storeUri' is required");
@@ -148,6 +190,12 @@ public class MailMessageReceiver extends AbstractAsyncStandaloneMessageReceiver
 						"Set the 'monitoringStrategy' explicitly.");
 			}
 		}
+		if (maxConcurrency > 0) {
+			String threadNamePrefix = getThreadNamePrefix() + "worker-";
+			ThreadFactory threadFactory = isVirtualThreads() ? VirtualThreadUtils.createThreadFactory(threadNamePrefix) :
+					new CustomizableThreadFactory(threadNamePrefix);
+			workerPool = new BoundedWorkerPool(threadFactory, maxConcurrency, queueCapacity);
+		}
 		super.afterPropertiesSet();
 	}
 
@@ -180,6 +228,9 @@ public class MailMessageReceiver extends AbstractAsyncStandaloneMessageReceiver
 		}
 		closeFolder();
 		closeSession();
+		if (workerPool != null) {
+			workerPool.shutdown();
+		}
 	}
 
 	private void openSession() throws MessagingException {
@@ -220,10 +271,19 @@ public class MailMessageReceiver extends AbstractAsyncStandaloneMessageReceiver
 				openFolder();
 				while (isRunning()) {
 					try {
+						if (workerPool != null) {
+							// do not look for new messages while saturated
+							workerPool.awaitCapacity();
+						}
 						Message[] messages = monitoringStrategy.monitor(folder);
 						for (Message message : messages) {
 							MessageHandler handler = new MessageHandler(message);
-							execute(handler);
+							if (workerPool != null) {
+								workerPool.execute(handler);
+							}
+							else {
+								execute(handler);
+							}
 						}
 					}
 					catch (FolderClosedException ex) {
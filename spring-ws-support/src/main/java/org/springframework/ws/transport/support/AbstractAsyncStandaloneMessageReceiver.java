@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,11 +20,15 @@ import org.springframework.beans.factory.BeanNameAware;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.util.ClassUtils;
+import org.springframework.ws.support.VirtualThreadUtils;
 
 /**
  * Abstract base class for asynchronous standalone, server-side transport objects. Contains a Spring {@link
  * TaskExecutor}, and various lifecycle callbacks.
  *
+ * <p>By default, every task runs on a new platform thread. Setting {@link #setVirtualThreads(boolean) virtualThreads}
+ * runs them on virtual threads instead, which are far cheaper when the handling of messages mostly waits on I/O.
+ *
  * @author Arjen Poutsma
  */
 public abstract class AbstractAsyncStandaloneMessageReceiver extends AbstractStandaloneMessageReceiver
@@ -37,6 +41,8 @@ public abstract class AbstractAsyncStandaloneMessageReceiver extends AbstractSta
 
 	private String beanName;
 
+	private boolean virtualThreads = false;
+
 	/**
 	 * Set the Spring {@link TaskExecutor} to use for running the listener threads. Default is {@link
 	 * SimpleAsyncTaskExecutor}, starting up a number of new threads.
@@ -48,6 +54,20 @@ public abstract class AbstractAsyncStandaloneMessageReceiver extends AbstractSta
 		this.taskExecutor = taskExecutor;
 	}
 
+	/**
+	 * Sets whether the default task executor, and other threads created by this receiver, use virtual threads. Requires
+	 * Java 21 or higher. Defaults to {@code false}. Ignored when an explicit {@link #setTaskExecutor(TaskExecutor)
+	 * taskExecutor} is set.
+	 */
+	public void setVirtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+
+	/** Indicates whether this receiver uses virtual threads. */
+	public boolean isVirtualThreads() {
+		return virtualThreads;
+	}
+
 	@Override
 	public void setBeanName(String beanName) {
 		this.beanName = beanName;
@@ -65,15 +85,24 @@ public abstract class AbstractAsyncStandaloneMessageReceiver extends AbstractSta
 	 * Create a default TaskExecutor. Called if no explicit TaskExecutor has been specified.
 	 *
 	 * <p>The default implementation builds a {@link org.springframework.core.task.SimpleAsyncTaskExecutor} with the
-	 * specified bean name (or the class name, if no bean name specified) as thread name prefix.
+	 * specified bean name (or the class name, if no bean name specified) as thread name prefix. The executor creates
+	 * virtual threads if {@linkplain #setVirtualThreads(boolean) enabled}.
 	 *
 	 * @see org.springframework.core.task.SimpleAsyncTaskExecutor#SimpleAsyncTaskExecutor(String)
 	 */
 	protected TaskExecutor createDefaultTaskExecutor() {
-		String threadNamePrefix = beanName != null ? beanName + "-" : DEFAULT_THREAD_NAME_PREFIX;
+		String threadNamePrefix = getThreadNamePrefix();
+		if (virtualThreads) {
+			return VirtualThreadUtils.createTaskExecutor(threadNamePrefix);
+		}
 		return new SimpleAsyncTaskExecutor(threadNamePrefix);
 	}
 
+	/** Returns the prefix of the names of threads created by this receiver: the bean name, or the class name. */
+	protected String getThreadNamePrefix() {
+		return beanName != null ? beanName + "-" : DEFAULT_THREAD_NAME_PREFIX;
+	}
+
 	/**
 	 * Executes the given {@link Runnable} via this receiver's {@link TaskExecutor}.
 	 *
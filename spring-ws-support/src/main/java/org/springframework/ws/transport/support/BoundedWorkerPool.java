@@ -0,0 +1,176 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport.support;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Fixed-size pool of worker threads with a bounded queue, used by standalone message receivers to handle incoming
+ * messages concurrently.
+ *
+ * <p>Unlike a plain thread pool, this pool does not reject work when it is saturated: {@link #execute(Runnable)}
+ * blocks until a worker or a queue slot is available. This applies back-pressure to the thread that receives the
+ * messages, which stops reading from its source until the pool has caught up. Receivers that control their own
+ * polling can call {@link #awaitCapacity()} before fetching new messages.
+ *
+ * <p>The pool keeps counts of the tasks it has handled, which can be used for monitoring.
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+public class BoundedWorkerPool {
+
+	private final ThreadPoolExecutor executor;
+
+	private final Semaphore permits;
+
+	private final AtomicLong submittedCount = new AtomicLong();
+
+	private final AtomicLong completedCount = new AtomicLong();
+
+	private final AtomicLong failedCount = new AtomicLong();
+
+	private final AtomicLong saturatedCount = new AtomicLong();
+
+	/**
+	 * Creates a new pool.
+	 *
+	 * @param threadNamePrefix the prefix of the names of the worker threads
+	 * @param maxConcurrency   the number of worker threads
+	 * @param queueCapacity    the number of tasks that can wait for a worker; {@code 0} to hand tasks over directly
+	 */
+	public BoundedWorkerPool(String threadNamePrefix, int maxConcurrency, int queueCapacity) {
+		this(new CustomizableThreadFactory(threadNamePrefix), maxConcurrency, queueCapacity);
+	}
+
+	/**
+	 * Creates a new pool that uses the given factory to create worker threads, for instance one that creates {@linkplain
+	 * org.springframework.ws.support.VirtualThreadUtils#createThreadFactory(String) virtual threads}.
+	 *
+	 * @param threadFactory  the factory of the worker threads
+	 * @param maxConcurrency the number of worker threads
+	 * @param queueCapacity  the number of tasks that can wait for a worker; {@code 0} to hand tasks over directly
+	 */
+	public BoundedWorkerPool(ThreadFactory threadFactory, int maxConcurrency, int queueCapacity) {
+		Assert.notNull(threadFactory, "'threadFactory' must not be null");
+		Assert.isTrue(maxConcurrency > 0, "'maxConcurrency' must be larger than 0");
+		Assert.isTrue(queueCapacity >= 0, "'queueCapacity' must not be negative");
+		this.permits = new Semaphore(maxConcurrency + queueCapacity);
+		this.executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), threadFactory);
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Executes the given task on a worker thread, blocking while the pool is saturated.
+	 *
+	 * @param task the task to execute
+	 * @throws InterruptedException when the calling thread is interrupted while waiting
+	 */
+	public void execute(final Runnable task) throws InterruptedException {
+		Assert.notNull(task, "'task' must not be null");
+		if (!permits.tryAcquire()) {
+			saturatedCount.incrementAndGet();
+			permits.acquire();
+		}
+		submittedCount.incrementAndGet();
+		try {
+			executor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						task.run();
+						completedCount.incrementAndGet();
+					}
+					catch (RuntimeException ex) {
+						failedCount.incrementAndGet();
+						throw ex;
+					}
+					catch (Error err) {
+						failedCount.incrementAndGet();
+						throw err;
+					}
+					finally {
+						permits.release();
+					}
+				}
+			});
+		}
+		catch (RuntimeException ex) {
+			permits.release();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Blocks until the pool can accept a task without waiting.
+	 *
+	 * @throws InterruptedException when the calling thread is interrupted while waiting
+	 */
+	public void awaitCapacity() throws InterruptedException {
+		if (!permits.tryAcquire()) {
+			saturatedCount.incrementAndGet();
+			permits.acquire();
+		}
+		permits.release();
+	}
+
+	/** Stops accepting tasks, and interrupts the workers. */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/** Returns the number of tasks that are being executed. */
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+
+	/** Returns the number of tasks that are waiting for a worker. */
+	public int getQueueSize() {
+		return executor.getQueue().size();
+	}
+
+	/** Returns the number of tasks submitted to this pool. */
+	public long getSubmittedCount() {
+		return submittedCount.get();
+	}
+
+	/** Returns the number of tasks that completed normally. */
+	public long getCompletedCount() {
+		return completedCount.get();
+	}
+
+	/** Returns the number of tasks that threw an exception. */
+	public long getFailedCount() {
+		return failedCount.get();
+	}
+
+	/** Returns the number of times a caller had to wait because the pool was saturated. */
+	public long getSaturatedCount() {
+		return saturatedCount.get();
+	}
+
+}
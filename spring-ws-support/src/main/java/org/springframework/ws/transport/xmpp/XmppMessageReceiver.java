@@ -17,6 +17,7 @@
 package org.springframework.ws.transport.xmpp;
 
 import java.io.IOException;
+import java.util.concurrent.ThreadFactory;
 
 import org.jivesoftware.smack.SmackException;
 import org.jivesoftware.smack.StanzaListener;
@@ -28,7 +29,12 @@ import org.jivesoftware.smack.packet.Message;
 import org.jivesoftware.smack.packet.Stanza;
 import org.jivesoftware.smack.tcp.XMPPTCPConnection;
 
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.ws.support.VirtualThreadUtils;
 import org.springframework.ws.transport.support.AbstractStandaloneMessageReceiver;
+import org.springframework.ws.transport.support.BoundedWorkerPool;
 
 /**
  * Server-side component for receiving XMPP (Jabber) messages.	Requires a {@linkplain #setConnection(XMPPConnection)
@@ -36,6 +42,11 @@ import org.springframework.ws.transport.support.AbstractStandaloneMessageReceive
  * messageFactory} and {@link #setMessageReceiver(org.springframework.ws.transport.WebServiceMessageReceiver)
  * messageReceiver} required by the base class.
  *
+ * <p>By default, messages are handled on the thread that delivers them. Setting the {@linkplain
+ * #setMaxConcurrency(int) maximum concurrency} makes this receiver handle them with a {@link BoundedWorkerPool}
+ * instead. When all threads are busy and the {@linkplain #setQueueCapacity(int) queue} is full, the delivering thread
+ * blocks until a message has been handled.
+ *
  * @author Gildas Cuisinier
  * @author Arjen Poutsma
  * @author Greg Turnquist
@@ -53,6 +64,14 @@ public class XmppMessageReceiver extends AbstractStandaloneMessageReceiver {
 
 	private String messageEncoding = DEFAULT_MESSAGE_ENCODING;
 
+	private int maxConcurrency = 0;
+
+	private int queueCapacity = 0;
+
+	private boolean virtualThreads = false;
+
+	private BoundedWorkerPool workerPool;
+
 	public XmppMessageReceiver() {
 	}
 
@@ -61,6 +80,51 @@ public class XmppMessageReceiver extends AbstractStandaloneMessageReceiver {
 		this.connection = connection;
 	}
 
+	/**
+	 * Sets the maximum number of messages that are handled concurrently. Defaults to {@code 0}, which means that
+	 * messages are handled on the thread that delivers them.
+	 */
+	public void setMaxConcurrency(int maxConcurrency) {
+		Assert.isTrue(maxConcurrency >= 0, "'maxConcurrency' must not be negative");
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	/**
+	 * Sets the number of messages that can wait for a handler thread when the {@linkplain #setMaxConcurrency(int)
+	 * maximum concurrency} is reached. Defaults to {@code 0}.
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		Assert.isTrue(queueCapacity >= 0, "'queueCapacity' must not be negative");
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Sets whether the worker threads used when the {@linkplain #setMaxConcurrency(int) maximum concurrency} is set are
+	 * virtual threads. Requires Java 21 or higher. Defaults to {@code false}.
+	 */
+	public void setVirtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+
+	/**
+	 * Returns the worker pool that handles the messages, which exposes statistics. Returns {@code null} if the
+	 * {@linkplain #setMaxConcurrency(int) maximum concurrency} is not set.
+	 */
+	public BoundedWorkerPool getWorkerPool() {
+		return workerPool;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		if (maxConcurrency > 0) {
+			String threadNamePrefix = ClassUtils.getShortName(getClass()) + "-worker-";
+			ThreadFactory threadFactory = virtualThreads ? VirtualThreadUtils.createThreadFactory(threadNamePrefix) :
+					new CustomizableThreadFactory(threadNamePrefix);
+			workerPool = new BoundedWorkerPool(threadFactory, maxConcurrency, queueCapacity);
+		}
+		super.afterPropertiesSet();
+	}
+
 	@Override
 	protected void onActivate() throws XMPPException, IOException, SmackException {
 		if (!connection.isConnected()) {
@@ -95,6 +159,9 @@ public class XmppMessageReceiver extends AbstractStandaloneMessageReceiver {
 		if (connection.isConnected()) {
 			connection.disconnect();
 		}
+		if (workerPool != null) {
+			workerPool.shutdown();
+		}
 	}
 
 	private class WebServicePacketListener implements StanzaListener {
@@ -103,14 +170,32 @@ public class XmppMessageReceiver extends AbstractStandaloneMessageReceiver {
 		public void processPacket(Stanza packet) {
 			logger.info("Received " + packet);
 			if (packet instanceof Message) {
-				Message message = (Message) packet;
-				try {
-					XmppReceiverConnection wsConnection = new XmppReceiverConnection(connection, message);
-					wsConnection.setMessageEncoding(messageEncoding);
-					handleConnection(wsConnection);
+				final Message message = (Message) packet;
+				Runnable handler = new Runnable() {
+
+					@Override
+					public void run() {
+						try {
+							XmppReceiverConnection wsConnection = new XmppReceiverConnection(connection, message);
+							wsConnection.setMessageEncoding(messageEncoding);
+							handleConnection(wsConnection);
+						}
+						catch (Exception ex) {
+							logger.error(ex);
+						}
+					}
+				};
+				if (workerPool != null) {
+					try {
+						workerPool.execute(handler);
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						logger.warn("Interrupted while waiting for a worker; message dropped");
+					}
 				}
-				catch (Exception ex) {
-					logger.error(ex);
+				else {
+					handler.run();
 				}
 			}
 		}
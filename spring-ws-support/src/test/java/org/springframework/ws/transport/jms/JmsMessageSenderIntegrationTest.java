@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,8 @@ package org.springframework.ws.transport.jms;
 import java.io.ByteArrayOutputStream;
 import java.net.URI;
 import javax.jms.BytesMessage;
+import javax.jms.ConnectionFactory;
+import javax.jms.Destination;
 import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.Session;
@@ -54,6 +56,9 @@ public class JmsMessageSenderIntegrationTest {
 	@Autowired
 	private JmsTemplate jmsTemplate;
 
+	@Autowired
+	private ConnectionFactory connectionFactory;
+
 	private MessageFactory messageFactory;
 
 	private static final String SOAP_ACTION = "\"http://springframework.org/DoIt\"";
@@ -234,4 +239,70 @@ public class JmsMessageSenderIntegrationTest {
 		}
 
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testSendAndReceiveSessionCacheTemporaryQueue() throws Exception {
+		JmsMessageSender pooledSender = new JmsMessageSender(connectionFactory);
+		pooledSender.setSessionCacheSize(2);
+		pooledSender.setReceiveTimeout(5000);
+		try {
+			URI uri = new URI("jms:SenderRequestQueue?deliveryMode=NON_PERSISTENT");
+			Destination firstReplyTo = sendAndReceivePooled(pooledSender, uri);
+			Destination secondReplyTo = sendAndReceivePooled(pooledSender, uri);
+			assertEquals("Reply queue not shared", firstReplyTo, secondReplyTo);
+		}
+		finally {
+			pooledSender.destroy();
+		}
+	}
+
+	@Test
+	public void testSendAndReceiveSessionCachePermanentQueue() throws Exception {
+		JmsMessageSender pooledSender = new JmsMessageSender(connectionFactory);
+		pooledSender.setSessionCacheSize(2);
+		pooledSender.setReceiveTimeout(5000);
+		try {
+			URI uri = new URI("jms:SenderRequestQueue?replyToName=SenderResponseQueue&deliveryMode=NON_PERSISTENT");
+			sendAndReceivePooled(pooledSender, uri);
+			sendAndReceivePooled(pooledSender, uri);
+		}
+		finally {
+			pooledSender.destroy();
+		}
+	}
+
+	private Destination sendAndReceivePooled(JmsMessageSender pooledSender, URI uri) throws Exception {
+		WebServiceConnection connection = pooledSender.createConnection(uri);
+		try {
+			SoapMessage soapRequest = new SaajSoapMessage(messageFactory.createMessage());
+			soapRequest.setSoapAction(SOAP_ACTION);
+			connection.send(soapRequest);
+
+			final BytesMessage request = (BytesMessage) jmsTemplate.receive();
+			assertNotNull("No message received", request);
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			messageFactory.createMessage().writeTo(bos);
+			final byte[] buf = bos.toByteArray();
+			jmsTemplate.send(request.getJMSReplyTo(), new MessageCreator() {
+
+				public Message createMessage(Session session) throws JMSException {
+					BytesMessage response = session.createBytesMessage();
+					String correlation = request.getJMSCorrelationID();
+					response.setJMSCorrelationID(correlation != null ? correlation : request.getJMSMessageID());
+					response.setStringProperty(JmsTransportConstants.PROPERTY_SOAP_ACTION, SOAP_ACTION);
+					response.setStringProperty(JmsTransportConstants.PROPERTY_CONTENT_TYPE,
+							SoapVersion.SOAP_11.getContentType());
+					response.writeBytes(buf);
+					return response;
+				}
+			});
+			SoapMessage response = (SoapMessage) connection.receive(new SaajSoapMessageFactory(messageFactory));
+			assertNotNull("No response received", response);
+			assertEquals("Invalid SOAPAction", SOAP_ACTION, response.getSoapAction());
+			return request.getJMSReplyTo();
+		}
+		finally {
+			connection.close();
+		}
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport.support;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedWorkerPoolTest {
+
+	private BoundedWorkerPool pool;
+
+	@Before
+	public void setUp() {
+		pool = new BoundedWorkerPool("test-", 1, 1);
+	}
+
+	@After
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Test
+	public void execute() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(2);
+		Runnable task = new Runnable() {
+
+			@Override
+			public void run() {
+				latch.countDown();
+			}
+		};
+		pool.execute(task);
+		pool.execute(task);
+		assertTrue("Tasks not executed", latch.await(5, TimeUnit.SECONDS));
+		assertEquals(2, pool.getSubmittedCount());
+	}
+
+	@Test
+	public void backPressure() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		Runnable blockingTask = new Runnable() {
+
+			@Override
+			public void run() {
+				started.countDown();
+				try {
+					release.await();
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		pool.execute(blockingTask);
+		assertTrue("Task not started", started.await(5, TimeUnit.SECONDS));
+		pool.execute(blockingTask);
+		assertEquals(1, pool.getQueueSize());
+
+		final AtomicBoolean submitted = new AtomicBoolean();
+		Thread producer = new Thread() {
+
+			@Override
+			public void run() {
+				try {
+					pool.execute(new Runnable() {
+
+						@Override
+						public void run() {
+						}
+					});
+					submitted.set(true);
+				}
+				catch (InterruptedException ex) {
+					// ignore
+				}
+			}
+		};
+		producer.start();
+		producer.join(200);
+		assertFalse("Saturated pool accepted task", submitted.get());
+
+		release.countDown();
+		producer.join(5000);
+		assertTrue("Task not accepted after release", submitted.get());
+		assertEquals(1, pool.getSaturatedCount());
+	}
+
+	@Test
+	public void failedCount() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(1);
+		pool.execute(new Runnable() {
+
+			@Override
+			public void run() {
+				latch.countDown();
+				throw new IllegalStateException("expected");
+			}
+		});
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		for (int i = 0; i < 50 && pool.getFailedCount() == 0; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(1, pool.getFailedCount());
+		assertEquals(0, pool.getCompletedCount());
+		pool.awaitCapacity();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,11 +29,13 @@ import org.springframework.util.ClassUtils;
  * Abstract base class for <code>XMLEventReader</code>s.
  *
  * @author Arjen Poutsma
+ * @since 2.3.0
  */
 public abstract class AbstractXMLEventReader implements XMLEventReader {
 
 	private boolean closed;
 
+	@Override
 	public Object next() {
 		try {
 			return nextEvent();
@@ -48,10 +50,12 @@ public abstract class AbstractXMLEventReader implements XMLEventReader {
 	 *
 	 * @throws UnsupportedOperationException when called
 	 */
+	@Override
 	public void remove() {
 		throw new UnsupportedOperationException("remove not supported on " + ClassUtils.getShortName(getClass()));
 	}
 
+	@Override
 	public String getElementText() throws XMLStreamException {
 		checkIfClosed();
 		if (!peek().isStartElement()) {
@@ -75,6 +79,7 @@ public abstract class AbstractXMLEventReader implements XMLEventReader {
 		return builder.toString();
 	}
 
+	@Override
 	public XMLEvent nextTag() throws XMLStreamException {
 		checkIfClosed();
 		while (true) {
@@ -107,6 +112,7 @@ public abstract class AbstractXMLEventReader implements XMLEventReader {
 	 *
 	 * @throws IllegalArgumentException when called.
 	 */
+	@Override
 	public Object getProperty(String name) throws IllegalArgumentException {
 		throw new IllegalArgumentException("Property not supported: [" + name + "]");
 	}
@@ -133,6 +139,7 @@ public abstract class AbstractXMLEventReader implements XMLEventReader {
 		}
 	}
 
+	@Override
 	public void close() {
 		closed = true;
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,7 +27,11 @@ import org.springframework.util.ClassUtils;
 import org.springframework.xml.namespace.SimpleNamespaceContext;
 
 /**
+ * Abstract base class for {@code XMLEventWriter}s. Keeps track of the namespace context, and adds all events of an
+ * {@code XMLEventReader} by calling {@link #add(XMLEvent)} for each of them.
+ *
  * @author Arjen Poutsma
+ * @since 2.3.0
  */
 public abstract class AbstractXMLEventWriter implements XMLEventWriter {
 
@@ -35,9 +39,11 @@ public abstract class AbstractXMLEventWriter implements XMLEventWriter {
 
 	private SimpleNamespaceContext namespaceContext = new SimpleNamespaceContext();
 
+	@Override
 	public void flush() throws XMLStreamException {
 	}
 
+	@Override
 	public void add(XMLEventReader eventReader) throws XMLStreamException {
 		checkIfClosed();
 		while (eventReader.hasNext()) {
@@ -46,23 +52,28 @@ public abstract class AbstractXMLEventWriter implements XMLEventWriter {
 		}
 	}
 
+	@Override
 	public String getPrefix(String uri) throws XMLStreamException {
 		return namespaceContext.getPrefix(uri);
 	}
 
+	@Override
 	public void setPrefix(String prefix, String uri) throws XMLStreamException {
 		namespaceContext.bindNamespaceUri(prefix, uri);
 	}
 
+	@Override
 	public void setDefaultNamespace(String uri) throws XMLStreamException {
 		namespaceContext.bindDefaultNamespaceUri(uri);
 	}
 
+	@Override
 	public void setNamespaceContext(NamespaceContext namespaceContext) throws XMLStreamException {
 		Assert.notNull(namespaceContext, "'namespaceContext' must not be null");
 		this.namespaceContext = (SimpleNamespaceContext) namespaceContext;
 	}
 
+	@Override
 	public NamespaceContext getNamespaceContext() {
 		return namespaceContext;
 	}
@@ -89,6 +100,7 @@ public abstract class AbstractXMLEventWriter implements XMLEventWriter {
 		}
 	}
 
+	@Override
 	public void close() {
 		closed = true;
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,6 +27,7 @@ import org.springframework.util.Assert;
  * Implementation of {@link XMLEventReader} that combines multiple other {@code XMLEventReader}s.
  *
  * @author Arjen Poutsma
+ * @since 2.3.0
  */
 public class CompositeXMLEventReader extends AbstractXMLEventReader {
 
@@ -49,6 +50,7 @@ public class CompositeXMLEventReader extends AbstractXMLEventReader {
 		this.eventReaders = eventReaders.toArray(new XMLEventReader[eventReaders.size()]);
 	}
 
+	@Override
 	public boolean hasNext() {
 		while (cursor < eventReaders.length) {
 			if (!atLastEventReader()) {
@@ -62,6 +64,7 @@ public class CompositeXMLEventReader extends AbstractXMLEventReader {
 		return false;
 	}
 
+	@Override
 	public XMLEvent nextEvent() throws XMLStreamException {
 		XMLEvent event = null;
 		while (cursor < eventReaders.length) {
@@ -76,6 +79,7 @@ public class CompositeXMLEventReader extends AbstractXMLEventReader {
 		return event;
 	}
 
+	@Override
 	public XMLEvent peek() throws XMLStreamException {
 		XMLEvent event = null;
 		while (cursor < eventReaders.length) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,7 +23,10 @@ import javax.xml.stream.events.XMLEvent;
 import org.springframework.util.Assert;
 
 /**
+ * Implementation of {@link javax.xml.stream.XMLEventReader} that reads from a fixed list of {@link XMLEvent}s.
+ *
  * @author Arjen Poutsma
+ * @since 2.3.0
  */
 public class ListBasedXMLEventReader extends AbstractXMLEventReader {
 
@@ -54,11 +57,13 @@ public class ListBasedXMLEventReader extends AbstractXMLEventReader {
 		this.events = events.toArray(new XMLEvent[events.size()]);
 	}
 
+	@Override
 	public boolean hasNext() {
 		Assert.notNull(events, "'events' must not be null");
 		return cursor != events.length;
 	}
 
+	@Override
 	public XMLEvent nextEvent() {
 		if (cursor < events.length) {
 			return events[cursor++];
@@ -68,6 +73,7 @@ public class ListBasedXMLEventReader extends AbstractXMLEventReader {
 		}
 	}
 
+	@Override
 	public XMLEvent peek() {
 		if (cursor < events.length) {
 			return events[cursor];
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.xml.support;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.Assert;
+
+/**
+ * Lock-free, bounded pool of idle objects that are expensive to create, but cannot be used by multiple threads at the
+ * same time, such as JAXP transformers and validators, or JAXB marshallers.
+ *
+ * <p>The pool does not create objects itself. Instead, callers {@linkplain #poll() poll} for an idle object, create a
+ * new one if none is available, and {@linkplain #offer(Object) offer} it back to the pool when done. Objects offered
+ * while the pool already holds {@linkplain #getMaxIdle() the maximum number} of idle objects are discarded, so that
+ * the pool never grows beyond its bound.
+ *
+ * <p>Typical usage looks like:
+ * <pre class="code">
+ * Transformer transformer = pool.poll();
+ * if (transformer == null) {
+ *     transformer = transformerFactory.newTransformer();
+ * }
+ * try {
+ *     transformer.transform(source, result);
+ * }
+ * finally {
+ *     transformer.reset();
+ *     pool.offer(transformer);
+ * }
+ * </pre>
+ *
+ * @author Arjen Poutsma
+ * @since 2.3.0
+ */
+public class BoundedObjectPool<T> {
+
+	private final Queue<T> idleObjects = new ConcurrentLinkedQueue<T>();
+
+	private final AtomicInteger idleCount = new AtomicInteger();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong discardCount = new AtomicLong();
+
+	private final int maxIdle;
+
+	/**
+	 * Creates a new {@code BoundedObjectPool} that holds at most the given number of idle objects.
+	 *
+	 * @param maxIdle the maximum number of idle objects; {@code 0} disables pooling altogether
+	 */
+	public BoundedObjectPool(int maxIdle) {
+		Assert.isTrue(maxIdle >= 0, "'maxIdle' must not be negative");
+		this.maxIdle = maxIdle;
+	}
+
+	/**
+	 * Retrieves and removes an idle object from this pool.
+	 *
+	 * @return an idle object, or {@code null} if none is available
+	 */
+	public T poll() {
+		T object = idleObjects.poll();
+		if (object != null) {
+			idleCount.decrementAndGet();
+			hitCount.incrementAndGet();
+		}
+		else {
+			missCount.incrementAndGet();
+		}
+		return object;
+	}
+
+	/**
+	 * Returns the given object to this pool, for use by subsequent callers of {@link #poll()}. The object is
+	 * discarded if the pool already holds the maximum number of idle objects.
+	 *
+	 * @param object the object to return, may be {@code null}
+	 * @return {@code true} if the object was added to the pool; {@code false} if it was discarded
+	 */
+	public boolean offer(T object) {
+		if (object == null) {
+			return false;
+		}
+		while (true) {
+			int current = idleCount.get();
+			if (current >= maxIdle) {
+				discardCount.incrementAndGet();
+				return false;
+			}
+			if (idleCount.compareAndSet(current, current + 1)) {
+				idleObjects.offer(object);
+				return true;
+			}
+		}
+	}
+
+	/** Removes all idle objects from this pool. Statistics are retained. */
+	public void clear() {
+		while (idleObjects.poll() != null) {
+			idleCount.decrementAndGet();
+		}
+	}
+
+	/** Returns the maximum number of idle objects held by this pool. */
+	public int getMaxIdle() {
+		return maxIdle;
+	}
+
+	/** Returns the current number of idle objects in this pool. */
+	public int getIdleCount() {
+		return idleCount.get();
+	}
+
+	/** Returns the number of times {@link #poll()} returned an idle object. */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/** Returns the number of times {@link #poll()} returned {@code null}, requiring a new object to be created. */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/** Returns the number of objects that were discarded by {@link #offer(Object)} because the pool was full. */
+	public long getDiscardCount() {
+		return discardCount.get();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[idle=" + getIdleCount() + ", maxIdle=" + maxIdle + ", hits=" +
+				getHitCount() + ", misses=" + getMissCount() + ", discarded=" + getDiscardCount() + "]";
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,11 @@
 
 package org.springframework.xml.transform;
 
+import java.util.Properties;
+import java.util.concurrent.ConcurrentMap;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
@@ -25,20 +28,48 @@ import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.TransformerFactoryConfigurationError;
 
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.StringUtils;
+import org.springframework.xml.support.BoundedObjectPool;
 
 /**
  * Helper class for {@link Transformer} usage. Provides {@link #createTransformer()} and {@link #transform(Source,
  * Result)}.
  *
+ * <p>As transformers are not thread-safe, but relatively expensive to create, the {@code transform} methods reuse
+ * transformers by keeping a bounded pool of idle ones, which are {@linkplain Transformer#reset() reset} after use.
+ * Transformers are not reused if the {@code TransformerFactory} does not support resetting them.
+ * Additionally, compiled XSLT stylesheets can be cached with {@link #getTemplates(Source)}.
+ *
  * @author Arjen Poutsma
  * @since 3.0
  */
 public class TransformerHelper {
 
+	/**
+	 * The default maximum number of idle transformers kept per pool.
+	 *
+	 * @see #setTransformerPoolSize(int)
+	 */
+	public static final int DEFAULT_TRANSFORMER_POOL_SIZE = 8;
+
 	private volatile TransformerFactory transformerFactory;
 
 	private Class<? extends TransformerFactory> transformerFactoryClass;
 
+	private int transformerPoolSize = DEFAULT_TRANSFORMER_POOL_SIZE;
+
+	private volatile boolean transformerResetSupported = true;
+
+	private volatile BoundedObjectPool<Transformer> transformerPool =
+			new BoundedObjectPool<Transformer>(DEFAULT_TRANSFORMER_POOL_SIZE);
+
+	private final ConcurrentMap<Templates, BoundedObjectPool<Transformer>> templatesTransformerPools =
+			new ConcurrentReferenceHashMap<Templates, BoundedObjectPool<Transformer>>(16,
+					ConcurrentReferenceHashMap.ReferenceType.WEAK);
+
+	private final ConcurrentMap<String, Templates> templatesCache = new ConcurrentReferenceHashMap<String, Templates>();
+
 	/**
 	 * Initializes a new instance of the {@code TransformerHelper}.
 	 */
@@ -65,6 +96,25 @@ public class TransformerHelper {
 	public void setTransformerFactoryClass(Class<? extends TransformerFactory> transformerFactoryClass) {
 		Assert.isAssignable(TransformerFactory.class, transformerFactoryClass);
 		this.transformerFactoryClass = transformerFactoryClass;
+		clearCaches();
+	}
+
+	/**
+	 * Sets the maximum number of idle transformers kept for reuse by the {@code transform} methods, per stylesheet.
+	 * Default is {@link #DEFAULT_TRANSFORMER_POOL_SIZE}. Setting this property to {@code 0} creates a new transformer
+	 * for every transformation.
+	 */
+	public void setTransformerPoolSize(int transformerPoolSize) {
+		Assert.isTrue(transformerPoolSize >= 0, "'transformerPoolSize' must not be negative");
+		this.transformerPoolSize = transformerPoolSize;
+		clearCaches();
+	}
+
+	private void clearCaches() {
+		transformerPool = new BoundedObjectPool<Transformer>(transformerPoolSize);
+		templatesTransformerPools.clear();
+		templatesCache.clear();
+		transformerResetSupported = true;
 	}
 
 	/**
@@ -126,16 +176,119 @@ public class TransformerHelper {
 	}
 
 	/**
-	 * Transforms the given {@link Source} to the given {@link Result}. Creates a new {@link Transformer} for every
-	 * call, as transformers are not thread-safe.
+	 * Transforms the given {@link Source} to the given {@link Result}. Reuses a pooled transformer if available, or
+	 * {@linkplain #createTransformer() creates} a new one otherwise, as transformers are not thread-safe.
 	 *
 	 * @param source the source to transform from
 	 * @param result the result to transform to
 	 * @throws TransformerException if thrown by JAXP methods
 	 */
 	public void transform(Source source, Result result) throws TransformerException {
-		Transformer transformer = createTransformer();
+		transform(source, result, null);
+	}
+
+	/**
+	 * Transforms the given {@link Source} to the given {@link Result}, using the given output properties. Reuses a
+	 * pooled transformer if available, or {@linkplain #createTransformer() creates} a new one otherwise, as
+	 * transformers are not thread-safe.
+	 *
+	 * @param source		   the source to transform from
+	 * @param result		   the result to transform to
+	 * @param outputProperties the output properties to use, may be {@code null}
+	 * @throws TransformerException if thrown by JAXP methods
+	 * @see Transformer#setOutputProperties(Properties)
+	 * @since 2.3.0
+	 */
+	public void transform(Source source, Result result, Properties outputProperties) throws TransformerException {
+		BoundedObjectPool<Transformer> pool = transformerPool;
+		Transformer transformer = pool.poll();
+		if (transformer == null) {
+			transformer = createTransformer();
+		}
+		doTransform(transformer, pool, source, result, outputProperties);
+	}
+
+	/**
+	 * Transforms the given {@link Source} to the given {@link Result}, using the given compiled stylesheet. Reuses a
+	 * pooled transformer of the stylesheet if available, or creates a new one otherwise, as transformers are not
+	 * thread-safe.
+	 *
+	 * @param templates the compiled stylesheet
+	 * @param source	the source to transform from
+	 * @param result	the result to transform to
+	 * @throws TransformerException if thrown by JAXP methods
+	 * @see #getTemplates(Source)
+	 * @since 2.3.0
+	 */
+	public void transform(Templates templates, Source source, Result result) throws TransformerException {
+		Assert.notNull(templates, "'templates' must not be null");
+		BoundedObjectPool<Transformer> pool = templatesTransformerPools.get(templates);
+		if (pool == null) {
+			pool = new BoundedObjectPool<Transformer>(transformerPoolSize);
+			BoundedObjectPool<Transformer> existing = templatesTransformerPools.putIfAbsent(templates, pool);
+			if (existing != null) {
+				pool = existing;
+			}
+		}
+		Transformer transformer = pool.poll();
+		if (transformer == null) {
+			transformer = templates.newTransformer();
+		}
+		doTransform(transformer, pool, source, result, null);
+	}
+
+	private void doTransform(Transformer transformer, BoundedObjectPool<Transformer> pool, Source source,
+			Result result, Properties outputProperties) throws TransformerException {
+		if (outputProperties != null) {
+			transformer.setOutputProperties(outputProperties);
+		}
 		transformer.transform(source, result);
+		// only reuse transformers that completed normally
+		if (resetTransformer(transformer)) {
+			pool.offer(transformer);
+		}
+	}
+
+	private boolean resetTransformer(Transformer transformer) {
+		if (!transformerResetSupported) {
+			return false;
+		}
+		try {
+			transformer.reset();
+			return true;
+		}
+		catch (RuntimeException ex) {
+			// some implementations, such as Xalan's identity transformer, fail on reset()
+			transformerResetSupported = false;
+			return false;
+		}
+	}
+
+	/**
+	 * Compiles the given XSLT stylesheet into a {@link Templates} object. Stylesheets with a
+	 * {@linkplain Source#getSystemId() system id}, such as a {@link ResourceSource}, are compiled only once, and
+	 * cached by system id.
+	 *
+	 * @param stylesheet the stylesheet to compile
+	 * @return the compiled stylesheet
+	 * @throws TransformerConfigurationException if thrown by JAXP methods
+	 * @since 2.3.0
+	 */
+	public Templates getTemplates(Source stylesheet) throws TransformerConfigurationException {
+		Assert.notNull(stylesheet, "'stylesheet' must not be null");
+		String systemId = stylesheet.getSystemId();
+		if (!StringUtils.hasLength(systemId)) {
+			return getTransformerFactory().newTemplates(stylesheet);
+		}
+		Templates templates = templatesCache.get(systemId);
+		if (templates == null) {
+			templates = getTransformerFactory().newTemplates(stylesheet);
+			Templates existing = templatesCache.putIfAbsent(systemId, templates);
+			if (existing != null) {
+				templates = existing;
+			}
+		}
+		return templates;
 	}
 
 }
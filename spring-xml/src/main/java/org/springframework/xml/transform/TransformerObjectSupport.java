@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,10 @@
 
 package org.springframework.xml.transform;
 
+import java.util.Properties;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
@@ -51,6 +53,16 @@ public abstract class TransformerObjectSupport {
 		transformerHelper.setTransformerFactoryClass(transformerFactoryClass);
 	}
 
+	/**
+	 * Sets the maximum number of idle transformers kept for reuse by the {@code transform} methods. Default is
+	 * {@link TransformerHelper#DEFAULT_TRANSFORMER_POOL_SIZE}.
+	 *
+	 * @see TransformerHelper#setTransformerPoolSize(int)
+	 */
+	public void setTransformerPoolSize(int transformerPoolSize) {
+		transformerHelper.setTransformerPoolSize(transformerPoolSize);
+	}
+
 	/**
 	 * Instantiate a new TransformerFactory. <p>The default implementation simply calls {@link
 	 * TransformerFactory#newInstance()}. If a {@link #setTransformerFactoryClass "transformerFactoryClass"} has been
@@ -85,8 +97,8 @@ public abstract class TransformerObjectSupport {
 	}
 
 	/**
-	 * Transforms the given {@link Source} to the given {@link Result}. Creates a new {@link Transformer} for every
-	 * call, as transformers are not thread-safe.
+	 * Transforms the given {@link Source} to the given {@link Result}. Reuses a pooled {@link Transformer} if
+	 * available, as transformers are not thread-safe.
 	 *
 	 * @param source the source to transform from
 	 * @param result the result to transform to
@@ -96,4 +108,44 @@ public abstract class TransformerObjectSupport {
 		transformerHelper.transform(source, result);
 	}
 
+	/**
+	 * Transforms the given {@link Source} to the given {@link Result}, using the given output properties. Reuses a
+	 * pooled {@link Transformer} if available, as transformers are not thread-safe.
+	 *
+	 * @param source		   the source to transform from
+	 * @param result		   the result to transform to
+	 * @param outputProperties the output properties to use, may be {@code null}
+	 * @throws TransformerException if thrown by JAXP methods
+	 */
+	protected final void transform(Source source, Result result, Properties outputProperties)
+			throws TransformerException {
+		transformerHelper.transform(source, result, outputProperties);
+	}
+
+	/**
+	 * Transforms the given {@link Source} to the given {@link Result}, using the given compiled stylesheet. Reuses a
+	 * pooled {@link Transformer} if available, as transformers are not thread-safe.
+	 *
+	 * @param templates the compiled stylesheet
+	 * @param source	the source to transform from
+	 * @param result	the result to transform to
+	 * @throws TransformerException if thrown by JAXP methods
+	 * @see #getTemplates(Source)
+	 */
+	protected final void transform(Templates templates, Source source, Result result) throws TransformerException {
+		transformerHelper.transform(templates, source, result);
+	}
+
+	/**
+	 * Compiles the given XSLT stylesheet, caching the result if the stylesheet has a system id.
+	 *
+	 * @param stylesheet the stylesheet to compile
+	 * @return the compiled stylesheet
+	 * @throws TransformerConfigurationException if thrown by JAXP methods
+	 * @see TransformerHelper#getTemplates(Source)
+	 */
+	protected final Templates getTemplates(Source stylesheet) throws TransformerConfigurationException {
+		return transformerHelper.getTemplates(stylesheet);
+	}
+
 }
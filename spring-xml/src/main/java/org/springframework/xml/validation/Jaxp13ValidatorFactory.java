@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2014 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,8 @@ package org.springframework.xml.validation;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
 import javax.xml.validation.Schema;
 import javax.xml.validation.Validator;
@@ -27,6 +29,7 @@ import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
 import org.springframework.core.io.Resource;
+import org.springframework.xml.support.BoundedObjectPool;
 
 /**
  * Internal class that uses JAXP 1.0 features to create {@code XmlValidator} instances.
@@ -37,21 +40,34 @@ import org.springframework.core.io.Resource;
 abstract class Jaxp13ValidatorFactory {
 
 	static XmlValidator createValidator(Resource[] resources, String schemaLanguage) throws IOException {
+		return createValidator(resources, schemaLanguage, XmlValidatorFactory.DEFAULT_VALIDATOR_POOL_SIZE);
+	}
+
+	static XmlValidator createValidator(Resource[] resources, String schemaLanguage, int poolSize)
+			throws IOException {
 		try {
 			Schema schema = SchemaLoaderUtils.loadSchema(resources, schemaLanguage);
-			return new Jaxp13Validator(schema);
+			return new Jaxp13Validator(schema, poolSize);
 		}
 		catch (SAXException ex) {
 			throw new XmlValidationException("Could not create Schema: " + ex.getMessage(), ex);
 		}
 	}
 
-	private static class Jaxp13Validator implements XmlValidator {
+	/**
+	 * {@code XmlValidator} that keeps a bounded pool of idle {@link Validator} instances, since these are not
+	 * thread-safe, but relatively expensive to create. Validators are {@linkplain Validator#reset() reset} before they
+	 * are returned to the pool, and are only returned if validation completed normally.
+	 */
+	private static class Jaxp13Validator implements PoolingXmlValidator, StreamingXmlValidator {
+
+		private final Schema schema;
 
-		private Schema schema;
+		private final BoundedObjectPool<Validator> validatorPool;
 
-		public Jaxp13Validator(Schema schema) {
+		public Jaxp13Validator(Schema schema, int poolSize) {
 			this.schema = schema;
+			this.validatorPool = new BoundedObjectPool<Validator>(poolSize);
 		}
 
 		@Override
@@ -64,25 +80,74 @@ abstract class Jaxp13ValidatorFactory {
 			if (errorHandler == null) {
 				errorHandler = new DefaultValidationErrorHandler();
 			}
-			Validator validator = schema.newValidator();
+			Validator validator = validatorPool.poll();
+			if (validator == null) {
+				validator = schema.newValidator();
+			}
 			validator.setErrorHandler(errorHandler);
 			try {
 				validator.validate(source);
-				return errorHandler.getErrors();
 			}
 			catch (SAXException ex) {
 				throw new XmlValidationException("Could not validate source: " + ex.getMessage(), ex);
 			}
+			validator.reset();
+			validatorPool.offer(validator);
+			return errorHandler.getErrors();
+		}
+
+		@Override
+		public ValidatingStreamReader createValidatingStreamReader(XMLStreamReader streamReader,
+				ValidationErrorHandler errorHandler) {
+			if (errorHandler == null) {
+				errorHandler = new DefaultValidationErrorHandler();
+			}
+			try {
+				return new ValidatingStreamReader(streamReader, schema.newValidatorHandler(), errorHandler);
+			}
+			catch (XMLStreamException ex) {
+				throw new XmlValidationException("Could not validate stream: " + ex.getMessage(), ex);
+			}
+		}
+
+		@Override
+		public int getValidatorPoolSize() {
+			return validatorPool.getMaxIdle();
+		}
+
+		@Override
+		public int getIdleValidatorCount() {
+			return validatorPool.getIdleCount();
+		}
+
+		@Override
+		public long getValidatorPoolHitCount() {
+			return validatorPool.getHitCount();
+		}
+
+		@Override
+		public long getValidatorPoolMissCount() {
+			return validatorPool.getMissCount();
+		}
+
+		@Override
+		public String toString() {
+			return "Jaxp13Validator[" + validatorPool + "]";
 		}
 	}
 
 	/** {@code ErrorHandler} implementation that stores errors and fatal errors in a list. */
 	private static class DefaultValidationErrorHandler implements ValidationErrorHandler {
 
-		private List<SAXParseException> errors = new ArrayList<SAXParseException>();
+		private static final SAXParseException[] NO_ERRORS = new SAXParseException[0];
+
+		private List<SAXParseException> errors;
 
 		@Override
 		public SAXParseException[] getErrors() {
+			if (errors == null) {
+				return NO_ERRORS;
+			}
 			return errors.toArray(new SAXParseException[errors.size()]);
 		}
 
@@ -92,11 +157,18 @@ abstract class Jaxp13ValidatorFactory {
 
 		@Override
 		public void error(SAXParseException ex) throws SAXException {
-			errors.add(ex);
+			addError(ex);
 		}
 
 		@Override
 		public void fatalError(SAXParseException ex) throws SAXException {
+			addError(ex);
+		}
+
+		private void addError(SAXParseException ex) {
+			if (errors == null) {
+				errors = new ArrayList<SAXParseException>();
+			}
 			errors.add(ex);
 		}
 	}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.xml.validation;
+
+/**
+ * Extension of {@link XmlValidator} that reuses the underlying validator objects across invocations, by keeping them
+ * in a bounded pool. Exposes statistics about the pool, so that its size can be tuned.
+ *
+ * <p>The validators created by the {@link XmlValidatorFactory} implement this interface.
+ *
+ * @author Arjen Poutsma
+ * @see XmlValidatorFactory#createValidator(org.springframework.core.io.Resource[], String, int)
+ * @since 2.3.0
+ */
+public interface PoolingXmlValidator extends XmlValidator {
+
+	/** Returns the maximum number of idle validators kept in the pool. {@code 0} indicates that pooling is disabled. */
+	int getValidatorPoolSize();
+
+	/** Returns the number of validators that are currently idle in the pool. */
+	int getIdleValidatorCount();
+
+	/** Returns the number of validations that reused a pooled validator. */
+	long getValidatorPoolHitCount();
+
+	/** Returns the number of validations that had to create a new validator, because none was idle. */
+	long getValidatorPoolMissCount();
+
+}
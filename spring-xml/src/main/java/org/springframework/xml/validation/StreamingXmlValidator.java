@@ -0,0 +1,46 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.xml.validation;
+
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Extension of {@link XmlValidator} that can validate a document while it is being read by someone else, rather than
+ * reading it itself. This allows for validating documents that can only be read once, without buffering them.
+ *
+ * <p>The validators created by the {@link XmlValidatorFactory} implement this interface.
+ *
+ * @author Arjen Poutsma
+ * @see ValidatingStreamReader
+ * @since 2.3.0
+ */
+public interface StreamingXmlValidator extends XmlValidator {
+
+	/**
+	 * Returns a reader that validates the events of the given reader as they are read. Validation errors are reported
+	 * to the given error handler, or to a default handler if {@code null}, and are available from the returned reader
+	 * once the end of the document (or root element) has been read.
+	 *
+	 * @param streamReader the reader to validate
+	 * @param errorHandler the error handler to use, may be {@code null}
+	 * @return the validating reader
+	 * @throws XmlValidationException if a validating reader cannot be created
+	 */
+	ValidatingStreamReader createValidatingStreamReader(XMLStreamReader streamReader,
+			ValidationErrorHandler errorHandler);
+
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.xml.validation;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import javax.xml.validation.ValidatorHandler;
+
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.AttributesImpl;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link XMLStreamReader} that validates the events of a wrapped reader as they are read, by passing them on to a
+ * {@link ValidatorHandler}. As such, it acts as a tee: the document is parsed only once, by whoever consumes this
+ * reader, and is validated along the way without being buffered.
+ *
+ * <p>Validation is complete once the end of the root element has been read. Use {@link #finishValidation()} to read
+ * (and validate) any remaining events that the consumer did not read, and to obtain the validation errors.
+ *
+ * <p>Instances of this class are created by a {@link StreamingXmlValidator}, and are not thread safe.
+ *
+ * @author Arjen Poutsma
+ * @see StreamingXmlValidator#createValidatingStreamReader(XMLStreamReader, ValidationErrorHandler)
+ * @since 2.3.0
+ */
+public class ValidatingStreamReader extends StreamReaderDelegate {
+
+	private final ValidatorHandler validatorHandler;
+
+	private final ValidationErrorHandler errorHandler;
+
+	private final AttributesImpl attributes = new AttributesImpl();
+
+	private int elementDepth = 0;
+
+	private boolean validationComplete = false;
+
+	ValidatingStreamReader(XMLStreamReader streamReader, ValidatorHandler validatorHandler,
+			ValidationErrorHandler errorHandler) throws XMLStreamException {
+		super(streamReader);
+		Assert.notNull(validatorHandler, "'validatorHandler' must not be null");
+		Assert.notNull(errorHandler, "'errorHandler' must not be null");
+		this.validatorHandler = validatorHandler;
+		this.errorHandler = errorHandler;
+		validatorHandler.setErrorHandler(errorHandler);
+		validatorHandler.setDocumentLocator(new StreamReaderLocator());
+		try {
+			validatorHandler.startDocument();
+			if (streamReader.getEventType() == XMLStreamConstants.START_ELEMENT) {
+				handleEvent(XMLStreamConstants.START_ELEMENT);
+			}
+		}
+		catch (SAXException ex) {
+			throw new XMLStreamException("Could not validate stream: " + ex.getMessage(), ex);
+		}
+	}
+
+	/** Indicates whether the end of the validated document has been read. */
+	public boolean isValidationComplete() {
+		return validationComplete;
+	}
+
+	/**
+	 * Reads and validates the remainder of the document, if the consumer of this reader did not read it, and returns
+	 * the validation errors. The array will be empty if no validation errors are found.
+	 *
+	 * @return an array of {@code SAXParseException}s
+	 * @throws XMLStreamException if the remainder of the document could not be read
+	 */
+	public SAXParseException[] finishValidation() throws XMLStreamException {
+		while (!validationComplete && hasNext()) {
+			next();
+		}
+		return errorHandler.getErrors();
+	}
+
+	/** Returns the validation errors found so far. */
+	public SAXParseException[] getErrors() {
+		return errorHandler.getErrors();
+	}
+
+	@Override
+	public int next() throws XMLStreamException {
+		int eventType = super.next();
+		try {
+			handleEvent(eventType);
+		}
+		catch (SAXException ex) {
+			throw new XMLStreamException("Could not validate stream: " + ex.getMessage(), getLocation(), ex);
+		}
+		return eventType;
+	}
+
+	/*
+	 * The following two methods are implemented in terms of next(), since StreamReaderDelegate passes them on to the
+	 * wrapped reader directly, bypassing validation.
+	 */
+
+	@Override
+	public int nextTag() throws XMLStreamException {
+		int eventType = next();
+		while ((eventType == XMLStreamConstants.CHARACTERS && isWhiteSpace()) ||
+				(eventType == XMLStreamConstants.CDATA && isWhiteSpace()) || eventType == XMLStreamConstants.SPACE ||
+				eventType == XMLStreamConstants.PROCESSING_INSTRUCTION || eventType == XMLStreamConstants.COMMENT) {
+			eventType = next();
+		}
+		if (eventType != XMLStreamConstants.START_ELEMENT && eventType != XMLStreamConstants.END_ELEMENT) {
+			throw new XMLStreamException("Expected start or end tag", getLocation());
+		}
+		return eventType;
+	}
+
+	@Override
+	public String getElementText() throws XMLStreamException {
+		if (getEventType() != XMLStreamConstants.START_ELEMENT) {
+			throw new XMLStreamException("Parser must be on START_ELEMENT to read next text", getLocation());
+		}
+		StringBuilder builder = new StringBuilder();
+		int eventType = next();
+		while (eventType != XMLStreamConstants.END_ELEMENT) {
+			if (eventType == XMLStreamConstants.CHARACTERS || eventType == XMLStreamConstants.CDATA ||
+					eventType == XMLStreamConstants.SPACE || eventType == XMLStreamConstants.ENTITY_REFERENCE) {
+				builder.append(getText());
+			}
+			else if (eventType == XMLStreamConstants.END_DOCUMENT) {
+				throw new XMLStreamException("Unexpected end of document when reading element text content",
+						getLocation());
+			}
+			else if (eventType == XMLStreamConstants.START_ELEMENT) {
+				throw new XMLStreamException("Element text content may not contain START_ELEMENT", getLocation());
+			}
+			else if (eventType != XMLStreamConstants.PROCESSING_INSTRUCTION &&
+					eventType != XMLStreamConstants.COMMENT) {
+				throw new XMLStreamException("Unexpected event type " + eventType, getLocation());
+			}
+			eventType = next();
+		}
+		return builder.toString();
+	}
+
+	private void handleEvent(int eventType) throws SAXException {
+		if (validationComplete) {
+			return;
+		}
+		switch (eventType) {
+			case XMLStreamConstants.START_ELEMENT:
+				handleStartElement();
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				handleEndElement();
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.SPACE:
+				if (elementDepth > 0) {
+					validatorHandler.characters(getTextCharacters(), getTextStart(), getTextLength());
+				}
+				break;
+			case XMLStreamConstants.PROCESSING_INSTRUCTION:
+				validatorHandler.processingInstruction(getPITarget(), getPIData());
+				break;
+			case XMLStreamConstants.END_DOCUMENT:
+				endDocument();
+				break;
+		}
+	}
+
+	private void handleStartElement() throws SAXException {
+		for (int i = 0; i < getNamespaceCount(); i++) {
+			validatorHandler.startPrefixMapping(nullToEmpty(getNamespacePrefix(i)), nullToEmpty(getNamespaceURI(i)));
+		}
+		attributes.clear();
+		for (int i = 0; i < getAttributeCount(); i++) {
+			String localName = getAttributeLocalName(i);
+			attributes.addAttribute(nullToEmpty(getAttributeNamespace(i)), localName,
+					toQualifiedName(getAttributePrefix(i), localName), getAttributeType(i), getAttributeValue(i));
+		}
+		String localName = getLocalName();
+		validatorHandler.startElement(nullToEmpty(getNamespaceURI()), localName,
+				toQualifiedName(getPrefix(), localName), attributes);
+		elementDepth++;
+	}
+
+	private void handleEndElement() throws SAXException {
+		String localName = getLocalName();
+		validatorHandler.endElement(nullToEmpty(getNamespaceURI()), localName, toQualifiedName(getPrefix(), localName));
+		for (int i = 0; i < getNamespaceCount(); i++) {
+			validatorHandler.endPrefixMapping(nullToEmpty(getNamespacePrefix(i)));
+		}
+		elementDepth--;
+		if (elementDepth == 0) {
+			endDocument();
+		}
+	}
+
+	private void endDocument() throws SAXException {
+		validationComplete = true;
+		validatorHandler.endDocument();
+	}
+
+	private static String toQualifiedName(String prefix, String localName) {
+		return StringUtils.hasLength(prefix) ? prefix + ':' + localName : localName;
+	}
+
+	private static String nullToEmpty(String s) {
+		return s != null ? s : "";
+	}
+
+	/** {@code Locator} that returns the current location of the reader. */
+	private class StreamReaderLocator implements Locator {
+
+		@Override
+		public String getPublicId() {
+			Location location = getLocation();
+			return location != null ? location.getPublicId() : null;
+		}
+
+		@Override
+		public String getSystemId() {
+			Location location = getLocation();
+			return location != null ? location.getSystemId() : null;
+		}
+
+		@Override
+		public int getLineNumber() {
+			Location location = getLocation();
+			return location != null ? location.getLineNumber() : -1;
+		}
+
+		@Override
+		public int getColumnNumber() {
+			Location location = getLocation();
+			return location != null ? location.getColumnNumber() : -1;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2011 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -47,6 +47,13 @@ public abstract class XmlValidatorFactory {
 	/** Constant that defines a RELAX NG Schema. */
 	public static final String SCHEMA_RELAX_NG = "http://relaxng.org/ns/structure/1.0";
 
+	/**
+	 * The default maximum number of idle validator objects kept by the created {@code XmlValidator}s.
+	 *
+	 * @see PoolingXmlValidator
+	 */
+	public static final int DEFAULT_VALIDATOR_POOL_SIZE = 8;
+
 	/**
 	 * Create a {@link XmlValidator} with the given schema resource and schema language type. The schema language must
 	 * be one of the {@code SCHEMA_XXX} constants.
@@ -80,8 +87,31 @@ public abstract class XmlValidatorFactory {
 	 * @see #SCHEMA_W3C_XML
 	 */
 	public static XmlValidator createValidator(Resource[] schemaResources, String schemaLanguage) throws IOException {
+		return createValidator(schemaResources, schemaLanguage, DEFAULT_VALIDATOR_POOL_SIZE);
+	}
+
+	/**
+	 * Create a {@link XmlValidator} with the given schema resources and schema language type, keeping at most the given
+	 * number of idle validator objects for reuse. The schema language must be one of the {@code SCHEMA_XXX} constants.
+	 *
+	 * @param schemaResources an array of resource that locate the schemas to validate against
+	 * @param schemaLanguage  the language of the schemas
+	 * @param poolSize		the maximum number of idle validator objects to keep; {@code 0} disables pooling
+	 * @return a validator, which implements {@link PoolingXmlValidator} and {@link StreamingXmlValidator}
+	 * @throws IOException				if the schema resource cannot be read
+	 * @throws IllegalArgumentException if the schema language is not supported
+	 * @throws IllegalStateException	if JAXP 1.0 cannot be located
+	 * @throws XmlValidationException	if a {@code XmlValidator} cannot be created
+	 * @see #SCHEMA_RELAX_NG
+	 * @see #SCHEMA_W3C_XML
+	 * @see #DEFAULT_VALIDATOR_POOL_SIZE
+	 * @since 2.3.0
+	 */
+	public static XmlValidator createValidator(Resource[] schemaResources, String schemaLanguage, int poolSize)
+			throws IOException {
 		Assert.notEmpty(schemaResources, "No resources given");
 		Assert.hasLength(schemaLanguage, "No schema language provided");
+		Assert.isTrue(poolSize >= 0, "'poolSize' must not be negative");
 		Assert.isTrue(SCHEMA_W3C_XML.equals(schemaLanguage) || SCHEMA_RELAX_NG.equals(schemaLanguage),
 				"Invalid schema language: " + schemaLanguage);
 		for (Resource schemaResource : schemaResources) {
@@ -89,7 +119,7 @@ public abstract class XmlValidatorFactory {
 		}
 		if (JaxpVersion.getJaxpVersion() >= JaxpVersion.JAXP_13) {
 			logger.trace("Creating JAXP 1.3 XmlValidator");
-			return Jaxp13ValidatorFactory.createValidator(schemaResources, schemaLanguage);
+			return Jaxp13ValidatorFactory.createValidator(schemaResources, schemaLanguage, poolSize);
 		}
 		else {
 			throw new IllegalStateException("Could not locate JAXP 1.3.");
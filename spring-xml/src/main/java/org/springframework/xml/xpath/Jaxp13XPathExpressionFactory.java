@@ -19,6 +19,7 @@ package org.springframework.xml.xpath;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import javax.xml.namespace.NamespaceContext;
 import javax.xml.namespace.QName;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
@@ -30,6 +31,7 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 import org.springframework.xml.namespace.SimpleNamespaceContext;
+import org.springframework.xml.support.BoundedObjectPool;
 
 /**
  * JAXP 1.3-specific factory creating {@link XPathExpression} objects.
@@ -41,6 +43,9 @@ import org.springframework.xml.namespace.SimpleNamespaceContext;
  */
 abstract class Jaxp13XPathExpressionFactory {
 
+	/** The maximum number of idle compiled expressions kept for each {@code XPathExpression}. */
+	private static final int EXPRESSION_POOL_SIZE = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+
 	private static XPathFactory xpathFactory = XPathFactory.newInstance();
 
 	/**
@@ -51,33 +56,33 @@ abstract class Jaxp13XPathExpressionFactory {
 	 * @throws XPathParseException when the given expression cannot be parsed
 	 */
 	static XPathExpression createXPathExpression(String expression) {
-		try {
-			XPath xpath = createXPath();
-			javax.xml.xpath.XPathExpression xpathExpression = xpath.compile(expression);
-			return new Jaxp13XPathExpression(xpathExpression, expression);
-		}
-		catch (XPathExpressionException ex) {
-			throw new org.springframework.xml.xpath.XPathParseException(
-					"Could not compile [" + expression + "] to a XPathExpression: " + ex.getMessage(), ex);
-		}
+		return createXPathExpression(expression, null);
 	}
 
 	/**
 	 * Creates a JAXP 1.3 {@code XPathExpression} from the given string expression and namespaces.
 	 *
 	 * @param expression the XPath expression
-	 * @param namespaces the namespaces
+	 * @param namespaces the namespaces, may be {@code null}
 	 * @return the compiled {@code XPathExpression}
 	 * @throws XPathParseException when the given expression cannot be parsed
 	 */
 	public static XPathExpression createXPathExpression(String expression, Map<String, String> namespaces) {
+		SimpleNamespaceContext namespaceContext = null;
+		if (namespaces != null) {
+			namespaceContext = new SimpleNamespaceContext();
+			namespaceContext.setBindings(namespaces);
+		}
+		return new Jaxp13XPathExpression(compile(expression, namespaceContext), expression, namespaceContext);
+	}
+
+	private static javax.xml.xpath.XPathExpression compile(String expression, NamespaceContext namespaceContext) {
 		try {
 			XPath xpath = createXPath();
-			SimpleNamespaceContext namespaceContext = new SimpleNamespaceContext();
-			namespaceContext.setBindings(namespaces);
-			xpath.setNamespaceContext(namespaceContext);
-			javax.xml.xpath.XPathExpression xpathExpression = xpath.compile(expression);
-			return new Jaxp13XPathExpression(xpathExpression, expression);
+			if (namespaceContext != null) {
+				xpath.setNamespaceContext(namespaceContext);
+			}
+			return xpath.compile(expression);
 		}
 		catch (XPathExpressionException ex) {
 			throw new org.springframework.xml.xpath.XPathParseException(
@@ -90,15 +95,26 @@ abstract class Jaxp13XPathExpressionFactory {
 	}
 
 
-	/** JAXP 1.3 implementation of the {@code XPathExpression} interface. */
+	/**
+	 * JAXP 1.3 implementation of the {@code XPathExpression} interface.
+	 *
+	 * <p>As a JAXP {@code XPathExpression} is not thread-safe, each evaluation takes a compiled expression from a pool,
+	 * and compiles a new one if none is available. Concurrent evaluations therefore never wait for each other.
+	 */
 	private static class Jaxp13XPathExpression implements XPathExpression {
 
-		private final javax.xml.xpath.XPathExpression xpathExpression;
+		private final BoundedObjectPool<javax.xml.xpath.XPathExpression> xpathExpressions =
+				new BoundedObjectPool<javax.xml.xpath.XPathExpression>(EXPRESSION_POOL_SIZE);
+
 		private final String expression;
 
-		private Jaxp13XPathExpression(javax.xml.xpath.XPathExpression xpathExpression, String expression) {
-			this.xpathExpression = xpathExpression;
+		private final NamespaceContext namespaceContext;
+
+		private Jaxp13XPathExpression(javax.xml.xpath.XPathExpression xpathExpression, String expression,
+				NamespaceContext namespaceContext) {
 			this.expression = expression;
+			this.namespaceContext = namespaceContext;
+			xpathExpressions.offer(xpathExpression);
 		}
 
 		@Override
@@ -118,11 +134,15 @@ abstract class Jaxp13XPathExpressionFactory {
 		}
 
 		private Object evaluate(Node node, QName returnType) {
+			// XPathExpression is not thread-safe
+			javax.xml.xpath.XPathExpression xpathExpression = xpathExpressions.poll();
+			if (xpathExpression == null) {
+				xpathExpression = compile(expression, namespaceContext);
+			}
 			try {
-				// XPathExpression is not thread-safe
-				synchronized (xpathExpression) {
-					return xpathExpression.evaluate(node, returnType);
-				}
+				Object result = xpathExpression.evaluate(node, returnType);
+				xpathExpressions.offer(xpathExpression);
+				return result;
 			}
 			catch (XPathExpressionException ex) {
 				throw new XPathException("Could not evaluate XPath expression:" + ex.getMessage(), ex);
@@ -0,0 +1,784 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.xml.xpath;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.ext.DefaultHandler2;
+
+import org.springframework.util.xml.StaxUtils;
+import org.springframework.xml.transform.TransformerHelper;
+
+/**
+ * XPath expression that is evaluated in a single forward pass over XML, without building a tree. Created by the
+ * {@link StreamingXPathExpressionFactory}, which describes the supported subset of XPath.
+ *
+ * <p>Evaluation stops as soon as the result is known, i.e. after the first matching node. Where possible, the evaluated
+ * {@link Source} is read with a StAX {@link XMLStreamReader}; DOM sources are walked directly.
+ *
+ * <p>Instances of this class are thread-safe.
+ *
+ * @author Arjen Poutsma
+ * @see StreamingXPathExpressionFactory
+ * @since 2.3.0
+ */
+public class StreamingXPathExpression {
+
+	/** The maximum number of location steps in a streaming expression. */
+	static final int MAX_STEPS = 62;
+
+	private static final Pattern NUMBER_PATTERN = Pattern.compile("-?(\\d+(\\.\\d*)?|\\.\\d+)");
+
+	private static final XMLInputFactory inputFactory = createXmlInputFactory();
+
+	private static final TransformerHelper transformerHelper = new TransformerHelper();
+
+	private final String expression;
+
+	private final boolean absolute;
+
+	private final Step[] steps;
+
+	private final int positionalPredicates;
+
+	StreamingXPathExpression(String expression, boolean absolute, Step[] steps, int positionalPredicates) {
+		this.expression = expression;
+		this.absolute = absolute;
+		this.steps = steps;
+		this.positionalPredicates = positionalPredicates;
+	}
+
+	private static XMLInputFactory createXmlInputFactory() {
+		XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+		inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return inputFactory;
+	}
+
+	/**
+	 * Evaluates the given expression as a {@code String}, reading from the given stream reader. The reader should be
+	 * positioned at the start of the document, or at the start of the element that is to be used as root.
+	 *
+	 * @param streamReader the reader to evaluate the expression on
+	 * @return the result of the evaluation, or the empty string if no node matches
+	 * @throws XPathException in case of XPath errors
+	 * @see <a href="http://www.w3.org/TR/xpath#dt-string-value">XPath specification</a>
+	 */
+	public String evaluateAsString(XMLStreamReader streamReader) throws XPathException {
+		return asString(evaluate(streamReader, false));
+	}
+
+	/**
+	 * Evaluates the given expression as a {@code boolean}, reading from the given stream reader. Returns {@code true}
+	 * if at least one node matches.
+	 *
+	 * @param streamReader the reader to evaluate the expression on
+	 * @return the result of the evaluation
+	 * @throws XPathException in case of XPath errors
+	 * @see <a href="http://www.w3.org/TR/xpath#function-boolean">XPath specification - boolean() function</a>
+	 */
+	public boolean evaluateAsBoolean(XMLStreamReader streamReader) throws XPathException {
+		return evaluate(streamReader, true).isMatched();
+	}
+
+	/**
+	 * Evaluates the given expression as a number ({@code double}), reading from the given stream reader.
+	 *
+	 * @param streamReader the reader to evaluate the expression on
+	 * @return the result of the evaluation, or {@link Double#NaN} if the string value is not a number
+	 * @throws XPathException in case of XPath errors
+	 * @see <a href="http://www.w3.org/TR/xpath#function-number">XPath specification - number() function</a>
+	 */
+	public double evaluateAsNumber(XMLStreamReader streamReader) throws XPathException {
+		return asNumber(evaluateAsString(streamReader));
+	}
+
+	/**
+	 * Evaluates the given expression as a {@code String}, reading from the given source.
+	 *
+	 * @param source the source to evaluate the expression on
+	 * @return the result of the evaluation, or the empty string if no node matches
+	 * @throws XPathException in case of XPath errors
+	 * @see <a href="http://www.w3.org/TR/xpath#dt-string-value">XPath specification</a>
+	 */
+	public String evaluateAsString(Source source) throws XPathException {
+		return asString(evaluate(source, false));
+	}
+
+	/**
+	 * Evaluates the given expression as a {@code boolean}, reading from the given source. Returns {@code true} if at
+	 * least one node matches.
+	 *
+	 * @param source the source to evaluate the expression on
+	 * @return the result of the evaluation
+	 * @throws XPathException in case of XPath errors
+	 * @see <a href="http://www.w3.org/TR/xpath#function-boolean">XPath specification - boolean() function</a>
+	 */
+	public boolean evaluateAsBoolean(Source source) throws XPathException {
+		return evaluate(source, true).isMatched();
+	}
+
+	/**
+	 * Evaluates the given expression as a number ({@code double}), reading from the given source.
+	 *
+	 * @param source the source to evaluate the expression on
+	 * @return the result of the evaluation, or {@link Double#NaN} if the string value is not a number
+	 * @throws XPathException in case of XPath errors
+	 * @see <a href="http://www.w3.org/TR/xpath#function-number">XPath specification - number() function</a>
+	 */
+	public double evaluateAsNumber(Source source) throws XPathException {
+		return asNumber(evaluateAsString(source));
+	}
+
+	private static String asString(Evaluation evaluation) {
+		String value = evaluation.getValue();
+		return value != null ? value : "";
+	}
+
+	private static double asNumber(String value) {
+		value = value.trim();
+		if (NUMBER_PATTERN.matcher(value).matches()) {
+			return Double.parseDouble(value);
+		}
+		return Double.NaN;
+	}
+
+	private Evaluation evaluate(Source source, boolean booleanResult) throws XPathException {
+		if (StaxUtils.isStaxSource(source)) {
+			XMLStreamReader streamReader = StaxUtils.getXMLStreamReader(source);
+			if (streamReader == null) {
+				XMLEventReader eventReader = StaxUtils.getXMLEventReader(source);
+				if (eventReader != null) {
+					try {
+						streamReader = StaxUtils.createEventStreamReader(eventReader);
+					}
+					catch (XMLStreamException ex) {
+						throw new XPathException("Could not evaluate [" + expression + "]: " + ex.getMessage(), ex);
+					}
+				}
+			}
+			if (streamReader != null) {
+				return evaluate(streamReader, booleanResult);
+			}
+		}
+		if (source instanceof DOMSource) {
+			Evaluation evaluation = new Evaluation(booleanResult);
+			Node node = ((DOMSource) source).getNode();
+			if (node != null) {
+				walk(node, evaluation);
+			}
+			evaluation.finish();
+			return evaluation;
+		}
+		else if (source instanceof StreamSource) {
+			XMLStreamReader streamReader = null;
+			try {
+				streamReader = inputFactory.createXMLStreamReader(source);
+				return evaluate(streamReader, booleanResult);
+			}
+			catch (XMLStreamException ex) {
+				throw new XPathException("Could not evaluate [" + expression + "]: " + ex.getMessage(), ex);
+			}
+			finally {
+				closeQuietly(streamReader);
+			}
+		}
+		else {
+			Evaluation evaluation = new Evaluation(booleanResult);
+			try {
+				EvaluationHandler handler = new EvaluationHandler(evaluation);
+				SAXResult result = new SAXResult(handler);
+				result.setLexicalHandler(handler);
+				transformerHelper.transform(source, result);
+			}
+			catch (TransformerException ex) {
+				if (!evaluation.isComplete()) {
+					throw new XPathException("Could not evaluate [" + expression + "]: " + ex.getMessage(), ex);
+				}
+			}
+			evaluation.finish();
+			return evaluation;
+		}
+	}
+
+	private static void closeQuietly(XMLStreamReader streamReader) {
+		if (streamReader != null) {
+			try {
+				streamReader.close();
+			}
+			catch (XMLStreamException ex) {
+				// ignore
+			}
+		}
+	}
+
+	private Evaluation evaluate(XMLStreamReader streamReader, boolean booleanResult) throws XPathException {
+		Evaluation evaluation = new Evaluation(booleanResult);
+		StreamReaderAttributes attributes = new StreamReaderAttributes(streamReader);
+		try {
+			int depth = 0;
+			int event = streamReader.getEventType();
+			while (true) {
+				switch (event) {
+					case XMLStreamConstants.START_ELEMENT:
+						depth++;
+						evaluation.startElement(streamReader.getNamespaceURI(), streamReader.getLocalName(),
+								attributes);
+						break;
+					case XMLStreamConstants.END_ELEMENT:
+						depth--;
+						evaluation.endElement();
+						break;
+					case XMLStreamConstants.CHARACTERS:
+					case XMLStreamConstants.CDATA:
+					case XMLStreamConstants.SPACE:
+						evaluation.characters(streamReader.getTextCharacters(), streamReader.getTextStart(),
+								streamReader.getTextLength());
+						break;
+					case XMLStreamConstants.COMMENT:
+					case XMLStreamConstants.PROCESSING_INSTRUCTION:
+						evaluation.otherNode();
+						break;
+				}
+				if (evaluation.isComplete() || (depth == 0 && event == XMLStreamConstants.END_ELEMENT) ||
+						event == XMLStreamConstants.END_DOCUMENT || !streamReader.hasNext()) {
+					break;
+				}
+				event = streamReader.next();
+			}
+		}
+		catch (XMLStreamException ex) {
+			throw new XPathException("Could not evaluate [" + expression + "]: " + ex.getMessage(), ex);
+		}
+		evaluation.finish();
+		return evaluation;
+	}
+
+	private void walk(Node node, Evaluation evaluation) {
+		switch (node.getNodeType()) {
+			case Node.ELEMENT_NODE:
+				String localName = node.getLocalName();
+				evaluation.startElement(node.getNamespaceURI(), localName != null ? localName : node.getNodeName(),
+						new DomAttributes(node.getAttributes()));
+				walkChildren(node, evaluation);
+				if (!evaluation.isComplete()) {
+					evaluation.endElement();
+				}
+				break;
+			case Node.TEXT_NODE:
+			case Node.CDATA_SECTION_NODE:
+				String data = node.getNodeValue();
+				evaluation.characters(data.toCharArray(), 0, data.length());
+				break;
+			case Node.COMMENT_NODE:
+			case Node.PROCESSING_INSTRUCTION_NODE:
+				evaluation.otherNode();
+				break;
+			case Node.DOCUMENT_NODE:
+			case Node.DOCUMENT_FRAGMENT_NODE:
+			case Node.ENTITY_REFERENCE_NODE:
+				walkChildren(node, evaluation);
+				break;
+		}
+	}
+
+	private void walkChildren(Node node, Evaluation evaluation) {
+		for (Node child = node.getFirstChild(); child != null && !evaluation.isComplete();
+				child = child.getNextSibling()) {
+			walk(child, evaluation);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return expression;
+	}
+
+	/** A location step. */
+	static final class Step {
+
+		static final int ELEMENT = 0;
+
+		static final int ATTRIBUTE = 1;
+
+		static final int TEXT = 2;
+
+		private final int type;
+
+		private final boolean descendant;
+
+		private final String namespaceUri;
+
+		private final String localName;
+
+		private final Predicate[] predicates;
+
+		Step(int type, boolean descendant, String namespaceUri, String localName, Predicate[] predicates) {
+			this.type = type;
+			this.descendant = descendant;
+			this.namespaceUri = namespaceUri;
+			this.localName = localName;
+			this.predicates = predicates;
+		}
+
+		int getType() {
+			return type;
+		}
+
+		private boolean matches(String namespaceUri, String localName) {
+			return (this.localName == null || this.localName.equals(localName)) &&
+					(this.namespaceUri == null || this.namespaceUri.equals(namespaceUri));
+		}
+	}
+
+	/** A predicate of an element step: either a position, or an attribute test. */
+	static final class Predicate {
+
+		private final int position;
+
+		private final int counterIndex;
+
+		private final String namespaceUri;
+
+		private final String localName;
+
+		private final String value;
+
+		private Predicate(int position, int counterIndex, String namespaceUri, String localName, String value) {
+			this.position = position;
+			this.counterIndex = counterIndex;
+			this.namespaceUri = namespaceUri;
+			this.localName = localName;
+			this.value = value;
+		}
+
+		static Predicate position(int position, int counterIndex) {
+			return new Predicate(position, counterIndex, null, null, null);
+		}
+
+		static Predicate attribute(String namespaceUri, String localName, String value) {
+			return new Predicate(0, -1, namespaceUri, localName, value);
+		}
+	}
+
+	/**
+	 * The state of a single evaluation. The context of every open element is kept as a bit set: bit {@code i} is set
+	 * if the element is a context node for step {@code i}, bit {@code steps.length} if the element itself matches.
+	 */
+	private final class Evaluation {
+
+		private final boolean booleanResult;
+
+		private final long matchBit = 1L << steps.length;
+
+		private final Step lastStep = steps[steps.length - 1];
+
+		private final int lastIndex = steps.length - 1;
+
+		private long[] contexts = new long[16];
+
+		private int[][] counters;
+
+		private int depth;
+
+		private boolean matched;
+
+		private boolean complete;
+
+		private StringBuilder value;
+
+		private int valueDepth = -1;
+
+		private boolean inTextNode;
+
+		private Evaluation(boolean booleanResult) {
+			this.booleanResult = booleanResult;
+			contexts[0] = absolute ? 1L : 0L;
+			if (positionalPredicates > 0) {
+				counters = new int[16][];
+				counters[0] = new int[positionalPredicates];
+			}
+		}
+
+		boolean isComplete() {
+			return complete;
+		}
+
+		boolean isMatched() {
+			return matched;
+		}
+
+		String getValue() {
+			return value != null ? value.toString() : null;
+		}
+
+		void startElement(String namespaceUri, String localName, AttributeAccessor attributes) {
+			if (complete) {
+				return;
+			}
+			endTextNode();
+			if (namespaceUri == null) {
+				namespaceUri = XMLConstants.NULL_NS_URI;
+			}
+			long context;
+			if (depth == 0 && !absolute) {
+				// relative expressions have the root element as context node
+				context = 1L;
+			}
+			else {
+				context = childContext(contexts[depth], namespaceUri, localName, attributes);
+			}
+			depth++;
+			if (depth == contexts.length) {
+				long[] newContexts = new long[depth * 2];
+				System.arraycopy(contexts, 0, newContexts, 0, depth);
+				contexts = newContexts;
+				if (counters != null) {
+					int[][] newCounters = new int[depth * 2][];
+					System.arraycopy(counters, 0, newCounters, 0, depth);
+					counters = newCounters;
+				}
+			}
+			contexts[depth] = context;
+			if (counters != null) {
+				if (counters[depth] == null) {
+					counters[depth] = new int[positionalPredicates];
+				}
+				else {
+					Arrays.fill(counters[depth], 0);
+				}
+			}
+			if ((context & matchBit) != 0 && valueDepth < 0) {
+				match();
+				if (!complete) {
+					valueDepth = depth;
+				}
+			}
+			else if (lastStep.type == Step.ATTRIBUTE && (context & (1L << lastIndex)) != 0) {
+				for (int i = 0; i < attributes.getLength(); i++) {
+					if (isNamespaceDeclaration(attributes, i)) {
+						continue;
+					}
+					if (lastStep.matches(normalize(attributes.getNamespaceURI(i)), attributes.getLocalName(i))) {
+						match();
+						if (!complete) {
+							value.append(attributes.getValue(i));
+							complete = true;
+						}
+						break;
+					}
+				}
+			}
+		}
+
+		private long childContext(long parentContext, String namespaceUri, String localName,
+				AttributeAccessor attributes) {
+			long result = 0L;
+			for (int i = 0; i < steps.length; i++) {
+				if ((parentContext & (1L << i)) == 0) {
+					continue;
+				}
+				Step step = steps[i];
+				if (step.descendant) {
+					result |= 1L << i;
+				}
+				if (step.type == Step.ELEMENT && step.matches(namespaceUri, localName) &&
+						predicatesMatch(step, attributes)) {
+					result |= 1L << (i + 1);
+				}
+			}
+			return result;
+		}
+
+		private boolean predicatesMatch(Step step, AttributeAccessor attributes) {
+			if (step.predicates == null) {
+				return true;
+			}
+			for (Predicate predicate : step.predicates) {
+				if (predicate.position > 0) {
+					// positions are counted per parent, among the siblings that passed the preceding predicates
+					int position = ++counters[depth][predicate.counterIndex];
+					if (position != predicate.position) {
+						return false;
+					}
+				}
+				else if (!attributeMatches(predicate, attributes)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private boolean attributeMatches(Predicate predicate, AttributeAccessor attributes) {
+			for (int i = 0; i < attributes.getLength(); i++) {
+				if (isNamespaceDeclaration(attributes, i)) {
+					continue;
+				}
+				String localName = attributes.getLocalName(i);
+				String namespaceUri = normalize(attributes.getNamespaceURI(i));
+				if ((predicate.localName == null || predicate.localName.equals(localName)) &&
+						(predicate.namespaceUri == null || predicate.namespaceUri.equals(namespaceUri))) {
+					if (predicate.value == null || predicate.value.equals(attributes.getValue(i))) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		private void match() {
+			matched = true;
+			if (booleanResult) {
+				complete = true;
+			}
+			else {
+				value = new StringBuilder();
+			}
+		}
+
+		void endElement() {
+			if (complete) {
+				return;
+			}
+			endTextNode();
+			if (valueDepth == depth) {
+				complete = true;
+			}
+			depth--;
+		}
+
+		void characters(char[] ch, int start, int length) {
+			if (complete) {
+				return;
+			}
+			if (valueDepth >= 0) {
+				value.append(ch, start, length);
+			}
+			else if (lastStep.type == Step.TEXT && depth > 0 && (contexts[depth] & (1L << lastIndex)) != 0) {
+				if (!inTextNode) {
+					match();
+					inTextNode = !complete;
+				}
+				if (inTextNode) {
+					value.append(ch, start, length);
+				}
+			}
+		}
+
+		void otherNode() {
+			endTextNode();
+		}
+
+		private void endTextNode() {
+			if (inTextNode) {
+				inTextNode = false;
+				complete = true;
+			}
+		}
+
+		void finish() {
+			endTextNode();
+			complete = true;
+		}
+
+		private boolean isNamespaceDeclaration(AttributeAccessor attributes, int index) {
+			String localName = attributes.getLocalName(index);
+			return XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attributes.getNamespaceURI(index)) ||
+					localName == null || localName.length() == 0 ||
+					attributes.getNamespaceURI(index) == null && (XMLConstants.XMLNS_ATTRIBUTE.equals(localName) ||
+							localName.startsWith(XMLConstants.XMLNS_ATTRIBUTE + ":"));
+		}
+
+		private String normalize(String namespaceUri) {
+			return namespaceUri != null ? namespaceUri : XMLConstants.NULL_NS_URI;
+		}
+	}
+
+	/** Uniform access to the attributes of the current element, regardless of the underlying XML API. */
+	private interface AttributeAccessor {
+
+		int getLength();
+
+		String getNamespaceURI(int index);
+
+		String getLocalName(int index);
+
+		String getValue(int index);
+	}
+
+	private static final class StreamReaderAttributes implements AttributeAccessor {
+
+		private final XMLStreamReader streamReader;
+
+		private StreamReaderAttributes(XMLStreamReader streamReader) {
+			this.streamReader = streamReader;
+		}
+
+		@Override
+		public int getLength() {
+			return streamReader.getAttributeCount();
+		}
+
+		@Override
+		public String getNamespaceURI(int index) {
+			return streamReader.getAttributeNamespace(index);
+		}
+
+		@Override
+		public String getLocalName(int index) {
+			return streamReader.getAttributeLocalName(index);
+		}
+
+		@Override
+		public String getValue(int index) {
+			return streamReader.getAttributeValue(index);
+		}
+	}
+
+	private static final class DomAttributes implements AttributeAccessor {
+
+		private final NamedNodeMap attributes;
+
+		private DomAttributes(NamedNodeMap attributes) {
+			this.attributes = attributes;
+		}
+
+		@Override
+		public int getLength() {
+			return attributes != null ? attributes.getLength() : 0;
+		}
+
+		@Override
+		public String getNamespaceURI(int index) {
+			return attributes.item(index).getNamespaceURI();
+		}
+
+		@Override
+		public String getLocalName(int index) {
+			Attr attr = (Attr) attributes.item(index);
+			return attr.getLocalName() != null ? attr.getLocalName() : attr.getName();
+		}
+
+		@Override
+		public String getValue(int index) {
+			return attributes.item(index).getNodeValue();
+		}
+	}
+
+	private static final class SaxAttributes implements AttributeAccessor {
+
+		private Attributes attributes;
+
+		@Override
+		public int getLength() {
+			return attributes.getLength();
+		}
+
+		@Override
+		public String getNamespaceURI(int index) {
+			return attributes.getURI(index);
+		}
+
+		@Override
+		public String getLocalName(int index) {
+			String localName = attributes.getLocalName(index);
+			return localName != null && localName.length() != 0 ? localName : attributes.getQName(index);
+		}
+
+		@Override
+		public String getValue(int index) {
+			return attributes.getValue(index);
+		}
+	}
+
+	/**
+	 * SAX handler that feeds an {@link Evaluation}. Aborts the transformation once the evaluation is complete, by
+	 * throwing an exception.
+	 */
+	private static final class EvaluationHandler extends DefaultHandler2 {
+
+		private final Evaluation evaluation;
+
+		private final SaxAttributes attributes = new SaxAttributes();
+
+		private EvaluationHandler(Evaluation evaluation) {
+			this.evaluation = evaluation;
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes)
+				throws SAXException {
+			this.attributes.attributes = attributes;
+			evaluation.startElement(uri, localName != null && localName.length() != 0 ? localName : qName,
+					this.attributes);
+			checkComplete();
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) throws SAXException {
+			evaluation.endElement();
+			checkComplete();
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) throws SAXException {
+			evaluation.characters(ch, start, length);
+			checkComplete();
+		}
+
+		@Override
+		public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+			characters(ch, start, length);
+		}
+
+		@Override
+		public void processingInstruction(String target, String data) throws SAXException {
+			evaluation.otherNode();
+			checkComplete();
+		}
+
+		@Override
+		public void comment(char[] ch, int start, int length) throws SAXException {
+			evaluation.otherNode();
+			checkComplete();
+		}
+
+		private void checkComplete() throws SAXException {
+			if (evaluation.isComplete()) {
+				throw new SAXException("Evaluation complete");
+			}
+		}
+	}
+
+}
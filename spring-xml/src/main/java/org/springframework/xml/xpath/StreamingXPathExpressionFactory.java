@@ -0,0 +1,314 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.xml.xpath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+
+import org.springframework.util.Assert;
+import org.springframework.xml.namespace.SimpleNamespaceContext;
+
+/**
+ * Factory for {@link StreamingXPathExpression}s. Mainly for internal use of the framework.
+ *
+ * <p>Only a forward-only subset of XPath 1.0 location paths is supported:
+ * <ul>
+ * <li>absolute or relative paths, consisting of child ({@code /}) and descendant ({@code //}) steps;</li>
+ * <li>element name tests, such as {@code name}, {@code prefix:name}, {@code prefix:*}, and {@code *};</li>
+ * <li>predicates that test the position ({@code [2]}), the presence of an attribute ({@code [@name]}), or the value
+ * of an attribute ({@code [@name='value']});</li>
+ * <li>a final attribute ({@code @name}) or {@code text()} step.</li>
+ * </ul>
+ * Relative paths are evaluated with the root element of the evaluated XML as context node. Expressions outside of this
+ * subset are rejected with a {@link XPathParseException}, so that callers can fall back to a {@link XPathExpression}.
+ *
+ * @author Arjen Poutsma
+ * @see StreamingXPathExpression
+ * @since 2.3.0
+ */
+public abstract class StreamingXPathExpressionFactory {
+
+	/**
+	 * Create a streaming XPath expression using the given string.
+	 *
+	 * @param expression the XPath expression
+	 * @return the compiled streaming XPath expression
+	 * @throws XPathParseException if the given expression cannot be parsed, or is not supported for streaming
+	 */
+	public static StreamingXPathExpression createXPathExpression(String expression) throws XPathParseException {
+		return createXPathExpression(expression, Collections.<String, String>emptyMap());
+	}
+
+	/**
+	 * Create a streaming XPath expression using the given string and namespaces. The namespace map should consist of
+	 * string prefixes mapped to string namespaces.
+	 *
+	 * @param expression the XPath expression
+	 * @param namespaces a map that binds string prefixes to string namespaces
+	 * @return the compiled streaming XPath expression
+	 * @throws XPathParseException if the given expression cannot be parsed, or is not supported for streaming
+	 */
+	public static StreamingXPathExpression createXPathExpression(String expression, Map<String, String> namespaces)
+			throws XPathParseException {
+		SimpleNamespaceContext namespaceContext = new SimpleNamespaceContext();
+		if (namespaces != null) {
+			namespaceContext.setBindings(namespaces);
+		}
+		return createXPathExpression(expression, namespaceContext);
+	}
+
+	/**
+	 * Create a streaming XPath expression using the given string and namespace context.
+	 *
+	 * @param expression	   the XPath expression
+	 * @param namespaceContext the namespace context used to resolve prefixes, can be {@code null}
+	 * @return the compiled streaming XPath expression
+	 * @throws XPathParseException if the given expression cannot be parsed, or is not supported for streaming
+	 */
+	public static StreamingXPathExpression createXPathExpression(String expression,
+			NamespaceContext namespaceContext) throws XPathParseException {
+		Assert.hasLength(expression, "expression is empty");
+		Parser parser = new Parser(expression, namespaceContext);
+		return parser.parse();
+	}
+
+	/** Recursive descent parser for the supported subset. */
+	private static class Parser {
+
+		private final String expression;
+
+		private final NamespaceContext namespaceContext;
+
+		private final int length;
+
+		private int pos;
+
+		private int positionalPredicates;
+
+		private Parser(String expression, NamespaceContext namespaceContext) {
+			this.expression = expression.trim();
+			this.namespaceContext = namespaceContext;
+			this.length = this.expression.length();
+		}
+
+		private StreamingXPathExpression parse() throws XPathParseException {
+			List<StreamingXPathExpression.Step> steps = new ArrayList<StreamingXPathExpression.Step>();
+			boolean absolute = false;
+			boolean descendant = false;
+			if (expression.startsWith("//")) {
+				absolute = true;
+				descendant = true;
+				pos = 2;
+			}
+			else if (expression.startsWith("/")) {
+				absolute = true;
+				pos = 1;
+			}
+			while (true) {
+				StreamingXPathExpression.Step step = parseStep(descendant);
+				steps.add(step);
+				if (pos == length) {
+					break;
+				}
+				if (step.getType() != StreamingXPathExpression.Step.ELEMENT) {
+					throw unsupported();
+				}
+				if (expression.startsWith("//", pos)) {
+					descendant = true;
+					pos += 2;
+				}
+				else if (expression.charAt(pos) == '/') {
+					descendant = false;
+					pos++;
+				}
+				else {
+					throw unsupported();
+				}
+			}
+			if (steps.size() > StreamingXPathExpression.MAX_STEPS) {
+				throw unsupported();
+			}
+			return new StreamingXPathExpression(expression, absolute,
+					steps.toArray(new StreamingXPathExpression.Step[steps.size()]), positionalPredicates);
+		}
+
+		private StreamingXPathExpression.Step parseStep(boolean descendant) throws XPathParseException {
+			if (pos == length) {
+				throw unsupported();
+			}
+			if (expression.charAt(pos) == '@') {
+				pos++;
+				String[] name = parseNameTest();
+				return new StreamingXPathExpression.Step(StreamingXPathExpression.Step.ATTRIBUTE, descendant, name[0],
+						name[1], null);
+			}
+			if (expression.startsWith("text()", pos)) {
+				pos += 6;
+				return new StreamingXPathExpression.Step(StreamingXPathExpression.Step.TEXT, descendant, null, null,
+						null);
+			}
+			String[] name = parseNameTest();
+			List<StreamingXPathExpression.Predicate> predicates = null;
+			while (pos < length && expression.charAt(pos) == '[') {
+				if (predicates == null) {
+					predicates = new ArrayList<StreamingXPathExpression.Predicate>();
+				}
+				predicates.add(parsePredicate());
+			}
+			StreamingXPathExpression.Predicate[] predicateArray = predicates != null ?
+					predicates.toArray(new StreamingXPathExpression.Predicate[predicates.size()]) : null;
+			return new StreamingXPathExpression.Step(StreamingXPathExpression.Step.ELEMENT, descendant, name[0],
+					name[1], predicateArray);
+		}
+
+		/**
+		 * Parses a name test, and returns the namespace URI and local name it matches. Either of these is {@code null}
+		 * for wildcards.
+		 */
+		private String[] parseNameTest() throws XPathParseException {
+			if (pos < length && expression.charAt(pos) == '*') {
+				pos++;
+				return new String[]{null, null};
+			}
+			String first = parseNCName();
+			if (pos < length && expression.charAt(pos) == ':') {
+				pos++;
+				if (pos < length && expression.charAt(pos) == '*') {
+					pos++;
+					return new String[]{resolvePrefix(first), null};
+				}
+				String localName = parseNCName();
+				checkNotFunction();
+				return new String[]{resolvePrefix(first), localName};
+			}
+			checkNotFunction();
+			// unprefixed names are in no namespace, also for attributes
+			return new String[]{XMLConstants.NULL_NS_URI, first};
+		}
+
+		private void checkNotFunction() throws XPathParseException {
+			if (pos < length && expression.charAt(pos) == '(') {
+				throw unsupported();
+			}
+		}
+
+		private String parseNCName() throws XPathParseException {
+			int start = pos;
+			while (pos < length && isNCNameChar(expression.charAt(pos), pos == start)) {
+				pos++;
+			}
+			if (pos == start) {
+				throw unsupported();
+			}
+			return expression.substring(start, pos);
+		}
+
+		private static boolean isNCNameChar(char ch, boolean first) {
+			if (Character.isLetter(ch) || ch == '_') {
+				return true;
+			}
+			return !first && (Character.isDigit(ch) || ch == '-' || ch == '.' || ch == '\u00B7');
+		}
+
+		private String resolvePrefix(String prefix) throws XPathParseException {
+			String namespaceUri = namespaceContext != null ? namespaceContext.getNamespaceURI(prefix) : null;
+			if (namespaceUri == null || XMLConstants.NULL_NS_URI.equals(namespaceUri)) {
+				throw new XPathParseException(
+						"Could not compile [" + expression + "]: prefix [" + prefix + "] is not bound");
+			}
+			return namespaceUri;
+		}
+
+		private StreamingXPathExpression.Predicate parsePredicate() throws XPathParseException {
+			pos++; // '['
+			skipWhitespace();
+			StreamingXPathExpression.Predicate predicate;
+			if (pos < length && Character.isDigit(expression.charAt(pos))) {
+				int start = pos;
+				while (pos < length && Character.isDigit(expression.charAt(pos))) {
+					pos++;
+				}
+				int position;
+				try {
+					position = Integer.parseInt(expression.substring(start, pos));
+				}
+				catch (NumberFormatException ex) {
+					throw unsupported();
+				}
+				if (position < 1) {
+					throw unsupported();
+				}
+				predicate = StreamingXPathExpression.Predicate.position(position, positionalPredicates++);
+			}
+			else if (pos < length && expression.charAt(pos) == '@') {
+				pos++;
+				String[] name = parseNameTest();
+				skipWhitespace();
+				String value = null;
+				if (pos < length && expression.charAt(pos) == '=') {
+					pos++;
+					skipWhitespace();
+					value = parseLiteral();
+					skipWhitespace();
+				}
+				predicate = StreamingXPathExpression.Predicate.attribute(name[0], name[1], value);
+			}
+			else {
+				throw unsupported();
+			}
+			skipWhitespace();
+			if (pos == length || expression.charAt(pos) != ']') {
+				throw unsupported();
+			}
+			pos++;
+			return predicate;
+		}
+
+		private String parseLiteral() throws XPathParseException {
+			if (pos == length) {
+				throw unsupported();
+			}
+			char quote = expression.charAt(pos);
+			if (quote != '\'' && quote != '"') {
+				throw unsupported();
+			}
+			int end = expression.indexOf(quote, pos + 1);
+			if (end == -1) {
+				throw new XPathParseException("Could not compile [" + expression + "]: unterminated literal");
+			}
+			String literal = expression.substring(pos + 1, end);
+			pos = end + 1;
+			return literal;
+		}
+
+		private void skipWhitespace() {
+			while (pos < length && Character.isWhitespace(expression.charAt(pos))) {
+				pos++;
+			}
+		}
+
+		private XPathParseException unsupported() {
+			return new XPathParseException("Could not compile [" + expression + "]: not supported for streaming " +
+					"evaluation at position " + pos);
+		}
+	}
+
+}
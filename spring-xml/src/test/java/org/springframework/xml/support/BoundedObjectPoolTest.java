@@ -0,0 +1,62 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.xml.support;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BoundedObjectPoolTest {
+
+	@Test
+	public void testPollOffer() {
+		BoundedObjectPool<Object> pool = new BoundedObjectPool<Object>(1);
+		Assert.assertNull("Empty pool returns object", pool.poll());
+		Object object = new Object();
+		Assert.assertTrue("Object not pooled", pool.offer(object));
+		Assert.assertEquals("Invalid idle count", 1, pool.getIdleCount());
+		Assert.assertSame("Pool returns invalid object", object, pool.poll());
+		Assert.assertEquals("Invalid idle count", 0, pool.getIdleCount());
+		Assert.assertEquals("Invalid hit count", 1, pool.getHitCount());
+		Assert.assertEquals("Invalid miss count", 1, pool.getMissCount());
+	}
+
+	@Test
+	public void testBounded() {
+		BoundedObjectPool<Object> pool = new BoundedObjectPool<Object>(1);
+		Assert.assertTrue("Object not pooled", pool.offer(new Object()));
+		Assert.assertFalse("Object pooled beyond bound", pool.offer(new Object()));
+		Assert.assertEquals("Invalid idle count", 1, pool.getIdleCount());
+		Assert.assertEquals("Invalid discard count", 1, pool.getDiscardCount());
+	}
+
+	@Test
+	public void testDisabled() {
+		BoundedObjectPool<Object> pool = new BoundedObjectPool<Object>(0);
+		Assert.assertFalse("Object pooled in disabled pool", pool.offer(new Object()));
+		Assert.assertNull("Disabled pool returns object", pool.poll());
+	}
+
+	@Test
+	public void testClear() {
+		BoundedObjectPool<Object> pool = new BoundedObjectPool<Object>(2);
+		pool.offer(new Object());
+		pool.offer(new Object());
+		pool.clear();
+		Assert.assertEquals("Invalid idle count", 0, pool.getIdleCount());
+		Assert.assertNull("Cleared pool returns object", pool.poll());
+	}
+}
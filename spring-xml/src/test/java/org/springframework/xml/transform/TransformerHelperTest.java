@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,9 +19,13 @@ package org.springframework.xml.transform;
 import java.io.IOException;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 
 import com.sun.org.apache.xalan.internal.xsltc.trax.TransformerFactoryImpl;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.xml.sax.SAXException;
@@ -57,4 +61,56 @@ public class TransformerHelperTest {
 
 		assertXMLEqual(xml, result.toString());
 	}
+
+	@Test
+	public void transformerReused() throws Exception {
+		CountingTransformerHelper helper = new CountingTransformerHelper();
+		this.helper = helper;
+		doTest();
+		doTest();
+		Assert.assertEquals("Transformer not reused", 1, helper.transformerCount);
+	}
+
+	@Test
+	public void transformerPoolingDisabled() throws Exception {
+		CountingTransformerHelper helper = new CountingTransformerHelper();
+		helper.setTransformerPoolSize(0);
+		this.helper = helper;
+		doTest();
+		doTest();
+		Assert.assertEquals("Transformer reused", 2, helper.transformerCount);
+	}
+
+	@Test
+	public void templates() throws Exception {
+		String xslt = "<xsl:stylesheet version='1.0' xmlns:xsl='http://www.w3.org/1999/XSL/Transform'>" +
+				"<xsl:template match='/'><result><xsl:value-of select='/root/child'/></result></xsl:template>" +
+				"</xsl:stylesheet>";
+		StringSource stylesheet = new StringSource(xslt);
+		stylesheet.setSystemId("http://springframework.org/spring-ws/test.xsl");
+		Templates templates = helper.getTemplates(stylesheet);
+		Assert.assertSame("Templates not cached", templates, helper.getTemplates(new StringSource(xslt) {
+			@Override
+			public String getSystemId() {
+				return "http://springframework.org/spring-ws/test.xsl";
+			}
+		}));
+
+		for (int i = 0; i < 2; i++) {
+			StringResult result = new StringResult();
+			helper.transform(templates, new StringSource("<root><child>text</child></root>"), result);
+			assertXMLEqual("<result>text</result>", result.toString());
+		}
+	}
+
+	private static class CountingTransformerHelper extends TransformerHelper {
+
+		private int transformerCount;
+
+		@Override
+		public Transformer createTransformer() throws TransformerConfigurationException {
+			transformerCount++;
+			return super.createTransformer();
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,13 +17,55 @@
 package org.springframework.xml.validation;
 
 import java.io.IOException;
+import javax.xml.transform.stream.StreamSource;
 
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 
+import org.junit.Assert;
+import org.junit.Test;
+import org.xml.sax.SAXParseException;
+
 public class Jaxp13ValidatorFactoryTest extends AbstractValidatorFactoryTestCase {
 
 	@Override
 	protected XmlValidator createValidator(Resource[] schemaResources, String schemaLanguage) throws IOException {
 		return Jaxp13ValidatorFactory.createValidator(schemaResources, schemaLanguage);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void pooledValidatorIsReused() throws Exception {
+		PoolingXmlValidator validator = (PoolingXmlValidator) createValidator(
+				new Resource[]{new ClassPathResource("schema.xsd", AbstractValidatorFactoryTestCase.class)},
+				XmlValidatorFactory.SCHEMA_W3C_XML);
+		Assert.assertEquals("Invalid pool size", XmlValidatorFactory.DEFAULT_VALIDATOR_POOL_SIZE,
+				validator.getValidatorPoolSize());
+
+		SAXParseException[] errors = validator.validate(new StreamSource(
+				AbstractValidatorFactoryTestCase.class.getResourceAsStream("invalidDocument.xml")));
+		Assert.assertEquals("ValidationErrors returned", 3, errors.length);
+		errors = validator.validate(new StreamSource(
+				AbstractValidatorFactoryTestCase.class.getResourceAsStream("validDocument.xml")));
+		Assert.assertEquals("ValidationErrors returned", 0, errors.length);
+
+		Assert.assertEquals("Invalid miss count", 1, validator.getValidatorPoolMissCount());
+		Assert.assertEquals("Invalid hit count", 1, validator.getValidatorPoolHitCount());
+		Assert.assertEquals("Invalid idle count", 1, validator.getIdleValidatorCount());
+	}
+
+	@Test
+	public void poolingDisabled() throws Exception {
+		PoolingXmlValidator validator = (PoolingXmlValidator) Jaxp13ValidatorFactory.createValidator(
+				new Resource[]{new ClassPathResource("schema.xsd", AbstractValidatorFactoryTestCase.class)},
+				XmlValidatorFactory.SCHEMA_W3C_XML, 0);
+
+		validator.validate(new StreamSource(
+				AbstractValidatorFactoryTestCase.class.getResourceAsStream("validDocument.xml")));
+		validator.validate(new StreamSource(
+				AbstractValidatorFactoryTestCase.class.getResourceAsStream("validDocument.xml")));
+
+		Assert.assertEquals("Invalid miss count", 2, validator.getValidatorPoolMissCount());
+		Assert.assertEquals("Invalid hit count", 0, validator.getValidatorPoolHitCount());
+		Assert.assertEquals("Invalid idle count", 0, validator.getIdleValidatorCount());
+	}
+}
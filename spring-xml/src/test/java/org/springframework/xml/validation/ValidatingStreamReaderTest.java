@@ -0,0 +1,109 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.xml.validation;
+
+import java.io.InputStream;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.xml.sax.SAXParseException;
+
+public class ValidatingStreamReaderTest {
+
+	private StreamingXmlValidator validator;
+
+	private XMLInputFactory inputFactory;
+
+	private InputStream inputStream;
+
+	@Before
+	public void setUp() throws Exception {
+		Resource[] schemaResources =
+				new Resource[]{new ClassPathResource("schema.xsd", AbstractValidatorFactoryTestCase.class)};
+		validator = (StreamingXmlValidator) XmlValidatorFactory
+				.createValidator(schemaResources, XmlValidatorFactory.SCHEMA_W3C_XML);
+		inputFactory = XMLInputFactory.newInstance();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if (inputStream != null) {
+			inputStream.close();
+		}
+	}
+
+	@Test
+	public void validDocument() throws Exception {
+		ValidatingStreamReader streamReader = createValidatingStreamReader("validDocument.xml");
+		while (streamReader.hasNext()) {
+			streamReader.next();
+		}
+		Assert.assertTrue("Validation not complete", streamReader.isValidationComplete());
+		Assert.assertEquals("ValidationErrors returned", 0, streamReader.getErrors().length);
+	}
+
+	@Test
+	public void invalidDocument() throws Exception {
+		ValidatingStreamReader streamReader = createValidatingStreamReader("invalidDocument.xml");
+		while (streamReader.hasNext()) {
+			streamReader.next();
+		}
+		Assert.assertTrue("Validation not complete", streamReader.isValidationComplete());
+		Assert.assertEquals("ValidationErrors returned", 3, streamReader.getErrors().length);
+	}
+
+	@Test
+	public void finishValidationAfterPartialRead() throws Exception {
+		ValidatingStreamReader streamReader = createValidatingStreamReader("invalidDocument.xml");
+		Assert.assertEquals("Invalid event", XMLStreamConstants.START_ELEMENT, streamReader.nextTag());
+		Assert.assertEquals("Invalid element", "product", streamReader.getLocalName());
+		Assert.assertFalse("Validation complete", streamReader.isValidationComplete());
+
+		SAXParseException[] errors = streamReader.finishValidation();
+		Assert.assertTrue("Validation not complete", streamReader.isValidationComplete());
+		Assert.assertEquals("ValidationErrors returned", 3, errors.length);
+	}
+
+	@Test
+	public void getElementText() throws Exception {
+		ValidatingStreamReader streamReader = createValidatingStreamReader("validDocument.xml");
+		streamReader.nextTag();
+		streamReader.nextTag();
+		Assert.assertEquals("Invalid element", "number", streamReader.getLocalName());
+		Assert.assertEquals("Invalid text", "42", streamReader.getElementText());
+		streamReader.nextTag();
+		Assert.assertEquals("Invalid element", "size", streamReader.getLocalName());
+		Assert.assertEquals("Invalid text", "10", streamReader.getElementText());
+
+		Assert.assertEquals("ValidationErrors returned", 0, streamReader.finishValidation().length);
+	}
+
+	private ValidatingStreamReader createValidatingStreamReader(String document) throws Exception {
+		inputStream = AbstractValidatorFactoryTestCase.class.getResourceAsStream(document);
+		XMLStreamReader streamReader = inputFactory.createXMLStreamReader(inputStream);
+		return validator.createValidatingStreamReader(streamReader, null);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,22 @@
 
 package org.springframework.xml.xpath;
 
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+import org.springframework.util.StringUtils;
 
 public class Jaxp13XPathExpressionFactoryTest extends AbstractXPathExpressionFactoryTestCase {
 
@@ -29,4 +44,41 @@ public class Jaxp13XPathExpressionFactoryTest extends AbstractXPathExpressionFac
 	protected XPathExpression createXPathExpression(String expression, Map<String, String> namespaces) {
 		return Jaxp13XPathExpressionFactory.createXPathExpression(expression, namespaces);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void concurrentEvaluation() throws Exception {
+		final XPathExpression expression = createXPathExpression("/root/child/text()");
+		int threadCount = 8;
+		final Document[] documents = new Document[threadCount];
+		for (int i = 0; i < threadCount; i++) {
+			documents[i] = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+					.parse(new InputSource(new StringReader("<root><child>" + i + "</child></root>")));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+			for (int i = 0; i < threadCount; i++) {
+				final int index = i;
+				futures.add(executor.submit(new Callable<Boolean>() {
+
+					@Override
+					public Boolean call() throws Exception {
+						for (int j = 0; j < 1000; j++) {
+							String result = expression.evaluateAsString(documents[index]);
+							if (!StringUtils.hasLength(result) || Integer.parseInt(result) != index) {
+								return false;
+							}
+						}
+						return true;
+					}
+				}));
+			}
+			for (Future<Boolean> future : futures) {
+				Assert.assertTrue("Invalid result", future.get());
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2005-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.xml.xpath;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Map;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXSource;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+import org.springframework.util.xml.StaxUtils;
+import org.springframework.xml.transform.StringSource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StreamingXPathExpressionTest {
+
+	private static final String NAMESPACE_URI = "http://www.springframework.org/spring-ws";
+
+	private static final String XML = "<root xmlns:ns='" + NAMESPACE_URI + "' ns:id='r1'>" +
+			"<child id='1'>text<!--comment-->more</child>" +
+			"<child id='2' type='b'>42</child>" +
+			"<ns:child ns:attr='nsValue'>namespaced</ns:child>" +
+			"<nested><child id='3'>deep</child></nested>" +
+			"<number>-3.5</number>" +
+			"<mixed>a<b>b</b>c</mixed>" +
+			"</root>";
+
+	private final Map<String, String> namespaces = Collections.singletonMap("prefix", NAMESPACE_URI);
+
+	@Test
+	public void absolutePath() throws Exception {
+		assertString("/root/child", "textmore");
+		assertString("/root/child/text()", "text");
+		assertString("/root/child/@id", "1");
+		assertString("/root/nested/child", "deep");
+		assertString("/child", "");
+		assertString("/@id", "");
+	}
+
+	@Test
+	public void relativePath() throws Exception {
+		assertString("child", "textmore");
+		assertString("child/@type", "b");
+		assertString("nested/child/@id", "3");
+		assertString("prefix:child", "namespaced");
+		assertString("@prefix:id", "r1");
+		assertString("root", "");
+	}
+
+	@Test
+	public void descendant() throws Exception {
+		assertString("//child[@id='3']", "deep");
+		assertString("/root//child[1]", "textmore");
+		assertString("//nested/child[1]", "deep");
+		assertString("//nested//text()", "deep");
+		assertString("//*[@type]", "42");
+		assertString("//root/*", "textmore");
+	}
+
+	@Test
+	public void predicates() throws Exception {
+		assertString("/root/child[2]", "42");
+		assertString("/root/child[@id='2']", "42");
+		assertString("/root/child[@id=\"2\"]/@type", "b");
+		assertString("/root/child[ @type ]", "42");
+		assertString("/root/*[3]", "namespaced");
+		assertString("/root/*[@prefix:attr='nsValue']", "namespaced");
+		assertString("/root/child[@id='2'][1]", "42");
+		assertString("/root/child[1][@id='2']", "");
+		assertString("/root/child[4]", "");
+	}
+
+	@Test
+	public void stringValue() throws Exception {
+		assertString("/root/mixed", "abc");
+		assertString("/root/mixed/text()", "a");
+		assertString("/root/prefix:*/@prefix:attr", "nsValue");
+	}
+
+	@Test
+	public void booleanResult() throws Exception {
+		for (Source source : createSources()) {
+			StreamingXPathExpression expression =
+					StreamingXPathExpressionFactory.createXPathExpression("//child[@id='3']");
+			assertTrue(expression.evaluateAsBoolean(source));
+		}
+		for (Source source : createSources()) {
+			StreamingXPathExpression expression =
+					StreamingXPathExpressionFactory.createXPathExpression("/root/child/@unknown");
+			assertFalse(expression.evaluateAsBoolean(source));
+		}
+	}
+
+	@Test
+	public void numberResult() throws Exception {
+		for (Source source : createSources()) {
+			StreamingXPathExpression expression = StreamingXPathExpressionFactory.createXPathExpression("/root/number");
+			assertEquals(-3.5, expression.evaluateAsNumber(source), 0.0);
+		}
+		for (Source source : createSources()) {
+			StreamingXPathExpression expression = StreamingXPathExpressionFactory.createXPathExpression("/root/child");
+			assertTrue(Double.isNaN(expression.evaluateAsNumber(source)));
+		}
+	}
+
+	@Test
+	public void streamReader() throws Exception {
+		XMLStreamReader streamReader = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(XML));
+		StreamingXPathExpression expression = StreamingXPathExpressionFactory.createXPathExpression("child[2]");
+		assertEquals("42", expression.evaluateAsString(streamReader));
+	}
+
+	@Test
+	public void unsupported() {
+		String[] expressions = {"/root/..", "/root/child[last()]", "count(/root/child)", "/root/child | /root",
+				"child::child", "/root/child[@id='1']/following-sibling::child", "/root/@id/child", "/", "/root/",
+				"/root/child[0]", "/root/child[@id=1]"};
+		for (String expression : expressions) {
+			try {
+				StreamingXPathExpressionFactory.createXPathExpression(expression);
+				throw new AssertionError("XPathParseException expected for [" + expression + "]");
+			}
+			catch (XPathParseException ex) {
+				// expected
+			}
+		}
+	}
+
+	@Test(expected = XPathParseException.class)
+	public void unboundPrefix() {
+		StreamingXPathExpressionFactory.createXPathExpression("/root/unbound:child");
+	}
+
+	private void assertString(String xpath, String expected) throws Exception {
+		StreamingXPathExpression expression = StreamingXPathExpressionFactory.createXPathExpression(xpath, namespaces);
+		for (Source source : createSources()) {
+			assertEquals("Invalid result for [" + xpath + "] on " + source.getClass().getSimpleName(), expected,
+					expression.evaluateAsString(source));
+		}
+	}
+
+	private Source[] createSources() throws Exception {
+		DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+		documentBuilderFactory.setNamespaceAware(true);
+		Document document = documentBuilderFactory.newDocumentBuilder().parse(new InputSource(new StringReader(XML)));
+		XMLStreamReader streamReader = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(XML));
+		return new Source[]{new StringSource(XML), new DOMSource(document),
+				new DOMSource(document.getDocumentElement()), StaxUtils.createStaxSource(streamReader),
+				new SAXSource(new InputSource(new StringReader(XML)))};
+	}
+
+}